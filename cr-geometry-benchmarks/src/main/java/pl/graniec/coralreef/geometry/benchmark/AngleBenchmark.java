@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pl.graniec.coralreef.geometry.Angle;
+
+/**
+ * Angle arithmetic benchmarks.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AngleBenchmark {
+	
+	@Param({"1024", "65536"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private Angle[] angles;
+	private float[] from, to, result;
+	
+	@Setup
+	public void setUp() {
+		final float[] degrees = Inputs.angles(distribution, size);
+		
+		from = new float[size - 1];
+		to = new float[size - 1];
+		result = new float[size - 1];
+		
+		System.arraycopy(degrees, 0, from, 0, size - 1);
+		System.arraycopy(degrees, 1, to, 0, size - 1);
+		
+		angles = new Angle[size];
+		
+		for (int i = 0; i < size; ++i) {
+			angles[i] = Angle.fromDegrees(degrees[i]);
+		}
+	}
+	
+	@Benchmark
+	public void degreeDifference(Blackhole blackhole) {
+		for (int i = 1; i < angles.length; ++i) {
+			blackhole.consume(angles[i - 1].degreeDifference(angles[i]));
+		}
+	}
+	
+	@Benchmark
+	public void degreeDifferencePrimitive(Blackhole blackhole) {
+		for (int i = 0; i < from.length; ++i) {
+			blackhole.consume(Angle.degreeDifference(from[i], to[i]));
+		}
+	}
+	
+	@Benchmark
+	public float[] degreeDifferences() {
+		Angle.degreeDifferences(from, to, result, 0, result.length);
+		return result;
+	}
+	
+	@Benchmark
+	public void radiansValue(Blackhole blackhole) {
+		for (int i = 0; i < angles.length; ++i) {
+			blackhole.consume(angles[i].radiansValue());
+		}
+	}
+}
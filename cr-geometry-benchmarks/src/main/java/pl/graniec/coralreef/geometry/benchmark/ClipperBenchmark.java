@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.graniec.coralreef.geometry.BooleanOperation;
+import pl.graniec.coralreef.geometry.Box2;
+import pl.graniec.coralreef.geometry.BoxClipper;
+import pl.graniec.coralreef.geometry.IndexBuffer;
+import pl.graniec.coralreef.geometry.PointBuffer;
+import pl.graniec.coralreef.geometry.PolygonClipper;
+
+/**
+ * {@link BoxClipper} and {@link PolygonClipper} benchmarks on star
+ * shaped polygons with radii from the input distribution. Box
+ * clipping processes a batch of 256 polygons against a viewport
+ * covering a quarter of them. Boolean operations use the first
+ * polygon and its copy moved by (0.5, 0.25).
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClipperBenchmark {
+	
+	private static final int POLYGONS = 256;
+	
+	@Param({"16", "256"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	/** Verticles of all polygons, one after another */
+	private float[] xs;
+	private float[] ys;
+	
+	/** Moved copy of the first polygon */
+	private float[] clipXs;
+	private float[] clipYs;
+	
+	private final Box2 viewport = new Box2(-1000, -1000, 0, 0);
+	private final BoxClipper boxClipper = new BoxClipper();
+	private final PolygonClipper polygonClipper = new PolygonClipper();
+	private final PointBuffer result = new PointBuffer();
+	private final IndexBuffer ringStarts = new IndexBuffer();
+	
+	@Setup
+	public void setUp() {
+		final float[] radii = Inputs.coordinates(distribution, POLYGONS * size);
+		final float[] centers = Inputs.coordinates(Inputs.RANDOM, POLYGONS);
+		
+		xs = new float[POLYGONS * size];
+		ys = new float[POLYGONS * size];
+		
+		for (int p = 0; p < POLYGONS; ++p) {
+			for (int i = 0; i < size; ++i) {
+				final int v = p * size + i;
+				final double angle = 2 * Math.PI * i / size;
+				final double radius = 1 + Math.abs(radii[2 * v]) * 0.1;
+				
+				xs[v] = (float) (centers[2 * p] + radius * Math.cos(angle));
+				ys[v] = (float) (centers[2 * p + 1] + radius * Math.sin(angle));
+			}
+		}
+		
+		clipXs = new float[size];
+		clipYs = new float[size];
+		
+		for (int i = 0; i < size; ++i) {
+			clipXs[i] = xs[i] + 0.5f;
+			clipYs[i] = ys[i] + 0.25f;
+		}
+	}
+	
+	@Benchmark
+	public PointBuffer boxClip() {
+		result.clear();
+		
+		for (int p = 0; p < POLYGONS; ++p) {
+			boxClipper.clip(xs, ys, p * size, size, viewport, result);
+		}
+		
+		return result;
+	}
+	
+	@Benchmark
+	public PointBuffer intersection() {
+		result.clear();
+		ringStarts.clear();
+		
+		polygonClipper.clip(
+				xs, ys, 0, size, clipXs, clipYs, 0, size,
+				BooleanOperation.INTERSECTION, result, ringStarts
+		);
+		
+		return result;
+	}
+	
+	@Benchmark
+	public PointBuffer union() {
+		result.clear();
+		ringStarts.clear();
+		
+		polygonClipper.clip(
+				xs, ys, 0, size, clipXs, clipYs, 0, size,
+				BooleanOperation.UNION, result, ringStarts
+		);
+		
+		return result;
+	}
+}
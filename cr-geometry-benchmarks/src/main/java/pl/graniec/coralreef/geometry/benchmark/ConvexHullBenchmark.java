@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.graniec.coralreef.geometry.ConvexHull;
+import pl.graniec.coralreef.geometry.Geometry;
+import pl.graniec.coralreef.geometry.IndexBuffer;
+import pl.graniec.coralreef.geometry.VerticlesOrder;
+
+/**
+ * Convex hull benchmarks. Point clouds larger than
+ * {@link ConvexHull#CHUNK_SIZE} use the parallel path.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvexHullBenchmark {
+	
+	@Param({"1024", "65536", "1048576"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private Geometry geometry;
+	private float[] xs, ys;
+	private final IndexBuffer indices = new IndexBuffer();
+	
+	@Setup
+	public void setUp() {
+		final float[] xy = Inputs.coordinates(distribution, size);
+		
+		geometry = new Geometry();
+		geometry.addVerticles(xy, 0, size);
+		
+		xs = new float[size];
+		ys = new float[size];
+		
+		for (int i = 0; i < size; ++i) {
+			xs[i] = xy[i * 2];
+			ys[i] = xy[i * 2 + 1];
+		}
+	}
+	
+	@Benchmark
+	public Geometry geometry() {
+		return ConvexHull.compute(geometry, VerticlesOrder.CCW);
+	}
+	
+	@Benchmark
+	public IndexBuffer indices() {
+		indices.clear();
+		ConvexHull.indices(xs, ys, 0, size, VerticlesOrder.CCW, indices);
+		return indices;
+	}
+}
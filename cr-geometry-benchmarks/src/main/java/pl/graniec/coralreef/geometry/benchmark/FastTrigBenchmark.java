@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pl.graniec.coralreef.geometry.FastTrig;
+import pl.graniec.coralreef.geometry.Vector2;
+
+/**
+ * Compares lookup table trigonometry with <code>java.lang.Math</code>
+ * for different table resolutions. Error bounds of the same
+ * configurations are checked by <code>FastTrigTest</code>.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastTrigBenchmark {
+	
+	@Param({"65536"})
+	public int size;
+	
+	@Param({"256", "4096", "65536"})
+	public int resolution;
+	
+	@Param({"true", "false"})
+	public boolean interpolate;
+	
+	private float[] angles;
+	private float[] xy;
+	private FastTrig trig;
+	
+	@Setup
+	public void setUp() {
+		angles = Inputs.angles(Inputs.RANDOM, size);
+		xy = Inputs.coordinates(Inputs.RANDOM, size);
+		trig = new FastTrig(resolution, interpolate);
+	}
+	
+	@Benchmark
+	public void sinCos(Blackhole blackhole) {
+		for (int i = 0; i < angles.length; ++i) {
+			blackhole.consume(trig.sinDegrees(angles[i]));
+			blackhole.consume(trig.cosDegrees(angles[i]));
+		}
+	}
+	
+	@Benchmark
+	public void sinCosMath(Blackhole blackhole) {
+		for (int i = 0; i < angles.length; ++i) {
+			blackhole.consume((float) Math.sin(Math.toRadians(angles[i])));
+			blackhole.consume((float) Math.cos(Math.toRadians(angles[i])));
+		}
+	}
+	
+	@Benchmark
+	public void atan2(Blackhole blackhole) {
+		for (int i = 0; i < xy.length; i += 2) {
+			blackhole.consume(trig.atan2Degrees(xy[i + 1], xy[i]));
+		}
+	}
+	
+	@Benchmark
+	public void vectorFromAngle(Blackhole blackhole) {
+		for (int i = 0; i < angles.length; ++i) {
+			blackhole.consume(Vector2.fromAngle(angles[i], trig));
+		}
+	}
+}
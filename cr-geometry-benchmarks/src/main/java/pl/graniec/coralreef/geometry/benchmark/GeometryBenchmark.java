@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.graniec.coralreef.geometry.Box2;
+import pl.graniec.coralreef.geometry.Geometry;
+import pl.graniec.coralreef.geometry.ParallelGeometry;
+import pl.graniec.coralreef.geometry.Point2;
+
+/**
+ * Geometry copying and bulk operation benchmarks, sequential
+ * and {@link ParallelGeometry} ones.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+	
+	@Param({"1024", "1048576"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private Geometry geometry;
+	private float[] xy;
+	private final Box2 bounds = new Box2(0, 0, 0, 0);
+	
+	@Setup
+	public void setUp() {
+		xy = Inputs.coordinates(distribution, size);
+		geometry = new Geometry();
+		geometry.addVerticles(xy, 0, size);
+	}
+	
+	@Benchmark
+	public Geometry copy() {
+		return new Geometry(geometry);
+	}
+	
+	@Benchmark
+	public Geometry addVerticles() {
+		final Geometry result = new Geometry();
+		result.addVerticles(xy, 0, size);
+		return result;
+	}
+	
+	@Benchmark
+	public Point2[] getVerticles() {
+		return geometry.getVerticles();
+	}
+	
+	@Benchmark
+	public Box2 getBounds() {
+		geometry.getBounds(bounds);
+		return bounds;
+	}
+	
+	@Benchmark
+	public Box2 translateAndGetBounds() {
+		geometry.translate(1f, -1f);
+		geometry.getBounds(bounds);
+		return bounds;
+	}
+	
+	@Benchmark
+	public Geometry translate() {
+		geometry.translate(1f, -1f);
+		return geometry;
+	}
+	
+	@Benchmark
+	public Geometry parallelTranslate() {
+		ParallelGeometry.translate(geometry, 1f, -1f);
+		return geometry;
+	}
+	
+	@Benchmark
+	public Geometry parallelTransform() {
+		ParallelGeometry.transform(geometry, 0f, -1f, 1f, 1f, 0f, -1f);
+		return geometry;
+	}
+	
+	@Benchmark
+	public Box2 parallelBounds() {
+		ParallelGeometry.bounds(geometry, bounds);
+		return bounds;
+	}
+	
+	@Benchmark
+	public Point2 parallelCentroid() {
+		return ParallelGeometry.centroid(geometry);
+	}
+	
+	@Benchmark
+	public int parallelNearest() {
+		return ParallelGeometry.nearest(geometry, 0.5f, 0.5f);
+	}
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.graniec.coralreef.geometry.Geometry;
+import pl.graniec.coralreef.geometry.GeometryReader;
+import pl.graniec.coralreef.geometry.GeometryWriter;
+
+/**
+ * Benchmarks of writing and reading a geometry file with float and
+ * quantized encodings.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryIOBenchmark {
+	
+	/** Quantum of the quantized encoding */
+	private static final float QUANTUM = 0.01f;
+	
+	@Param({"1024", "1048576"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private Geometry geometry;
+	private File output;
+	private File floats;
+	private File quantized;
+	
+	@Setup
+	public void setUp() throws IOException {
+		geometry = new Geometry();
+		geometry.addVerticles(Inputs.coordinates(distribution, size), 0, size);
+		
+		output = File.createTempFile("benchmark", ".bin");
+		floats = File.createTempFile("benchmark", ".bin");
+		quantized = File.createTempFile("benchmark", ".bin");
+		
+		GeometryWriter writer = new GeometryWriter(new FileOutputStream(floats).getChannel());
+		writer.write(geometry);
+		writer.close();
+		
+		writer = new GeometryWriter(new FileOutputStream(quantized).getChannel());
+		writer.write(geometry, QUANTUM);
+		writer.close();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		output.delete();
+		floats.delete();
+		quantized.delete();
+	}
+	
+	@Benchmark
+	public File writeFloats() throws IOException {
+		final GeometryWriter writer = new GeometryWriter(new FileOutputStream(output).getChannel());
+		writer.write(geometry);
+		writer.close();
+		return output;
+	}
+	
+	@Benchmark
+	public File writeQuantized() throws IOException {
+		final GeometryWriter writer = new GeometryWriter(new FileOutputStream(output).getChannel());
+		writer.write(geometry, QUANTUM);
+		writer.close();
+		return output;
+	}
+	
+	@Benchmark
+	public Geometry readFloats() throws IOException {
+		return read(floats);
+	}
+	
+	@Benchmark
+	public Geometry readQuantized() throws IOException {
+		return read(quantized);
+	}
+	
+	private static Geometry read(final File file) throws IOException {
+		final GeometryReader reader = new GeometryReader(new FileInputStream(file).getChannel());
+		
+		try {
+			return reader.read();
+		} finally {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.Random;
+
+import pl.graniec.coralreef.geometry.Point2;
+import pl.graniec.coralreef.geometry.Segment;
+
+/**
+ * Generates benchmark input data.
+ * <p>
+ * Supported distributions are:
+ * <ul>
+ * <li><code>random</code> - uniformly distributed coordinates,</li>
+ * <li><code>degenerate</code> - coordinates snapped to a small integer grid
+ * that gives many common ends, zero-length segments and touching shapes,</li>
+ * <li><code>collinear</code> - all points laying on the same line.</li>
+ * </ul>
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class Inputs {
+	
+	public static final String RANDOM = "random";
+	public static final String DEGENERATE = "degenerate";
+	public static final String COLLINEAR = "collinear";
+	
+	/** Fixed seed so every run measures the same data */
+	private static final long SEED = 0x5EED;
+	
+	private Inputs() {
+	}
+	
+	/**
+	 * Creates interleaved <code>x0, y0, x1, y1, ...</code> coordinates
+	 * of <code>count</code> points.
+	 */
+	public static float[] coordinates(String distribution, int count) {
+		final Random random = new Random(SEED);
+		final float[] result = new float[count * 2];
+		
+		for (int i = 0; i < result.length; i += 2) {
+			if (RANDOM.equals(distribution)) {
+				result[i] = random.nextFloat() * 2000f - 1000f;
+				result[i + 1] = random.nextFloat() * 2000f - 1000f;
+			} else if (DEGENERATE.equals(distribution)) {
+				result[i] = random.nextInt(8);
+				result[i + 1] = random.nextInt(8);
+			} else if (COLLINEAR.equals(distribution)) {
+				final float t = random.nextFloat() * 2000f - 1000f;
+				result[i] = t;
+				result[i + 1] = 0.5f * t + 3f;
+			} else {
+				throw new IllegalArgumentException("unknown distribution: " + distribution);
+			}
+		}
+		
+		return result;
+	}
+	
+	public static Point2[] points(String distribution, int count) {
+		final float[] xy = coordinates(distribution, count);
+		final Point2[] result = new Point2[count];
+		
+		for (int i = 0; i < count; ++i) {
+			result[i] = new Point2(xy[2 * i], xy[2 * i + 1]);
+		}
+		
+		return result;
+	}
+	
+	public static Segment[] segments(String distribution, int count) {
+		final float[] xy = coordinates(distribution, count * 2);
+		final Segment[] result = new Segment[count];
+		
+		for (int i = 0; i < count; ++i) {
+			result[i] = new Segment(xy[4 * i], xy[4 * i + 1], xy[4 * i + 2], xy[4 * i + 3]);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Creates angles in degrees. For <code>degenerate</code> distribution
+	 * all angles are multiplies of 90 degrees and for <code>collinear</code>
+	 * they differ by exactly 180 degrees.
+	 */
+	public static float[] angles(String distribution, int count) {
+		final Random random = new Random(SEED);
+		final float[] result = new float[count];
+		
+		for (int i = 0; i < count; ++i) {
+			if (RANDOM.equals(distribution)) {
+				result[i] = random.nextFloat() * 1440f - 720f;
+			} else if (DEGENERATE.equals(distribution)) {
+				result[i] = random.nextInt(9) * 90f - 360f;
+			} else if (COLLINEAR.equals(distribution)) {
+				result[i] = (i % 2) * 180f + 45f;
+			} else {
+				throw new IllegalArgumentException("unknown distribution: " + distribution);
+			}
+		}
+		
+		return result;
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.graniec.coralreef.geometry.Point2;
+import pl.graniec.coralreef.geometry.PointHashMap;
+import pl.graniec.coralreef.geometry.PointHashSet;
+
+/**
+ * Verticle welding benchmarks. Every operation gives each verticle
+ * the index of the first equal one, using {@link PointHashMap} or a
+ * {@link HashMap} of {@link Point2} keys, or just deduplicates them.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointHashBenchmark {
+	
+	@Param({"1024", "1048576"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private float[] xy;
+	private int[] indices;
+	
+	@Setup
+	public void setUp() {
+		xy = Inputs.coordinates(distribution, size);
+		indices = new int[size];
+	}
+	
+	@Benchmark
+	public int[] pointHashMap() {
+		final PointHashMap map = new PointHashMap(size);
+		
+		for (int i = 0; i < size; ++i) {
+			indices[i] = map.putIfAbsent(xy[2 * i], xy[2 * i + 1], map.size());
+		}
+		
+		return indices;
+	}
+	
+	@Benchmark
+	public int[] pointHashMapWelding() {
+		final PointHashMap map = new PointHashMap(size, 0.01f);
+		
+		for (int i = 0; i < size; ++i) {
+			indices[i] = map.putIfAbsent(xy[2 * i], xy[2 * i + 1], map.size());
+		}
+		
+		return indices;
+	}
+	
+	@Benchmark
+	public int[] hashMap() {
+		final Map<Point2, Integer> map = new HashMap<Point2, Integer>(size * 2);
+		
+		for (int i = 0; i < size; ++i) {
+			final Point2 key = new Point2(xy[2 * i], xy[2 * i + 1]);
+			Integer index = map.get(key);
+			
+			if (index == null) {
+				index = Integer.valueOf(map.size());
+				map.put(key, index);
+			}
+			
+			indices[i] = index.intValue();
+		}
+		
+		return indices;
+	}
+	
+	@Benchmark
+	public PointHashSet pointHashSet() {
+		final PointHashSet set = new PointHashSet(size);
+		
+		for (int i = 0; i < size; ++i) {
+			set.add(xy[2 * i], xy[2 * i + 1]);
+		}
+		
+		return set;
+	}
+	
+	@Benchmark
+	public Set<Point2> hashSet() {
+		final Set<Point2> set = new HashSet<Point2>(size * 2);
+		
+		for (int i = 0; i < size; ++i) {
+			set.add(new Point2(xy[2 * i], xy[2 * i + 1]));
+		}
+		
+		return set;
+	}
+}
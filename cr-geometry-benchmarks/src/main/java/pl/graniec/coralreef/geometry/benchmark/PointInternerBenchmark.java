@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pl.graniec.coralreef.geometry.ImmutablePoint2;
+import pl.graniec.coralreef.geometry.Point2;
+import pl.graniec.coralreef.geometry.PointInterner;
+
+/**
+ * Point creation benchmarks comparing new mutable points, new
+ * immutable points and ones shared through {@link PointInterner}.
+ * Coordinates are snapped to an integer grid so they repeat.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointInternerBenchmark {
+	
+	@Param({"1024", "65536"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private float[] xy;
+	private PointInterner interner;
+	
+	@Setup
+	public void setUp() {
+		xy = Inputs.coordinates(distribution, size);
+		
+		for (int i = 0; i < xy.length; ++i) {
+			xy[i] = Math.round(xy[i] / 64f);
+		}
+		
+		interner = new PointInterner();
+	}
+	
+	@Benchmark
+	public void newPoint2(Blackhole blackhole) {
+		for (int i = 0; i < xy.length; i += 2) {
+			blackhole.consume(new Point2(xy[i], xy[i + 1]));
+		}
+	}
+	
+	@Benchmark
+	public void newImmutablePoint2(Blackhole blackhole) {
+		for (int i = 0; i < xy.length; i += 2) {
+			blackhole.consume(new ImmutablePoint2(xy[i], xy[i + 1]));
+		}
+	}
+	
+	@Benchmark
+	public void intern(Blackhole blackhole) {
+		for (int i = 0; i < xy.length; i += 2) {
+			blackhole.consume(interner.intern(xy[i], xy[i + 1]));
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pl.graniec.coralreef.geometry.Predicates;
+import pl.graniec.coralreef.geometry.Segment;
+
+/**
+ * Robust predicate benchmarks. Degenerate and collinear inputs make
+ * the predicates fall back to exact arithmetic often, random inputs
+ * show the cost of the fast path. Every operation tests each segment
+ * with the next one, so results are given per <code>size</code> tests.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredicatesBenchmark {
+	
+	@Param({"1024", "65536"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private Segment[] segments;
+	
+	@Setup
+	public void setUp() {
+		segments = Inputs.segments(distribution, size);
+	}
+	
+	@Benchmark
+	public void orient2d(Blackhole blackhole) {
+		for (int i = 1; i < segments.length; ++i) {
+			final Segment s = segments[i - 1];
+			blackhole.consume(Predicates.orient2d(s.x1, s.y1, s.x2, s.y2, segments[i].x1, segments[i].y1));
+		}
+	}
+	
+	@Benchmark
+	public void incircle(Blackhole blackhole) {
+		for (int i = 1; i < segments.length; ++i) {
+			final Segment s = segments[i - 1];
+			final Segment o = segments[i];
+			blackhole.consume(Predicates.incircle(s.x1, s.y1, s.x2, s.y2, o.x1, o.y1, o.x2, o.y2));
+		}
+	}
+	
+	@Benchmark
+	public void intersects(Blackhole blackhole) {
+		for (int i = 1; i < segments.length; ++i) {
+			blackhole.consume(segments[i - 1].intersects(segments[i]));
+		}
+	}
+	
+	@Benchmark
+	public void robustIntersects(Blackhole blackhole) {
+		for (int i = 1; i < segments.length; ++i) {
+			blackhole.consume(segments[i - 1].robustIntersects(segments[i]));
+		}
+	}
+}
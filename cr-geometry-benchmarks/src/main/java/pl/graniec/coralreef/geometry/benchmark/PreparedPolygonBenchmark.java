@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.graniec.coralreef.geometry.Geometry;
+import pl.graniec.coralreef.geometry.PreparedPolygon;
+
+/**
+ * {@link PreparedPolygon} point-in-polygon benchmarks against the
+ * crossing number test over all edges. The polygon is a star with
+ * <code>size</code> verticles and radii from the input distribution,
+ * queries are 4096 points from the same distribution.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreparedPolygonBenchmark {
+	
+	private static final int QUERIES = 4096;
+	
+	@Param({"1024", "16384"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private float[] xs;
+	private float[] ys;
+	private Geometry geometry;
+	private PreparedPolygon polygon;
+	
+	private final float[] queryXs = new float[QUERIES];
+	private final float[] queryYs = new float[QUERIES];
+	private final boolean[] result = new boolean[QUERIES];
+	
+	@Setup
+	public void setUp() {
+		final float[] radii = Inputs.coordinates(distribution, size);
+		
+		xs = new float[size];
+		ys = new float[size];
+		geometry = new Geometry();
+		
+		for (int i = 0; i < size; ++i) {
+			final double angle = 2 * Math.PI * i / size;
+			final double radius = 1 + Math.abs(radii[2 * i]);
+			
+			xs[i] = (float) (radius * Math.cos(angle));
+			ys[i] = (float) (radius * Math.sin(angle));
+			geometry.addVerticle(xs[i], ys[i]);
+		}
+		
+		polygon = new PreparedPolygon(geometry);
+		
+		final float[] xy = Inputs.coordinates(distribution, QUERIES);
+		
+		for (int i = 0; i < QUERIES; ++i) {
+			queryXs[i] = xy[2 * i];
+			queryYs[i] = xy[2 * i + 1];
+		}
+	}
+	
+	@Benchmark
+	public PreparedPolygon prepare() {
+		return new PreparedPolygon(geometry);
+	}
+	
+	@Benchmark
+	public int naiveContains() {
+		int count = 0;
+		
+		for (int q = 0; q < QUERIES; ++q) {
+			final float x = queryXs[q];
+			final float y = queryYs[q];
+			boolean inside = false;
+			
+			for (int i = 0, j = size - 1; i < size; j = i++) {
+				if (
+						(ys[j] > y) != (ys[i] > y) &&
+						x < ((double) xs[i] - xs[j]) * ((double) y - ys[j]) / ((double) ys[i] - ys[j]) + xs[j]
+				) {
+					inside = !inside;
+				}
+			}
+			
+			if (inside) {
+				++count;
+			}
+		}
+		
+		return count;
+	}
+	
+	@Benchmark
+	public int preparedContains() {
+		int count = 0;
+		
+		for (int q = 0; q < QUERIES; ++q) {
+			if (polygon.contains(queryXs[q], queryYs[q])) {
+				++count;
+			}
+		}
+		
+		return count;
+	}
+	
+	@Benchmark
+	public int preparedBatchContains() {
+		return polygon.contains(queryXs, queryYs, 0, QUERIES, result);
+	}
+}
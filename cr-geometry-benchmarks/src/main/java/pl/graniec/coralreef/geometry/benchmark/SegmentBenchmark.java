@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pl.graniec.coralreef.geometry.Point2;
+import pl.graniec.coralreef.geometry.Segment;
+
+/**
+ * Segment intersection benchmarks. Every operation tests each segment
+ * with the next one, so results are given per <code>size</code> tests.
+ * The allocation rate of the non-allocating variants should be zero.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegmentBenchmark {
+	
+	@Param({"1024", "65536"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private Segment[] segments;
+	private final Point2 result = new Point2(0, 0);
+	
+	@Setup
+	public void setUp() {
+		segments = Inputs.segments(distribution, size);
+	}
+	
+	@Benchmark
+	public void intersectionPoint(Blackhole blackhole) {
+		for (int i = 1; i < segments.length; ++i) {
+			blackhole.consume(segments[i - 1].intersectionPoint(segments[i]));
+		}
+	}
+	
+	@Benchmark
+	public void intersectionPointInto(Blackhole blackhole) {
+		for (int i = 1; i < segments.length; ++i) {
+			blackhole.consume(segments[i - 1].intersectionPoint(segments[i], result));
+		}
+	}
+	
+	@Benchmark
+	public void intersectionParameter(Blackhole blackhole) {
+		for (int i = 1; i < segments.length; ++i) {
+			blackhole.consume(segments[i - 1].intersectionParameter(segments[i]));
+		}
+	}
+	
+	@Benchmark
+	public void intersects(Blackhole blackhole) {
+		for (int i = 1; i < segments.length; ++i) {
+			blackhole.consume(segments[i - 1].intersects(segments[i]));
+		}
+	}
+	
+	@Benchmark
+	public void length(Blackhole blackhole) {
+		for (int i = 0; i < segments.length; ++i) {
+			blackhole.consume(segments[i].length());
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.graniec.coralreef.geometry.Geometry;
+import pl.graniec.coralreef.geometry.IndexBuffer;
+import pl.graniec.coralreef.geometry.PointBuffer;
+import pl.graniec.coralreef.geometry.Simplifier;
+import pl.graniec.coralreef.geometry.StreamingSimplifier;
+
+/**
+ * {@link Simplifier} and {@link StreamingSimplifier} benchmarks on
+ * track-like polylines: X grows steadily and Y walks by steps taken
+ * from the input distribution.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimplifierBenchmark {
+	
+	private static final float TOLERANCE = 0.5f;
+	
+	@Param({"1024", "262144"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private Geometry track;
+	private float[] xs;
+	private float[] ys;
+	private final IndexBuffer indices = new IndexBuffer();
+	private final PointBuffer output = new PointBuffer();
+	
+	@Setup
+	public void setUp() {
+		final float[] steps = Inputs.coordinates(distribution, size);
+		
+		track = new Geometry();
+		xs = new float[size];
+		ys = new float[size];
+		
+		float y = 0;
+		
+		for (int i = 0; i < size; ++i) {
+			y += steps[2 * i + 1] * 0.001f;
+			
+			xs[i] = i * 0.01f;
+			ys[i] = y;
+			track.addVerticle(xs[i], ys[i]);
+		}
+	}
+	
+	@Benchmark
+	public IndexBuffer douglasPeuckerIndices() {
+		indices.clear();
+		Simplifier.douglasPeucker(xs, ys, 0, size, TOLERANCE, indices);
+		return indices;
+	}
+	
+	@Benchmark
+	public Geometry douglasPeuckerCopy() {
+		return Simplifier.douglasPeucker(track, TOLERANCE);
+	}
+	
+	@Benchmark
+	public IndexBuffer visvalingamIndices() {
+		indices.clear();
+		Simplifier.visvalingam(xs, ys, 0, size, TOLERANCE * TOLERANCE, indices);
+		return indices;
+	}
+	
+	@Benchmark
+	public PointBuffer streaming() {
+		output.clear();
+		
+		final StreamingSimplifier simplifier = new StreamingSimplifier(TOLERANCE, output);
+		
+		for (int i = 0; i < size; ++i) {
+			simplifier.add(xs[i], ys[i]);
+		}
+		
+		simplifier.finish();
+		
+		return output;
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.graniec.coralreef.geometry.Geometry;
+import pl.graniec.coralreef.geometry.Point2;
+import pl.graniec.coralreef.geometry.Segment;
+import pl.graniec.coralreef.geometry.Transform2;
+
+/**
+ * Affine transformation benchmarks. Compares a single fused
+ * {@link Transform2} pass with separate scale, rotate and translate
+ * passes written by hand.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Transform2Benchmark {
+	
+	@Param({"1024", "1048576"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	/** Transformation that keeps coordinates bounded over iterations */
+	private final Transform2 transform = new Transform2().scale(1.001f, 0.999f).rotate(1).translate(0.5f, -0.5f);
+	
+	private Geometry geometry;
+	private Point2[] points;
+	private Segment[] segments;
+	
+	@Setup
+	public void setUp() {
+		geometry = new Geometry();
+		geometry.addVerticles(Inputs.coordinates(distribution, size), 0, size);
+		points = Inputs.points(distribution, size);
+		segments = Inputs.segments(distribution, size);
+	}
+	
+	@Benchmark
+	public Geometry geometry() {
+		transform.apply(geometry);
+		return geometry;
+	}
+	
+	@Benchmark
+	public Point2[] points() {
+		transform.apply(points, 0, points.length);
+		return points;
+	}
+	
+	@Benchmark
+	public Point2[] pointsSeparatePasses() {
+		final float cos = (float) Math.cos(Math.toRadians(1));
+		final float sin = (float) Math.sin(Math.toRadians(1));
+		
+		for (int i = 0; i < points.length; ++i) {
+			points[i].x *= 1.001f;
+			points[i].y *= 0.999f;
+		}
+		
+		for (int i = 0; i < points.length; ++i) {
+			final float x = points[i].x;
+			final float y = points[i].y;
+			points[i].x = cos * x - sin * y;
+			points[i].y = sin * x + cos * y;
+		}
+		
+		for (int i = 0; i < points.length; ++i) {
+			points[i].x += 0.5f;
+			points[i].y -= 0.5f;
+		}
+		
+		return points;
+	}
+	
+	@Benchmark
+	public Segment[] segments() {
+		transform.apply(segments, 0, segments.length);
+		return segments;
+	}
+}
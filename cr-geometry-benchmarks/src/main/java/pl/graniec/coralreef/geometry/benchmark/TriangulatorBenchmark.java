@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pl.graniec.coralreef.geometry.Geometry;
+import pl.graniec.coralreef.geometry.IndexBuffer;
+import pl.graniec.coralreef.geometry.Triangle;
+import pl.graniec.coralreef.geometry.Triangulator;
+
+/**
+ * {@link Triangulator} benchmarks on star shaped polygons. Radius of
+ * each verticle comes from the input distribution, so
+ * <code>degenerate</code> gives many collinear and repeated radii.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriangulatorBenchmark {
+	
+	@Param({"64", "1024", "65536"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private float[] xs;
+	private float[] ys;
+	private Geometry polygon;
+	private final IndexBuffer indices = new IndexBuffer();
+	
+	@Setup
+	public void setUp() {
+		final float[] radii = Inputs.coordinates(distribution, size);
+		
+		xs = new float[size];
+		ys = new float[size];
+		polygon = new Geometry();
+		
+		for (int i = 0; i < size; ++i) {
+			final double angle = 2 * Math.PI * i / size;
+			final double radius = 1 + Math.abs(radii[2 * i]);
+			
+			xs[i] = (float) (radius * Math.cos(angle));
+			ys[i] = (float) (radius * Math.sin(angle));
+			polygon.addVerticle(xs[i], ys[i]);
+		}
+	}
+	
+	@Benchmark
+	public IndexBuffer indices() {
+		indices.clear();
+		Triangulator.triangulate(xs, ys, 0, size, null, indices);
+		return indices;
+	}
+	
+	@Benchmark
+	public Triangle[] triangles() {
+		return Triangulator.triangulate(polygon);
+	}
+}
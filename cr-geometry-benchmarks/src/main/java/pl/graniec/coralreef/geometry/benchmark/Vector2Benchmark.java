@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pl.graniec.coralreef.geometry.Vector2;
+
+/**
+ * Vector angle and length benchmarks.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector2Benchmark {
+	
+	@Param({"1024", "65536"})
+	public int size;
+	
+	@Param({Inputs.RANDOM, Inputs.DEGENERATE, Inputs.COLLINEAR})
+	public String distribution;
+	
+	private float[] xy;
+	private float[] angles;
+	
+	@Setup
+	public void setUp() {
+		xy = Inputs.coordinates(distribution, size);
+		angles = Inputs.angles(distribution, size);
+	}
+	
+	@Benchmark
+	public void angle(Blackhole blackhole) {
+		for (int i = 0; i < xy.length; i += 2) {
+			blackhole.consume(Vector2.angle(xy[i], xy[i + 1]));
+		}
+	}
+	
+	@Benchmark
+	public void angleApprox(Blackhole blackhole) {
+		for (int i = 0; i < xy.length; i += 2) {
+			blackhole.consume(Vector2.angleApprox(xy[i], xy[i + 1]));
+		}
+	}
+	
+	/**
+	 * The implementation of {@link Vector2#angle(float, float)} before
+	 * it was changed to use <code>atan2</code>; kept as a baseline.
+	 */
+	@Benchmark
+	public void angleAcosAsin(Blackhole blackhole) {
+		for (int i = 0; i < xy.length; i += 2) {
+			final float length = Vector2.length(xy[i], xy[i + 1]);
+			final float[] n = new float[] {xy[i] / length, xy[i + 1] / length};
+			
+			final float acos = (float) Math.toDegrees(Math.acos(n[0]));
+			final float asin = (float) Math.toDegrees(Math.asin(n[1]));
+			
+			blackhole.consume(asin >= 0 ? acos : -acos);
+		}
+	}
+	
+	@Benchmark
+	public void length(Blackhole blackhole) {
+		for (int i = 0; i < xy.length; i += 2) {
+			blackhole.consume(Vector2.length(xy[i], xy[i + 1]));
+		}
+	}
+	
+	@Benchmark
+	public void fromAngle(Blackhole blackhole) {
+		for (int i = 0; i < angles.length; ++i) {
+			blackhole.consume(new Vector2(angles[i]));
+		}
+	}
+}
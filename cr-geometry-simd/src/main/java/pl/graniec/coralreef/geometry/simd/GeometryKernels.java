@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.simd;
+
+import pl.graniec.coralreef.geometry.Box2;
+import pl.graniec.coralreef.geometry.Line;
+import pl.graniec.coralreef.geometry.Segment;
+
+/**
+ * Batch geometry kernels working on primitive arrays (one array per
+ * coordinate). Every kernel processes elements from <code>off</code>
+ * to <code>off + len - 1</code> and stores the result of element
+ * <code>i</code> at index <code>i</code> of the result array.
+ * <p>
+ * All implementations give bit-identical results, equal to the
+ * results of matching methods of the geometry classes.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ * 
+ * @see Kernels
+ */
+public interface GeometryKernels {
+	
+	/**
+	 * Calculates distances from points to given <code>line</code>.
+	 * 
+	 * @see pl.graniec.coralreef.geometry.Point2#distanceTo(Line)
+	 */
+	void lineDistances(Line line, float[] xs, float[] ys, int off, int len, float[] result);
+	
+	/**
+	 * Tests <code>segment</code> against segments
+	 * (<code>x1[i]</code>, <code>y1[i]</code>, <code>x2[i]</code>, <code>y2[i]</code>).
+	 * 
+	 * @see Segment#intersects(Segment)
+	 */
+	void intersects(Segment segment, float[] x1, float[] y1, float[] x2, float[] y2, int off, int len, boolean[] result);
+	
+	/**
+	 * Tests segments (<code>x1[i]</code>, <code>y1[i]</code>, <code>x2[i]</code>, <code>y2[i]</code>)
+	 * against segments (<code>ox1[i]</code>, <code>oy1[i]</code>, <code>ox2[i]</code>, <code>oy2[i]</code>)
+	 * pairwise.
+	 * 
+	 * @see Segment#intersects(float, float, float, float, float, float, float, float)
+	 */
+	void intersects(
+			float[] x1, float[] y1, float[] x2, float[] y2,
+			float[] ox1, float[] oy1, float[] ox2, float[] oy2,
+			int off, int len, boolean[] result
+	);
+	
+	/**
+	 * Moves points by (<code>dx</code>, <code>dy</code>) in place.
+	 */
+	void translate(float[] xs, float[] ys, int off, int len, float dx, float dy);
+	
+	/**
+	 * Computes the bounding box of points. <code>left</code> and
+	 * <code>top</code> of <code>result</code> receive the minimal
+	 * coordinates, <code>right</code> and <code>bottom</code> the maximal
+	 * ones. When <code>len</code> is 0 the box is set to positive
+	 * infinity minimums and negative infinity maximums.
+	 */
+	void bounds(float[] xs, float[] ys, int off, int len, Box2 result);
+	
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.simd;
+
+/**
+ * Access point for {@link GeometryKernels} implementations.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class Kernels {
+	
+	/** Name of the module required by vector kernels */
+	private static final String VECTOR_MODULE = "jdk.incubator.vector";
+	
+	private static final GeometryKernels SCALAR = new ScalarKernels();
+	
+	private static final GeometryKernels DEFAULT =
+		isVectorAvailable() ? new VectorKernels() : SCALAR;
+	
+	private Kernels() {
+	}
+	
+	/**
+	 * Gives the fastest kernels available: vector kernels when
+	 * the <code>jdk.incubator.vector</code> module is present,
+	 * scalar kernels otherwise.
+	 */
+	public static GeometryKernels getDefault() {
+		return DEFAULT;
+	}
+	
+	/**
+	 * Gives the plain Java kernels.
+	 */
+	public static GeometryKernels scalar() {
+		return SCALAR;
+	}
+	
+	/**
+	 * Checks if the vector kernels can be used.
+	 * 
+	 * @return <code>true</code> if the <code>jdk.incubator.vector</code>
+	 * module has been added to the boot layer.
+	 */
+	public static boolean isVectorAvailable() {
+		return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.simd;
+
+import pl.graniec.coralreef.geometry.Box2;
+import pl.graniec.coralreef.geometry.Line;
+import pl.graniec.coralreef.geometry.Segment;
+
+/**
+ * Plain Java kernels. Used when the Vector API is not available
+ * and for the tails of vectorized loops.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+final class ScalarKernels implements GeometryKernels {
+	
+	static void checkRange(int length, int off, int len) {
+		if (off < 0 || len < 0 || off + len > length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len + ",length=" + length);
+		}
+	}
+
+	public void lineDistances(Line line, float[] xs, float[] ys, int off, int len, float[] result) {
+		checkRange(Math.min(Math.min(xs.length, ys.length), result.length), off, len);
+		
+		final float a = line.a;
+		final float b = line.b;
+		final float c = line.c;
+		
+		final double d = Math.sqrt(a * a + b * b);
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			result[i] = (float) (Math.abs(a * xs[i] + b * ys[i] + c) / d);
+		}
+	}
+
+	public void intersects(Segment segment, float[] x1, float[] y1, float[] x2, float[] y2, int off, int len, boolean[] result) {
+		checkRange(Math.min(Math.min(Math.min(x1.length, y1.length), Math.min(x2.length, y2.length)), result.length), off, len);
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			result[i] = Segment.intersects(
+					segment.x1, segment.y1, segment.x2, segment.y2,
+					x1[i], y1[i], x2[i], y2[i]
+			);
+		}
+	}
+
+	public void intersects(
+			float[] x1, float[] y1, float[] x2, float[] y2,
+			float[] ox1, float[] oy1, float[] ox2, float[] oy2,
+			int off, int len, boolean[] result
+	) {
+		checkRange(Math.min(Math.min(Math.min(x1.length, y1.length), Math.min(x2.length, y2.length)), result.length), off, len);
+		checkRange(Math.min(Math.min(ox1.length, oy1.length), Math.min(ox2.length, oy2.length)), off, len);
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			result[i] = Segment.intersects(x1[i], y1[i], x2[i], y2[i], ox1[i], oy1[i], ox2[i], oy2[i]);
+		}
+	}
+
+	public void translate(float[] xs, float[] ys, int off, int len, float dx, float dy) {
+		checkRange(Math.min(xs.length, ys.length), off, len);
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			xs[i] += dx;
+			ys[i] += dy;
+		}
+	}
+
+	public void bounds(float[] xs, float[] ys, int off, int len, Box2 result) {
+		checkRange(Math.min(xs.length, ys.length), off, len);
+		
+		float minX = Float.POSITIVE_INFINITY;
+		float minY = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY;
+		float maxY = Float.NEGATIVE_INFINITY;
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			minX = Math.min(minX, xs[i]);
+			maxX = Math.max(maxX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		
+		result.set(minX, minY, maxX, maxY);
+	}
+
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.simd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import pl.graniec.coralreef.geometry.Box2;
+import pl.graniec.coralreef.geometry.Line;
+import pl.graniec.coralreef.geometry.Segment;
+
+/**
+ * Kernels using the preferred vector shape of the platform (AVX2
+ * or AVX-512 on x86). The lanes repeat the scalar operations one by
+ * one, without fused multiply-add, so the results are identical to
+ * {@link ScalarKernels}. Loop tails are handed to the scalar kernels.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+final class VectorKernels implements GeometryKernels {
+	
+	private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+	
+	/** Lanes of the upper half of a float vector */
+	private static final VectorMask<Float> UPPER_HALF =
+		FLOATS.indexInRange(-FLOATS.length() / 2, FLOATS.length());
+	
+	private final ScalarKernels scalar = new ScalarKernels();
+
+	public void lineDistances(Line line, float[] xs, float[] ys, int off, int len, float[] result) {
+		ScalarKernels.checkRange(Math.min(Math.min(xs.length, ys.length), result.length), off, len);
+		
+		final float a = line.a;
+		final float b = line.b;
+		final float c = line.c;
+		
+		final double d = Math.sqrt(a * a + b * b);
+		
+		final int end = off + len;
+		final int bound = off + FLOATS.loopBound(len);
+		
+		int i = off;
+		
+		for (; i < bound; i += FLOATS.length()) {
+			final FloatVector x = FloatVector.fromArray(FLOATS, xs, i);
+			final FloatVector y = FloatVector.fromArray(FLOATS, ys, i);
+			
+			final FloatVector numerator = x.mul(a).add(y.mul(b)).add(c).abs();
+			
+			// the division is done in double precision like in Point2
+			final DoubleVector lower = (DoubleVector) numerator.convertShape(VectorOperators.F2D, DOUBLES, 0);
+			final DoubleVector upper = (DoubleVector) numerator.convertShape(VectorOperators.F2D, DOUBLES, 1);
+			
+			final FloatVector lowerResult = (FloatVector) lower.div(d).convertShape(VectorOperators.D2F, FLOATS, 0);
+			final FloatVector upperResult = (FloatVector) upper.div(d).convertShape(VectorOperators.D2F, FLOATS, -1);
+			
+			lowerResult.blend(upperResult, UPPER_HALF).intoArray(result, i);
+		}
+		
+		scalar.lineDistances(line, xs, ys, i, end - i, result);
+	}
+
+	public void intersects(Segment segment, float[] x1, float[] y1, float[] x2, float[] y2, int off, int len, boolean[] result) {
+		ScalarKernels.checkRange(Math.min(Math.min(Math.min(x1.length, y1.length), Math.min(x2.length, y2.length)), result.length), off, len);
+		
+		final FloatVector sx1 = FloatVector.broadcast(FLOATS, segment.x1);
+		final FloatVector sy1 = FloatVector.broadcast(FLOATS, segment.y1);
+		final FloatVector sx2 = FloatVector.broadcast(FLOATS, segment.x2);
+		final FloatVector sy2 = FloatVector.broadcast(FLOATS, segment.y2);
+		
+		final int end = off + len;
+		final int bound = off + FLOATS.loopBound(len);
+		
+		int i = off;
+		
+		for (; i < bound; i += FLOATS.length()) {
+			intersects(
+					sx1, sy1, sx2, sy2,
+					FloatVector.fromArray(FLOATS, x1, i),
+					FloatVector.fromArray(FLOATS, y1, i),
+					FloatVector.fromArray(FLOATS, x2, i),
+					FloatVector.fromArray(FLOATS, y2, i)
+			).intoArray(result, i);
+		}
+		
+		scalar.intersects(segment, x1, y1, x2, y2, i, end - i, result);
+	}
+
+	public void intersects(
+			float[] x1, float[] y1, float[] x2, float[] y2,
+			float[] ox1, float[] oy1, float[] ox2, float[] oy2,
+			int off, int len, boolean[] result
+	) {
+		ScalarKernels.checkRange(Math.min(Math.min(Math.min(x1.length, y1.length), Math.min(x2.length, y2.length)), result.length), off, len);
+		ScalarKernels.checkRange(Math.min(Math.min(ox1.length, oy1.length), Math.min(ox2.length, oy2.length)), off, len);
+		
+		final int end = off + len;
+		final int bound = off + FLOATS.loopBound(len);
+		
+		int i = off;
+		
+		for (; i < bound; i += FLOATS.length()) {
+			intersects(
+					FloatVector.fromArray(FLOATS, x1, i),
+					FloatVector.fromArray(FLOATS, y1, i),
+					FloatVector.fromArray(FLOATS, x2, i),
+					FloatVector.fromArray(FLOATS, y2, i),
+					FloatVector.fromArray(FLOATS, ox1, i),
+					FloatVector.fromArray(FLOATS, oy1, i),
+					FloatVector.fromArray(FLOATS, ox2, i),
+					FloatVector.fromArray(FLOATS, oy2, i)
+			).intoArray(result, i);
+		}
+		
+		scalar.intersects(x1, y1, x2, y2, ox1, oy1, ox2, oy2, i, end - i, result);
+	}
+	
+	/**
+	 * Lane-wise version of {@link Segment#intersectionDistance(float, float, float, float, float, float, float, float)}
+	 * where every early return becomes a mask.
+	 */
+	private static VectorMask<Float> intersects(
+			FloatVector x1, FloatVector y1, FloatVector x2, FloatVector y2,
+			FloatVector ox1, FloatVector oy1, FloatVector ox2, FloatVector oy2
+	) {
+		final FloatVector thisX2 = x2.sub(x1);
+		final FloatVector thisY2 = y2.sub(y1);
+		final FloatVector otherW = ox2.sub(ox1);
+		final FloatVector otherH = oy2.sub(oy1);
+		
+		final FloatVector thisLength = thisX2.mul(thisX2).add(thisY2.mul(thisY2)).sqrt();
+		final FloatVector otherLength = otherW.mul(otherW).add(otherH.mul(otherH)).sqrt();
+		
+		// no intersection when one of segments is zero-length
+		VectorMask<Float> result =
+			thisLength.compare(VectorOperators.NE, 0f).and(otherLength.compare(VectorOperators.NE, 0f));
+		
+		// nor when the segments share an end-point
+		result = result.andNot(
+				x1.eq(ox1).and(y1.eq(oy1))
+				.or(x1.eq(ox2).and(y1.eq(oy2)))
+				.or(x2.eq(ox1).and(y2.eq(oy1)))
+				.or(x2.eq(ox2).and(y2.eq(oy2)))
+		);
+		
+		// translate and rotate like the scalar version
+		final FloatVector otherX1 = ox1.sub(x1);
+		final FloatVector otherY1 = oy1.sub(y1);
+		final FloatVector otherX2 = ox2.sub(x1);
+		final FloatVector otherY2 = oy2.sub(y1);
+		
+		final FloatVector cos = thisX2.div(thisLength);
+		final FloatVector sin = thisY2.div(thisLength);
+		
+		final FloatVector newX1 = otherX1.mul(cos).add(otherY1.mul(sin));
+		final FloatVector newY1 = otherY1.mul(cos).sub(otherX1.mul(sin));
+		final FloatVector newX2 = otherX2.mul(cos).add(otherY2.mul(sin));
+		final FloatVector newY2 = otherY2.mul(cos).sub(otherX2.mul(sin));
+		
+		// second segment has to cross the line of first segment
+		result = result.andNot(
+				newY1.lt(0f).and(newY2.lt(0f))
+				.or(newY1.compare(VectorOperators.GE, 0f).and(newY2.compare(VectorOperators.GE, 0f)))
+		);
+		
+		final FloatVector iPos = newX2.add(newX1.sub(newX2).mul(newY2).div(newY2.sub(newY1)));
+		
+		// inside of the first segment (NaN positions fail both tests)
+		return result
+			.and(iPos.compare(VectorOperators.GE, 0f))
+			.and(iPos.compare(VectorOperators.LE, thisLength));
+	}
+
+	public void translate(float[] xs, float[] ys, int off, int len, float dx, float dy) {
+		ScalarKernels.checkRange(Math.min(xs.length, ys.length), off, len);
+		
+		final int end = off + len;
+		final int bound = off + FLOATS.loopBound(len);
+		
+		int i = off;
+		
+		for (; i < bound; i += FLOATS.length()) {
+			FloatVector.fromArray(FLOATS, xs, i).add(dx).intoArray(xs, i);
+			FloatVector.fromArray(FLOATS, ys, i).add(dy).intoArray(ys, i);
+		}
+		
+		scalar.translate(xs, ys, i, end - i, dx, dy);
+	}
+
+	public void bounds(float[] xs, float[] ys, int off, int len, Box2 result) {
+		ScalarKernels.checkRange(Math.min(xs.length, ys.length), off, len);
+		
+		FloatVector minX = FloatVector.broadcast(FLOATS, Float.POSITIVE_INFINITY);
+		FloatVector minY = minX;
+		FloatVector maxX = FloatVector.broadcast(FLOATS, Float.NEGATIVE_INFINITY);
+		FloatVector maxY = maxX;
+		
+		final int end = off + len;
+		final int bound = off + FLOATS.loopBound(len);
+		
+		int i = off;
+		
+		for (; i < bound; i += FLOATS.length()) {
+			final FloatVector x = FloatVector.fromArray(FLOATS, xs, i);
+			final FloatVector y = FloatVector.fromArray(FLOATS, ys, i);
+			
+			minX = minX.min(x);
+			maxX = maxX.max(x);
+			minY = minY.min(y);
+			maxY = maxY.max(y);
+		}
+		
+		// min and max are associative, so the lane order doesn't matter
+		scalar.bounds(xs, ys, i, end - i, result);
+		
+		result.set(
+				Math.min(result.left, minX.reduceLanes(VectorOperators.MIN)),
+				Math.min(result.top, minY.reduceLanes(VectorOperators.MIN)),
+				Math.max(result.right, maxX.reduceLanes(VectorOperators.MAX)),
+				Math.max(result.bottom, maxY.reduceLanes(VectorOperators.MAX))
+		);
+	}
+
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry.simd;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import pl.graniec.coralreef.geometry.Box2;
+import pl.graniec.coralreef.geometry.Line;
+import pl.graniec.coralreef.geometry.Point2;
+import pl.graniec.coralreef.geometry.Segment;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class KernelsTest extends TestCase {
+	
+	private static final int SIZE = 1003;
+	
+	private final GeometryKernels scalar = Kernels.scalar();
+	private GeometryKernels vector;
+	
+	private float[] x1, y1, x2, y2;
+
+	public void setUp() throws Exception {
+		vector = Kernels.isVectorAvailable() ? new VectorKernels() : scalar;
+		
+		final Random random = new Random(12);
+		
+		x1 = new float[SIZE];
+		y1 = new float[SIZE];
+		x2 = new float[SIZE];
+		y2 = new float[SIZE];
+		
+		for (int i = 0; i < SIZE; ++i) {
+			// small integer grid gives plenty of shared ends, touching and collinear segments
+			x1[i] = random.nextInt(8);
+			y1[i] = random.nextInt(8);
+			
+			if (i % 3 == 0) {
+				x2[i] = random.nextInt(8);
+				y2[i] = random.nextInt(8);
+			}
+			else {
+				x2[i] = random.nextFloat() * 8;
+				y2[i] = random.nextFloat() * 8;
+			}
+		}
+	}
+	
+	public void testLineDistances() {
+		final Line line = new Line(new Point2(1, 2), new Point2(4, -3));
+		
+		final float[] expected = new float[SIZE];
+		final float[] actual = new float[SIZE];
+		
+		scalar.lineDistances(line, x1, y1, 1, SIZE - 1, expected);
+		vector.lineDistances(line, x1, y1, 1, SIZE - 1, actual);
+		
+		for (int i = 1; i < SIZE; ++i) {
+			assertEquals(new Point2(x1[i], y1[i]).distanceTo(line), expected[i], 0f);
+		}
+		
+		assertTrue(Arrays.equals(expected, actual));
+	}
+	
+	public void testIntersects() {
+		final Segment segment = new Segment(0, 0, 7, 7);
+		
+		final boolean[] expected = new boolean[SIZE];
+		final boolean[] actual = new boolean[SIZE];
+		
+		scalar.intersects(segment, x1, y1, x2, y2, 0, SIZE, expected);
+		vector.intersects(segment, x1, y1, x2, y2, 0, SIZE, actual);
+		
+		int count = 0;
+		
+		for (int i = 0; i < SIZE; ++i) {
+			assertEquals(segment.intersects(new Segment(x1[i], y1[i], x2[i], y2[i])), expected[i]);
+			
+			if (expected[i]) {
+				++count;
+			}
+		}
+		
+		assertTrue(count > 0);
+		assertTrue(Arrays.equals(expected, actual));
+	}
+	
+	public void testIntersectsPairwise() {
+		final boolean[] expected = new boolean[SIZE - 1];
+		final boolean[] actual = new boolean[SIZE - 1];
+		
+		final float[] ox1 = Arrays.copyOfRange(x1, 1, SIZE);
+		final float[] oy1 = Arrays.copyOfRange(y1, 1, SIZE);
+		final float[] ox2 = Arrays.copyOfRange(x2, 1, SIZE);
+		final float[] oy2 = Arrays.copyOfRange(y2, 1, SIZE);
+		
+		scalar.intersects(x1, y1, x2, y2, ox1, oy1, ox2, oy2, 0, SIZE - 1, expected);
+		vector.intersects(x1, y1, x2, y2, ox1, oy1, ox2, oy2, 0, SIZE - 1, actual);
+		
+		for (int i = 0; i < SIZE - 1; ++i) {
+			final Segment first = new Segment(x1[i], y1[i], x2[i], y2[i]);
+			assertEquals(first.intersects(new Segment(ox1[i], oy1[i], ox2[i], oy2[i])), expected[i]);
+		}
+		
+		assertTrue(Arrays.equals(expected, actual));
+	}
+	
+	public void testTranslate() {
+		final float[] xs = x2.clone();
+		final float[] ys = y2.clone();
+		
+		scalar.translate(x2, y2, 2, SIZE - 2, 0.1f, -3.7f);
+		vector.translate(xs, ys, 2, SIZE - 2, 0.1f, -3.7f);
+		
+		assertTrue(Arrays.equals(x2, xs));
+		assertTrue(Arrays.equals(y2, ys));
+	}
+	
+	public void testBounds() {
+		final Box2 expected = new Box2(0, 0, 0, 0);
+		final Box2 actual = new Box2(0, 0, 0, 0);
+		
+		scalar.bounds(x2, y2, 3, SIZE - 3, expected);
+		vector.bounds(x2, y2, 3, SIZE - 3, actual);
+		
+		assertEquals(expected.left, actual.left, 0f);
+		assertEquals(expected.top, actual.top, 0f);
+		assertEquals(expected.right, actual.right, 0f);
+		assertEquals(expected.bottom, actual.bottom, 0f);
+		
+		assertTrue(expected.left >= 0 && expected.right <= 8);
+		
+		vector.bounds(x2, y2, 0, 0, actual);
+		
+		assertEquals(Float.POSITIVE_INFINITY, actual.left, 0f);
+		assertEquals(Float.NEGATIVE_INFINITY, actual.bottom, 0f);
+	}
+
+}
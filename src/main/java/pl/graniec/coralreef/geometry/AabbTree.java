@@ -0,0 +1,751 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Dynamic tree of axis aligned bounding boxes (bounding volume
+ * hierarchy) for broad-phase queries.
+ * <p>
+ * Every object is represented by a leaf that holds its bounds enlarged
+ * by a margin (fat bounds). Moving an object inside its fat bounds
+ * doesn't change the tree. Leaves are inserted where they increase the
+ * tree perimeter the least and the tree is kept balanced with rotations,
+ * so queries cost <code>O(log n)</code> even if objects have very
+ * different sizes.
+ * <p>
+ * Nodes are kept in pooled primitive arrays, so after the pool has grown
+ * to the needed size updates and queries don't create any objects.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class AabbTree {
+	
+	/** Null node */
+	private static final int NIL = -1;
+	
+	/** Default fat bounds margin */
+	public static final float DEFAULT_MARGIN = 0.1f;
+	
+	/** Margin added to every side of object bounds */
+	private final float margin;
+	
+	/** Fat bounds of nodes */
+	private float[] minX, minY, maxX, maxY;
+	
+	/** Exact bounds of leaves */
+	private float[] leafMinX, leafMinY, leafMaxX, leafMaxY;
+	
+	/** Tree structure; <code>parent</code> links free nodes */
+	private int[] parent, child1, child2, height;
+	
+	/** Objects bound to leaves */
+	private Object[] userData;
+	
+	private int root = NIL, nodeCount, freeNode = NIL, proxyCount;
+	
+	/** Traversal stack */
+	private int[] stack = new int[64];
+	
+	public AabbTree() {
+		this(DEFAULT_MARGIN);
+	}
+	
+	/**
+	 * @param margin Value added to every side of object bounds.
+	 */
+	public AabbTree(float margin) {
+		if (margin < 0f) {
+			throw new IllegalArgumentException("margin cannot be negative: " + margin);
+		}
+		
+		this.margin = margin;
+		
+		allocate(16);
+	}
+	
+	/**
+	 * Copies fat bounds of the <code>proxy</code> into <code>result</code>.
+	 * 
+	 * @return The <code>result</code> object.
+	 */
+	public final Box2 getFatBounds(int proxy, Box2 result) {
+		checkProxy(proxy);
+		result.set(minX[proxy], minY[proxy], maxX[proxy], maxY[proxy]);
+		return result;
+	}
+	
+	/**
+	 * @return Height of the tree; <code>0</code> for single leaf
+	 * and <code>-1</code> for empty tree.
+	 */
+	public final int getHeight() {
+		return root == NIL ? -1 : height[root];
+	}
+	
+	public final Object getUserData(int proxy) {
+		checkProxy(proxy);
+		return userData[proxy];
+	}
+	
+	/**
+	 * Adds object with given <code>bounds</code> to the tree.
+	 * 
+	 * @param bounds Object bounds.
+	 * @param data User object bound to the proxy.
+	 * 
+	 * @return Proxy that identifies the object.
+	 */
+	public int insert(Box2 bounds, Object data) {
+		final int proxy = allocateNode();
+		
+		setLeafBounds(proxy, bounds);
+		
+		minX[proxy] = leafMinX[proxy] - margin;
+		minY[proxy] = leafMinY[proxy] - margin;
+		maxX[proxy] = leafMaxX[proxy] + margin;
+		maxY[proxy] = leafMaxY[proxy] + margin;
+		
+		userData[proxy] = data;
+		height[proxy] = 0;
+		
+		insertLeaf(proxy);
+		++proxyCount;
+		
+		return proxy;
+	}
+	
+	/**
+	 * Works like {@link #move(int, Box2, float, float)} without
+	 * displacement prediction.
+	 */
+	public boolean move(int proxy, Box2 bounds) {
+		return move(proxy, bounds, 0f, 0f);
+	}
+	
+	/**
+	 * Updates the bounds of an object. The tree is changed only when
+	 * new bounds are outside of the fat bounds of the object. New fat
+	 * bounds are extended in direction of the displacement
+	 * (<code>dx</code>, <code>dy</code>) so objects moving steadily
+	 * are reinserted less often.
+	 * 
+	 * @param proxy The object proxy.
+	 * @param bounds New object bounds.
+	 * @param dx Expected displacement on X axis.
+	 * @param dy Expected displacement on Y axis.
+	 * 
+	 * @return <code>true</code> if the object was reinserted.
+	 */
+	public boolean move(int proxy, Box2 bounds, float dx, float dy) {
+		checkProxy(proxy);
+		
+		setLeafBounds(proxy, bounds);
+		
+		if (
+				leafMinX[proxy] >= minX[proxy] && leafMinY[proxy] >= minY[proxy] &&
+				leafMaxX[proxy] <= maxX[proxy] && leafMaxY[proxy] <= maxY[proxy]
+		) {
+			return false;
+		}
+		
+		removeLeaf(proxy);
+		
+		minX[proxy] = leafMinX[proxy] - margin + Math.min(dx, 0f);
+		minY[proxy] = leafMinY[proxy] - margin + Math.min(dy, 0f);
+		maxX[proxy] = leafMaxX[proxy] + margin + Math.max(dx, 0f);
+		maxY[proxy] = leafMaxY[proxy] + margin + Math.max(dy, 0f);
+		
+		insertLeaf(proxy);
+		
+		return true;
+	}
+	
+	/**
+	 * Finds the object nearest to point (<code>x</code>, <code>y</code>).
+	 * Distance is measured to the exact object bounds.
+	 * 
+	 * @return Proxy of the nearest object or <code>-1</code> if the tree
+	 * is empty.
+	 */
+	public int nearest(float x, float y) {
+		int best = NIL;
+		float bestDistance = Float.POSITIVE_INFINITY;
+		
+		int top = push(0, root);
+		
+		while (top > 0) {
+			final int node = stack[--top];
+			
+			if (node == NIL) {
+				continue;
+			}
+			
+			if (height[node] == 0) {
+				final float d = squaredDistance(leafMinX[node], leafMinY[node], leafMaxX[node], leafMaxY[node], x, y);
+				
+				// the first leaf is taken even if its distance overflows
+				if (best == NIL || d < bestDistance) {
+					bestDistance = d;
+					best = node;
+				}
+				
+				continue;
+			}
+			
+			final int c1 = child1[node];
+			final int c2 = child2[node];
+			
+			final float d1 = squaredDistance(minX[c1], minY[c1], maxX[c1], maxY[c1], x, y);
+			final float d2 = squaredDistance(minX[c2], minY[c2], maxX[c2], maxY[c2], x, y);
+			
+			// visit the closer child first
+			if (d1 < d2) {
+				if (best == NIL || d2 < bestDistance) {
+					top = push(top, c2);
+				}
+				if (best == NIL || d1 < bestDistance) {
+					top = push(top, c1);
+				}
+			} else {
+				if (best == NIL || d1 < bestDistance) {
+					top = push(top, c1);
+				}
+				if (best == NIL || d2 < bestDistance) {
+					top = push(top, c2);
+				}
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Finds all objects which fat bounds overlap the <code>area</code>.
+	 * 
+	 * @param area The query area.
+	 * @param result Buffer that receives proxies.
+	 * 
+	 * @return Number of objects found.
+	 */
+	public int query(Box2 area, IndexBuffer result) {
+		return query(
+				Math.min(area.left, area.right), Math.min(area.top, area.bottom),
+				Math.max(area.left, area.right), Math.max(area.top, area.bottom),
+				NIL, result
+		);
+	}
+	
+	/**
+	 * Finds all pairs of objects which fat bounds overlap. Every pair
+	 * is reported once as two consecutive proxies in <code>result</code>,
+	 * lower proxy first.
+	 * 
+	 * @param result Buffer that receives pairs of proxies.
+	 * 
+	 * @return Number of pairs found.
+	 */
+	public int queryPairs(IndexBuffer result) {
+		final int start = result.size();
+		
+		for (int node = 0; node < nodeCount; ++node) {
+			if (height[node] == 0 && isAllocated(node)) {
+				query(minX[node], minY[node], maxX[node], maxY[node], node, result);
+			}
+		}
+		
+		return (result.size() - start) / 2;
+	}
+	
+	/**
+	 * Finds all objects which fat bounds are crossed by the
+	 * <code>segment</code>.
+	 * 
+	 * @param segment The ray segment.
+	 * @param result Buffer that receives proxies.
+	 * 
+	 * @return Number of objects found.
+	 */
+	public int raycast(Segment segment, IndexBuffer result) {
+		final int start = result.size();
+		
+		final float x = segment.x1;
+		final float y = segment.y1;
+		final float dx = segment.x2 - segment.x1;
+		final float dy = segment.y2 - segment.y1;
+		
+		int top = push(0, root);
+		
+		while (top > 0) {
+			final int node = stack[--top];
+			
+			if (node == NIL || !crosses(node, x, y, dx, dy)) {
+				continue;
+			}
+			
+			if (height[node] == 0) {
+				result.add(node);
+			} else {
+				top = push(top, child1[node]);
+				top = push(top, child2[node]);
+			}
+		}
+		
+		return result.size() - start;
+	}
+	
+	/**
+	 * Removes object from the tree.
+	 * 
+	 * @param proxy The object proxy.
+	 */
+	public void remove(int proxy) {
+		checkProxy(proxy);
+		
+		removeLeaf(proxy);
+		freeNode(proxy);
+		--proxyCount;
+	}
+	
+	/**
+	 * @return Number of objects in the tree.
+	 */
+	public final int size() {
+		return proxyCount;
+	}
+	
+	//
+	// queries
+	//
+	
+	/**
+	 * Finds leaves overlapping the area. When <code>pairOf</code> is a
+	 * leaf, only leaves with greater index are reported as pairs.
+	 */
+	private int query(float x0, float y0, float x1, float y1, int pairOf, IndexBuffer result) {
+		final int start = result.size();
+		
+		int top = push(0, root);
+		
+		while (top > 0) {
+			final int node = stack[--top];
+			
+			if (node == NIL || minX[node] > x1 || maxX[node] < x0 || minY[node] > y1 || maxY[node] < y0) {
+				continue;
+			}
+			
+			if (height[node] != 0) {
+				top = push(top, child1[node]);
+				top = push(top, child2[node]);
+			} else if (pairOf == NIL) {
+				result.add(node);
+			} else if (node > pairOf) {
+				result.add(pairOf);
+				result.add(node);
+			}
+		}
+		
+		return result.size() - start;
+	}
+	
+	/**
+	 * Slab test of segment (<code>x</code>, <code>y</code>) +
+	 * t(<code>dx</code>, <code>dy</code>), t in [0, 1] against node bounds.
+	 */
+	private boolean crosses(int node, float x, float y, float dx, float dy) {
+		float t0 = 0f, t1 = 1f;
+		
+		if (dx == 0f) {
+			if (x < minX[node] || x > maxX[node]) {
+				return false;
+			}
+		} else {
+			float ta = (minX[node] - x) / dx;
+			float tb = (maxX[node] - x) / dx;
+			
+			if (ta > tb) {
+				final float t = ta; ta = tb; tb = t;
+			}
+			
+			t0 = Math.max(t0, ta);
+			t1 = Math.min(t1, tb);
+			
+			if (t0 > t1) {
+				return false;
+			}
+		}
+		
+		if (dy == 0f) {
+			return y >= minY[node] && y <= maxY[node];
+		}
+		
+		float ta = (minY[node] - y) / dy;
+		float tb = (maxY[node] - y) / dy;
+		
+		if (ta > tb) {
+			final float t = ta; ta = tb; tb = t;
+		}
+		
+		return Math.max(t0, ta) <= Math.min(t1, tb);
+	}
+	
+	private static float squaredDistance(float x0, float y0, float x1, float y1, float x, float y) {
+		final float dx = Math.max(Math.max(x0 - x, x - x1), 0f);
+		final float dy = Math.max(Math.max(y0 - y, y - y1), 0f);
+		return dx * dx + dy * dy;
+	}
+	
+	private int push(int top, int node) {
+		if (top == stack.length) {
+			final int[] newStack = new int[stack.length * 2];
+			System.arraycopy(stack, 0, newStack, 0, top);
+			stack = newStack;
+		}
+		
+		stack[top] = node;
+		return top + 1;
+	}
+	
+	//
+	// tree structure
+	//
+	
+	private void insertLeaf(int leaf) {
+		if (root == NIL) {
+			root = leaf;
+			parent[root] = NIL;
+			return;
+		}
+		
+		// find the best sibling
+		final float lx0 = minX[leaf], ly0 = minY[leaf], lx1 = maxX[leaf], ly1 = maxY[leaf];
+		int index = root;
+		
+		while (height[index] != 0) {
+			final int c1 = child1[index];
+			final int c2 = child2[index];
+			
+			final float area = perimeter(minX[index], minY[index], maxX[index], maxY[index]);
+			final float combinedArea = perimeter(
+					Math.min(minX[index], lx0), Math.min(minY[index], ly0),
+					Math.max(maxX[index], lx1), Math.max(maxY[index], ly1)
+			);
+			
+			// cost of creating a new parent for this node and the new leaf
+			final float cost = 2f * combinedArea;
+			
+			// minimum cost of pushing the leaf further down the tree
+			final float inheritanceCost = 2f * (combinedArea - area);
+			
+			final float cost1 = descendCost(c1, lx0, ly0, lx1, ly1) + inheritanceCost;
+			final float cost2 = descendCost(c2, lx0, ly0, lx1, ly1) + inheritanceCost;
+			
+			if (cost < cost1 && cost < cost2) {
+				break;
+			}
+			
+			index = cost1 < cost2 ? c1 : c2;
+		}
+		
+		final int sibling = index;
+		
+		// create a new parent
+		final int oldParent = parent[sibling];
+		final int newParent = allocateNode();
+		
+		parent[newParent] = oldParent;
+		userData[newParent] = null;
+		minX[newParent] = Math.min(minX[sibling], lx0);
+		minY[newParent] = Math.min(minY[sibling], ly0);
+		maxX[newParent] = Math.max(maxX[sibling], lx1);
+		maxY[newParent] = Math.max(maxY[sibling], ly1);
+		height[newParent] = height[sibling] + 1;
+		child1[newParent] = sibling;
+		child2[newParent] = leaf;
+		parent[sibling] = newParent;
+		parent[leaf] = newParent;
+		
+		if (oldParent == NIL) {
+			root = newParent;
+		} else if (child1[oldParent] == sibling) {
+			child1[oldParent] = newParent;
+		} else {
+			child2[oldParent] = newParent;
+		}
+		
+		refit(parent[leaf]);
+	}
+	
+	private float descendCost(int child, float lx0, float ly0, float lx1, float ly1) {
+		final float combined = perimeter(
+				Math.min(minX[child], lx0), Math.min(minY[child], ly0),
+				Math.max(maxX[child], lx1), Math.max(maxY[child], ly1)
+		);
+		
+		if (height[child] == 0) {
+			return combined;
+		}
+		
+		return combined - perimeter(minX[child], minY[child], maxX[child], maxY[child]);
+	}
+	
+	private void removeLeaf(int leaf) {
+		if (leaf == root) {
+			root = NIL;
+			return;
+		}
+		
+		final int p = parent[leaf];
+		final int grandParent = parent[p];
+		final int sibling = child1[p] == leaf ? child2[p] : child1[p];
+		
+		if (grandParent == NIL) {
+			root = sibling;
+			parent[sibling] = NIL;
+			freeNode(p);
+			return;
+		}
+		
+		// destroy parent and connect sibling to grand parent
+		if (child1[grandParent] == p) {
+			child1[grandParent] = sibling;
+		} else {
+			child2[grandParent] = sibling;
+		}
+		
+		parent[sibling] = grandParent;
+		freeNode(p);
+		
+		refit(grandParent);
+	}
+	
+	/**
+	 * Walks from <code>index</code> to the root balancing nodes and
+	 * fixing their bounds and heights.
+	 */
+	private void refit(int index) {
+		while (index != NIL) {
+			index = balance(index);
+			
+			final int c1 = child1[index];
+			final int c2 = child2[index];
+			
+			height[index] = 1 + Math.max(height[c1], height[c2]);
+			
+			minX[index] = Math.min(minX[c1], minX[c2]);
+			minY[index] = Math.min(minY[c1], minY[c2]);
+			maxX[index] = Math.max(maxX[c1], maxX[c2]);
+			maxY[index] = Math.max(maxY[c1], maxY[c2]);
+			
+			index = parent[index];
+		}
+	}
+	
+	/**
+	 * Performs a left or right rotation if node <code>a</code> is
+	 * imbalanced.
+	 * 
+	 * @return The new root of the subtree.
+	 */
+	private int balance(int a) {
+		if (height[a] < 2) {
+			return a;
+		}
+		
+		final int b = child1[a];
+		final int c = child2[a];
+		
+		final int diff = height[c] - height[b];
+		
+		if (diff > 1) {
+			return rotate(a, c, b);
+		}
+		
+		if (diff < -1) {
+			return rotate(a, b, c);
+		}
+		
+		return a;
+	}
+	
+	/**
+	 * Promotes the higher child <code>up</code> of node <code>a</code>
+	 * which other child is <code>other</code>.
+	 */
+	private int rotate(int a, int up, int other) {
+		final int f = child1[up];
+		final int g = child2[up];
+		
+		// swap a and up
+		child1[up] = a;
+		parent[up] = parent[a];
+		parent[a] = up;
+		
+		if (parent[up] == NIL) {
+			root = up;
+		} else if (child1[parent[up]] == a) {
+			child1[parent[up]] = up;
+		} else {
+			child2[parent[up]] = up;
+		}
+		
+		// the higher grandchild stays with up, the other one goes to a
+		final int keep = height[f] > height[g] ? f : g;
+		final int move = keep == f ? g : f;
+		
+		child2[up] = keep;
+		
+		if (child1[a] == up) {
+			child1[a] = move;
+		} else {
+			child2[a] = move;
+		}
+		
+		parent[move] = a;
+		
+		minX[a] = Math.min(minX[other], minX[move]);
+		minY[a] = Math.min(minY[other], minY[move]);
+		maxX[a] = Math.max(maxX[other], maxX[move]);
+		maxY[a] = Math.max(maxY[other], maxY[move]);
+		height[a] = 1 + Math.max(height[other], height[move]);
+		
+		minX[up] = Math.min(minX[a], minX[keep]);
+		minY[up] = Math.min(minY[a], minY[keep]);
+		maxX[up] = Math.max(maxX[a], maxX[keep]);
+		maxY[up] = Math.max(maxY[a], maxY[keep]);
+		height[up] = 1 + Math.max(height[a], height[keep]);
+		
+		return up;
+	}
+	
+	private static float perimeter(float x0, float y0, float x1, float y1) {
+		return 2f * ((x1 - x0) + (y1 - y0));
+	}
+	
+	private void setLeafBounds(int leaf, Box2 bounds) {
+		leafMinX[leaf] = Math.min(bounds.left, bounds.right);
+		leafMinY[leaf] = Math.min(bounds.top, bounds.bottom);
+		leafMaxX[leaf] = Math.max(bounds.left, bounds.right);
+		leafMaxY[leaf] = Math.max(bounds.top, bounds.bottom);
+	}
+	
+	//
+	// node pool
+	//
+	
+	private boolean isAllocated(int node) {
+		return height[node] >= 0;
+	}
+	
+	private void checkProxy(int proxy) {
+		if (proxy < 0 || proxy >= nodeCount || height[proxy] != 0) {
+			throw new IllegalArgumentException("invalid proxy: " + proxy);
+		}
+	}
+	
+	private int allocateNode() {
+		if (freeNode == NIL) {
+			allocate(nodeCount * 2);
+		}
+		
+		final int node = freeNode;
+		freeNode = parent[node];
+		
+		parent[node] = child1[node] = child2[node] = NIL;
+		height[node] = 0;
+		
+		return node;
+	}
+	
+	private void freeNode(int node) {
+		parent[node] = freeNode;
+		height[node] = -1;
+		userData[node] = null;
+		freeNode = node;
+	}
+	
+	/**
+	 * Grows the node pool to <code>capacity</code> nodes and puts new
+	 * nodes on the free list.
+	 */
+	private void allocate(int capacity) {
+		final int old = nodeCount;
+		
+		minX = grow(minX, capacity);
+		minY = grow(minY, capacity);
+		maxX = grow(maxX, capacity);
+		maxY = grow(maxY, capacity);
+		leafMinX = grow(leafMinX, capacity);
+		leafMinY = grow(leafMinY, capacity);
+		leafMaxX = grow(leafMaxX, capacity);
+		leafMaxY = grow(leafMaxY, capacity);
+		parent = grow(parent, capacity);
+		child1 = grow(child1, capacity);
+		child2 = grow(child2, capacity);
+		height = grow(height, capacity);
+		
+		final Object[] newUserData = new Object[capacity];
+		
+		if (userData != null) {
+			System.arraycopy(userData, 0, newUserData, 0, old);
+		}
+		
+		userData = newUserData;
+		
+		for (int i = capacity - 1; i >= old; --i) {
+			parent[i] = freeNode;
+			height[i] = -1;
+			freeNode = i;
+		}
+		
+		nodeCount = capacity;
+	}
+	
+	private static float[] grow(float[] array, int capacity) {
+		final float[] result = new float[capacity];
+		
+		if (array != null) {
+			System.arraycopy(array, 0, result, 0, array.length);
+		}
+		
+		return result;
+	}
+	
+	private static int[] grow(int[] array, int capacity) {
+		final int[] result = new int[capacity];
+		
+		if (array != null) {
+			System.arraycopy(array, 0, result, 0, array.length);
+		}
+		
+		return result;
+	}
+}
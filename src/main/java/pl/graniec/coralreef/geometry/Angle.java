@@ -42,6 +42,9 @@ package pl.graniec.coralreef.geometry;
  */
 public class Angle {
 	
+	private static final float PI = (float) Math.PI;
+	private static final float TWO_PI = (float) (2.0 * Math.PI);
+	
 	/**
 	 * @return The angle value in degrees.
 	 */
@@ -49,6 +52,151 @@ public class Angle {
 		return radians * 180f / (float) Math.PI;
 	}
 	
+	/**
+	 * Computes the difference between two angles given in degrees.
+	 * The result is the same as of {@link #degreeDifference(Angle)}
+	 * but no objects are created.
+	 * 
+	 * @param from The first angle in degrees.
+	 * @param to The second angle in degrees.
+	 * 
+	 * @return Value from <code>-180</code> to <code>180</code> that
+	 * you have to add to <code>from</code> to reach <code>to</code>.
+	 */
+	public static float degreeDifference(float from, float to) {
+		final float value = normalizeDegrees(to) - normalizeDegrees(from);
+		
+		if (Math.abs(value) <= 180f) {
+			return value;
+		} else {
+			return value > 0 ? -360f + value : 360 + value;
+		}
+	}
+	
+	/**
+	 * Computes differences between angles in degrees from two arrays in
+	 * one pass. For every index <code>i</code> from <code>off</code> to
+	 * <code>off + len - 1</code> it stores
+	 * <code>degreeDifference(from[i], to[i])</code> in <code>result[i]</code>.
+	 * 
+	 * @param from The first angles in degrees.
+	 * @param to The second angles in degrees.
+	 * @param result Array that receives differences; may be one of the
+	 * input arrays.
+	 * @param off Index of the first angle.
+	 * @param len Number of angles.
+	 */
+	public static void degreeDifferences(float[] from, float[] to, float[] result, int off, int len) {
+		final int end = off + len;
+		
+		if (off < 0 || len < 0 || end > from.length || end > to.length || end > result.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+		
+		for (int i = off; i < end; ++i) {
+			result[i] = degreeDifference(from[i], to[i]);
+		}
+	}
+	
+	/**
+	 * Limits angle to the arc that starts at <code>min</code> and goes
+	 * counter clockwise to <code>max</code>. Angles outside of the arc
+	 * are moved to the closer arc end.
+	 * 
+	 * @param degrees The angle in degrees.
+	 * @param min Start of the arc in degrees.
+	 * @param max End of the arc in degrees.
+	 * 
+	 * @return Angle in degrees from <code>min</code> to
+	 * <code>min + arc length</code>.
+	 */
+	public static float clampDegrees(float degrees, float min, float max) {
+		final float offset = normalizeDegrees(degrees - min);
+		final float arc = normalizeDegrees(max - min);
+		
+		if (offset <= arc) {
+			return min + offset;
+		}
+		
+		return offset - arc < 360f - offset ? min + arc : min;
+	}
+	
+	/**
+	 * Linear interpolation between two values.
+	 * 
+	 * @param from Value for <code>t = 0</code>.
+	 * @param to Value for <code>t = 1</code>.
+	 * @param t Interpolation parameter.
+	 * 
+	 * @return Interpolated value.
+	 */
+	public static float lerp(float from, float to, float t) {
+		return from + (to - from) * t;
+	}
+	
+	/**
+	 * Normalizes angle value in degrees that it is positive >= 0 and &lt; 360.
+	 * 
+	 * @see #normalize()
+	 */
+	public static float normalizeDegrees(float degrees) {
+		degrees %= 360;
+		
+		if (degrees < 0) {
+			degrees += 360;
+		}
+		
+		return degrees;
+	}
+	
+	/**
+	 * Normalizes angle value in radians that it is positive >= 0 and &lt; 2&pi;.
+	 */
+	public static float normalizeRadians(float radians) {
+		radians %= TWO_PI;
+		
+		if (radians < 0) {
+			radians += TWO_PI;
+		}
+		
+		return radians;
+	}
+	
+	/**
+	 * Works like {@link #degreeDifference(float, float)} but in radians.
+	 * 
+	 * @return Value from <code>-&pi;</code> to <code>&pi;</code>.
+	 */
+	public static float radiansDifference(float from, float to) {
+		final float value = normalizeRadians(to) - normalizeRadians(from);
+		
+		if (Math.abs(value) <= PI) {
+			return value;
+		} else {
+			return value > 0 ? -TWO_PI + value : TWO_PI + value;
+		}
+	}
+	
+	/**
+	 * Interpolates between two angles in degrees along the shorter arc.
+	 * 
+	 * @param from Angle for <code>t = 0</code>.
+	 * @param to Angle for <code>t = 1</code>.
+	 * @param t Interpolation parameter.
+	 * 
+	 * @return Interpolated angle in degrees.
+	 */
+	public static float slerpDegrees(float from, float to, float t) {
+		return from + degreeDifference(from, to) * t;
+	}
+	
+	/**
+	 * Works like {@link #slerpDegrees(float, float, float)} but in radians.
+	 */
+	public static float slerpRadians(float from, float to, float t) {
+		return from + radiansDifference(from, to) * t;
+	}
+	
 	/**
 	 * Creates new Angle from <code>degrees</code> value.
 	 * 
@@ -71,6 +219,29 @@ public class Angle {
 		return new Angle(Angle.degreesValue(radians));
 	}
 	
+	/**
+	 * Creates new Angle of vector (<code>x</code>, <code>y</code>).
+	 * 
+	 * @see Vector2#angle(float, float)
+	 * 
+	 * @return New Angle object.
+	 */
+	public static Angle fromVector(float x, float y) {
+		return new Angle(Vector2.angle(x, y));
+	}
+	
+	/**
+	 * Works like {@link #fromVector(float, float)} but computes the angle
+	 * using <code>trig</code> tables.
+	 * 
+	 * @param trig Trigonometric tables to use.
+	 * 
+	 * @return New Angle object.
+	 */
+	public static Angle fromVector(float x, float y, FastTrig trig) {
+		return new Angle(trig.atan2Degrees(y, x));
+	}
+	
 	/**
 	 * @return The angle value in radians.
 	 */
@@ -102,19 +273,7 @@ public class Angle {
 	 * @return Difference between two angles.
 	 */
 	public float degreeDifference(Angle other) {
-		final Angle norm1 = new Angle(this);
-		final Angle norm2 = new Angle(other);
-		
-		norm1.normalize();
-		norm2.normalize();
-		
-		final float value = norm2.degrees - norm1.degrees;
-		
-		if (Math.abs(value) <= 180f) {
-			return value;
-		} else {
-			return value > 0 ? -360f + value : 360 + value;
-		}
+		return degreeDifference(degrees, other.degrees);
 	}
 	
 	/**
@@ -134,12 +293,7 @@ public class Angle {
 	 * @return Instance to <code>this</code> object.
 	 */
 	public Angle normalize() {
-		degrees %= 360;
-		
-		if (degrees < 0) {
-			degrees += 360;
-		}
-		
+		degrees = normalizeDegrees(degrees);
 		return this;
 	}
 
@@ -154,10 +308,34 @@ public class Angle {
 		 return Angle.radiansValue(degreeDifference(other));
 	}
 	
+	/**
+	 * Sets the angle value so the object can be reused.
+	 * 
+	 * @param degrees Angle value in degrees.
+	 * 
+	 * @return Instance to <code>this</code> object.
+	 */
+	public Angle set(float degrees) {
+		this.degrees = degrees;
+		return this;
+	}
+	
 	/**
 	 * @return The angle value in radians.
 	 */
 	public float radiansValue() {
 		return Angle.radiansValue(degrees);
 	}
+	
+	/**
+	 * Creates normalized vector pointing to this angle using
+	 * <code>trig</code> tables.
+	 * 
+	 * @param trig Trigonometric tables to use.
+	 * 
+	 * @return New vector.
+	 */
+	public Vector2 toVector(FastTrig trig) {
+		return Vector2.fromAngle(degrees, trig);
+	}
 }
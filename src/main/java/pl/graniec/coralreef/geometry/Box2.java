@@ -43,6 +43,22 @@ public class Box2 {
 		this.bottom = bottom;
 	}
 	
+	/**
+	 * Checks if point (<code>x</code>, <code>y</code>) lays inside
+	 * this box or on its border.
+	 * 
+	 * @return <code>true</code> if the point is inside.
+	 */
+	public final boolean contains(final float x, final float y) {
+		return
+			x >= Math.min(left, right) && x <= Math.max(left, right) &&
+			y >= Math.min(top, bottom) && y <= Math.max(top, bottom);
+	}
+	
+	public final boolean contains(final Point2 point) {
+		return contains(point.x, point.y);
+	}
+	
 	public final float diagonal() {
 		final float w = width();
 		final float h = height();
@@ -50,6 +66,29 @@ public class Box2 {
 		return (float) StrictMath.sqrt(w * w + h * h);
 	}
 	
+	/**
+	 * Checks if this box and <code>other</code> box overlaps.
+	 * Boxes that touches only by their borders are overlapping.
+	 * 
+	 * @param other The other box.
+	 * 
+	 * @return <code>true</code> if boxes overlap.
+	 */
+	public final boolean intersects(final Box2 other) {
+		return
+			Math.min(left, right) <= Math.max(other.left, other.right) &&
+			Math.max(left, right) >= Math.min(other.left, other.right) &&
+			Math.min(top, bottom) <= Math.max(other.top, other.bottom) &&
+			Math.max(top, bottom) >= Math.min(other.top, other.bottom);
+	}
+	
+	public final void set(float left, float top, float right, float bottom) {
+		this.left = left;
+		this.top = top;
+		this.right = right;
+		this.bottom = bottom;
+	}
+	
 	public final float width() {
 		return Math.abs(right - left);
 	}
@@ -58,4 +97,11 @@ public class Box2 {
 		return Math.abs(top - bottom);
 	}
 	
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return Box2.class.getSimpleName() + "[left=" + left + ",top=" + top + ",right=" + right + ",bottom=" + bottom + "]";
+	}
+	
 }
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Double precision counterpart of {@link Box2}.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Box2d {
+	public double left, top, right, bottom;
+
+	public Box2d(double left, double top, double right, double bottom) {
+		this.left = left;
+		this.top = top;
+		this.right = right;
+		this.bottom = bottom;
+	}
+	
+	public Box2d(Box2 other) {
+		this(other.left, other.top, other.right, other.bottom);
+	}
+	
+	/**
+	 * Checks if point (<code>x</code>, <code>y</code>) lays inside
+	 * this box or on its border.
+	 * 
+	 * @return <code>true</code> if the point is inside.
+	 */
+	public final boolean contains(final double x, final double y) {
+		return
+			x >= Math.min(left, right) && x <= Math.max(left, right) &&
+			y >= Math.min(top, bottom) && y <= Math.max(top, bottom);
+	}
+	
+	public final boolean contains(final Point2d point) {
+		return contains(point.x, point.y);
+	}
+	
+	public final double diagonal() {
+		final double w = width();
+		final double h = height();
+		
+		return StrictMath.sqrt(w * w + h * h);
+	}
+	
+	/**
+	 * Checks if this box and <code>other</code> box overlaps.
+	 * Boxes that touches only by their borders are overlapping.
+	 * 
+	 * @param other The other box.
+	 * 
+	 * @return <code>true</code> if boxes overlap.
+	 */
+	public final boolean intersects(final Box2d other) {
+		return
+			Math.min(left, right) <= Math.max(other.left, other.right) &&
+			Math.max(left, right) >= Math.min(other.left, other.right) &&
+			Math.min(top, bottom) <= Math.max(other.top, other.bottom) &&
+			Math.max(top, bottom) >= Math.min(other.top, other.bottom);
+	}
+	
+	public final void set(double left, double top, double right, double bottom) {
+		this.left = left;
+		this.top = top;
+		this.right = right;
+		this.bottom = bottom;
+	}
+	
+	/**
+	 * Creates a float box rounding its borders outwards, so it
+	 * contains everything this box contains.
+	 */
+	public final Box2 toBox2() {
+		return new Box2(
+				Conversions.floorFloat(Math.min(left, right)),
+				Conversions.floorFloat(Math.min(top, bottom)),
+				Conversions.ceilFloat(Math.max(left, right)),
+				Conversions.ceilFloat(Math.max(top, bottom))
+		);
+	}
+	
+	public final double width() {
+		return Math.abs(right - left);
+	}
+	
+	public final double height() {
+		return Math.abs(top - bottom);
+	}
+	
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return Box2d.class.getSimpleName() + "[left=" + left + ",top=" + top + ",right=" + right + ",bottom=" + bottom + "]";
+	}
+	
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Clips polygons against axis aligned boxes with Sutherland-Hodgman
+ * algorithm.
+ * <p>
+ * The polygon is clipped by each of four box sides in turn. Verticles
+ * are passed between two pairs of scratch arrays that are kept and
+ * reused by next calls, so clipping into a {@link PointBuffer} with
+ * enough capacity doesn't allocate anything. Polygons that lie
+ * entirely inside or outside of the box are detected by their bounds
+ * first and only copied or skipped.
+ * <p>
+ * Concave polygons split by the box come out as a single polygon
+ * with connecting edges along the box border. Points where an edge
+ * crosses the box border don't depend on the edge direction, so
+ * neighbouring polygons sharing an edge get the same clipped points.
+ * <p>
+ * This class is not thread-safe. Use a separate instance per thread.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class BoxClipper {
+	
+	/** Scratch arrays of verticles between clipping steps */
+	private float[] xs0 = new float[16], ys0 = new float[16];
+	private float[] xs1 = new float[16], ys1 = new float[16];
+	
+	private final Box2 bounds = new Box2(0, 0, 0, 0);
+	
+	/**
+	 * Clips polygon of <code>len</code> verticles starting at
+	 * <code>off</code> against <code>box</code> and adds the result
+	 * to <code>result</code>.
+	 * 
+	 * @return Number of added verticles, 0 if the polygon lies outside
+	 * of the box.
+	 */
+	public int clip(
+			final float[] xs, final float[] ys, final int off, final int len,
+			final Box2 box, final PointBuffer result
+	) {
+		if (off < 0 || len < 0 || off + len > xs.length || off + len > ys.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+		
+		if (len == 0) {
+			return 0;
+		}
+		
+		float minX = xs[off], minY = ys[off];
+		float maxX = minX, maxY = minY;
+		
+		for (int i = off + 1, end = off + len; i < end; ++i) {
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		
+		bounds.set(minX, minY, maxX, maxY);
+		
+		return clip(xs, ys, off, len, bounds, box, result);
+	}
+	
+	/**
+	 * Clips <code>geometry</code> against <code>box</code> and adds
+	 * the result to <code>result</code>. Cached bounds of the geometry
+	 * are used to skip or copy it whole.
+	 * 
+	 * @return Number of added verticles.
+	 */
+	public int clip(final Geometry geometry, final Box2 box, final PointBuffer result) {
+		final PointBuffer verticles = geometry.verticles;
+		
+		if (!geometry.getBounds(bounds)) {
+			return 0;
+		}
+		
+		return clip(verticles.xArray(), verticles.yArray(), 0, verticles.size(), bounds, box, result);
+	}
+	
+	/**
+	 * @return New geometry with <code>geometry</code> clipped against
+	 * <code>box</code>. It has no verticles if the polygon lies outside
+	 * of the box.
+	 */
+	public Geometry clip(final Geometry geometry, final Box2 box) {
+		final Geometry result = new Geometry();
+		clip(geometry, box, result.verticles);
+		return result;
+	}
+	
+	/**
+	 * Replaces verticles of <code>geometry</code> with the polygon
+	 * clipped against <code>box</code>.
+	 * 
+	 * @return Number of verticles left.
+	 */
+	public int clipInPlace(final Geometry geometry, final Box2 box) {
+		final PointBuffer verticles = geometry.verticles;
+		final int len = verticles.size();
+		
+		if (!geometry.getBounds(bounds) || contains(box, bounds)) {
+			return len;
+		}
+		
+		if (!overlaps(box, bounds)) {
+			verticles.clear();
+			geometry.invalidateBounds();
+			return 0;
+		}
+		
+		final int count = clipSides(verticles.xArray(), verticles.yArray(), 0, len, box);
+		
+		verticles.clear();
+		verticles.addVerticles(xs0, ys0, 0, count);
+		geometry.invalidateBounds();
+		
+		return count;
+	}
+	
+	private int clip(float[] xs, float[] ys, int off, int len, Box2 polygonBounds, Box2 box, PointBuffer result) {
+		if (contains(box, polygonBounds)) {
+			result.addVerticles(xs, ys, off, len);
+			return len;
+		}
+		
+		if (!overlaps(box, polygonBounds)) {
+			return 0;
+		}
+		
+		final int count = clipSides(xs, ys, off, len, box);
+		result.addVerticles(xs0, ys0, 0, count);
+		
+		return count;
+	}
+	
+	/**
+	 * Clips the polygon by all box sides.
+	 * 
+	 * @return Number of verticles left in <code>xs0</code> and <code>ys0</code>.
+	 */
+	private int clipSides(float[] xs, float[] ys, int off, int len, Box2 box) {
+		final float minX = Math.min(box.left, box.right);
+		final float maxX = Math.max(box.left, box.right);
+		final float minY = Math.min(box.top, box.bottom);
+		final float maxY = Math.max(box.top, box.bottom);
+		
+		// every side at most doubles the number of verticles
+		ensureCapacity(2 * len);
+		System.arraycopy(xs, off, xs0, 0, len);
+		System.arraycopy(ys, off, ys0, 0, len);
+		
+		// Y sides are clipped with coordinate arrays swapped
+		int count = len;
+		
+		count = clipSide(xs0, ys0, count, xs1, ys1, minX, false);
+		ensureCapacity(2 * count);
+		count = clipSide(xs1, ys1, count, xs0, ys0, maxX, true);
+		ensureCapacity(2 * count);
+		count = clipSide(ys0, xs0, count, ys1, xs1, minY, false);
+		ensureCapacity(2 * count);
+		count = clipSide(ys1, xs1, count, ys0, xs0, maxY, true);
+		
+		return count;
+	}
+	
+	/**
+	 * Clips polygon by line <code>a = bound</code>, keeping verticles
+	 * with <code>a >= bound</code> or <code>a <= bound</code> when
+	 * <code>below</code> is set.
+	 * 
+	 * @return Number of verticles stored in <code>outA</code> and <code>outB</code>.
+	 */
+	private static int clipSide(
+			float[] inA, float[] inB, int len, float[] outA, float[] outB, float bound, boolean below
+	) {
+		if (len == 0) {
+			return 0;
+		}
+		
+		int count = 0;
+		
+		float a1 = inA[len - 1];
+		float b1 = inB[len - 1];
+		boolean inside1 = below ? a1 <= bound : a1 >= bound;
+		
+		for (int i = 0; i < len; ++i) {
+			final float a2 = inA[i];
+			final float b2 = inB[i];
+			final boolean inside2 = below ? a2 <= bound : a2 >= bound;
+			
+			// ends laying on the line are kept anyway
+			if (inside1 != inside2 && a1 != bound && a2 != bound) {
+				outA[count] = bound;
+				outB[count] = crossing(a1, b1, a2, b2, bound);
+				++count;
+			}
+			
+			if (inside2) {
+				outA[count] = a2;
+				outB[count] = b2;
+				++count;
+			}
+			
+			a1 = a2;
+			b1 = b2;
+			inside1 = inside2;
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * @return Coordinate <code>b</code> of the point where the edge
+	 * crosses line <code>a = bound</code>, computed from the end with
+	 * lesser <code>a</code>.
+	 */
+	private static float crossing(float a1, float b1, float a2, float b2, float bound) {
+		if (a1 > a2) {
+			return crossing(a2, b2, a1, b1, bound);
+		}
+		
+		return (float) (b1 + ((double) b2 - b1) * ((double) bound - a1) / ((double) a2 - a1));
+	}
+	
+	private static boolean contains(Box2 box, Box2 other) {
+		return box.contains(other.left, other.top) && box.contains(other.right, other.bottom);
+	}
+	
+	private static boolean overlaps(Box2 box, Box2 other) {
+		return
+			other.right >= Math.min(box.left, box.right) && other.left <= Math.max(box.left, box.right) &&
+			other.bottom >= Math.min(box.top, box.bottom) && other.top <= Math.max(box.top, box.bottom);
+	}
+	
+	private void ensureCapacity(int capacity) {
+		if (capacity <= xs0.length) {
+			return;
+		}
+		
+		final int newCapacity = Math.max(capacity, xs0.length * 2);
+		
+		xs0 = grow(xs0, newCapacity);
+		ys0 = grow(ys0, newCapacity);
+		xs1 = grow(xs1, newCapacity);
+		ys1 = grow(ys1, newCapacity);
+	}
+	
+	private static float[] grow(float[] array, int capacity) {
+		final float[] result = new float[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+}
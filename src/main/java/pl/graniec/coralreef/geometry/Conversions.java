@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Batch conversions between float and double coordinate arrays.
+ * <p>
+ * Conversions with an <code>origin</code> re-center coordinates in the
+ * same pass: world-scale doubles can be turned into floats relative
+ * to a local origin, where float precision is good enough, and back.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class Conversions {
+	
+	private Conversions() {
+	}
+	
+	/**
+	 * Copies <code>len</code> values from <code>src</code> starting at
+	 * <code>srcOff</code> to <code>dst</code> starting at <code>dstOff</code>.
+	 * Widening is exact.
+	 */
+	public static void toDouble(final float[] src, final int srcOff, final double[] dst, final int dstOff, final int len) {
+		toDouble(src, srcOff, 0.0, dst, dstOff, len);
+	}
+	
+	/**
+	 * Stores <code>origin + src[i]</code> in <code>dst</code>, converting
+	 * coordinates relative to <code>origin</code> back to absolute ones.
+	 */
+	public static void toDouble(
+			final float[] src, final int srcOff, final double origin,
+			final double[] dst, final int dstOff, final int len
+	) {
+		checkRange(src.length, srcOff, dst.length, dstOff, len);
+		
+		for (int i = 0; i < len; ++i) {
+			dst[dstOff + i] = origin + src[srcOff + i];
+		}
+	}
+	
+	/**
+	 * Copies <code>len</code> values from <code>src</code> starting at
+	 * <code>srcOff</code> to <code>dst</code> starting at <code>dstOff</code>
+	 * rounding them to the nearest floats.
+	 */
+	public static void toFloat(final double[] src, final int srcOff, final float[] dst, final int dstOff, final int len) {
+		toFloat(src, srcOff, 0.0, dst, dstOff, len);
+	}
+	
+	/**
+	 * Stores <code>src[i] - origin</code> rounded to the nearest float in
+	 * <code>dst</code>, making coordinates relative to <code>origin</code>.
+	 */
+	public static void toFloat(
+			final double[] src, final int srcOff, final double origin,
+			final float[] dst, final int dstOff, final int len
+	) {
+		checkRange(src.length, srcOff, dst.length, dstOff, len);
+		
+		for (int i = 0; i < len; ++i) {
+			dst[dstOff + i] = (float) (src[srcOff + i] - origin);
+		}
+	}
+	
+	/**
+	 * Converts points of <code>buffer</code> to absolute double
+	 * coordinates relative to origin (<code>originX</code>, <code>originY</code>),
+	 * storing them from index <code>off</code> of <code>xs</code> and <code>ys</code>.
+	 */
+	public static void toDouble(
+			final PointBuffer buffer, final double originX, final double originY,
+			final double[] xs, final double[] ys, final int off
+	) {
+		toDouble(buffer.xArray(), 0, originX, xs, off, buffer.size());
+		toDouble(buffer.yArray(), 0, originY, ys, off, buffer.size());
+	}
+	
+	/**
+	 * Appends <code>len</code> points (<code>xs[i]</code>, <code>ys[i]</code>)
+	 * starting at <code>off</code> to <code>buffer</code>, relative to origin
+	 * (<code>originX</code>, <code>originY</code>).
+	 */
+	public static void toFloat(
+			final double[] xs, final double[] ys, final int off, final int len,
+			final double originX, final double originY, final PointBuffer buffer
+	) {
+		if (off < 0 || len < 0 || off + len > xs.length || off + len > ys.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+		
+		buffer.ensureCapacity(buffer.size() + len);
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			buffer.add((float) (xs[i] - originX), (float) (ys[i] - originY));
+		}
+	}
+	
+	/**
+	 * @return The greatest float not greater than <code>value</code>.
+	 */
+	static float floorFloat(final double value) {
+		final float result = (float) value;
+		return result > value ? nextFloat(result, -1) : result;
+	}
+	
+	/**
+	 * @return The lowest float not lower than <code>value</code>.
+	 */
+	static float ceilFloat(final double value) {
+		final float result = (float) value;
+		return result < value ? nextFloat(result, 1) : result;
+	}
+	
+	/**
+	 * Moves finite <code>value</code> one ulp up when <code>direction</code>
+	 * is positive or down when it's negative.
+	 */
+	private static float nextFloat(final float value, final int direction) {
+		if (value == 0f) {
+			return direction * Float.MIN_VALUE;
+		}
+		
+		final int bits = Float.floatToIntBits(value);
+		return Float.intBitsToFloat((value > 0) == (direction > 0) ? bits + 1 : bits - 1);
+	}
+	
+	private static void checkRange(int srcLength, int srcOff, int dstLength, int dstOff, int len) {
+		if (srcOff < 0 || dstOff < 0 || len < 0 || srcOff + len > srcLength || dstOff + len > dstLength) {
+			throw new IndexOutOfBoundsException("srcOff=" + srcOff + ",dstOff=" + dstOff + ",len=" + len);
+		}
+	}
+}
@@ -0,0 +1,312 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Convex hull computation with Andrew's monotone chain algorithm
+ * in O(n log n) time.
+ * <p>
+ * Turns are decided with {@link Predicates#orient2d(double, double, double, double, double, double)},
+ * so the hull is exact: collinear points and duplicates are left out
+ * and only corners remain. The hull starts at the point with the lowest
+ * X (and then the lowest Y) coordinate. Counter clockwise order is
+ * given for a coordinate system where Y grows upwards.
+ * <p>
+ * Point sets larger than {@link #CHUNK_SIZE} are split into chunks
+ * which hulls are computed in parallel. The final hull is the hull of
+ * chunk hulls, identical to the one computed sequentially. Of duplicated
+ * points the one with the lowest index is kept, so even the indices
+ * are the same.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class ConvexHull {
+	
+	/** Number of points processed by a single task */
+	public static final int CHUNK_SIZE = 1 << 16;
+	
+	private ConvexHull() {
+	}
+	
+	/**
+	 * Computes the convex hull of <code>geometry</code> verticles.
+	 * 
+	 * @param order {@link VerticlesOrder#CW} or {@link VerticlesOrder#CCW}.
+	 * 
+	 * @return New geometry with hull verticles.
+	 */
+	public static Geometry compute(final Geometry geometry, final int order) {
+		final PointBuffer verticles = geometry.verticles;
+		return compute(verticles.xArray(), verticles.yArray(), 0, verticles.size(), order);
+	}
+	
+	/**
+	 * Computes the convex hull of <code>points</code>.
+	 * 
+	 * @param order {@link VerticlesOrder#CW} or {@link VerticlesOrder#CCW}.
+	 * 
+	 * @return New geometry with hull verticles.
+	 */
+	public static Geometry compute(final Point2[] points, final int order) {
+		final float[] xs = new float[points.length];
+		final float[] ys = new float[points.length];
+		
+		for (int i = 0; i < points.length; ++i) {
+			xs[i] = points[i].x;
+			ys[i] = points[i].y;
+		}
+		
+		return compute(xs, ys, 0, points.length, order);
+	}
+	
+	/**
+	 * Computes the convex hull of points (<code>xs[i]</code>, <code>ys[i]</code>)
+	 * for <code>i</code> from <code>off</code> to <code>off + len - 1</code>.
+	 * 
+	 * @param order {@link VerticlesOrder#CW} or {@link VerticlesOrder#CCW}.
+	 * 
+	 * @return New geometry with hull verticles.
+	 */
+	public static Geometry compute(final float[] xs, final float[] ys, final int off, final int len, final int order) {
+		final int[] hull = hull(xs, ys, off, len, order, CHUNK_SIZE);
+		final Geometry result = new Geometry();
+		
+		result.verticles.ensureCapacity(hull.length);
+		
+		for (int i = 0; i < hull.length; ++i) {
+			result.addVerticle(xs[hull[i]], ys[hull[i]]);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Finds indices of points that make the convex hull of points
+	 * (<code>xs[i]</code>, <code>ys[i]</code>) for <code>i</code> from
+	 * <code>off</code> to <code>off + len - 1</code>. From duplicated
+	 * points only the one with the lowest index is given.
+	 * 
+	 * @param order {@link VerticlesOrder#CW} or {@link VerticlesOrder#CCW}.
+	 * @param result Buffer that will receive the indices in hull order.
+	 * 
+	 * @return Number of indices added to <code>result</code>.
+	 */
+	public static int indices(
+			final float[] xs, final float[] ys, final int off, final int len,
+			final int order, final IndexBuffer result
+	) {
+		final int[] hull = hull(xs, ys, off, len, order, CHUNK_SIZE);
+		
+		result.ensureCapacity(result.size() + hull.length);
+		
+		for (int i = 0; i < hull.length; ++i) {
+			result.add(hull[i]);
+		}
+		
+		return hull.length;
+	}
+	
+	/**
+	 * Computes hull indices splitting points into chunks of
+	 * <code>chunkSize</code>.
+	 */
+	static int[] hull(
+			final float[] xs, final float[] ys, final int off, final int len,
+			final int order, final int chunkSize
+	) {
+		if (order != VerticlesOrder.CW && order != VerticlesOrder.CCW) {
+			throw new IllegalArgumentException("unknown verticles order: " + order);
+		}
+		
+		if (off < 0 || len < 0 || off + len > xs.length || off + len > ys.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+		
+		final int chunks = Parallel.chunkCount(len, chunkSize);
+		final int[][] chunkHulls = new int[chunks][];
+		
+		Parallel.forEachChunk(len, chunkSize, new Parallel.Chunk() {
+			public void run(int chunk, int from, int to) {
+				final int[] indices = new int[to - from];
+				
+				for (int i = 0; i < indices.length; ++i) {
+					indices[i] = off + from + i;
+				}
+				
+				chunkHulls[chunk] = chain(xs, ys, indices);
+			}
+		});
+		
+		int[] hull;
+		
+		if (chunks == 0) {
+			hull = new int[0];
+		} else if (chunks == 1) {
+			hull = chunkHulls[0];
+		} else {
+			// hull of chunk hulls, in index order so ties resolve the same way
+			int count = 0;
+			
+			for (int c = 0; c < chunks; ++c) {
+				count += chunkHulls[c].length;
+			}
+			
+			final int[] candidates = new int[count];
+			count = 0;
+			
+			for (int c = 0; c < chunks; ++c) {
+				final int[] chunkHull = sortedByIndex(chunkHulls[c]);
+				System.arraycopy(chunkHull, 0, candidates, count, chunkHull.length);
+				count += chunkHull.length;
+			}
+			
+			hull = chain(xs, ys, candidates);
+		}
+		
+		if (order == VerticlesOrder.CW) {
+			// keep the starting point in front
+			for (int i = 1, j = hull.length - 1; i < j; ++i, --j) {
+				final int tmp = hull[i];
+				hull[i] = hull[j];
+				hull[j] = tmp;
+			}
+		}
+		
+		return hull;
+	}
+	
+	/**
+	 * Monotone chain over points given by ascending <code>indices</code>.
+	 * The array is reordered.
+	 * 
+	 * @return Hull indices in counter clockwise order.
+	 */
+	private static int[] chain(final float[] xs, final float[] ys, final int[] indices) {
+		if (indices.length == 0) {
+			return new int[0];
+		}
+		
+		sort(xs, ys, indices);
+		
+		// keep the lowest index of duplicates, the sort is stable
+		int n = 1;
+		
+		for (int i = 1; i < indices.length; ++i) {
+			final int prev = indices[n - 1];
+			
+			if (xs[indices[i]] != xs[prev] || ys[indices[i]] != ys[prev]) {
+				indices[n++] = indices[i];
+			}
+		}
+		
+		final int[] hull = new int[n + 1];
+		int k = 0;
+		
+		// lower hull
+		for (int i = 0; i < n; ++i) {
+			while (k >= 2 && !isLeftTurn(xs, ys, hull[k - 2], hull[k - 1], indices[i])) {
+				--k;
+			}
+			hull[k++] = indices[i];
+		}
+		
+		// upper hull
+		for (int i = n - 2, lower = k + 1; i >= 0; --i) {
+			while (k >= lower && !isLeftTurn(xs, ys, hull[k - 2], hull[k - 1], indices[i])) {
+				--k;
+			}
+			hull[k++] = indices[i];
+		}
+		
+		// last point repeats the first one
+		final int size = Math.max(1, k - 1);
+		
+		final int[] result = new int[size];
+		System.arraycopy(hull, 0, result, 0, size);
+		
+		return result;
+	}
+	
+	private static boolean isLeftTurn(float[] xs, float[] ys, int a, int b, int c) {
+		return Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[c], ys[c]) > 0;
+	}
+	
+	private static int[] sortedByIndex(int[] indices) {
+		final int[] result = new int[indices.length];
+		System.arraycopy(indices, 0, result, 0, indices.length);
+		Arrays.sort(result);
+		return result;
+	}
+	
+	/**
+	 * Stable merge sort of <code>indices</code> by X and then Y
+	 * coordinate of points.
+	 */
+	private static void sort(final float[] xs, final float[] ys, final int[] indices) {
+		final int[] buffer = new int[indices.length];
+		int[] src = indices;
+		int[] dst = buffer;
+		
+		for (int width = 1; width < indices.length; width *= 2) {
+			for (int from = 0; from < indices.length; from += 2 * width) {
+				final int middle = Math.min(from + width, indices.length);
+				final int to = Math.min(from + 2 * width, indices.length);
+				
+				int i = from, j = middle, k = from;
+				
+				while (i < middle && j < to) {
+					dst[k++] = isLess(xs, ys, src[j], src[i]) ? src[j++] : src[i++];
+				}
+				
+				while (i < middle) {
+					dst[k++] = src[i++];
+				}
+				
+				while (j < to) {
+					dst[k++] = src[j++];
+				}
+			}
+			
+			final int[] tmp = src;
+			src = dst;
+			dst = tmp;
+		}
+		
+		if (src != indices) {
+			System.arraycopy(src, 0, indices, 0, indices.length);
+		}
+	}
+	
+	private static boolean isLess(float[] xs, float[] ys, int a, int b) {
+		return xs[a] < xs[b] || xs[a] == xs[b] && ys[a] < ys[b];
+	}
+}
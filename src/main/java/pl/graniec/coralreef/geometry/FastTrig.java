@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Trigonometric functions computed in <code>float</code> from
+ * lookup tables.
+ * <p>
+ * Tables resolution is the number of entries per full turn. Values
+ * between entries are linearly interpolated or taken from the nearest
+ * entry. The maximum error of interpolated sine and cosine is about
+ * <code>5 / resolution^2</code> and of the nearest entry about
+ * <code>3 / resolution</code>. Angles are converted to table positions
+ * in <code>float</code>, so the error of {@link #DEFAULT} tables is
+ * about <code>1e-6</code> for angles within a few turns and grows
+ * for larger angles.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class FastTrig {
+	
+	/** Tables with 4096 entries and interpolation */
+	public static final FastTrig DEFAULT = new FastTrig(4096, true);
+	
+	/** Radians to degrees conversion factor */
+	private static final float DEGREES_PER_RADIAN = (float) (180.0 / Math.PI);
+	
+	/** Number of table entries per full turn */
+	private final int resolution;
+	
+	/** Whether values between entries are interpolated */
+	private final boolean interpolate;
+	
+	/** Sine of full turn with one extra entry */
+	private final float[] sin;
+	
+	/** Arcus tangent in degrees of values from 0 to 1 with one extra entry */
+	private final float[] atan;
+	
+	/** Conversion from degrees to sine table position */
+	private final float sinScale;
+	
+	/**
+	 * Creates new tables.
+	 * 
+	 * @param resolution Number of table entries per full turn. Must be a
+	 * power of two not lower than 8.
+	 * @param interpolate Whether values between entries are interpolated.
+	 */
+	public FastTrig(int resolution, boolean interpolate) {
+		if (resolution < 8 || (resolution & (resolution - 1)) != 0) {
+			throw new IllegalArgumentException("resolution must be a power of two >= 8: " + resolution);
+		}
+		
+		this.resolution = resolution;
+		this.interpolate = interpolate;
+		
+		sin = new float[resolution + 1];
+		
+		for (int i = 0; i <= resolution; ++i) {
+			sin[i] = (float) Math.sin(i * 2.0 * Math.PI / resolution);
+		}
+		
+		// one eighth of the turn is enough for arcus tangent
+		final int atanSize = resolution / 8;
+		atan = new float[atanSize + 1];
+		
+		for (int i = 0; i <= atanSize; ++i) {
+			atan[i] = (float) Math.toDegrees(Math.atan((double) i / atanSize));
+		}
+		
+		sinScale = resolution / 360f;
+	}
+	
+	/**
+	 * Computes angle of vector (<code>x</code>, <code>y</code>) in degrees.
+	 * Works like {@link Vector2#angle(float, float)}.
+	 * 
+	 * @return Angle value in degrees from -180 to 180 or {@link Float#NaN}
+	 * for zero-length vector.
+	 */
+	public float atan2Degrees(float y, float x) {
+		final float ax = Math.abs(x);
+		final float ay = Math.abs(y);
+		
+		// reduce to arcus tangent of value from 0 to 1
+		final float position = Math.min(ax, ay) / Math.max(ax, ay) * (atan.length - 1);
+		
+		if (Float.isNaN(position)) {
+			return Float.NaN;
+		}
+		
+		float result = lookup(atan, position);
+		
+		if (ay > ax) {
+			result = 90f - result;
+		}
+		
+		if (x < 0f) {
+			result = 180f - result;
+		}
+		
+		return y < 0f ? -result : result;
+	}
+	
+	/**
+	 * Works like {@link #atan2Degrees(float, float)} but the result is
+	 * in radians.
+	 */
+	public float atan2(float y, float x) {
+		return atan2Degrees(y, x) / DEGREES_PER_RADIAN;
+	}
+	
+	public float cos(float radians) {
+		return cosDegrees(radians * DEGREES_PER_RADIAN);
+	}
+	
+	public float cosDegrees(float degrees) {
+		return sinDegrees(degrees + 90f);
+	}
+	
+	public final int getResolution() {
+		return resolution;
+	}
+	
+	public final boolean isInterpolating() {
+		return interpolate;
+	}
+	
+	public float sin(float radians) {
+		return sinDegrees(radians * DEGREES_PER_RADIAN);
+	}
+	
+	public float sinDegrees(float degrees) {
+		final float position = degrees * sinScale;
+		final float floor = (float) Math.floor(position);
+		
+		// wrap to a single turn; resolution is a power of two
+		final int index = (int) (long) floor & (resolution - 1);
+		
+		if (!interpolate) {
+			return position - floor < 0.5f ? sin[index] : sin[index + 1];
+		}
+		
+		return sin[index] + (sin[index + 1] - sin[index]) * (position - floor);
+	}
+	
+	/**
+	 * Reads value from <code>table</code> at fractional, non-negative
+	 * <code>position</code>.
+	 */
+	private float lookup(float[] table, float position) {
+		final int index = (int) position;
+		final float fraction = position - index;
+		
+		if (index >= table.length - 1) {
+			return table[table.length - 1];
+		}
+		
+		if (!interpolate) {
+			return fraction < 0.5f ? table[index] : table[index + 1];
+		}
+		
+		return table[index] + (table[index + 1] - table[index]) * fraction;
+	}
+	
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return FastTrig.class.getSimpleName() + "[resolution=" + resolution + ",interpolate=" + interpolate + "]";
+	}
+}
@@ -30,57 +30,197 @@ package pl.graniec.coralreef.geometry;
 
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 
 /**
  * Geometry in two dimensional space.
+ * <p>
+ * Verticles are kept in a {@link PointBuffer}, so the geometry
+ * stores only their coordinates. {@link Point2} objects passed to
+ * it are copied and objects returned from {@link #getVerticles()}
+ * are new ones.
+ * <p>
+ * The bounding box of verticles is computed on first request and
+ * cached until verticles are added. Translation moves the cached box
+ * instead of dropping it. Subclasses that change {@link #verticles}
+ * directly have to call {@link #invalidateBounds()}.
+ * 
  * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
  *
  */
 public class Geometry {
 	/** Verticles that creates this geometry */
-	protected final List verticles = new LinkedList();
+	protected final PointBuffer verticles;
+	
+	/** Cached bounds of verticles, valid only if <code>boundsValid</code> */
+	private final Box2 bounds = new Box2(0, 0, 0, 0);
+	private boolean boundsValid;
 	
 	public Geometry() {
+		verticles = new PointBuffer();
 	}
 	
 	/**
 	 * The copy constructor of Geometry object. It creates a
-	 * new geometry from totally new {@link Point2} objects so
+	 * new geometry with its own copy of verticles so
 	 * two copies can act separately.
 	 * 
 	 * @param other The other Geometry object to copy.
 	 */
 	public Geometry(final Geometry other) {
-		for (final Iterator itor = other.verticles.iterator(); itor.hasNext();) {
-			verticles.add(new Point2((Point2) itor.next()));
+		verticles = new PointBuffer(other.verticles);
+		
+		if (other.boundsValid) {
+			setBounds(other.bounds);
 		}
 	}
 	
+	public void addVerticle(float x, float y) {
+		verticles.add(x, y);
+		invalidateBounds();
+	}
+	
 	public void addVerticle(Point2 point) {
-		verticles.add(point);
+		verticles.add(point.x, point.y);
+		invalidateBounds();
 	}
 	
-	public void addVerticles(Collection verticles) {
-		verticles.addAll(verticles);
+	public void addVerticle(ImmutablePoint2 point) {
+		verticles.add(point.getX(), point.getY());
+		invalidateBounds();
+	}
+	
+	/**
+	 * Adds verticles from a collection of {@link Point2} or
+	 * {@link ImmutablePoint2} objects.
+	 */
+	public void addVerticles(Collection points) {
+		verticles.ensureCapacity(verticles.size() + points.size());
+		
+		for (final Iterator itor = points.iterator(); itor.hasNext();) {
+			final Object point = itor.next();
+			
+			if (point instanceof ImmutablePoint2) {
+				addVerticle((ImmutablePoint2) point);
+			} else {
+				addVerticle((Point2) point);
+			}
+		}
 	}
 	
 	public void addVerticles(Point2[] points) {
+		verticles.ensureCapacity(verticles.size() + points.length);
+		
 		for (int i = 0; i < points.length; ++i) {
-			verticles.add(points[i]);
+			addVerticle(points[i]);
+		}
+	}
+	
+	/**
+	 * Adds <code>len</code> verticles from interleaved
+	 * <code>x0, y0, x1, y1, ...</code> coordinates array.
+	 * 
+	 * @see PointBuffer#addVerticles(float[], int, int)
+	 */
+	public void addVerticles(float[] xy, int off, int len) {
+		verticles.addVerticles(xy, off, len);
+		invalidateBounds();
+	}
+	
+	/**
+	 * Gives the bounding box of verticles.
+	 * 
+	 * @return New box or <code>null</code> if there are no verticles.
+	 * 
+	 * @see #getBounds(Box2)
+	 */
+	public Box2 getBounds() {
+		final Box2 result = new Box2(0, 0, 0, 0);
+		return getBounds(result) ? result : null;
+	}
+	
+	/**
+	 * Stores the bounding box of verticles in <code>result</code>.
+	 * <code>left</code> and <code>top</code> receive the minimal
+	 * coordinates, <code>right</code> and <code>bottom</code> the
+	 * maximal ones. The box is computed only when verticles has
+	 * been added since the last call.
+	 * 
+	 * @param result Box that will receive the bounds.
+	 * 
+	 * @return <code>false</code> if there are no verticles. Then
+	 * <code>result</code> is left untouched.
+	 */
+	public boolean getBounds(Box2 result) {
+		if (!boundsValid) {
+			if (!verticles.getBounds(bounds)) {
+				return false;
+			}
+			
+			boundsValid = true;
 		}
+		
+		result.set(bounds.left, bounds.top, bounds.right, bounds.bottom);
+		
+		return true;
+	}
+	
+	/**
+	 * Gives verticle at <code>index</code> as a value that can be kept
+	 * and shared without copying.
+	 * 
+	 * @return New point.
+	 */
+	public ImmutablePoint2 getVerticle(int index) {
+		return new ImmutablePoint2(verticles.getX(index), verticles.getY(index));
 	}
 	
+	/**
+	 * Works like {@link #getVerticle(int)} but gives points shared
+	 * through <code>interner</code>.
+	 */
+	public ImmutablePoint2 getVerticle(int index, PointInterner interner) {
+		return interner.intern(verticles.getX(index), verticles.getY(index));
+	}
+	
+	/**
+	 * Gives the number of verticles without copying them.
+	 * 
+	 * @return Number of verticles.
+	 */
+	public int getVerticleCount() {
+		return verticles.size();
+	}
+	
+	/**
+	 * Creates new {@link Point2} objects from verticles of
+	 * this geometry. Changing them doesn't change the geometry.
+	 * 
+	 * @return Array of verticles.
+	 */
 	public Point2[] getVerticles() {
-		return (Point2[]) verticles.toArray(new Point2[verticles.size()]);
+		return verticles.toPoints();
 	}
 	
 	/*
 	 * @see java.lang.Object#toString()
 	 */
 	public String toString() {
-		return Geometry.class.getSimpleName() + "[verticles=" + verticles + "]";
+		final StringBuffer buf = new StringBuffer();
+		buf.append(Geometry.class.getSimpleName());
+		buf.append("[verticles=[");
+		
+		final Point2 p = new Point2(0, 0);
+		
+		for (int i = 0; i < verticles.size(); ++i) {
+			if (i > 0) {
+				buf.append(", ");
+			}
+			buf.append(verticles.get(i, p));
+		}
+		
+		buf.append("]]");
+		
+		return buf.toString();
 	}
 	
 	/**
@@ -91,10 +231,47 @@ public class Geometry {
 	 * @param y The translation value for Y coordinate.
 	 */
 	public void translate(float x, float y) {
-		for (final Iterator itor = verticles.iterator(); itor.hasNext();) {
-			final Point2 p = (Point2) itor.next();
-			p.x += x;
-			p.y += y;
+		verticles.translate(x, y);
+		translateBounds(x, y);
+	}
+	
+	/**
+	 * Drops the cached bounding box, so it will be computed again
+	 * on the next request.
+	 */
+	protected void invalidateBounds() {
+		boundsValid = false;
+	}
+	
+	/**
+	 * Copies the cached bounding box to <code>result</code>.
+	 * 
+	 * @return <code>false</code> if there is no valid cached box.
+	 */
+	final boolean getCachedBounds(Box2 result) {
+		if (boundsValid) {
+			result.set(bounds.left, bounds.top, bounds.right, bounds.bottom);
+		}
+		
+		return boundsValid;
+	}
+	
+	/**
+	 * Stores already computed bounds of verticles in the cache.
+	 */
+	final void setBounds(Box2 box) {
+		bounds.set(box.left, box.top, box.right, box.bottom);
+		boundsValid = true;
+	}
+	
+	/**
+	 * Moves the cached bounding box after verticles has been
+	 * translated. Rounding is monotonic, so the moved box is
+	 * the same as the recomputed one.
+	 */
+	final void translateBounds(float x, float y) {
+		if (boundsValid) {
+			bounds.set(bounds.left + x, bounds.top + y, bounds.right + x, bounds.bottom + y);
 		}
 	}
 }
@@ -0,0 +1,402 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads geometries, segments and boxes written by {@link GeometryWriter}
+ * from a channel. Records have to be read with the method matching
+ * their kind, in the order they were written.
+ * <p>
+ * Float runs are copied in bulk straight into the verticle arrays of
+ * the geometry, so no object is created per verticle. The channel
+ * must be blocking.
+ * <pre>
+ * final GeometryReader reader = new GeometryReader(
+ *         new FileInputStream(file).getChannel());
+ * 
+ * for (Geometry g = reader.read(); g != null; g = reader.read()) {
+ *     ...
+ * }
+ * 
+ * reader.close();
+ * </pre>
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class GeometryReader {
+	
+	/** Verticles a record may allocate before any of them are read */
+	private static final int MIN_GROWTH = 1 << 10;
+	
+	private final ReadableByteChannel channel;
+	private final ByteBuffer buffer;
+	
+	/** Format version of the stream */
+	private final int version;
+	
+	/** Encoding and size of the current record */
+	private byte encoding;
+	private int count;
+	
+	/**
+	 * Reads the stream header.
+	 * 
+	 * @throws IOException if the stream is not a geometry stream or
+	 * its version is not supported.
+	 */
+	public GeometryReader(final ReadableByteChannel channel) throws IOException {
+		this(channel, GeometryWriter.DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * @param bufferSize Size of the buffer in bytes.
+	 * 
+	 * @see #GeometryReader(ReadableByteChannel)
+	 */
+	public GeometryReader(final ReadableByteChannel channel, final int bufferSize) throws IOException {
+		if (bufferSize < GeometryWriter.MIN_BUFFER_SIZE) {
+			throw new IllegalArgumentException("buffer size too small: " + bufferSize);
+		}
+		
+		this.channel = channel;
+		
+		buffer = ByteBuffer.allocateDirect(bufferSize);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.flip();
+		
+		if (!fill(8)) {
+			throw new EOFException("missing stream header");
+		}
+		
+		if (buffer.getInt() != GeometryWriter.MAGIC) {
+			throw new IOException("not a geometry stream");
+		}
+		
+		version = buffer.getInt();
+		
+		if (version < 1 || version > GeometryWriter.VERSION) {
+			throw new IOException("unsupported version: " + version);
+		}
+	}
+	
+	public void close() throws IOException {
+		channel.close();
+	}
+	
+	public final int getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Reads the next geometry.
+	 * 
+	 * @return New geometry or <code>null</code> at the end of stream.
+	 */
+	public Geometry read() throws IOException {
+		final Geometry result = new Geometry();
+		return read(result) ? result : null;
+	}
+	
+	/**
+	 * Reads the next geometry adding its verticles to <code>result</code>.
+	 * 
+	 * @return <code>false</code> at the end of stream.
+	 */
+	public boolean read(final Geometry result) throws IOException {
+		if (read(result.verticles) < 0) {
+			return false;
+		}
+		
+		result.invalidateBounds();
+		return true;
+	}
+	
+	/**
+	 * Reads the next geometry adding its verticles to <code>result</code>.
+	 * When the stream is broken, <code>result</code> is left unchanged.
+	 * 
+	 * @return Number of read verticles or <code>-1</code> at the end
+	 * of stream.
+	 * 
+	 * @throws IOException also if the next record is not a geometry.
+	 */
+	public int read(final PointBuffer result) throws IOException {
+		if (!readHeader()) {
+			return -1;
+		}
+		
+		final int start = result.size();
+		
+		if (encoding != GeometryWriter.FLOATS && encoding != GeometryWriter.QUANTIZED) {
+			throw new IOException("not a geometry record: " + encoding);
+		}
+		
+		if (count > Integer.MAX_VALUE - start) {
+			throw new IOException("invalid number of verticles: " + count);
+		}
+		
+		try {
+			if (encoding == GeometryWriter.FLOATS) {
+				getFloats(result, start, count);
+			} else {
+				getQuantized(result, start, count);
+			}
+		} catch (IOException e) {
+			result.truncate(start);
+			throw e;
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Reads the next segment record.
+	 * 
+	 * @return New segments or <code>null</code> at the end of stream.
+	 */
+	public Segment[] readSegments() throws IOException {
+		if (!readHeader()) {
+			return null;
+		}
+		
+		if (encoding != GeometryWriter.SEGMENTS) {
+			throw new IOException("not a segment record: " + encoding);
+		}
+		
+		Segment[] result = new Segment[0];
+		
+		for (int i = 0; i < count; ++i) {
+			if (i == result.length) {
+				final Segment[] grown = new Segment[i + step(i, count)];
+				System.arraycopy(result, 0, grown, 0, i);
+				result = grown;
+			}
+			
+			if (!fill(16)) {
+				throw new EOFException("truncated segments");
+			}
+			
+			result[i] = new Segment(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Reads the next box record.
+	 * 
+	 * @return New boxes or <code>null</code> at the end of stream.
+	 */
+	public Box2[] readBoxes() throws IOException {
+		if (!readHeader()) {
+			return null;
+		}
+		
+		if (encoding != GeometryWriter.BOXES) {
+			throw new IOException("not a box record: " + encoding);
+		}
+		
+		Box2[] result = new Box2[0];
+		
+		for (int i = 0; i < count; ++i) {
+			if (i == result.length) {
+				final Box2[] grown = new Box2[i + step(i, count)];
+				System.arraycopy(result, 0, grown, 0, i);
+				result = grown;
+			}
+			
+			if (!fill(16)) {
+				throw new EOFException("truncated boxes");
+			}
+			
+			result[i] = new Box2(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Reads encoding and count of the next record.
+	 * 
+	 * @return <code>false</code> at the end of stream.
+	 */
+	private boolean readHeader() throws IOException {
+		if (!fill(5)) {
+			if (!buffer.hasRemaining()) {
+				return false;
+			}
+			throw new EOFException("truncated record");
+		}
+		
+		encoding = buffer.get();
+		count = buffer.getInt();
+		
+		if (count < 0) {
+			throw new IOException("invalid record size: " + count);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Makes sure that at least <code>bytes</code> are available in
+	 * the buffer, reading more from the channel if needed.
+	 * 
+	 * @return <code>false</code> if the stream ended before.
+	 */
+	private boolean fill(final int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return true;
+		}
+		
+		buffer.compact();
+		
+		try {
+			while (buffer.position() < bytes) {
+				if (channel.read(buffer) < 0) {
+					return false;
+				}
+			}
+		} finally {
+			buffer.flip();
+		}
+		
+		return true;
+	}
+	
+	private void getFloats(final float[] dst, int off, int len) throws IOException {
+		while (len > 0) {
+			if (!fill(4)) {
+				throw new EOFException("truncated coordinates");
+			}
+			
+			final int n = Math.min(len, buffer.remaining() >> 2);
+			
+			buffer.asFloatBuffer().get(dst, off, n);
+			buffer.position(buffer.position() + (n << 2));
+			
+			off += n;
+			len -= n;
+		}
+	}
+	
+	/**
+	 * Tells how many more elements to allocate for a record of
+	 * <code>count</code> elements, <code>read</code> of which are
+	 * already there. Growth follows the data that has actually
+	 * arrived, so a corrupt count cannot allocate much more memory
+	 * than the stream holds.
+	 */
+	private static int step(final int read, final int count) {
+		return Math.min(count - read, Math.max(read, MIN_GROWTH));
+	}
+	
+	/**
+	 * Grows <code>result</code> by the next {@link #step(int, int)}.
+	 * 
+	 * @return Number of added verticles.
+	 */
+	private static int grow(final PointBuffer result, final int read, final int count) {
+		final int n = step(read, count);
+		
+		result.extend(n);
+		return n;
+	}
+	
+	private void getFloats(final PointBuffer result, final int start, final int count) throws IOException {
+		for (int read = 0; read < count;) {
+			final int n = grow(result, read, count);
+			
+			getFloats(result.xArray(), start + read, n);
+			read += n;
+		}
+		
+		getFloats(result.yArray(), start, count);
+	}
+	
+	private void getQuantized(final PointBuffer result, final int start, final int count) throws IOException {
+		if (!fill(4)) {
+			throw new EOFException("truncated quantum");
+		}
+		
+		final double quantum = buffer.getFloat();
+		
+		if (!(quantum > 0) || Double.isInfinite(quantum)) {
+			throw new IOException("invalid quantum: " + quantum);
+		}
+		
+		long x = 0, y = 0;
+		float[] xs = null, ys = null;
+		
+		for (int i = start; i < start + count; ++i) {
+			if (i == result.size()) {
+				grow(result, i - start, count);
+				
+				xs = result.xArray();
+				ys = result.yArray();
+			}
+			
+			x += unZigZag(getVarint());
+			y += unZigZag(getVarint());
+			
+			xs[i] = (float) (x * quantum);
+			ys[i] = (float) (y * quantum);
+		}
+	}
+	
+	private long getVarint() throws IOException {
+		long result = 0;
+		
+		for (int shift = 0; shift < 64; shift += 7) {
+			if (!buffer.hasRemaining() && !fill(1)) {
+				throw new EOFException("truncated coordinates");
+			}
+			
+			final byte b = buffer.get();
+			result |= (long) (b & 0x7F) << shift;
+			
+			if (b >= 0) {
+				return result;
+			}
+		}
+		
+		throw new IOException("malformed variable length integer");
+	}
+	
+	private static long unZigZag(final long v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+}
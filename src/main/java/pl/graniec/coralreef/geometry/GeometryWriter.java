@@ -0,0 +1,328 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes geometries, segments and boxes to a channel in binary format,
+ * to be read back by {@link GeometryReader}.
+ * <p>
+ * All values are little-endian. The stream starts with a header of
+ * two <code>int</code> values: magic number (bytes <code>CRGM</code>)
+ * and format {@link #VERSION}. Every geometry, segment array or box
+ * array follows as a record:
+ * <ul>
+ * <li>encoding (<code>byte</code>),</li>
+ * <li>number of verticles, segments or boxes (<code>int</code>),</li>
+ * <li>for float encoding: X coordinates of all verticles followed by
+ * Y coordinates of all verticles, as <code>float</code> runs,</li>
+ * <li>for quantized encoding: quantum (<code>float</code>) followed by
+ * X and Y differences of every verticle from the previous one (the
+ * first one from the origin), in multiples of quantum, as zig-zag
+ * encoded variable length integers,</li>
+ * <li>for segment encoding: <code>x1</code>, <code>y1</code>,
+ * <code>x2</code> and <code>y2</code> of every segment as
+ * <code>float</code> values,</li>
+ * <li>for box encoding: <code>left</code>, <code>top</code>,
+ * <code>right</code> and <code>bottom</code> of every box as
+ * <code>float</code> values.</li>
+ * </ul>
+ * Float encoding stores coordinates exactly and is fastest to read
+ * and write. Quantized encoding rounds coordinates to multiples of
+ * the quantum and is much smaller for verticles close to each other.
+ * <p>
+ * Writes are buffered, so {@link #flush()} or {@link #close()}
+ * has to be called at the end. The channel must be blocking.
+ * <pre>
+ * final GeometryWriter writer = new GeometryWriter(
+ *         new FileOutputStream(file).getChannel());
+ * 
+ * writer.write(geometry);
+ * writer.close();
+ * </pre>
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class GeometryWriter {
+	
+	/** Current format version */
+	public static final int VERSION = 1;
+	
+	/** Default size of the buffer in bytes */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+	
+	/** Magic number at the start of the stream, bytes "CRGM" */
+	static final int MAGIC = 0x4D475243;
+	
+	/** Record encodings */
+	static final byte FLOATS = 0;
+	static final byte QUANTIZED = 1;
+	static final byte SEGMENTS = 2;
+	static final byte BOXES = 3;
+	
+	/** Minimal buffer size, enough for the largest fixed size part */
+	static final int MIN_BUFFER_SIZE = 32;
+	
+	/** Magnitude limit of quantized coordinates, so differences fit in long */
+	private static final double MAX_QUANTIZED = (double) (1L << 61);
+	
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer;
+	
+	public GeometryWriter(final WritableByteChannel channel) {
+		this(channel, DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * @param bufferSize Size of the buffer in bytes.
+	 */
+	public GeometryWriter(final WritableByteChannel channel, final int bufferSize) {
+		if (bufferSize < MIN_BUFFER_SIZE) {
+			throw new IllegalArgumentException("buffer size too small: " + bufferSize);
+		}
+		
+		this.channel = channel;
+		
+		buffer = ByteBuffer.allocateDirect(bufferSize);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+	}
+	
+	/**
+	 * Flushes the buffer and closes the channel.
+	 */
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+	
+	/**
+	 * Writes all buffered data to the channel.
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		
+		buffer.clear();
+	}
+	
+	/**
+	 * Writes verticles of <code>geometry</code> with float encoding.
+	 */
+	public void write(final Geometry geometry) throws IOException {
+		final PointBuffer verticles = geometry.verticles;
+		write(verticles.xArray(), verticles.yArray(), 0, verticles.size());
+	}
+	
+	/**
+	 * Writes <code>len</code> verticles starting at <code>off</code>
+	 * index of <code>xs</code> and <code>ys</code> as a single geometry
+	 * with float encoding.
+	 */
+	public void write(final float[] xs, final float[] ys, final int off, final int len) throws IOException {
+		checkRange(xs, ys, off, len);
+		
+		reserve(5);
+		buffer.put(FLOATS);
+		buffer.putInt(len);
+		
+		putFloats(xs, off, len);
+		putFloats(ys, off, len);
+	}
+	
+	/**
+	 * Writes verticles of <code>geometry</code> with quantized encoding.
+	 * 
+	 * @param quantum Coordinates are rounded to multiples of this value.
+	 */
+	public void write(final Geometry geometry, final float quantum) throws IOException {
+		final PointBuffer verticles = geometry.verticles;
+		write(verticles.xArray(), verticles.yArray(), 0, verticles.size(), quantum);
+	}
+	
+	/**
+	 * Works like {@link #write(float[], float[], int, int)} but with
+	 * quantized encoding.
+	 * 
+	 * @param quantum Coordinates are rounded to multiples of this value.
+	 * 
+	 * @throws IllegalArgumentException when quantum is not positive and
+	 * finite or a coordinate is not finite or too large for it. Nothing
+	 * is written then.
+	 */
+	public void write(
+			final float[] xs, final float[] ys, final int off, final int len,
+			final float quantum
+	) throws IOException {
+		checkRange(xs, ys, off, len);
+		
+		if (!(quantum > 0f) || Float.isInfinite(quantum)) {
+			throw new IllegalArgumentException("invalid quantum: " + quantum);
+		}
+		
+		// check all coordinates first so no partial record is written
+		for (int i = off; i < off + len; ++i) {
+			if (!(Math.abs(xs[i] / (double) quantum) < MAX_QUANTIZED)) {
+				throw new IllegalArgumentException("cannot quantize x=" + xs[i] + " at " + i);
+			}
+			if (!(Math.abs(ys[i] / (double) quantum) < MAX_QUANTIZED)) {
+				throw new IllegalArgumentException("cannot quantize y=" + ys[i] + " at " + i);
+			}
+		}
+		
+		reserve(9);
+		buffer.put(QUANTIZED);
+		buffer.putInt(len);
+		buffer.putFloat(quantum);
+		
+		long lastX = 0, lastY = 0;
+		
+		for (int i = off; i < off + len; ++i) {
+			final long x = quantize(xs[i], quantum);
+			final long y = quantize(ys[i], quantum);
+			
+			// two longest variable length integers
+			reserve(20);
+			putVarint(zigZag(x - lastX));
+			putVarint(zigZag(y - lastY));
+			
+			lastX = x;
+			lastY = y;
+		}
+	}
+	
+	/**
+	 * Writes <code>len</code> segments starting at <code>off</code>
+	 * index of <code>segments</code> as a single record.
+	 */
+	public void write(final Segment[] segments, final int off, final int len) throws IOException {
+		checkRange(segments.length, off, len);
+		
+		reserve(5);
+		buffer.put(SEGMENTS);
+		buffer.putInt(len);
+		
+		for (int i = off; i < off + len; ++i) {
+			final Segment segment = segments[i];
+			
+			reserve(16);
+			buffer.putFloat(segment.x1);
+			buffer.putFloat(segment.y1);
+			buffer.putFloat(segment.x2);
+			buffer.putFloat(segment.y2);
+		}
+	}
+	
+	/**
+	 * Writes <code>len</code> boxes starting at <code>off</code>
+	 * index of <code>boxes</code> as a single record.
+	 */
+	public void write(final Box2[] boxes, final int off, final int len) throws IOException {
+		checkRange(boxes.length, off, len);
+		
+		reserve(5);
+		buffer.put(BOXES);
+		buffer.putInt(len);
+		
+		for (int i = off; i < off + len; ++i) {
+			final Box2 box = boxes[i];
+			
+			reserve(16);
+			buffer.putFloat(box.left);
+			buffer.putFloat(box.top);
+			buffer.putFloat(box.right);
+			buffer.putFloat(box.bottom);
+		}
+	}
+	
+	private static void checkRange(final int length, final int off, final int len) {
+		if (off < 0 || len < 0 || off + len > length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+	}
+	
+	private static void checkRange(final float[] xs, final float[] ys, final int off, final int len) {
+		if (off < 0 || len < 0 || off + len > xs.length || off + len > ys.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+	}
+	
+	private static long quantize(final float v, final float quantum) {
+		return (long) Math.floor(v / (double) quantum + 0.5);
+	}
+	
+	private static long zigZag(final long v) {
+		return (v << 1) ^ (v >> 63);
+	}
+	
+	private void putFloats(final float[] src, int off, int len) throws IOException {
+		while (len > 0) {
+			reserve(4);
+			
+			final int n = Math.min(len, buffer.remaining() >> 2);
+			
+			buffer.asFloatBuffer().put(src, off, n);
+			buffer.position(buffer.position() + (n << 2));
+			
+			off += n;
+			len -= n;
+		}
+	}
+	
+	private void putVarint(long v) {
+		while ((v & ~0x7FL) != 0) {
+			buffer.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		
+		buffer.put((byte) v);
+	}
+	
+	/**
+	 * Flushes the buffer if there is less than <code>bytes</code> free.
+	 */
+	private void reserve(final int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Immutable counterpart of {@link Point2}.
+ * <p>
+ * Points with coordinates that repeat often, like ones snapped to a
+ * grid, can be shared through a {@link PointInterner}.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class ImmutablePoint2 extends ImmutableVector2 {
+	
+	/** Point (0, 0) */
+	public static final ImmutablePoint2 ORIGIN = new ImmutablePoint2(0f, 0f);
+	
+	public ImmutablePoint2(final float x, final float y) {
+		super(x, y);
+	}
+	
+	public ImmutablePoint2(final Point2 other) {
+		super(other.x, other.y);
+	}
+	
+	public float distanceTo(final ImmutablePoint2 other) {
+		return Vector2.length(getX() - other.getX(), getY() - other.getY());
+	}
+	
+	public float distanceTo(final Point2 other) {
+		return Vector2.length(getX() - other.x, getY() - other.y);
+	}
+	
+	/**
+	 * Checks if <code>point</code> has the same coordinates.
+	 */
+	public boolean isAt(final Point2 point) {
+		return
+			Float.floatToIntBits(getX()) == Float.floatToIntBits(point.x) &&
+			Float.floatToIntBits(getY()) == Float.floatToIntBits(point.y);
+	}
+	
+	/**
+	 * @return New mutable point with the same coordinates.
+	 */
+	public Point2 toPoint2() {
+		return new Point2(getX(), getY());
+	}
+	
+	/**
+	 * @return This point moved by <code>x</code> and <code>y</code>.
+	 */
+	public ImmutablePoint2 translate(final float x, final float y) {
+		return new ImmutablePoint2(getX() + x, getY() + y);
+	}
+	
+	public String toString() {
+		return ImmutablePoint2.class.getSimpleName() + "[x=" + getX() + ",y=" + getY() + "]";
+	}
+}
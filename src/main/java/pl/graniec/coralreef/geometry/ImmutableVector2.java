@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Immutable counterpart of {@link Vector2}.
+ * <p>
+ * Instances never change, so they can be shared instead of copied,
+ * used as hash keys and passed between threads freely. Operations
+ * give new instances.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class ImmutableVector2 {
+	
+	/** Zero-length vector */
+	public static final ImmutableVector2 ZERO = new ImmutableVector2(0f, 0f);
+	
+	private final float x, y;
+	
+	public ImmutableVector2(final float x, final float y) {
+		this.x = x;
+		this.y = y;
+	}
+	
+	public ImmutableVector2(final Vector2 other) {
+		this(other.x, other.y);
+	}
+	
+	public final float getX() {
+		return x;
+	}
+	
+	public final float getY() {
+		return y;
+	}
+	
+	/**
+	 * @return Sum of this and <code>other</code> vector.
+	 */
+	public final ImmutableVector2 add(final ImmutableVector2 other) {
+		return new ImmutableVector2(x + other.x, y + other.y);
+	}
+	
+	/**
+	 * Calculates angle of this vector.
+	 * 
+	 * @return Angle value in degrees from -180 to 180.
+	 * 
+	 * @see Vector2#angle(float, float)
+	 */
+	public final float angle() {
+		return Vector2.angle(x, y);
+	}
+	
+	public final float dotProduct(final ImmutableVector2 other) {
+		return x * other.x + y * other.y;
+	}
+	
+	/*
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ImmutableVector2 other = (ImmutableVector2) obj;
+		if (Float.floatToIntBits(x) != Float.floatToIntBits(other.x))
+			return false;
+		if (Float.floatToIntBits(y) != Float.floatToIntBits(other.y))
+			return false;
+		return true;
+	}
+	
+	/*
+	 * @see java.lang.Object#hashCode()
+	 */
+	public int hashCode() {
+		return Vector2.hashCode(x, y);
+	}
+	
+	public final float length() {
+		return Vector2.length(x, y);
+	}
+	
+	/**
+	 * @return This vector multiplied by <code>value</code>.
+	 */
+	public final ImmutableVector2 multiply(final float value) {
+		return new ImmutableVector2(x * value, y * value);
+	}
+	
+	/**
+	 * @return Vector of length 1 pointing the same direction.
+	 */
+	public final ImmutableVector2 normalize() {
+		final float length = length();
+		return new ImmutableVector2(x / length, y / length);
+	}
+	
+	/**
+	 * @return Difference of this and <code>other</code> vector.
+	 */
+	public final ImmutableVector2 substract(final ImmutableVector2 other) {
+		return new ImmutableVector2(x - other.x, y - other.y);
+	}
+	
+	/**
+	 * @return New mutable vector with the same coordinates.
+	 */
+	public final Vector2 toVector2() {
+		return new Vector2(x, y);
+	}
+	
+	public String toString() {
+		return ImmutableVector2.class.getSimpleName() + "[x=" + x + ",y=" + y + "]";
+	}
+}
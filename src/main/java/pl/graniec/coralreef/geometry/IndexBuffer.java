@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Growable buffer of <code>int</code> values. Used to return
+ * indices and handles from queries without creating objects.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class IndexBuffer {
+	
+	/** Default initial capacity */
+	private static final int DEFAULT_CAPACITY = 16;
+	
+	/** Buffer values */
+	private int[] values;
+	
+	/** Number of values in this buffer */
+	private int size;
+	
+	public IndexBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	public IndexBuffer(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity cannot be negative: " + capacity);
+		}
+		
+		values = new int[capacity];
+	}
+	
+	/**
+	 * Adds <code>value</code> to the end of this buffer.
+	 */
+	public final void add(final int value) {
+		if (size == values.length) {
+			ensureCapacity(size + 1);
+		}
+		
+		values[size++] = value;
+	}
+	
+	/**
+	 * Gives direct access to the values array. Only the first
+	 * {@link #size()} elements are valid. The array is shared with
+	 * this buffer until the buffer grows.
+	 * 
+	 * @return Backing array of values.
+	 */
+	public final int[] array() {
+		return values;
+	}
+	
+	/**
+	 * Removes all values from this buffer. Capacity is not changed.
+	 */
+	public final void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Makes sure that this buffer can hold at least <code>capacity</code>
+	 * values without growing.
+	 * 
+	 * @param capacity Minimal capacity.
+	 */
+	public final void ensureCapacity(final int capacity) {
+		if (capacity <= values.length) {
+			return;
+		}
+		
+		int newCapacity = values.length + (values.length >> 1) + 1;
+		
+		if (newCapacity < capacity) {
+			newCapacity = capacity;
+		}
+		
+		final int[] newValues = new int[newCapacity];
+		System.arraycopy(values, 0, newValues, 0, size);
+		values = newValues;
+	}
+	
+	public final int get(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index=" + index + ",size=" + size);
+		}
+		
+		return values[index];
+	}
+	
+	public final int size() {
+		return size;
+	}
+	
+	/**
+	 * @return New array with all values of this buffer.
+	 */
+	public final int[] toArray() {
+		final int[] result = new int[size];
+		System.arraycopy(values, 0, result, 0, size);
+		return result;
+	}
+	
+	/**
+	 * Removes values from the end of this buffer so that only
+	 * <code>size</code> first values are left.
+	 * 
+	 * @param size New size, not greater than the current one.
+	 */
+	public final void truncate(final int size) {
+		if (size < 0 || size > this.size) {
+			throw new IndexOutOfBoundsException("size=" + size + ",current=" + this.size);
+		}
+		
+		this.size = size;
+	}
+	
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		final StringBuffer buf = new StringBuffer();
+		buf.append(IndexBuffer.class.getSimpleName());
+		buf.append("[values=[");
+		
+		for (int i = 0; i < size; ++i) {
+			if (i > 0) {
+				buf.append(", ");
+			}
+			buf.append(values[i]);
+		}
+		
+		buf.append("]]");
+		
+		return buf.toString();
+	}
+}
@@ -0,0 +1,471 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Immutable two dimensional k-d tree for nearest neighbour and
+ * range searches over a set of points.
+ * <p>
+ * The tree is stored implicitly in arrays: points are reordered so
+ * that every node is the median of its range. Queries work on squared
+ * distances and don't create any objects, so a single tree can be
+ * queried from many threads at once.
+ * <p>
+ * Queries return indices of points in the array the tree was
+ * built from.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class KdTree2 {
+	
+	/** Minimal number of points to build subtrees on separate threads */
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+	
+	/** Reordered point coordinates */
+	private final float[] xs, ys;
+	
+	/** Original indices of reordered points */
+	private final int[] indices;
+	
+	/** Split axis of every node; <code>0</code> for X and <code>1</code> for Y */
+	private final byte[] axes;
+	
+	public KdTree2(Point2[] points) {
+		this(points.length);
+		
+		for (int i = 0; i < points.length; ++i) {
+			xs[i] = points[i].x;
+			ys[i] = points[i].y;
+			indices[i] = i;
+		}
+		
+		build(true);
+	}
+	
+	public KdTree2(PointBuffer points) {
+		this(points.xArray(), points.yArray(), 0, points.size());
+	}
+	
+	/**
+	 * Works like {@link #KdTree2(float[], float[], int, int, boolean)}
+	 * with parallel building of large trees.
+	 */
+	public KdTree2(float[] xs, float[] ys, int off, int len) {
+		this(xs, ys, off, len, true);
+	}
+	
+	/**
+	 * Builds a tree from <code>len</code> points starting at <code>off</code>
+	 * index. Indices returned by queries are counted from <code>off</code>.
+	 * Coordinates are copied so arrays can be changed later.
+	 * 
+	 * @param xs X coordinates.
+	 * @param ys Y coordinates.
+	 * @param off Index of the first point.
+	 * @param len Number of points.
+	 * @param parallel Whether large trees may be built on multiple threads.
+	 */
+	public KdTree2(float[] xs, float[] ys, int off, int len, boolean parallel) {
+		this(len);
+		
+		System.arraycopy(xs, off, this.xs, 0, len);
+		System.arraycopy(ys, off, this.ys, 0, len);
+		
+		for (int i = 0; i < len; ++i) {
+			indices[i] = i;
+		}
+		
+		build(parallel);
+	}
+	
+	private KdTree2(int size) {
+		xs = new float[size];
+		ys = new float[size];
+		indices = new int[size];
+		axes = new byte[size];
+	}
+	
+	/**
+	 * Finds the point nearest to (<code>x</code>, <code>y</code>).
+	 * 
+	 * @return Index of the nearest point or <code>-1</code> if the tree is empty.
+	 */
+	public int nearest(float x, float y) {
+		if (xs.length == 0) {
+			return -1;
+		}
+		
+		return indices[nearest(0, xs.length, x, y, 0)];
+	}
+	
+	/**
+	 * Finds <code>k</code> points nearest to (<code>x</code>, <code>y</code>).
+	 * Found points are ordered from the nearest one.
+	 * 
+	 * @param k Number of points to find.
+	 * @param result Array that receives indices of found points.
+	 * @param squaredDistances Array that receives squared distances of
+	 * found points.
+	 * 
+	 * @return Number of points found; less than <code>k</code> only when
+	 * the tree has less points.
+	 */
+	public int nearest(float x, float y, int k, int[] result, float[] squaredDistances) {
+		if (k > result.length || k > squaredDistances.length) {
+			throw new IllegalArgumentException("result arrays are too small for k=" + k);
+		}
+		
+		final int count = Math.min(k, xs.length);
+		
+		if (count <= 0) {
+			return 0;
+		}
+		
+		// result arrays are used as max-heap of found positions
+		nearest(0, xs.length, x, y, count, result, squaredDistances, 0);
+		
+		// heap sort to ascending distances
+		for (int end = count - 1; end > 0; --end) {
+			swap(result, squaredDistances, 0, end);
+			siftDown(result, squaredDistances, 0, end);
+		}
+		
+		for (int i = 0; i < count; ++i) {
+			result[i] = indices[result[i]];
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Finds all points that are not further than <code>radius</code>
+	 * from (<code>x</code>, <code>y</code>).
+	 * 
+	 * @param result Buffer that receives indices of found points.
+	 * 
+	 * @return Number of points found.
+	 */
+	public int radius(float x, float y, float radius, IndexBuffer result) {
+		final int start = result.size();
+		radius(0, xs.length, x, y, radius * radius, result);
+		return result.size() - start;
+	}
+	
+	/**
+	 * @return Number of points in this tree.
+	 */
+	public final int size() {
+		return xs.length;
+	}
+	
+	//
+	// queries
+	//
+	
+	/**
+	 * Nearest point search in range [<code>lo</code>, <code>hi</code>).
+	 * 
+	 * @return Position of the best candidate found so far.
+	 */
+	private int nearest(int lo, int hi, float x, float y, int best) {
+		float bestDistance = squaredDistance(best, x, y);
+		
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			final float d = squaredDistance(mid, x, y);
+			
+			if (d < bestDistance) {
+				bestDistance = d;
+				best = mid;
+			}
+			
+			final float diff = axes[mid] == 0 ? x - xs[mid] : y - ys[mid];
+			
+			if (diff < 0) {
+				best = nearest(lo, mid, x, y, best);
+				lo = mid + 1;
+			} else {
+				best = nearest(mid + 1, hi, x, y, best);
+				hi = mid;
+			}
+			
+			bestDistance = squaredDistance(best, x, y);
+			
+			// continue with the far side only if it can be closer
+			if (diff * diff >= bestDistance) {
+				break;
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * K-nearest search in range [<code>lo</code>, <code>hi</code>) keeping
+	 * candidates in a max-heap.
+	 * 
+	 * @return New size of the heap.
+	 */
+	private int nearest(int lo, int hi, float x, float y, int k, int[] heap, float[] heapDistances, int size) {
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			final float d = squaredDistance(mid, x, y);
+			
+			if (size < k) {
+				// sift up new candidate
+				int i = size++;
+				
+				while (i > 0) {
+					final int p = (i - 1) >> 1;
+					
+					if (heapDistances[p] >= d) {
+						break;
+					}
+					
+					heap[i] = heap[p];
+					heapDistances[i] = heapDistances[p];
+					i = p;
+				}
+				
+				heap[i] = mid;
+				heapDistances[i] = d;
+			} else if (d < heapDistances[0]) {
+				heap[0] = mid;
+				heapDistances[0] = d;
+				siftDown(heap, heapDistances, 0, k);
+			}
+			
+			final float diff = axes[mid] == 0 ? x - xs[mid] : y - ys[mid];
+			
+			if (diff < 0) {
+				size = nearest(lo, mid, x, y, k, heap, heapDistances, size);
+				lo = mid + 1;
+			} else {
+				size = nearest(mid + 1, hi, x, y, k, heap, heapDistances, size);
+				hi = mid;
+			}
+			
+			if (size == k && diff * diff >= heapDistances[0]) {
+				break;
+			}
+		}
+		
+		return size;
+	}
+	
+	private float squaredDistance(int position, float x, float y) {
+		final float dx = xs[position] - x;
+		final float dy = ys[position] - y;
+		return dx * dx + dy * dy;
+	}
+	
+	private void radius(int lo, int hi, float x, float y, float squaredRadius, IndexBuffer result) {
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			
+			final float dx = xs[mid] - x;
+			final float dy = ys[mid] - y;
+			
+			if (dx * dx + dy * dy <= squaredRadius) {
+				result.add(indices[mid]);
+			}
+			
+			final float diff = axes[mid] == 0 ? x - xs[mid] : y - ys[mid];
+			
+			if (diff * diff <= squaredRadius) {
+				// both sides may contain points
+				radius(lo, mid, x, y, squaredRadius, result);
+				lo = mid + 1;
+			} else if (diff < 0) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+	}
+	
+	private static void siftDown(int[] heap, float[] distances, int i, int size) {
+		final int item = heap[i];
+		final float d = distances[i];
+		
+		while (true) {
+			int c = 2 * i + 1;
+			
+			if (c >= size) {
+				break;
+			}
+			
+			if (c + 1 < size && distances[c + 1] > distances[c]) {
+				++c;
+			}
+			
+			if (distances[c] <= d) {
+				break;
+			}
+			
+			heap[i] = heap[c];
+			distances[i] = distances[c];
+			i = c;
+		}
+		
+		heap[i] = item;
+		distances[i] = d;
+	}
+	
+	private static void swap(int[] heap, float[] distances, int a, int b) {
+		final int item = heap[a];
+		heap[a] = heap[b];
+		heap[b] = item;
+		
+		final float d = distances[a];
+		distances[a] = distances[b];
+		distances[b] = d;
+	}
+	
+	//
+	// building
+	//
+	
+	private void build(boolean parallel) {
+		int parallelDepth = 0;
+		
+		if (parallel) {
+			while ((1 << parallelDepth) < Parallel.PROCESSORS) {
+				++parallelDepth;
+			}
+		}
+		
+		build(0, xs.length, parallelDepth);
+	}
+	
+	private void build(final int lo, final int hi, final int parallelDepth) {
+		if (hi - lo <= 0) {
+			return;
+		}
+		
+		// split along the wider extent of the range
+		float minX = Float.POSITIVE_INFINITY, maxX = Float.NEGATIVE_INFINITY;
+		float minY = Float.POSITIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+		
+		for (int i = lo; i < hi; ++i) {
+			minX = Math.min(minX, xs[i]);
+			maxX = Math.max(maxX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		
+		final byte axis = (byte) (maxX - minX >= maxY - minY ? 0 : 1);
+		final int mid = (lo + hi) >>> 1;
+		
+		select(lo, hi - 1, mid, axis == 0 ? xs : ys);
+		axes[mid] = axis;
+		
+		if (parallelDepth > 0 && hi - lo >= PARALLEL_THRESHOLD) {
+			Parallel.invoke(
+					new Runnable() {
+						public void run() {
+							build(lo, mid, parallelDepth - 1);
+						}
+					},
+					new Runnable() {
+						public void run() {
+							build(mid + 1, hi, parallelDepth - 1);
+						}
+					}
+			);
+		} else {
+			build(lo, mid, 0);
+			build(mid + 1, hi, 0);
+		}
+	}
+	
+	/**
+	 * Reorders points in range [<code>lo</code>, <code>hi</code>] so that
+	 * point at <code>k</code> has its <code>keys</code> value
+	 * in sorted position.
+	 */
+	private void select(int lo, int hi, int k, float[] keys) {
+		while (hi > lo) {
+			// median of three pivot
+			final int m = (lo + hi) >>> 1;
+			
+			if (keys[m] < keys[lo]) {
+				swap(m, lo);
+			}
+			if (keys[hi] < keys[lo]) {
+				swap(hi, lo);
+			}
+			if (keys[hi] < keys[m]) {
+				swap(hi, m);
+			}
+			
+			final float pivot = keys[m];
+			
+			int i = lo, j = hi;
+			
+			while (i <= j) {
+				while (keys[i] < pivot) {
+					++i;
+				}
+				while (keys[j] > pivot) {
+					--j;
+				}
+				
+				if (i <= j) {
+					swap(i, j);
+					++i;
+					--j;
+				}
+			}
+			
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				return;
+			}
+		}
+	}
+	
+	private void swap(int a, int b) {
+		final float x = xs[a];
+		xs[a] = xs[b];
+		xs[b] = x;
+		
+		final float y = ys[a];
+		ys[a] = ys[b];
+		ys[b] = y;
+		
+		final int index = indices[a];
+		indices[a] = indices[b];
+		indices[b] = index;
+	}
+}
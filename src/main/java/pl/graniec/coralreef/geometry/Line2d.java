@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Double precision counterpart of {@link Line}: the line of points
+ * fulfilling <code>a * x + b * y + c = 0</code>.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Line2d {
+	public double a, b, c;
+
+	public Line2d(double a, double b, double c) {
+		
+		if (a == 0 && b == 0) {
+			throw new RuntimeException("a and b cannot be 0 at the same time"); 
+		}
+		
+		this.a = a;
+		this.b = b;
+		this.c = c;
+	}
+	
+	public Line2d(Point2d p1, Point2d p2) {
+		a = p2.y - p1.y;
+		b = p1.x - p2.x;
+		c = -(a * p1.x) - (b * p1.y);
+	}
+	
+	public Line2d(Segment2d s) {
+		a = s.y2 - s.y1;
+		b = s.x1 - s.x2;
+		c = -(a * s.x1) - (b * s.y1);
+	}
+	
+	public Line2d(Line other) {
+		this(other.a, other.b, other.c);
+	}
+	
+	/**
+	 * Creates a float line rounding coefficients to nearest floats.
+	 */
+	public final Line toLine() {
+		return new Line((float) a, (float) b, (float) c);
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return Line2d.class.getSimpleName() + "[a=" + a + ",b=" + b + ",c=" + c + "]";
+	}
+	
+}
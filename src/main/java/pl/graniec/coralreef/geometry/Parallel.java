@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Helpers for running work on multiple threads.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+final class Parallel {
+	
+	/** Number of available processors */
+	static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * Work done on a range of indices.
+	 */
+	interface Chunk {
+		
+		/**
+		 * Processes indices from <code>from</code> to <code>to - 1</code>.
+		 * 
+		 * @param chunk Number of the chunk.
+		 */
+		void run(int chunk, int from, int to);
+	}
+	
+	private Parallel() {
+	}
+	
+	/**
+	 * Gives the number of chunks of <code>chunkSize</code> indices
+	 * needed to cover <code>size</code> indices.
+	 */
+	static int chunkCount(int size, int chunkSize) {
+		return (size + chunkSize - 1) / chunkSize;
+	}
+	
+	/**
+	 * Splits indices from 0 to <code>size - 1</code> into chunks of
+	 * <code>chunkSize</code> indices and runs <code>task</code> for
+	 * each of them. Chunks are spread over up to {@link #PROCESSORS}
+	 * threads, including the current one. A single chunk runs on the
+	 * current thread only.
+	 * <p>
+	 * Chunk boundaries depend only on <code>size</code>, so combining
+	 * per chunk results in chunk order gives the same value on every
+	 * machine.
+	 */
+	static void forEachChunk(final int size, final int chunkSize, final Chunk task) {
+		final int chunks = chunkCount(size, chunkSize);
+		final int threads = Math.min(PROCESSORS, chunks);
+		
+		if (threads <= 1) {
+			runChunks(0, 1, chunks, size, chunkSize, task);
+			return;
+		}
+		
+		final Throwable[] failures = new Throwable[threads];
+		final Thread[] workers = new Thread[threads - 1];
+		
+		for (int t = 1; t < threads; ++t) {
+			final int first = t;
+			
+			workers[t - 1] = new Thread(new Runnable() {
+				public void run() {
+					try {
+						runChunks(first, threads, chunks, size, chunkSize, task);
+					} catch (Throwable e) {
+						failures[first] = e;
+					}
+				}
+			});
+			
+			workers[t - 1].start();
+		}
+		
+		try {
+			runChunks(0, threads, chunks, size, chunkSize, task);
+		} finally {
+			for (int i = 0; i < workers.length; ++i) {
+				join(workers[i]);
+			}
+		}
+		
+		for (int i = 0; i < failures.length; ++i) {
+			rethrow(failures[i]);
+		}
+	}
+	
+	private static void runChunks(int first, int step, int chunks, int size, int chunkSize, Chunk task) {
+		for (int c = first; c < chunks; c += step) {
+			final int from = c * chunkSize;
+			task.run(c, from, from + Math.min(chunkSize, size - from));
+		}
+	}
+	
+	/**
+	 * Runs <code>first</code> on a new thread and <code>second</code>
+	 * on the current one, then waits for both to complete. Exceptions
+	 * thrown by <code>first</code> are rethrown on the current thread.
+	 */
+	static void invoke(final Runnable first, final Runnable second) {
+		final Throwable[] failure = new Throwable[1];
+		
+		final Thread thread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					first.run();
+				} catch (Throwable t) {
+					failure[0] = t;
+				}
+			}
+		});
+		
+		thread.start();
+		
+		try {
+			second.run();
+		} finally {
+			join(thread);
+		}
+		
+		rethrow(failure[0]);
+	}
+	
+	private static void join(Thread thread) {
+		boolean interrupted = false;
+		
+		while (true) {
+			try {
+				thread.join();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static void rethrow(Throwable t) {
+		if (t instanceof RuntimeException) {
+			throw (RuntimeException) t;
+		}
+		
+		if (t instanceof Error) {
+			throw (Error) t;
+		}
+		
+		if (t != null) {
+			throw new RuntimeException(t.toString());
+		}
+	}
+}
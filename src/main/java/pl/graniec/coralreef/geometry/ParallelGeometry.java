@@ -0,0 +1,299 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Bulk operations on verticles of large geometries, run on all
+ * available processors.
+ * <p>
+ * Verticles are split into chunks of {@link #CHUNK_SIZE}, so
+ * geometries smaller than that are processed sequentially on the
+ * calling thread. Chunk boundaries depend only on the number of
+ * verticles and partial results are combined in chunk order, so
+ * results don't depend on the number of threads.
+ * <p>
+ * Geometries must not be changed by other threads while an
+ * operation runs.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class ParallelGeometry {
+	
+	/** Number of verticles processed by a single task */
+	public static final int CHUNK_SIZE = 1 << 16;
+	
+	private ParallelGeometry() {
+	}
+	
+	/**
+	 * Translates all verticles of <code>geometry</code> by
+	 * <code>x</code> and <code>y</code>.
+	 * 
+	 * @see Geometry#translate(float, float)
+	 */
+	public static void translate(final Geometry geometry, final float x, final float y) {
+		final PointBuffer verticles = geometry.verticles;
+		final float[] xs = verticles.xArray();
+		final float[] ys = verticles.yArray();
+		
+		Parallel.forEachChunk(verticles.size(), CHUNK_SIZE, new Parallel.Chunk() {
+			public void run(int chunk, int from, int to) {
+				for (int i = from; i < to; ++i) {
+					xs[i] += x;
+					ys[i] += y;
+				}
+			}
+		});
+		
+		geometry.translateBounds(x, y);
+	}
+	
+	/**
+	 * Transforms all verticles of <code>geometry</code> by affine
+	 * transformation:
+	 * <pre>
+	 * x' = m00 * x + m01 * y + m02
+	 * y' = m10 * x + m11 * y + m12
+	 * </pre>
+	 */
+	public static void transform(
+			final Geometry geometry,
+			final float m00, final float m01, final float m02,
+			final float m10, final float m11, final float m12
+	) {
+		transform(geometry, new Transform2(m00, m01, m02, m10, m11, m12));
+	}
+	
+	/**
+	 * Transforms all verticles of <code>geometry</code> by
+	 * <code>transform</code>.
+	 * 
+	 * @see Transform2#apply(Geometry)
+	 */
+	public static void transform(final Geometry geometry, final Transform2 transform) {
+		final PointBuffer verticles = geometry.verticles;
+		final float[] xs = verticles.xArray();
+		final float[] ys = verticles.yArray();
+		
+		Parallel.forEachChunk(verticles.size(), CHUNK_SIZE, new Parallel.Chunk() {
+			public void run(int chunk, int from, int to) {
+				transform.apply(xs, ys, from, to - from);
+			}
+		});
+		
+		transform.updateBounds(geometry);
+	}
+	
+	/**
+	 * Computes the bounding box of <code>geometry</code> verticles.
+	 * <code>left</code> and <code>top</code> of <code>result</code>
+	 * receive the minimal coordinates, <code>right</code> and
+	 * <code>bottom</code> the maximal ones.
+	 * <p>
+	 * Bounds cached by the geometry are used when valid, otherwise
+	 * the computed ones are stored in the cache.
+	 * 
+	 * @param result Box that will receive the bounds.
+	 * 
+	 * @see Geometry#getBounds(Box2)
+	 * 
+	 * @return <code>false</code> if the geometry has no verticles.
+	 * Then <code>result</code> is left untouched.
+	 */
+	public static boolean bounds(final Geometry geometry, final Box2 result) {
+		final PointBuffer verticles = geometry.verticles;
+		final int size = verticles.size();
+		
+		if (size == 0) {
+			return false;
+		}
+		
+		if (geometry.getCachedBounds(result)) {
+			return true;
+		}
+		
+		final float[] xs = verticles.xArray();
+		final float[] ys = verticles.yArray();
+		
+		// minX, minY, maxX, maxY of each chunk
+		final float[] partial = new float[Parallel.chunkCount(size, CHUNK_SIZE) * 4];
+		
+		Parallel.forEachChunk(size, CHUNK_SIZE, new Parallel.Chunk() {
+			public void run(int chunk, int from, int to) {
+				float minX = xs[from], minY = ys[from];
+				float maxX = minX, maxY = minY;
+				
+				for (int i = from + 1; i < to; ++i) {
+					minX = Math.min(minX, xs[i]);
+					maxX = Math.max(maxX, xs[i]);
+					minY = Math.min(minY, ys[i]);
+					maxY = Math.max(maxY, ys[i]);
+				}
+				
+				partial[chunk * 4] = minX;
+				partial[chunk * 4 + 1] = minY;
+				partial[chunk * 4 + 2] = maxX;
+				partial[chunk * 4 + 3] = maxY;
+			}
+		});
+		
+		float minX = partial[0], minY = partial[1];
+		float maxX = partial[2], maxY = partial[3];
+		
+		for (int i = 4; i < partial.length; i += 4) {
+			minX = Math.min(minX, partial[i]);
+			minY = Math.min(minY, partial[i + 1]);
+			maxX = Math.max(maxX, partial[i + 2]);
+			maxY = Math.max(maxY, partial[i + 3]);
+		}
+		
+		result.set(minX, minY, maxX, maxY);
+		geometry.setBounds(result);
+		
+		return true;
+	}
+	
+	/**
+	 * Computes the centroid of <code>geometry</code> verticles, that is
+	 * their average position. Sums are accumulated in double precision.
+	 * 
+	 * @return The centroid or <code>null</code> if the geometry has
+	 * no verticles.
+	 */
+	public static Point2 centroid(final Geometry geometry) {
+		final PointBuffer verticles = geometry.verticles;
+		final int size = verticles.size();
+		
+		if (size == 0) {
+			return null;
+		}
+		
+		final float[] xs = verticles.xArray();
+		final float[] ys = verticles.yArray();
+		
+		// sum of x and sum of y of each chunk
+		final double[] partial = new double[Parallel.chunkCount(size, CHUNK_SIZE) * 2];
+		
+		Parallel.forEachChunk(size, CHUNK_SIZE, new Parallel.Chunk() {
+			public void run(int chunk, int from, int to) {
+				double sumX = 0, sumY = 0;
+				
+				for (int i = from; i < to; ++i) {
+					sumX += xs[i];
+					sumY += ys[i];
+				}
+				
+				partial[chunk * 2] = sumX;
+				partial[chunk * 2 + 1] = sumY;
+			}
+		});
+		
+		double sumX = 0, sumY = 0;
+		
+		for (int i = 0; i < partial.length; i += 2) {
+			sumX += partial[i];
+			sumY += partial[i + 1];
+		}
+		
+		return new Point2((float) (sumX / size), (float) (sumY / size));
+	}
+	
+	/**
+	 * Finds the verticle of <code>geometry</code> closest to point
+	 * (<code>x</code>, <code>y</code>).
+	 * 
+	 * Distances that overflow to infinity still give a verticle and
+	 * NaN distances lose to any other.
+	 * 
+	 * @return Index of the closest verticle (the lowest one on ties)
+	 * or <code>-1</code> if the geometry has no verticles.
+	 */
+	public static int nearest(final Geometry geometry, final float x, final float y) {
+		final PointBuffer verticles = geometry.verticles;
+		final int size = verticles.size();
+		
+		final float[] xs = verticles.xArray();
+		final float[] ys = verticles.yArray();
+		
+		final int chunks = Parallel.chunkCount(size, CHUNK_SIZE);
+		final int[] indices = new int[chunks];
+		final float[] distances = new float[chunks];
+		
+		Parallel.forEachChunk(size, CHUNK_SIZE, new Parallel.Chunk() {
+			public void run(int chunk, int from, int to) {
+				int best = from;
+				float min = squaredDistance(xs[from], ys[from], x, y);
+				
+				for (int i = from + 1; i < to; ++i) {
+					final float d = squaredDistance(xs[i], ys[i], x, y);
+					
+					if (closer(d, min)) {
+						min = d;
+						best = i;
+					}
+				}
+				
+				indices[chunk] = best;
+				distances[chunk] = min;
+			}
+		});
+		
+		if (chunks == 0) {
+			return -1;
+		}
+		
+		int best = indices[0];
+		float min = distances[0];
+		
+		for (int c = 1; c < chunks; ++c) {
+			if (closer(distances[c], min)) {
+				min = distances[c];
+				best = indices[c];
+			}
+		}
+		
+		return best;
+	}
+	
+	private static float squaredDistance(final float x1, final float y1, final float x2, final float y2) {
+		final float dx = x1 - x2;
+		final float dy = y1 - y2;
+		
+		return dx * dx + dy * dy;
+	}
+	
+	/**
+	 * Tells if distance <code>d</code> beats <code>min</code>. Any number
+	 * beats NaN.
+	 */
+	private static boolean closer(final float d, final float min) {
+		return d < min || (min != min && d == d);
+	}
+}
@@ -67,27 +67,13 @@ public class Point2 extends Vector2 {
 	 * 
 	 * @param segment The segment.
 	 * @return Distance to given segment.
+	 * 
+	 * @see SegmentDistance
 	 */
 	public final float distanceTo(Segment segment) {
-		final float b = segment.length();
-		final float bb = b * b;
-		
-		final float c1 = Vector2.length(this.x - segment.x1, this.y - segment.y1);
-		final float c2 = Vector2.length(this.x - segment.x2, this.y - segment.y2);
-		
-		final float c1c1 = c1 * c1;
-		final float c2c2 = c2 * c2;
-		
-		// check if there is perpendicular line that connects this point with segment
-		if (c2c2 <= bb + c1c1 && c1c1 <= bb + c2c2) {
-			// get distance to line
-			return distanceTo(new Line(segment));
-		}
-		else {
-			// lower distance to point
-			return c1 < c2 ? c1 : c2;
-		}
-		
+		return (float) Math.sqrt(SegmentDistance.squaredDistance(
+				x, y, segment.x1, segment.y1, segment.x2, segment.y2
+		));
 	}
 	
 	/*
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Double precision counterpart of {@link Point2}.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Point2d extends Vector2d {
+
+	public Point2d(final double x, final double y) {
+		super(x, y);
+	}
+
+	public Point2d(Point2d other) {
+		super(other.x, other.y);
+	}
+	
+	public Point2d(Point2 other) {
+		super(other.x, other.y);
+	}
+	
+	/**
+	 * Calculates the distance from this point to given <code>line</code>.
+	 * 
+	 * @param line The line.
+	 * @return Distance to the line.
+	 */
+	public final double distanceTo(Line2d line) {
+		return
+			Math.abs(line.a * x + line.b * y + line.c)
+			/ Math.sqrt(line.a * line.a + line.b * line.b);
+	}
+	
+	public final double distanceTo(Point2d other) {
+		return Vector2d.length(this.x - other.x, this.y - other.y);
+	}
+	
+	/**
+	 * Calculates the distance from this point to the closest
+	 * point of given <code>segment</code>.
+	 * 
+	 * @param segment The segment.
+	 * @return Distance to given segment.
+	 */
+	public final double distanceTo(Segment2d segment) {
+		return Math.sqrt(Segment2d.squaredDistance(
+				x, y, segment.x1, segment.y1, segment.x2, segment.y2
+		));
+	}
+	
+	/*
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Point2d other = (Point2d) obj;
+		if (Double.doubleToLongBits(x) != Double.doubleToLongBits(other.x))
+			return false;
+		if (Double.doubleToLongBits(y) != Double.doubleToLongBits(other.y))
+			return false;
+		return true;
+	}
+	
+	public final void set(Point2d other) {
+		set(other.x, other.y);
+	}
+	
+	/**
+	 * Creates a float point rounding coordinates to nearest floats.
+	 */
+	public final Point2 toPoint2() {
+		return new Point2((float) x, (float) y);
+	}
+	
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return Point2d.class.getSimpleName() + "[x=" + x + ",y=" + y + "]";
+	}
+
+}
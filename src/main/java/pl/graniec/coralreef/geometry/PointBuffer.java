@@ -0,0 +1,360 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Growable buffer of points in two dimensional space. Coordinates
+ * are kept in two primitive arrays (one for X and one for Y
+ * coordinates) so no {@link Point2} object is needed to store a verticle.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PointBuffer {
+	
+	/** Default initial capacity */
+	private static final int DEFAULT_CAPACITY = 16;
+	
+	/** X and Y coordinates */
+	private float[] xs, ys;
+	
+	/** Number of points in this buffer */
+	private int size;
+	
+	public PointBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	public PointBuffer(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity cannot be negative: " + capacity);
+		}
+		
+		xs = new float[capacity];
+		ys = new float[capacity];
+	}
+	
+	/**
+	 * The copy constructor of PointBuffer object. Copied buffer
+	 * has capacity equal to the size of <code>other</code> buffer.
+	 * 
+	 * @param other The other PointBuffer object to copy.
+	 */
+	public PointBuffer(final PointBuffer other) {
+		this(other.size);
+		
+		System.arraycopy(other.xs, 0, xs, 0, other.size);
+		System.arraycopy(other.ys, 0, ys, 0, other.size);
+		size = other.size;
+	}
+	
+	/**
+	 * Adds a point to the end of this buffer.
+	 * 
+	 * @param x The X coordinate.
+	 * @param y The Y coordinate.
+	 */
+	public final void add(final float x, final float y) {
+		if (size == xs.length) {
+			ensureCapacity(size + 1);
+		}
+		
+		xs[size] = x;
+		ys[size] = y;
+		++size;
+	}
+	
+	public final void add(final Point2 point) {
+		add(point.x, point.y);
+	}
+	
+	/**
+	 * Adds <code>len</code> verticles stored in <code>xy</code> array
+	 * starting at <code>off</code> index. Coordinates in the array
+	 * must be interleaved: <code>x0, y0, x1, y1, ...</code>.
+	 * 
+	 * @param xy Array of interleaved coordinates.
+	 * @param off Index of first X coordinate in <code>xy</code>.
+	 * @param len Number of verticles (not coordinates) to add.
+	 */
+	public final void addVerticles(final float[] xy, final int off, final int len) {
+		if (off < 0 || len < 0 || off > xy.length || len > (xy.length - off) / 2) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len + ",length=" + xy.length);
+		}
+		
+		ensureCapacity(size + len);
+		
+		for (int i = 0, j = off; i < len; ++i, j += 2) {
+			xs[size + i] = xy[j];
+			ys[size + i] = xy[j + 1];
+		}
+		
+		size += len;
+	}
+	
+	/**
+	 * Adds <code>len</code> verticles from separate coordinate arrays.
+	 * 
+	 * @param xs X coordinates.
+	 * @param ys Y coordinates.
+	 * @param off Index of first verticle in both arrays.
+	 * @param len Number of verticles to add.
+	 */
+	public final void addVerticles(final float[] xs, final float[] ys, final int off, final int len) {
+		if (off < 0 || len < 0 || off > xs.length - len || off > ys.length - len) {
+			throw new IndexOutOfBoundsException(
+					"off=" + off + ",len=" + len + ",lengths=" + xs.length + "," + ys.length);
+		}
+		
+		ensureCapacity(size + len);
+		
+		System.arraycopy(xs, off, this.xs, size, len);
+		System.arraycopy(ys, off, this.ys, size, len);
+		
+		size += len;
+	}
+	
+	public final void addVerticles(final PointBuffer other) {
+		addVerticles(other.xs, other.ys, 0, other.size);
+	}
+	
+	/**
+	 * Removes all points from this buffer. Capacity is not changed.
+	 */
+	public final void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Adds <code>count</code> points to the end of this buffer without
+	 * setting their coordinates. The caller has to fill them through
+	 * {@link #xArray()} and {@link #yArray()}.
+	 */
+	final void extend(final int count) {
+		ensureCapacity(size + count);
+		size += count;
+	}
+	
+	/**
+	 * Makes sure that this buffer can hold at least <code>capacity</code>
+	 * points without growing.
+	 * 
+	 * @param capacity Minimal capacity.
+	 */
+	public final void ensureCapacity(final int capacity) {
+		if (capacity <= xs.length) {
+			return;
+		}
+		
+		int newCapacity = xs.length + (xs.length >> 1) + 1;
+		
+		if (newCapacity < capacity) {
+			newCapacity = capacity;
+		}
+		
+		final float[] newXs = new float[newCapacity];
+		final float[] newYs = new float[newCapacity];
+		
+		System.arraycopy(xs, 0, newXs, 0, size);
+		System.arraycopy(ys, 0, newYs, 0, size);
+		
+		xs = newXs;
+		ys = newYs;
+	}
+	
+	/**
+	 * Copies point at <code>index</code> into <code>result</code>.
+	 * 
+	 * @return The <code>result</code> object.
+	 */
+	public final Point2 get(final int index, final Point2 result) {
+		checkIndex(index);
+		
+		result.x = xs[index];
+		result.y = ys[index];
+		
+		return result;
+	}
+	
+	/**
+	 * Computes the bounding box of all points. <code>left</code> and
+	 * <code>top</code> of <code>result</code> receive the minimal
+	 * coordinates, <code>right</code> and <code>bottom</code> the
+	 * maximal ones.
+	 * 
+	 * @param result Box that will receive the bounds.
+	 * 
+	 * @return <code>false</code> if the buffer is empty. Then
+	 * <code>result</code> is left untouched.
+	 */
+	public final boolean getBounds(final Box2 result) {
+		if (size == 0) {
+			return false;
+		}
+		
+		final float[] xs = this.xs;
+		final float[] ys = this.ys;
+		
+		float minX = xs[0], minY = ys[0];
+		float maxX = minX, maxY = minY;
+		
+		for (int i = 1; i < size; ++i) {
+			minX = Math.min(minX, xs[i]);
+			maxX = Math.max(maxX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		
+		result.set(minX, minY, maxX, maxY);
+		
+		return true;
+	}
+	
+	public final float getX(final int index) {
+		checkIndex(index);
+		return xs[index];
+	}
+	
+	public final float getY(final int index) {
+		checkIndex(index);
+		return ys[index];
+	}
+	
+	/**
+	 * Gives direct access to X coordinates array. Only the first
+	 * {@link #size()} elements are valid. The array is shared with
+	 * this buffer, so changes are visible on both sides, until the
+	 * buffer grows and replaces it with a new one.
+	 * 
+	 * @return Backing array of X coordinates.
+	 */
+	public final float[] xArray() {
+		return xs;
+	}
+	
+	/**
+	 * Works like {@link #xArray()} but for Y coordinates.
+	 * 
+	 * @return Backing array of Y coordinates.
+	 */
+	public final float[] yArray() {
+		return ys;
+	}
+	
+	public final void set(final int index, final float x, final float y) {
+		checkIndex(index);
+		
+		xs[index] = x;
+		ys[index] = y;
+	}
+	
+	public final int size() {
+		return size;
+	}
+	
+	/**
+	 * Creates new {@link Point2} objects from all points in this buffer.
+	 * 
+	 * @return Array of new points.
+	 */
+	public final Point2[] toPoints() {
+		final Point2[] result = new Point2[size];
+		
+		for (int i = 0; i < size; ++i) {
+			result[i] = new Point2(xs[i], ys[i]);
+		}
+		
+		return result;
+	}
+	
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		final StringBuffer buf = new StringBuffer();
+		buf.append(PointBuffer.class.getSimpleName());
+		buf.append("[size=");
+		buf.append(size);
+		buf.append(",points=[");
+		
+		for (int i = 0; i < size; ++i) {
+			if (i > 0) {
+				buf.append(", ");
+			}
+			buf.append('(');
+			buf.append(xs[i]);
+			buf.append(',');
+			buf.append(ys[i]);
+			buf.append(')');
+		}
+		
+		buf.append("]]");
+		
+		return buf.toString();
+	}
+	
+	/**
+	 * Translates all points by <code>x</code> and <code>y</code>.
+	 * 
+	 * @param x The translation value for X coordinate.
+	 * @param y The translation value for Y coordinate.
+	 */
+	public final void translate(final float x, final float y) {
+		final float[] xs = this.xs;
+		final float[] ys = this.ys;
+		
+		for (int i = 0; i < size; ++i) {
+			xs[i] += x;
+		}
+		
+		for (int i = 0; i < size; ++i) {
+			ys[i] += y;
+		}
+	}
+	
+	/**
+	 * Removes points from the end of this buffer so that only
+	 * <code>size</code> first points are left.
+	 * 
+	 * @param size New size, not greater than the current one.
+	 */
+	public final void truncate(final int size) {
+		if (size < 0 || size > this.size) {
+			throw new IndexOutOfBoundsException("size=" + size + ",current=" + this.size);
+		}
+	
+		this.size = size;
+	}
+	
+	private void checkIndex(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("index=" + index + ",size=" + size);
+		}
+	}
+}
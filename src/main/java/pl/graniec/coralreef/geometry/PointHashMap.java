@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Map from points in two dimensional space to <code>int</code>
+ * values, like indices of welded verticles. It is a
+ * {@link PointHashSet} of keys with a value kept next to every
+ * slot, so it costs 13 bytes per slot and creates no objects
+ * per entry.
+ * <p>
+ * Keys added through {@link #add(float, float)} get value
+ * <code>0</code>.
+ * <p>
+ * Welding verticles of a mesh comes down to:
+ * <pre>
+ * final PointHashMap map = new PointHashMap(count, cellSize);
+ * 
+ * for (int i = 0; i &lt; count; ++i) {
+ *     indices[i] = map.putIfAbsent(xs[i], ys[i], map.size());
+ * }
+ * </pre>
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PointHashMap extends PointHashSet {
+	
+	/** Value of each slot */
+	private int[] values;
+	
+	public PointHashMap() {
+		super();
+		values = new int[getCapacity()];
+	}
+	
+	/**
+	 * @see PointHashSet#PointHashSet(int)
+	 */
+	public PointHashMap(final int expectedSize) {
+		super(expectedSize);
+		values = new int[getCapacity()];
+	}
+	
+	/**
+	 * @see PointHashSet#PointHashSet(int, float)
+	 */
+	public PointHashMap(final int expectedSize, final float cellSize) {
+		super(expectedSize, cellSize);
+		values = new int[getCapacity()];
+	}
+	
+	/**
+	 * Gives value of key equal to (<code>x</code>, <code>y</code>).
+	 * 
+	 * @return The value or <code>defaultValue</code> if there is
+	 * no such key.
+	 */
+	public final int get(final float x, final float y, final int defaultValue) {
+		final int slot = find(x, y);
+		return slot >= 0 ? values[slot] : defaultValue;
+	}
+	
+	public final int get(final Point2 key, final int defaultValue) {
+		return get(key.x, key.y, defaultValue);
+	}
+	
+	/**
+	 * Adds values of all keys to the end of <code>result</code>, in
+	 * the same order as {@link #getPoints(PointBuffer)} gives keys.
+	 */
+	public final void getValues(final IndexBuffer result) {
+		result.ensureCapacity(result.size() + size());
+		
+		final int capacity = getCapacity();
+		
+		for (int i = 0; i < capacity; ++i) {
+			if (isUsed(i)) {
+				result.add(values[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Associates <code>value</code> with key (<code>x</code>,
+	 * <code>y</code>), replacing the value of equal key if there
+	 * is one. The key itself is not replaced then.
+	 * 
+	 * @return <code>true</code> if the key was added.
+	 */
+	public final boolean put(final float x, final float y, final int value) {
+		final int slot = insert(x, y);
+		
+		if (slot < 0) {
+			values[~slot] = value;
+			return true;
+		}
+		
+		values[slot] = value;
+		return false;
+	}
+	
+	public final boolean put(final Point2 key, final int value) {
+		return put(key.x, key.y, value);
+	}
+	
+	/**
+	 * Associates <code>value</code> with key (<code>x</code>,
+	 * <code>y</code>) unless there is an equal key already.
+	 * 
+	 * @return Value of the equal key or <code>value</code> if
+	 * the key was added.
+	 */
+	public final int putIfAbsent(final float x, final float y, final int value) {
+		final int slot = insert(x, y);
+		
+		if (slot < 0) {
+			values[~slot] = value;
+			return value;
+		}
+		
+		return values[slot];
+	}
+	
+	public final int putIfAbsent(final Point2 key, final int value) {
+		return putIfAbsent(key.x, key.y, value);
+	}
+	
+	/*
+	 * @see pl.graniec.coralreef.geometry.PointHashSet#clear()
+	 */
+	public void clear() {
+		super.clear();
+		Arrays.fill(values, 0);
+	}
+	
+	void freed(final int slot) {
+		values[slot] = 0;
+	}
+	
+	void moved(final int from, final int to) {
+		values[to] = values[from];
+	}
+	
+	void rehashed(final int[] slots, final int capacity) {
+		final int[] newValues = new int[capacity];
+		
+		for (int i = 0; i < slots.length; ++i) {
+			if (slots[i] >= 0) {
+				newValues[slots[i]] = values[i];
+			}
+		}
+		
+		values = newValues;
+	}
+}
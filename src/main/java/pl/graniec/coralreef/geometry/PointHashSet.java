@@ -0,0 +1,352 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Set of points in two dimensional space. Points are kept in
+ * primitive arrays of an open addressing hash table, so no objects
+ * are created per point. Every point costs 9 bytes per table slot
+ * and the table is kept at most 3/4 full.
+ * <p>
+ * By default points are compared like {@link Point2#equals(Object)}
+ * does, by bits of their coordinates. When a cell size is given, the
+ * plane is divided into square cells of that size and all points in
+ * a cell are equal, so close points can be welded together. The first
+ * point added to a cell stays in the set. Note that points close to
+ * each other but on different sides of a cell border are still
+ * different. Coordinates of welded points must be finite.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PointHashSet {
+	
+	/** Default number of points that fit without growing */
+	private static final int DEFAULT_EXPECTED_SIZE = 12;
+	
+	/** Maximal number of slots */
+	private static final int MAX_CAPACITY = 1 << 30;
+	
+	/** Point coordinates of each slot */
+	private float[] xs, ys;
+	
+	/** Tells which slots are taken */
+	private boolean[] used;
+	
+	/** Number of points in this set */
+	private int size;
+	
+	/** Number of points after which the table grows */
+	private int threshold;
+	
+	/** Size of welding cell or zero when points are compared exactly */
+	private final float cellSize;
+	private final double inverseCellSize;
+	
+	public PointHashSet() {
+		this(DEFAULT_EXPECTED_SIZE);
+	}
+	
+	/**
+	 * @param expectedSize Number of points that can be added without
+	 * growing the table.
+	 */
+	public PointHashSet(final int expectedSize) {
+		this(expectedSize, 0f);
+	}
+	
+	/**
+	 * @param expectedSize Number of points that can be added without
+	 * growing the table.
+	 * @param cellSize Size of welding cells or <code>0</code> to compare
+	 * points exactly.
+	 */
+	public PointHashSet(final int expectedSize, final float cellSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("expected size cannot be negative: " + expectedSize);
+		}
+		
+		if (!(cellSize >= 0f) || Float.isInfinite(cellSize)) {
+			throw new IllegalArgumentException("invalid cell size: " + cellSize);
+		}
+		
+		this.cellSize = cellSize;
+		inverseCellSize = cellSize > 0f ? 1.0 / cellSize : 0.0;
+		
+		int capacity = 4;
+		
+		while (capacity < MAX_CAPACITY && capacity - (capacity >> 2) < expectedSize) {
+			capacity <<= 1;
+		}
+		
+		allocate(capacity);
+	}
+	
+	/**
+	 * Adds point (<code>x</code>, <code>y</code>) to this set.
+	 * 
+	 * @return <code>true</code> if there was no equal point yet.
+	 */
+	public final boolean add(final float x, final float y) {
+		return insert(x, y) < 0;
+	}
+	
+	public final boolean add(final Point2 point) {
+		return add(point.x, point.y);
+	}
+	
+	/**
+	 * Removes all points. Capacity is not changed.
+	 */
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+	
+	public final boolean contains(final float x, final float y) {
+		return find(x, y) >= 0;
+	}
+	
+	public final boolean contains(final Point2 point) {
+		return contains(point.x, point.y);
+	}
+	
+	/**
+	 * @return Size of welding cells or <code>0</code> if points
+	 * are compared exactly.
+	 */
+	public final float getCellSize() {
+		return cellSize;
+	}
+	
+	/**
+	 * Adds all points of this set to the end of <code>result</code>.
+	 * Points are given in table order, which is the same for all
+	 * methods giving the content of the set until it changes.
+	 */
+	public final void getPoints(final PointBuffer result) {
+		result.ensureCapacity(result.size() + size);
+		
+		for (int i = 0; i < used.length; ++i) {
+			if (used[i]) {
+				result.add(xs[i], ys[i]);
+			}
+		}
+	}
+	
+	public final boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Removes the point equal to (<code>x</code>, <code>y</code>).
+	 * 
+	 * @return <code>true</code> if there was such point.
+	 */
+	public final boolean remove(final float x, final float y) {
+		int hole = find(x, y);
+		
+		if (hole < 0) {
+			return false;
+		}
+		
+		// shift following points of the probe chain back, so
+		// no chain is broken by the free slot
+		final int mask = used.length - 1;
+		
+		for (int i = (hole + 1) & mask; used[i]; i = (i + 1) & mask) {
+			final int home = slot(key(xs[i]), key(ys[i]));
+			
+			if (((i - home) & mask) >= ((i - hole) & mask)) {
+				xs[hole] = xs[i];
+				ys[hole] = ys[i];
+				used[hole] = true;
+				moved(i, hole);
+				hole = i;
+			}
+		}
+		
+		used[hole] = false;
+		freed(hole);
+		--size;
+		
+		return true;
+	}
+	
+	public final boolean remove(final Point2 point) {
+		return remove(point.x, point.y);
+	}
+	
+	public final int size() {
+		return size;
+	}
+	
+	/**
+	 * Finds the slot of point equal to (<code>x</code>, <code>y</code>).
+	 * 
+	 * @return Slot index or <code>-1</code> if there is no such point.
+	 */
+	final int find(final float x, final float y) {
+		final long kx = key(x);
+		final long ky = key(y);
+		final int mask = used.length - 1;
+		
+		for (int i = slot(kx, ky); used[i]; i = (i + 1) & mask) {
+			if (key(xs[i]) == kx && key(ys[i]) == ky) {
+				return i;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Adds point (<code>x</code>, <code>y</code>) if there is no
+	 * equal one.
+	 * 
+	 * @return Slot index of the equal point or complement
+	 * (<code>~slot</code>) of slot index of the added point.
+	 */
+	final int insert(final float x, final float y) {
+		if (size >= threshold) {
+			grow();
+		}
+		
+		final long kx = key(x);
+		final long ky = key(y);
+		final int mask = used.length - 1;
+		
+		int i = slot(kx, ky);
+		
+		for (; used[i]; i = (i + 1) & mask) {
+			if (key(xs[i]) == kx && key(ys[i]) == ky) {
+				return i;
+			}
+		}
+		
+		xs[i] = x;
+		ys[i] = y;
+		used[i] = true;
+		++size;
+		
+		return ~i;
+	}
+	
+	/**
+	 * Called after a point was moved from slot <code>from</code>
+	 * to slot <code>to</code> on removal.
+	 */
+	void moved(final int from, final int to) {
+	}
+	
+	/**
+	 * Called after slot <code>slot</code> became free on removal.
+	 */
+	void freed(final int slot) {
+	}
+	
+	/**
+	 * Called after the table grew to <code>capacity</code> slots.
+	 * Point of old slot <code>i</code> is now in slot
+	 * <code>slots[i]</code>, or <code>slots[i]</code> is
+	 * <code>-1</code> if the old slot was free.
+	 */
+	void rehashed(final int[] slots, final int capacity) {
+	}
+	
+	final boolean isUsed(final int slot) {
+		return used[slot];
+	}
+	
+	final int getCapacity() {
+		return used.length;
+	}
+	
+	private void allocate(final int capacity) {
+		xs = new float[capacity];
+		ys = new float[capacity];
+		used = new boolean[capacity];
+		threshold = capacity == MAX_CAPACITY ? capacity - 1 : capacity - (capacity >> 2);
+	}
+	
+	private void grow() {
+		if (used.length == MAX_CAPACITY) {
+			throw new IllegalStateException("set is full");
+		}
+		
+		final float[] oldXs = xs;
+		final float[] oldYs = ys;
+		final boolean[] oldUsed = used;
+		final int[] slots = new int[oldUsed.length];
+		
+		allocate(oldUsed.length * 2);
+		
+		final int mask = used.length - 1;
+		
+		for (int j = 0; j < oldUsed.length; ++j) {
+			if (!oldUsed[j]) {
+				slots[j] = -1;
+				continue;
+			}
+			
+			int i = slot(key(oldXs[j]), key(oldYs[j]));
+			
+			while (used[i]) {
+				i = (i + 1) & mask;
+			}
+			
+			xs[i] = oldXs[j];
+			ys[i] = oldYs[j];
+			used[i] = true;
+			slots[j] = i;
+		}
+		
+		rehashed(slots, used.length);
+	}
+	
+	/**
+	 * Gives the value that identifies coordinate <code>v</code>:
+	 * its bits or index of the welding cell.
+	 */
+	private long key(final float v) {
+		if (cellSize == 0f) {
+			return Float.floatToIntBits(v);
+		}
+		
+		return (long) Math.floor(v * inverseCellSize);
+	}
+	
+	private int slot(final long kx, final long ky) {
+		long h = kx * 0x9E3779B97F4A7C15L + ky;
+		h *= 0xBF58476D1CE4E5B9L;
+		return (int) (h >>> 32) & (used.length - 1);
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Bounded cache that shares {@link ImmutablePoint2} instances of
+ * equal coordinates.
+ * <p>
+ * The cache is a direct-mapped table: every coordinate pair has a
+ * single slot chosen by its hash code. A point found in its slot is
+ * returned, otherwise a new one is created and replaces the old slot
+ * content. Memory use never grows above the capacity given when the
+ * interner is created, and a lookup costs a single hash and compare.
+ * Coordinates that repeat often stay in the cache, rare ones are
+ * replaced quickly.
+ * <p>
+ * Interners may be used by many threads at once. Points are
+ * immutable, so a thread sees either a complete point or none; at
+ * worst two threads create equal points instead of sharing one.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PointInterner {
+	
+	/** Default number of slots */
+	public static final int DEFAULT_CAPACITY = 4096;
+	
+	private final ImmutablePoint2[] slots;
+	private final int mask;
+	
+	public PointInterner() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * @param capacity Maximal number of cached points, rounded up
+	 * to a power of two.
+	 */
+	public PointInterner(final int capacity) {
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("invalid capacity: " + capacity);
+		}
+		
+		int size = 1;
+		
+		while (size < capacity) {
+			size <<= 1;
+		}
+		
+		slots = new ImmutablePoint2[size];
+		mask = size - 1;
+	}
+	
+	/**
+	 * @return Maximal number of cached points.
+	 */
+	public final int getCapacity() {
+		return slots.length;
+	}
+	
+	/**
+	 * Gives a point of coordinates <code>x</code> and <code>y</code>,
+	 * the cached one if there is any.
+	 */
+	public ImmutablePoint2 intern(final float x, final float y) {
+		final int slot = spread(Vector2.hashCode(x, y)) & mask;
+		final ImmutablePoint2 cached = slots[slot];
+		
+		if (
+				cached != null &&
+				Float.floatToIntBits(cached.getX()) == Float.floatToIntBits(x) &&
+				Float.floatToIntBits(cached.getY()) == Float.floatToIntBits(y)
+		) {
+			return cached;
+		}
+		
+		final ImmutablePoint2 result = new ImmutablePoint2(x, y);
+		slots[slot] = result;
+		
+		return result;
+	}
+	
+	/**
+	 * Gives the cached point equal to <code>point</code> or caches
+	 * and returns <code>point</code> itself.
+	 */
+	public ImmutablePoint2 intern(final ImmutablePoint2 point) {
+		final int slot = spread(point.hashCode()) & mask;
+		final ImmutablePoint2 cached = slots[slot];
+		
+		if (point.equals(cached)) {
+			return cached;
+		}
+		
+		slots[slot] = point;
+		
+		return point;
+	}
+	
+	public ImmutablePoint2 intern(final Point2 point) {
+		return intern(point.x, point.y);
+	}
+	
+	/**
+	 * Removes all cached points.
+	 */
+	public void clear() {
+		for (int i = 0; i < slots.length; ++i) {
+			slots[i] = null;
+		}
+	}
+	
+	/**
+	 * Mixes high bits of <code>hash</code> into low ones, since only
+	 * the low ones select a slot.
+	 */
+	private static int spread(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		return hash;
+	}
+}
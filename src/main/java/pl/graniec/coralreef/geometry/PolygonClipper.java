@@ -0,0 +1,583 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Boolean operations on simple polygons with Greiner-Hormann algorithm.
+ * <p>
+ * Both polygons are kept as doubly linked lists of nodes. Crossing
+ * points of their edges are inserted into both lists and marked as
+ * entries or exits of the other polygon. The result is traced along
+ * the lists, switching between them at crossing points. Results are
+ * given as a set of rings, to be read with the even-odd rule: holes,
+ * for example of a difference, are separate rings inside of outer
+ * ones.
+ * <p>
+ * Like {@link Segment#intersectionPoint(Segment)}, touching ends and
+ * collinear overlaps are not crossings. Instead of leaving them out,
+ * which the algorithm doesn't allow, they are resolved by moving the
+ * clip polygon by a tiny distance, far below <code>float</code>
+ * precision, until no verticle lies on an edge of the other polygon.
+ * Crossings are decided with exact {@link Predicates}. Verticles of
+ * the result that come from the input keep their exact coordinates.
+ * <p>
+ * Node lists are stored in arrays that are kept and reused by next
+ * calls. Finding crossings costs <code>O(n * m)</code> edge tests,
+ * with cheap bounding box rejection.
+ * <p>
+ * This class is not thread-safe. Use a separate instance per thread.
+ * 
+ * @see BoxClipper
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PolygonClipper {
+	
+	/** Number of moves of the clip polygon tried to resolve touching */
+	private static final int MAX_ATTEMPTS = 8;
+	
+	/** Size of the first move relative to coordinates */
+	private static final double SHIFT = 1.0 / (1L << 40);
+	
+	/** No source verticle, a crossing point */
+	private static final int CROSSING = -1;
+	
+	/** Node coordinates, clip polygon nodes are moved */
+	private double[] nx = new double[32], ny = new double[32];
+	
+	/** Position of crossing nodes on their edges, from 0 to 1 */
+	private double[] alpha = new double[32];
+	
+	/** List links and the same crossing in the other list */
+	private int[] next = new int[32], prev = new int[32], neighbor = new int[32];
+	
+	/** Index of source verticle or {@link #CROSSING} */
+	private int[] source = new int[32];
+	
+	private boolean[] entry = new boolean[32], visited = new boolean[32];
+	
+	private int nodeCount;
+	
+	/** Subject nodes are from 0 to <code>subjectCount - 1</code>, clip nodes follow */
+	private int subjectCount, clipCount;
+	
+	/** Input of the current operation */
+	private float[] sx, sy, cx, cy;
+	private int soff, coff;
+	
+	public Geometry[] intersection(final Geometry subject, final Geometry clip) {
+		return clip(subject, clip, BooleanOperation.INTERSECTION);
+	}
+	
+	public Geometry[] union(final Geometry subject, final Geometry clip) {
+		return clip(subject, clip, BooleanOperation.UNION);
+	}
+	
+	public Geometry[] difference(final Geometry subject, final Geometry clip) {
+		return clip(subject, clip, BooleanOperation.DIFFERENCE);
+	}
+	
+	/**
+	 * Performs <code>operation</code> on polygons <code>subject</code>
+	 * and <code>clip</code>.
+	 * 
+	 * @param operation One of {@link BooleanOperation} constants.
+	 * 
+	 * @return New geometries, one per ring of the result.
+	 */
+	public Geometry[] clip(final Geometry subject, final Geometry clip, final int operation) {
+		final PointBuffer points = new PointBuffer();
+		final IndexBuffer ringStarts = new IndexBuffer();
+		
+		final int rings = clip(
+				subject.verticles.xArray(), subject.verticles.yArray(), 0, subject.verticles.size(),
+				clip.verticles.xArray(), clip.verticles.yArray(), 0, clip.verticles.size(),
+				operation, points, ringStarts
+		);
+		
+		final Geometry[] result = new Geometry[rings];
+		
+		for (int r = 0; r < rings; ++r) {
+			final int start = ringStarts.get(r);
+			final int end = r + 1 < rings ? ringStarts.get(r + 1) : points.size();
+			
+			result[r] = new Geometry();
+			result[r].verticles.addVerticles(points.xArray(), points.yArray(), start, end - start);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Performs <code>operation</code> on subject polygon of
+	 * <code>slen</code> verticles from <code>sxs</code> and
+	 * <code>sys</code> starting at <code>soff</code> and clip polygon
+	 * of <code>clen</code> verticles from <code>cxs</code> and
+	 * <code>cys</code> starting at <code>coff</code>. Verticles of
+	 * result rings are added to <code>result</code> one ring after
+	 * another, index of the first verticle of every ring is added to
+	 * <code>ringStarts</code>.
+	 * 
+	 * @param operation One of {@link BooleanOperation} constants.
+	 * 
+	 * @return Number of rings added.
+	 */
+	public int clip(
+			final float[] sxs, final float[] sys, final int soff, final int slen,
+			final float[] cxs, final float[] cys, final int coff, final int clen,
+			final int operation, final PointBuffer result, final IndexBuffer ringStarts
+	) {
+		if (
+				operation != BooleanOperation.INTERSECTION &&
+				operation != BooleanOperation.UNION &&
+				operation != BooleanOperation.DIFFERENCE
+		) {
+			throw new IllegalArgumentException("unknown operation: " + operation);
+		}
+		
+		checkRange(sxs, sys, soff, slen);
+		checkRange(cxs, cys, coff, clen);
+		
+		sx = sxs;
+		sy = sys;
+		cx = cxs;
+		cy = cys;
+		this.soff = soff;
+		this.coff = coff;
+		
+		try {
+			return clip(slen, clen, operation, result, ringStarts);
+		} finally {
+			sx = sy = cx = cy = null;
+		}
+	}
+	
+	private int clip(int slen, int clen, int operation, PointBuffer result, IndexBuffer ringStarts) {
+		// coordinates magnitude for the size of moves
+		double magnitude = 1;
+		
+		for (int i = 0; i < slen; ++i) {
+			magnitude = Math.max(magnitude, Math.max(Math.abs(sx[soff + i]), Math.abs(sy[soff + i])));
+		}
+		
+		for (int i = 0; i < clen; ++i) {
+			magnitude = Math.max(magnitude, Math.max(Math.abs(cx[coff + i]), Math.abs(cy[coff + i])));
+		}
+		
+		boolean crossed = false;
+		
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; ++attempt) {
+			final double shift = attempt == 0 ? 0 : magnitude * SHIFT * attempt;
+			
+			load(slen, clen, shift);
+			
+			if (subjectCount < 3 || clipCount < 3) {
+				break;
+			}
+			
+			final int found = findCrossings(attempt == MAX_ATTEMPTS - 1);
+			
+			if (found >= 0) {
+				crossed = found > 0;
+				break;
+			}
+		}
+		
+		final int before = ringStarts.size();
+		
+		if (subjectCount < 3 || clipCount < 3) {
+			final boolean subject = subjectCount >= 3;
+			final boolean clip = clipCount >= 3;
+			
+			if (subject && operation != BooleanOperation.INTERSECTION) {
+				emitPolygon(0, subjectCount, false, result, ringStarts);
+			} else if (clip && operation == BooleanOperation.UNION) {
+				emitPolygon(subjectCount, clipCount, false, result, ringStarts);
+			}
+			
+			return ringStarts.size() - before;
+		}
+		
+		final boolean subjectInClip = contains(subjectCount, clipCount, nx[0], ny[0]);
+		final boolean clipInSubject = contains(0, subjectCount, nx[subjectCount], ny[subjectCount]);
+		
+		if (!crossed) {
+			emitWhole(operation, subjectInClip, clipInSubject, result, ringStarts);
+			return ringStarts.size() - before;
+		}
+		
+		// travel forwards along the subject inside of the clip for an intersection
+		final boolean subjectForwards = operation == BooleanOperation.INTERSECTION;
+		final boolean clipForwards = operation != BooleanOperation.UNION;
+		
+		markEntries(0, subjectForwards != subjectInClip);
+		markEntries(subjectCount, clipForwards != clipInSubject);
+		
+		trace(result, ringStarts);
+		
+		return ringStarts.size() - before;
+	}
+	
+	/**
+	 * Creates node lists of both polygons, without repeated verticles.
+	 * Clip polygon is moved by <code>shift</code>.
+	 */
+	private void load(int slen, int clen, double shift) {
+		ensureCapacity(slen + clen);
+		nodeCount = 0;
+		
+		subjectCount = loadRing(sx, sy, soff, slen, 0, 0);
+		clipCount = loadRing(cx, cy, coff, clen, shift, shift * 0.7548776662466927);
+	}
+	
+	private int loadRing(float[] xs, float[] ys, int off, int len, double dx, double dy) {
+		final int first = nodeCount;
+		
+		for (int i = 0; i < len; ++i) {
+			final float x = xs[off + i];
+			final float y = ys[off + i];
+			
+			if (nodeCount > first && x == xs[off + source[nodeCount - 1]] && y == ys[off + source[nodeCount - 1]]) {
+				continue;
+			}
+			
+			nx[nodeCount] = x + dx;
+			ny[nodeCount] = y + dy;
+			source[nodeCount] = i;
+			++nodeCount;
+		}
+		
+		if (nodeCount - first > 1 && nx[nodeCount - 1] == nx[first] && ny[nodeCount - 1] == ny[first]) {
+			--nodeCount;
+		}
+		
+		final int count = nodeCount - first;
+		
+		for (int n = first; n < nodeCount; ++n) {
+			next[n] = n + 1 < nodeCount ? n + 1 : first;
+			prev[n] = n > first ? n - 1 : nodeCount - 1;
+			neighbor[n] = -1;
+			alpha[n] = 0;
+			visited[n] = false;
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Inserts crossings of all edge pairs into both lists.
+	 * 
+	 * @param last If set, touching edges are treated as not crossing.
+	 * 
+	 * @return Number of crossings or -1 if polygons touch each other.
+	 */
+	private int findCrossings(boolean last) {
+		final int clipEnd = subjectCount + clipCount;
+		int found = 0;
+		
+		for (int a = 0; a < subjectCount; ++a) {
+			final int b = a + 1 < subjectCount ? a + 1 : 0;
+			
+			final double ax = nx[a], ay = ny[a], bx = nx[b], by = ny[b];
+			
+			final double minX = Math.min(ax, bx), maxX = Math.max(ax, bx);
+			final double minY = Math.min(ay, by), maxY = Math.max(ay, by);
+			
+			for (int c = subjectCount; c < clipEnd; ++c) {
+				final int d = c + 1 < clipEnd ? c + 1 : subjectCount;
+				
+				final double cx = nx[c], cy = ny[c], dx = nx[d], dy = ny[d];
+				
+				if (
+						Math.max(cx, dx) < minX || Math.min(cx, dx) > maxX ||
+						Math.max(cy, dy) < minY || Math.min(cy, dy) > maxY
+				) {
+					continue;
+				}
+				
+				final double o1 = Predicates.orient2d(ax, ay, bx, by, cx, cy);
+				final double o2 = Predicates.orient2d(ax, ay, bx, by, dx, dy);
+				final double o3 = Predicates.orient2d(cx, cy, dx, dy, ax, ay);
+				final double o4 = Predicates.orient2d(cx, cy, dx, dy, bx, by);
+				
+				if (o1 == 0 || o2 == 0 || o3 == 0 || o4 == 0) {
+					if (!last) {
+						return -1;
+					}
+					
+					continue;
+				}
+				
+				if ((o1 > 0) == (o2 > 0) || (o3 > 0) == (o4 > 0)) {
+					continue;
+				}
+				
+				final double subjectAlpha = o3 / (o3 - o4);
+				final double clipAlpha = o1 / (o1 - o2);
+				
+				ensureCapacity(nodeCount + 2);
+				
+				final int p = insert(a, subjectAlpha, ax + subjectAlpha * (bx - ax), ay + subjectAlpha * (by - ay));
+				final int q = insert(c, clipAlpha, nx[p], ny[p]);
+				
+				neighbor[p] = q;
+				neighbor[q] = p;
+				
+				++found;
+			}
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Inserts a crossing node after verticle node <code>start</code>,
+	 * among crossings of the same edge ordered by <code>position</code>.
+	 */
+	private int insert(int start, double position, double x, double y) {
+		final int node = nodeCount++;
+		
+		nx[node] = x;
+		ny[node] = y;
+		alpha[node] = position;
+		source[node] = CROSSING;
+		visited[node] = false;
+		
+		int after = start;
+		
+		while (source[next[after]] == CROSSING && alpha[next[after]] < position) {
+			after = next[after];
+		}
+		
+		next[node] = next[after];
+		prev[node] = after;
+		prev[next[after]] = node;
+		next[after] = node;
+		
+		return node;
+	}
+	
+	/**
+	 * Marks crossings of the list starting at node <code>start</code>
+	 * alternately as entries and exits.
+	 */
+	private void markEntries(int start, boolean status) {
+		int node = start;
+		
+		do {
+			if (source[node] == CROSSING) {
+				entry[node] = status;
+				status = !status;
+			}
+			
+			node = next[node];
+		} while (node != start);
+	}
+	
+	/**
+	 * Traces rings of the result starting from not visited crossings.
+	 */
+	private void trace(PointBuffer result, IndexBuffer ringStarts) {
+		for (int start = subjectCount + clipCount; start < nodeCount; ++start) {
+			if (visited[start]) {
+				continue;
+			}
+			
+			final int ringStart = result.size();
+			int node = start;
+			
+			do {
+				visited[node] = true;
+				visited[neighbor[node]] = true;
+				
+				final boolean forwards = entry[node];
+				
+				do {
+					node = forwards ? next[node] : prev[node];
+					emit(node, result, ringStart);
+				} while (source[node] != CROSSING);
+				
+				node = neighbor[node];
+			} while (!visited[node]);
+			
+			endRing(ringStart, result, ringStarts);
+		}
+	}
+	
+	/**
+	 * Gives the result of an operation on polygons without crossing edges.
+	 */
+	private void emitWhole(
+			int operation, boolean subjectInClip, boolean clipInSubject,
+			PointBuffer result, IndexBuffer ringStarts
+	) {
+		final boolean subject, clip;
+		
+		if (operation == BooleanOperation.INTERSECTION) {
+			subject = subjectInClip;
+			clip = clipInSubject;
+		} else if (operation == BooleanOperation.UNION) {
+			subject = !subjectInClip;
+			clip = !clipInSubject;
+		} else {
+			subject = !subjectInClip;
+			clip = clipInSubject;
+		}
+		
+		if (subject) {
+			emitPolygon(0, subjectCount, false, result, ringStarts);
+		}
+		
+		if (clip) {
+			// a hole of a difference goes in the opposite direction
+			emitPolygon(subjectCount, clipCount, operation == BooleanOperation.DIFFERENCE, result, ringStarts);
+		}
+	}
+	
+	private void emitPolygon(int first, int count, boolean reversed, PointBuffer result, IndexBuffer ringStarts) {
+		final int ringStart = result.size();
+		
+		for (int i = 0; i < count; ++i) {
+			emit(first + (reversed ? count - 1 - i : i), result, ringStart);
+		}
+		
+		endRing(ringStart, result, ringStarts);
+	}
+	
+	/**
+	 * Adds node coordinates to the ring unless they repeat the last ones.
+	 */
+	private void emit(int node, PointBuffer result, int ringStart) {
+		final float x, y;
+		
+		if (source[node] == CROSSING) {
+			x = (float) nx[node];
+			y = (float) ny[node];
+		} else if (node < subjectCount) {
+			x = sx[soff + source[node]];
+			y = sy[soff + source[node]];
+		} else {
+			x = cx[coff + source[node]];
+			y = cy[coff + source[node]];
+		}
+		
+		final int size = result.size();
+		
+		if (size > ringStart && result.getX(size - 1) == x && result.getY(size - 1) == y) {
+			return;
+		}
+		
+		result.add(x, y);
+	}
+	
+	/**
+	 * Closes the ring started at <code>ringStart</code>, dropping it
+	 * if it has less than three verticles.
+	 */
+	private static void endRing(int ringStart, PointBuffer result, IndexBuffer ringStarts) {
+		int size = result.size();
+		
+		if (
+				size - ringStart > 1 &&
+				result.getX(size - 1) == result.getX(ringStart) && result.getY(size - 1) == result.getY(ringStart)
+		) {
+			result.truncate(--size);
+		}
+		
+		if (size - ringStart < 3) {
+			result.truncate(ringStart);
+			return;
+		}
+		
+		ringStarts.add(ringStart);
+	}
+	
+	/**
+	 * Checks with the crossing number test if point (<code>x</code>,
+	 * <code>y</code>) lies inside of the ring of <code>count</code>
+	 * verticle nodes starting at <code>first</code>.
+	 */
+	private boolean contains(int first, int count, double x, double y) {
+		boolean inside = false;
+		
+		for (int i = first, j = first + count - 1; i < first + count; j = i++) {
+			if (
+					(ny[i] > y) != (ny[j] > y) &&
+					x < (nx[j] - nx[i]) * (y - ny[i]) / (ny[j] - ny[i]) + nx[i]
+			) {
+				inside = !inside;
+			}
+		}
+		
+		return inside;
+	}
+	
+	private void ensureCapacity(int capacity) {
+		if (capacity <= nx.length) {
+			return;
+		}
+		
+		final int newCapacity = Math.max(capacity, nx.length * 2);
+		
+		nx = grow(nx, newCapacity);
+		ny = grow(ny, newCapacity);
+		alpha = grow(alpha, newCapacity);
+		next = grow(next, newCapacity);
+		prev = grow(prev, newCapacity);
+		neighbor = grow(neighbor, newCapacity);
+		source = grow(source, newCapacity);
+		entry = grow(entry, newCapacity);
+		visited = grow(visited, newCapacity);
+	}
+	
+	private static double[] grow(double[] array, int capacity) {
+		final double[] result = new double[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	private static int[] grow(int[] array, int capacity) {
+		final int[] result = new int[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	private static boolean[] grow(boolean[] array, int capacity) {
+		final boolean[] result = new boolean[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	private static void checkRange(float[] xs, float[] ys, int off, int len) {
+		if (off < 0 || len < 0 || off + len > xs.length || off + len > ys.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+	}
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.math.BigDecimal;
+
+/**
+ * Robust geometric predicates after Jonathan Shewchuk's
+ * "Adaptive Precision Floating-Point Arithmetic and Fast Robust
+ * Geometric Predicates".
+ * <p>
+ * Every predicate first evaluates its determinant in double precision
+ * and compares it with a forward error bound. Only when the sign
+ * cannot be trusted the determinant is evaluated again in exact
+ * arithmetic. Signs of results are always correct, as long as the
+ * double precision evaluation doesn't overflow. Float coordinates
+ * can be passed directly, widening to double is exact.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class Predicates {
+	
+	/** Half of the double precision ulp of 1 */
+	private static final double EPSILON = 1.1102230246251565E-16;
+	
+	/** Error bound of the fast orient2d evaluation */
+	private static final double ORIENT_BOUND = (3.0 + 16.0 * EPSILON) * EPSILON;
+	
+	/** Error bound of the fast incircle evaluation */
+	private static final double INCIRCLE_BOUND = (10.0 + 96.0 * EPSILON) * EPSILON;
+	
+	/** 2^27 + 1, splits a double into two halves of its mantissa */
+	private static final double SPLITTER = 134217729.0;
+	
+	/** Magnitudes of differences for which products don't underflow or overflow when split */
+	private static final double MIN_FACTOR = 1e-120;
+	private static final double MAX_FACTOR = 1e120;
+	
+	private Predicates() {
+	}
+	
+	/**
+	 * Tells on which side of the directed line from
+	 * (<code>ax</code>, <code>ay</code>) to (<code>bx</code>, <code>by</code>)
+	 * point (<code>cx</code>, <code>cy</code>) lies.
+	 * 
+	 * @return Positive value if the points are in counter-clockwise
+	 * order (in a coordinate system where Y grows upwards), negative
+	 * value if they are in clockwise order and zero if they are collinear.
+	 * The value approximates twice the signed area of the triangle.
+	 */
+	public static double orient2d(
+			final double ax, final double ay,
+			final double bx, final double by,
+			final double cx, final double cy
+	) {
+		final double left = (ax - cx) * (by - cy);
+		final double right = (ay - cy) * (bx - cx);
+		final double det = left - right;
+		
+		final double sum;
+		
+		if (left > 0) {
+			if (right <= 0) {
+				return det;
+			}
+			sum = left + right;
+		} else if (left < 0) {
+			if (right >= 0) {
+				return det;
+			}
+			sum = -left - right;
+		} else {
+			return det;
+		}
+		
+		final double bound = ORIENT_BOUND * sum;
+		
+		if (det >= bound || -det >= bound) {
+			return det;
+		}
+		
+		final double expansion = orient2dExpansion(ax, ay, bx, by, cx, cy);
+		
+		if (!Double.isNaN(expansion)) {
+			return expansion;
+		}
+		
+		return orient2dExact(ax, ay, bx, by, cx, cy);
+	}
+	
+	/**
+	 * Tells if point (<code>dx</code>, <code>dy</code>) lies inside the
+	 * circle passing through points (<code>ax</code>, <code>ay</code>),
+	 * (<code>bx</code>, <code>by</code>) and (<code>cx</code>, <code>cy</code>).
+	 * The three points must be in counter-clockwise order, otherwise
+	 * the sign of the result is reversed.
+	 * 
+	 * @return Positive value if the point lies inside the circle,
+	 * negative value if it lies outside and zero if it's on the circle.
+	 */
+	public static double incircle(
+			final double ax, final double ay,
+			final double bx, final double by,
+			final double cx, final double cy,
+			final double dx, final double dy
+	) {
+		final double adx = ax - dx;
+		final double ady = ay - dy;
+		final double bdx = bx - dx;
+		final double bdy = by - dy;
+		final double cdx = cx - dx;
+		final double cdy = cy - dy;
+		
+		final double bdxcdy = bdx * cdy;
+		final double cdxbdy = cdx * bdy;
+		final double alift = adx * adx + ady * ady;
+		
+		final double cdxady = cdx * ady;
+		final double adxcdy = adx * cdy;
+		final double blift = bdx * bdx + bdy * bdy;
+		
+		final double adxbdy = adx * bdy;
+		final double bdxady = bdx * ady;
+		final double clift = cdx * cdx + cdy * cdy;
+		
+		final double det =
+			alift * (bdxcdy - cdxbdy) +
+			blift * (cdxady - adxcdy) +
+			clift * (adxbdy - bdxady);
+		
+		final double permanent =
+			(Math.abs(bdxcdy) + Math.abs(cdxbdy)) * alift +
+			(Math.abs(cdxady) + Math.abs(adxcdy)) * blift +
+			(Math.abs(adxbdy) + Math.abs(bdxady)) * clift;
+		
+		final double bound = INCIRCLE_BOUND * permanent;
+		
+		if (det > bound || -det > bound) {
+			return det;
+		}
+		
+		return incircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+	}
+	
+	/**
+	 * Evaluates the orientation determinant exactly with products
+	 * expanded into sums of two doubles. That works when the differences
+	 * of coordinates are exact, which is the case for nearly collinear
+	 * points close to each other.
+	 * 
+	 * @return The most significant component of the exact result or
+	 * <code>NaN</code> if it cannot be computed this way.
+	 */
+	private static double orient2dExpansion(double ax, double ay, double bx, double by, double cx, double cy) {
+		final double acx = ax - cx;
+		final double bcx = bx - cx;
+		final double acy = ay - cy;
+		final double bcy = by - cy;
+		
+		if (
+				diffTail(ax, cx, acx) != 0 || diffTail(bx, cx, bcx) != 0 ||
+				diffTail(ay, cy, acy) != 0 || diffTail(by, cy, bcy) != 0
+		) {
+			return Double.NaN;
+		}
+		
+		if (!isFactor(acx) || !isFactor(bcx) || !isFactor(acy) || !isFactor(bcy)) {
+			return Double.NaN;
+		}
+		
+		final double left = acx * bcy;
+		final double leftTail = productTail(acx, bcy, left);
+		final double right = acy * bcx;
+		final double rightTail = productTail(acy, bcx, right);
+		
+		// (left + leftTail) - (right + rightTail) as a nonoverlapping
+		// expansion x3 + x2 + x1 + x0 of increasing magnitudes
+		final double i0 = leftTail - rightTail;
+		final double x0 = diffTail(leftTail, rightTail, i0);
+		final double j = left + i0;
+		final double j0 = sumTail(left, i0, j);
+		final double i1 = j0 - right;
+		final double x1 = diffTail(j0, right, i1);
+		final double x3 = j + i1;
+		final double x2 = sumTail(j, i1, x3);
+		
+		if (x3 != 0) {
+			return x3;
+		}
+		
+		if (x2 != 0) {
+			return x2;
+		}
+		
+		return x1 != 0 ? x1 : x0;
+	}
+	
+	private static boolean isFactor(double value) {
+		final double magnitude = Math.abs(value);
+		return magnitude == 0 || magnitude >= MIN_FACTOR && magnitude <= MAX_FACTOR;
+	}
+	
+	/**
+	 * @return Rounding error of <code>sum = a + b</code>.
+	 */
+	private static double sumTail(double a, double b, double sum) {
+		final double bVirtual = sum - a;
+		final double aVirtual = sum - bVirtual;
+		return (a - aVirtual) + (b - bVirtual);
+	}
+	
+	/**
+	 * @return Rounding error of <code>diff = a - b</code>.
+	 */
+	private static double diffTail(double a, double b, double diff) {
+		final double bVirtual = a - diff;
+		final double aVirtual = diff + bVirtual;
+		return (a - aVirtual) + (bVirtual - b);
+	}
+	
+	/**
+	 * @return Rounding error of <code>product = a * b</code>.
+	 */
+	private static double productTail(double a, double b, double product) {
+		final double aBig = SPLITTER * a;
+		final double aHigh = aBig - (aBig - a);
+		final double aLow = a - aHigh;
+		final double bBig = SPLITTER * b;
+		final double bHigh = bBig - (bBig - b);
+		final double bLow = b - bHigh;
+		
+		final double error1 = product - aHigh * bHigh;
+		final double error2 = error1 - aLow * bHigh;
+		final double error3 = error2 - aHigh * bLow;
+		
+		return aLow * bLow - error3;
+	}
+	
+	private static double orient2dExact(double ax, double ay, double bx, double by, double cx, double cy) {
+		final BigDecimal acx = exact(ax).subtract(exact(cx));
+		final BigDecimal bcy = exact(by).subtract(exact(cy));
+		final BigDecimal acy = exact(ay).subtract(exact(cy));
+		final BigDecimal bcx = exact(bx).subtract(exact(cx));
+		
+		return toDouble(acx.multiply(bcy).subtract(acy.multiply(bcx)));
+	}
+	
+	private static double incircleExact(
+			double ax, double ay, double bx, double by,
+			double cx, double cy, double dx, double dy
+	) {
+		final BigDecimal adx = exact(ax).subtract(exact(dx));
+		final BigDecimal ady = exact(ay).subtract(exact(dy));
+		final BigDecimal bdx = exact(bx).subtract(exact(dx));
+		final BigDecimal bdy = exact(by).subtract(exact(dy));
+		final BigDecimal cdx = exact(cx).subtract(exact(dx));
+		final BigDecimal cdy = exact(cy).subtract(exact(dy));
+		
+		final BigDecimal alift = adx.multiply(adx).add(ady.multiply(ady));
+		final BigDecimal blift = bdx.multiply(bdx).add(bdy.multiply(bdy));
+		final BigDecimal clift = cdx.multiply(cdx).add(cdy.multiply(cdy));
+		
+		final BigDecimal det =
+			alift.multiply(bdx.multiply(cdy).subtract(cdx.multiply(bdy)))
+			.add(blift.multiply(cdx.multiply(ady).subtract(adx.multiply(cdy))))
+			.add(clift.multiply(adx.multiply(bdy).subtract(bdx.multiply(ady))));
+		
+		return toDouble(det);
+	}
+	
+	private static BigDecimal exact(double value) {
+		return new BigDecimal(value);
+	}
+	
+	/**
+	 * Converts exact result to double keeping its sign even
+	 * when the value is too small to be represented.
+	 */
+	private static double toDouble(BigDecimal value) {
+		final double result = value.doubleValue();
+		
+		if (result == 0 && value.signum() != 0) {
+			return value.signum() * Double.MIN_VALUE;
+		}
+		
+		return result;
+	}
+}
@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Polygon prepared for many point-in-polygon and intersection queries.
+ * <p>
+ * Edges of the polygon are indexed in horizontal slabs of equal
+ * height: every edge is registered in all slabs that its Y range
+ * covers. A query point is tested with the even-odd rule against
+ * the edges of its slab only, so for polygons without very long
+ * edges a query takes nearly constant time instead of
+ * <code>O(n)</code>. Points outside of polygon bounds are rejected
+ * without looking at edges at all.
+ * <p>
+ * The number of slabs is chosen so the index takes at most
+ * {@link #MAX_ENTRIES_PER_EDGE} entries per edge. Polygons with many
+ * edges that span most of their height get less slabs and slower
+ * queries.
+ * <p>
+ * The polygon is copied when prepared, so later changes of the
+ * source geometry are not visible. Instances are immutable and may
+ * be used by many threads at once.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PreparedPolygon {
+	
+	/** Number of query points tested by a single task of batch queries */
+	public static final int CHUNK_SIZE = 1 << 14;
+	
+	/** Limit of average number of slabs an edge is registered in */
+	public static final int MAX_ENTRIES_PER_EDGE = 8;
+	
+	/** Edges from (<code>x1</code>, <code>y1</code>) to (<code>x2</code>, <code>y2</code>) */
+	private final float[] x1, y1, x2, y2;
+	
+	/** Polygon bounds */
+	private final Box2 bounds;
+	
+	/** Number of slabs and scale from Y coordinate to slab number */
+	private final int slabCount;
+	private final double slabScale;
+	
+	/** Edges of slab <code>s</code> are from <code>slabStart[s]</code> to <code>slabStart[s + 1] - 1</code> */
+	private final int[] slabStart;
+	private final int[] slabEdges;
+	
+	/**
+	 * Prepares polygon from verticles of <code>geometry</code>. The last
+	 * verticle is connected with the first one.
+	 */
+	public PreparedPolygon(final Geometry geometry) {
+		this(geometry.verticles.xArray(), geometry.verticles.yArray(), 0, geometry.verticles.size());
+	}
+	
+	/**
+	 * Prepares polygon from <code>len</code> verticles starting at
+	 * <code>off</code>. The last verticle is connected with the first one.
+	 */
+	public PreparedPolygon(final float[] xs, final float[] ys, final int off, final int len) {
+		if (off < 0 || len < 0 || off + len > xs.length || off + len > ys.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+		
+		x1 = new float[len];
+		y1 = new float[len];
+		x2 = new float[len];
+		y2 = new float[len];
+		
+		for (int e = 0; e < len; ++e) {
+			final int next = e + 1 < len ? e + 1 : 0;
+			
+			x1[e] = xs[off + e];
+			y1[e] = ys[off + e];
+			x2[e] = xs[off + next];
+			y2[e] = ys[off + next];
+		}
+		
+		if (len == 0) {
+			bounds = null;
+			slabCount = 0;
+			slabScale = 0;
+			slabStart = new int[1];
+			slabEdges = new int[0];
+			return;
+		}
+		
+		float minX = x1[0], minY = y1[0];
+		float maxX = minX, maxY = minY;
+		
+		for (int e = 1; e < len; ++e) {
+			minX = Math.min(minX, x1[e]);
+			minY = Math.min(minY, y1[e]);
+			maxX = Math.max(maxX, x1[e]);
+			maxY = Math.max(maxY, y1[e]);
+		}
+		
+		bounds = new Box2(minX, minY, maxX, maxY);
+		
+		// halve the number of slabs until the index is small enough
+		final double height = (double) maxY - minY;
+		final long maxEntries = (long) MAX_ENTRIES_PER_EDGE * len;
+		
+		int slabs = len;
+		double scale;
+		long entries;
+		
+		while (true) {
+			scale = height > 0 ? slabs / height : 0;
+			entries = 0;
+			
+			for (int e = 0; e < len; ++e) {
+				entries += slab(Math.max(y1[e], y2[e]), minY, slabs, scale)
+					- slab(Math.min(y1[e], y2[e]), minY, slabs, scale) + 1;
+			}
+			
+			if (entries <= maxEntries || slabs == 1) {
+				break;
+			}
+			
+			slabs /= 2;
+		}
+		
+		slabCount = slabs;
+		slabScale = scale;
+		slabStart = new int[slabs + 1];
+		slabEdges = new int[(int) entries];
+		
+		// counting sort of edges by slabs
+		for (int e = 0; e < len; ++e) {
+			final int last = slab(Math.max(y1[e], y2[e]));
+			
+			for (int s = slab(Math.min(y1[e], y2[e])); s <= last; ++s) {
+				++slabStart[s + 1];
+			}
+		}
+		
+		for (int s = 0; s < slabs; ++s) {
+			slabStart[s + 1] += slabStart[s];
+		}
+		
+		final int[] fill = new int[slabs];
+		System.arraycopy(slabStart, 0, fill, 0, slabs);
+		
+		for (int e = 0; e < len; ++e) {
+			final int last = slab(Math.max(y1[e], y2[e]));
+			
+			for (int s = slab(Math.min(y1[e], y2[e])); s <= last; ++s) {
+				slabEdges[fill[s]++] = e;
+			}
+		}
+	}
+	
+	/**
+	 * Gives slab of <code>y</code>. It never decreases when
+	 * <code>y</code> grows, so an edge registered from the slab of its
+	 * lower end to the slab of its upper end is found from every
+	 * <code>y</code> between its ends.
+	 */
+	private static int slab(float y, float minY, int slabs, double scale) {
+		final int s = (int) (((double) y - minY) * scale);
+		return s < 0 ? 0 : (s >= slabs ? slabs - 1 : s);
+	}
+	
+	private int slab(float y) {
+		return slab(y, bounds.top, slabCount, slabScale);
+	}
+	
+	/**
+	 * Gives bounds of the polygon.
+	 * 
+	 * @return New box or <code>null</code> if the polygon has no verticles.
+	 */
+	public final Box2 getBounds() {
+		return bounds == null ? null : new Box2(bounds.left, bounds.top, bounds.right, bounds.bottom);
+	}
+	
+	/**
+	 * @return Number of polygon verticles.
+	 */
+	public final int getVerticleCount() {
+		return x1.length;
+	}
+	
+	/**
+	 * Checks if point (<code>x</code>, <code>y</code>) lies inside of the
+	 * polygon using the even-odd rule. The result is the same as of the
+	 * crossing number test against all edges, also for points on the
+	 * boundary.
+	 */
+	public final boolean contains(final float x, final float y) {
+		if (bounds == null || !bounds.contains(x, y)) {
+			return false;
+		}
+		
+		final int s = slab(y);
+		final int end = slabStart[s + 1];
+		
+		boolean inside = false;
+		
+		for (int i = slabStart[s]; i < end; ++i) {
+			final int e = slabEdges[i];
+			
+			if (crosses(x1[e], y1[e], x2[e], y2[e], x, y)) {
+				inside = !inside;
+			}
+		}
+		
+		return inside;
+	}
+	
+	public final boolean contains(final Point2 point) {
+		return contains(point.x, point.y);
+	}
+	
+	/**
+	 * Checks if a horizontal ray from (<code>x</code>, <code>y</code>)
+	 * to the right crosses the edge. Upper ends of edges are excluded,
+	 * so a verticle on the ray is counted only once.
+	 */
+	private static boolean crosses(float ex1, float ey1, float ex2, float ey2, float x, float y) {
+		return
+			(ey1 > y) != (ey2 > y) &&
+			x < ((double) ex2 - ex1) * ((double) y - ey1) / ((double) ey2 - ey1) + ex1;
+	}
+	
+	/**
+	 * Checks <code>len</code> points from <code>xs</code> and
+	 * <code>ys</code> starting at <code>off</code> like
+	 * {@link #contains(float, float)} and stores results in
+	 * <code>result</code> from index 0. Large batches are split into
+	 * chunks of {@link #CHUNK_SIZE} points tested on all available
+	 * processors.
+	 * 
+	 * @return Number of points inside of the polygon.
+	 */
+	public final int contains(
+			final float[] xs, final float[] ys, final int off, final int len, final boolean[] result
+	) {
+		if (off < 0 || len < 0 || off + len > xs.length || off + len > ys.length || len > result.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+		
+		final int[] counts = new int[Parallel.chunkCount(len, CHUNK_SIZE)];
+		
+		Parallel.forEachChunk(len, CHUNK_SIZE, new Parallel.Chunk() {
+			public void run(int chunk, int from, int to) {
+				int count = 0;
+				
+				for (int i = from; i < to; ++i) {
+					result[i] = contains(xs[off + i], ys[off + i]);
+					
+					if (result[i]) {
+						++count;
+					}
+				}
+				
+				counts[chunk] = count;
+			}
+		});
+		
+		int count = 0;
+		
+		for (int c = 0; c < counts.length; ++c) {
+			count += counts[c];
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Checks if <code>segment</code> has any common point with the
+	 * polygon: it touches or crosses the boundary or lies inside.
+	 * Touching is decided with exact {@link Predicates}.
+	 */
+	public final boolean intersects(final Segment segment) {
+		return intersects(segment.x1, segment.y1, segment.x2, segment.y2);
+	}
+	
+	/**
+	 * Works like {@link #intersects(Segment)} for segment
+	 * (<code>sx1</code>, <code>sy1</code>, <code>sx2</code>, <code>sy2</code>).
+	 */
+	public final boolean intersects(final float sx1, final float sy1, final float sx2, final float sy2) {
+		if (
+				bounds == null ||
+				Math.max(sx1, sx2) < bounds.left || Math.min(sx1, sx2) > bounds.right ||
+				Math.max(sy1, sy2) < bounds.top || Math.min(sy1, sy2) > bounds.bottom
+		) {
+			return false;
+		}
+		
+		// a segment that doesn't touch the boundary is either inside or outside as whole
+		if (contains(sx1, sy1)) {
+			return true;
+		}
+		
+		final float minX = Math.min(sx1, sx2);
+		final float maxX = Math.max(sx1, sx2);
+		final int last = slab(Math.max(sy1, sy2));
+		
+		for (int s = slab(Math.min(sy1, sy2)); s <= last; ++s) {
+			final int end = slabStart[s + 1];
+			
+			for (int i = slabStart[s]; i < end; ++i) {
+				final int e = slabEdges[i];
+				
+				if (Math.max(x1[e], x2[e]) < minX || Math.min(x1[e], x2[e]) > maxX) {
+					continue;
+				}
+				
+				if (touches(x1[e], y1[e], x2[e], y2[e], sx1, sy1, sx2, sy2)) {
+					return true;
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Checks if closed segments have any common point.
+	 */
+	private static boolean touches(
+			float ax1, float ay1, float ax2, float ay2,
+			float bx1, float by1, float bx2, float by2
+	) {
+		final double o1 = Predicates.orient2d(ax1, ay1, ax2, ay2, bx1, by1);
+		final double o2 = Predicates.orient2d(ax1, ay1, ax2, ay2, bx2, by2);
+		final double o3 = Predicates.orient2d(bx1, by1, bx2, by2, ax1, ay1);
+		final double o4 = Predicates.orient2d(bx1, by1, bx2, by2, ax2, ay2);
+		
+		if ((o1 > 0 && o2 < 0 || o1 < 0 && o2 > 0) && (o3 > 0 && o4 < 0 || o3 < 0 && o4 > 0)) {
+			return true;
+		}
+		
+		return
+			o1 == 0 && within(ax1, ay1, ax2, ay2, bx1, by1) ||
+			o2 == 0 && within(ax1, ay1, ax2, ay2, bx2, by2) ||
+			o3 == 0 && within(bx1, by1, bx2, by2, ax1, ay1) ||
+			o4 == 0 && within(bx1, by1, bx2, by2, ax2, ay2);
+	}
+	
+	/**
+	 * Checks if point (<code>x</code>, <code>y</code>) collinear with
+	 * a segment lies within its bounds.
+	 */
+	private static boolean within(float x1, float y1, float x2, float y2, float x, float y) {
+		return
+			x >= Math.min(x1, x2) && x <= Math.max(x1, x2) &&
+			y >= Math.min(y1, y2) && y <= Math.max(y1, y2);
+	}
+}
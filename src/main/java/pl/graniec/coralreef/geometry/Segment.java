@@ -42,62 +42,52 @@ public class Segment {
 		return (float) StrictMath.sqrt(w * w + h * h);
 	}
 	
-	/** Two segment points */
-	public float x1, y1, x2, y2;
-
-	public Segment(float x1, float y1, float x2, float y2) {
-		this.x1 = x1;
-		this.y1 = y1;
-		this.x2 = x2;
-		this.y2 = y2;
-	}
-	
-	public Segment(Point2 p1, Point2 p2) {
-		this(p1.x, p1.y, p2.x, p2.y);
-	}
-	
 	/**
-	 * Tests if this and the <code>other</code> segments intersects
-	 * and retrieves the cross point if there is one. If not, the
-	 * <code>null</code> value is returned.
+	 * Finds the position of intersection point of segment
+	 * (<code>x1</code>, <code>y1</code>, <code>x2</code>, <code>y2</code>)
+	 * with segment (<code>ox1</code>, <code>oy1</code>, <code>ox2</code>, <code>oy2</code>).
+	 * The position is given as a distance from (<code>x1</code>, <code>y1</code>)
+	 * along the first segment.
 	 * <p>
-	 * Segments that has common ends are treated as not-crossing.
-	 * 
-	 * @param other Other segment to test
-	 * 
-	 * @return point of intersection or <code>null</code> if there is none.
+	 * Segments that has common ends or are zero-length are treated as not-crossing.
+	 * This method does not allocate any objects.
 	 * 
-	 * @see #intersects(Segment)
+	 * @return distance from the first segment start to the intersection point
+	 * or {@link Float#NaN} if there is none.
 	 * 
+	 * @see #intersectionPoint(Segment)
 	 */
-	public final Point2 intersectionPoint(final Segment other) {
+	public static final float intersectionDistance(
+			final float x1, final float y1, final float x2, final float y2,
+			final float ox1, final float oy1, final float ox2, final float oy2
+	) {
 		
 		// intersection point
-		float thisLength = length();
-		float otherLength = other.length();
+		final float thisLength = length(x1, y1, x2, y2);
+		final float otherLength = length(ox1, oy1, ox2, oy2);
 		
 		// no intersection when one of segments is zero-length
 		if (thisLength == 0.0f || otherLength == 0.0f) {
-			return null;
+			return Float.NaN;
 		}
 		
 		// fail when the segments share an end-point
 		if (
-				x1 == other.x1 && y1 == other.y1 ||
-				x1 == other.x2 && y1 == other.y2 ||
-				x2 == other.x1 && y2 == other.y1 ||
-				x2 == other.x2 && y2 == other.y2
+				x1 == ox1 && y1 == oy1 ||
+				x1 == ox2 && y1 == oy2 ||
+				x2 == ox1 && y2 == oy1 ||
+				x2 == ox2 && y2 == oy2
 		    ) {
-			return null;
+			return Float.NaN;
 		}
 		
-		// make a translation so this.x1 this.y1 would be on the origin.
-		float thisX2 = x2 - x1;
-		float thisY2 = y2 - y1;
-		float otherX1 = other.x1 - x1;
-		float otherY1 = other.y1 - y1;
-		float otherX2 = other.x2 - x1;
-		float otherY2 = other.y2 - y1;
+		// make a translation so x1 y1 would be on the origin.
+		final float thisX2 = x2 - x1;
+		final float thisY2 = y2 - y1;
+		float otherX1 = ox1 - x1;
+		float otherY1 = oy1 - y1;
+		float otherX2 = ox2 - x1;
+		float otherY2 = oy2 - y1;
 		
 		// rotate the system so second point of first segment is on the positive X axis
 		final float cos = thisX2 / thisLength;
@@ -115,7 +105,7 @@ public class Segment {
 		
 		// fail if second segment doesn't cross the line of first segment
 		if (otherY1 < 0f && otherY2 < 0 || otherY1 >= 0 && otherY2 >= 0) {
-			return null;
+			return Float.NaN;
 		}
 		
 		// discover the position of intersection point on first segment
@@ -123,16 +113,159 @@ public class Segment {
 		
 		// fail if second segment crosses the line of first segment outside of it
 		if (iPos < 0f || iPos > thisLength) {
+			return Float.NaN;
+		}
+		
+		return iPos;
+	}
+	
+	/**
+	 * Checks if segment (<code>x1</code>, <code>y1</code>, <code>x2</code>, <code>y2</code>)
+	 * intersects segment (<code>ox1</code>, <code>oy1</code>, <code>ox2</code>, <code>oy2</code>).
+	 * The result is the same as of {@link #intersects(Segment)}.
+	 * 
+	 * @return <code>true</code> if there is a intersection.
+	 */
+	public static final boolean intersects(
+			final float x1, final float y1, final float x2, final float y2,
+			final float ox1, final float oy1, final float ox2, final float oy2
+	) {
+		return !Float.isNaN(intersectionDistance(x1, y1, x2, y2, ox1, oy1, ox2, oy2));
+	}
+	
+	/**
+	 * Works like {@link #intersects(float, float, float, float, float, float, float, float)}
+	 * but decides with exact orientation tests from {@link Predicates}
+	 * instead of the float rotation, so nearly collinear segments are
+	 * never misclassified.
+	 * <p>
+	 * Semantics are the same: zero-length segments and segments sharing
+	 * an end-point don't intersect, neither do collinear ones. An end of
+	 * the other segment lying on the first one counts as intersection
+	 * only if the other end lies on the clockwise side of the first
+	 * segment.
+	 * 
+	 * @return <code>true</code> if there is a intersection.
+	 */
+	public static final boolean robustIntersects(
+			final float x1, final float y1, final float x2, final float y2,
+			final float ox1, final float oy1, final float ox2, final float oy2
+	) {
+		if (x1 == x2 && y1 == y2 || ox1 == ox2 && oy1 == oy2) {
+			return false;
+		}
+		
+		if (
+				x1 == ox1 && y1 == oy1 ||
+				x1 == ox2 && y1 == oy2 ||
+				x2 == ox1 && y2 == oy1 ||
+				x2 == ox2 && y2 == oy2
+		    ) {
+			return false;
+		}
+		
+		// the other segment has to cross the line of this one
+		// with exactly one end on the clockwise side
+		final double o1 = Predicates.orient2d(x1, y1, x2, y2, ox1, oy1);
+		final double o2 = Predicates.orient2d(x1, y1, x2, y2, ox2, oy2);
+		
+		if ((o1 < 0) == (o2 < 0)) {
+			return false;
+		}
+		
+		// and the crossing point has to lie on this segment, ends included
+		final double o3 = Predicates.orient2d(ox1, oy1, ox2, oy2, x1, y1);
+		final double o4 = Predicates.orient2d(ox1, oy1, ox2, oy2, x2, y2);
+		
+		return o3 <= 0 && o4 >= 0 || o3 >= 0 && o4 <= 0;
+	}
+	
+	/** Two segment points */
+	public float x1, y1, x2, y2;
+
+	public Segment(float x1, float y1, float x2, float y2) {
+		this.x1 = x1;
+		this.y1 = y1;
+		this.x2 = x2;
+		this.y2 = y2;
+	}
+	
+	public Segment(Point2 p1, Point2 p2) {
+		this(p1.x, p1.y, p2.x, p2.y);
+	}
+	
+	/**
+	 * Tests if this and the <code>other</code> segments intersects
+	 * and retrieves the cross point if there is one. If not, the
+	 * <code>null</code> value is returned.
+	 * <p>
+	 * Segments that has common ends are treated as not-crossing.
+	 * 
+	 * @param other Other segment to test
+	 * 
+	 * @return point of intersection or <code>null</code> if there is none.
+	 * 
+	 * @see #intersects(Segment)
+	 * @see #intersectionPoint(Segment, Point2)
+	 * 
+	 */
+	public final Point2 intersectionPoint(final Segment other) {
+		final float iPos = intersectionDistance(
+				x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2
+		);
+		
+		if (Float.isNaN(iPos)) {
 			return null;
 		}
 		
-		// apply the discovered position to original coordinate system
-		// and return the result
-		return new Point2(
-				x1 + iPos * cos,
-				y1 + iPos * sin
+		final Point2 result = new Point2(0f, 0f);
+		pointAt(iPos, result);
+		
+		return result;
+	}
+	
+	/**
+	 * Works like {@link #intersectionPoint(Segment)} but stores the
+	 * cross point in <code>result</code> instead of creating a new
+	 * object. When there is no intersection <code>result</code>
+	 * is left untouched.
+	 * 
+	 * @param other Other segment to test.
+	 * @param result Point that will receive the cross point.
+	 * 
+	 * @return <code>true</code> if there is a intersection.
+	 */
+	public final boolean intersectionPoint(final Segment other, final Point2 result) {
+		final float iPos = intersectionDistance(
+				x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2
 		);
 		
+		if (Float.isNaN(iPos)) {
+			return false;
+		}
+		
+		pointAt(iPos, result);
+		
+		return true;
+	}
+	
+	/**
+	 * Tests if this and the <code>other</code> segments intersects
+	 * and retrieves the position of cross point as a parameter
+	 * of this segment. Value of <code>0.0f</code> means the
+	 * first end of this segment and <code>1.0f</code> the second one.
+	 * 
+	 * @param other Other segment to test.
+	 * 
+	 * @return Parameter from <code>0.0f</code> to <code>1.0f</code> or
+	 * {@link Float#NaN} if there is no intersection.
+	 */
+	public final float intersectionParameter(final Segment other) {
+		final float iPos = intersectionDistance(
+				x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2
+		);
+		
+		return iPos / length();
 	}
 
 	/**
@@ -146,7 +279,17 @@ public class Segment {
 	 * @see #intersectionPoint(Segment)
 	 */
 	public boolean intersects(Segment other) {
-		return intersectionPoint(other) != null;
+		return intersects(x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2);
+	}
+	
+	/**
+	 * Tests if this and the <code>other</code> segments intersects
+	 * using exact orientation tests.
+	 * 
+	 * @see #robustIntersects(float, float, float, float, float, float, float, float)
+	 */
+	public final boolean robustIntersects(Segment other) {
+		return robustIntersects(x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2);
 	}
 	
 	public final float length() {
@@ -180,6 +323,18 @@ public class Segment {
 		
 	}
 	
+	/**
+	 * Stores the point at <code>distance</code> from the first end
+	 * of this segment in <code>result</code>.
+	 */
+	private void pointAt(final float distance, final Point2 result) {
+		// apply the discovered position to original coordinate system
+		final float thisLength = length();
+		
+		result.x = x1 + distance * ((x2 - x1) / thisLength);
+		result.y = y1 + distance * ((y2 - y1) / thisLength);
+	}
+	
 	public String toString() {
 		return Segment.class.getSimpleName() + "[x1=" + x1 + ",y1=" + y1 + ",x2=" + x2 + ",y2=" + y2 + "]";
 	}
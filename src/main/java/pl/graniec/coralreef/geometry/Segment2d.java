@@ -0,0 +1,307 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Double precision counterpart of {@link Segment}.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Segment2d {
+	
+	public static final double length(final double x1, final double y1, final double x2, final double y2) {
+		
+		final double w = x2 - x1;
+		final double h = y2 - y1;
+		
+		return StrictMath.sqrt(w * w + h * h);
+	}
+	
+	/**
+	 * Finds the position of intersection point of segment
+	 * (<code>x1</code>, <code>y1</code>, <code>x2</code>, <code>y2</code>)
+	 * with segment (<code>ox1</code>, <code>oy1</code>, <code>ox2</code>, <code>oy2</code>)
+	 * as a distance from (<code>x1</code>, <code>y1</code>).
+	 * 
+	 * @return Distance along the first segment or {@link Double#NaN}
+	 * if there is no intersection.
+	 * 
+	 * @see Segment#intersectionDistance(float, float, float, float, float, float, float, float)
+	 */
+	public static final double intersectionDistance(
+			final double x1, final double y1, final double x2, final double y2,
+			final double ox1, final double oy1, final double ox2, final double oy2
+	) {
+		
+		final double thisLength = length(x1, y1, x2, y2);
+		final double otherLength = length(ox1, oy1, ox2, oy2);
+		
+		// no intersection when one of segments is zero-length
+		if (thisLength == 0.0 || otherLength == 0.0) {
+			return Double.NaN;
+		}
+		
+		// fail when the segments share an end-point
+		if (
+				x1 == ox1 && y1 == oy1 ||
+				x1 == ox2 && y1 == oy2 ||
+				x2 == ox1 && y2 == oy1 ||
+				x2 == ox2 && y2 == oy2
+		    ) {
+			return Double.NaN;
+		}
+		
+		// make a translation so x1 y1 would be on the origin.
+		final double thisX2 = x2 - x1;
+		final double thisY2 = y2 - y1;
+		double otherX1 = ox1 - x1;
+		double otherY1 = oy1 - y1;
+		double otherX2 = ox2 - x1;
+		double otherY2 = oy2 - y1;
+		
+		// rotate the system so second point of first segment is on the positive X axis
+		final double cos = thisX2 / thisLength;
+		final double sin = thisY2 / thisLength;
+		
+		double newX = otherX1 * cos + otherY1 * sin;
+		
+		otherY1 = otherY1 * cos - otherX1 * sin;
+		otherX1 = newX;
+		
+		newX = otherX2 * cos + otherY2 * sin;
+		
+		otherY2 = otherY2 * cos - otherX2 * sin;
+		otherX2 = newX;
+		
+		// fail if second segment doesn't cross the line of first segment
+		if (otherY1 < 0 && otherY2 < 0 || otherY1 >= 0 && otherY2 >= 0) {
+			return Double.NaN;
+		}
+		
+		// discover the position of intersection point on first segment
+		final double iPos = otherX2 + (otherX1 - otherX2) * otherY2 / (otherY2 - otherY1);
+		
+		// fail if second segment crosses the line of first segment outside of it
+		if (iPos < 0 || iPos > thisLength) {
+			return Double.NaN;
+		}
+		
+		return iPos;
+	}
+	
+	/**
+	 * @return <code>true</code> if there is a intersection.
+	 * 
+	 * @see #intersectionDistance(double, double, double, double, double, double, double, double)
+	 */
+	public static final boolean intersects(
+			final double x1, final double y1, final double x2, final double y2,
+			final double ox1, final double oy1, final double ox2, final double oy2
+	) {
+		return !Double.isNaN(intersectionDistance(x1, y1, x2, y2, ox1, oy1, ox2, oy2));
+	}
+	
+	/**
+	 * Works like {@link #intersects(double, double, double, double, double, double, double, double)}
+	 * but decides with exact orientation tests.
+	 * 
+	 * @see Segment#robustIntersects(float, float, float, float, float, float, float, float)
+	 */
+	public static final boolean robustIntersects(
+			final double x1, final double y1, final double x2, final double y2,
+			final double ox1, final double oy1, final double ox2, final double oy2
+	) {
+		if (x1 == x2 && y1 == y2 || ox1 == ox2 && oy1 == oy2) {
+			return false;
+		}
+		
+		if (
+				x1 == ox1 && y1 == oy1 ||
+				x1 == ox2 && y1 == oy2 ||
+				x2 == ox1 && y2 == oy1 ||
+				x2 == ox2 && y2 == oy2
+		    ) {
+			return false;
+		}
+		
+		final double o1 = Predicates.orient2d(x1, y1, x2, y2, ox1, oy1);
+		final double o2 = Predicates.orient2d(x1, y1, x2, y2, ox2, oy2);
+		
+		if ((o1 < 0) == (o2 < 0)) {
+			return false;
+		}
+		
+		final double o3 = Predicates.orient2d(ox1, oy1, ox2, oy2, x1, y1);
+		final double o4 = Predicates.orient2d(ox1, oy1, ox2, oy2, x2, y2);
+		
+		return o3 <= 0 && o4 >= 0 || o3 >= 0 && o4 <= 0;
+	}
+	
+	/**
+	 * Calculates squared distance from point (<code>px</code>, <code>py</code>)
+	 * to the closest point of segment (<code>x1</code>, <code>y1</code>,
+	 * <code>x2</code>, <code>y2</code>).
+	 * 
+	 * @see SegmentDistance#squaredDistance(float, float, float, float, float, float)
+	 */
+	public static final double squaredDistance(
+			final double px, final double py,
+			final double x1, final double y1, final double x2, final double y2
+	) {
+		final double dx = x2 - x1;
+		final double dy = y2 - y1;
+		final double wx = px - x1;
+		final double wy = py - y1;
+		
+		// zero-length segments get t = 0 without a branch
+		final double lengthSquared = Math.max(dx * dx + dy * dy, Double.MIN_VALUE);
+		final double t = Math.max(0, Math.min(1, (wx * dx + wy * dy) / lengthSquared));
+		
+		final double ex = wx - t * dx;
+		final double ey = wy - t * dy;
+		
+		return ex * ex + ey * ey;
+	}
+	
+	/** Two segment points */
+	public double x1, y1, x2, y2;
+
+	public Segment2d(double x1, double y1, double x2, double y2) {
+		this.x1 = x1;
+		this.y1 = y1;
+		this.x2 = x2;
+		this.y2 = y2;
+	}
+	
+	public Segment2d(Point2d p1, Point2d p2) {
+		this(p1.x, p1.y, p2.x, p2.y);
+	}
+	
+	public Segment2d(Segment other) {
+		this(other.x1, other.y1, other.x2, other.y2);
+	}
+	
+	/**
+	 * Tests if this and the <code>other</code> segments intersects
+	 * and retrieves the cross point if there is one.
+	 * 
+	 * @return point of intersection or <code>null</code> if there is none.
+	 * 
+	 * @see Segment#intersectionPoint(Segment)
+	 */
+	public final Point2d intersectionPoint(final Segment2d other) {
+		final Point2d result = new Point2d(0, 0);
+		return intersectionPoint(other, result) ? result : null;
+	}
+	
+	/**
+	 * Works like {@link #intersectionPoint(Segment2d)} but stores the
+	 * cross point in <code>result</code>. When there is no intersection
+	 * <code>result</code> is left untouched.
+	 * 
+	 * @return <code>true</code> if there is a intersection.
+	 */
+	public final boolean intersectionPoint(final Segment2d other, final Point2d result) {
+		final double iPos = intersectionDistance(
+				x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2
+		);
+		
+		if (Double.isNaN(iPos)) {
+			return false;
+		}
+		
+		final double thisLength = length();
+		
+		result.x = x1 + iPos * ((x2 - x1) / thisLength);
+		result.y = y1 + iPos * ((y2 - y1) / thisLength);
+		
+		return true;
+	}
+	
+	/**
+	 * @return Parameter from <code>0.0</code> to <code>1.0</code> or
+	 * {@link Double#NaN} if there is no intersection.
+	 * 
+	 * @see Segment#intersectionParameter(Segment)
+	 */
+	public final double intersectionParameter(final Segment2d other) {
+		final double iPos = intersectionDistance(
+				x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2
+		);
+		
+		return iPos / length();
+	}
+	
+	public boolean intersects(Segment2d other) {
+		return intersects(x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2);
+	}
+	
+	public final boolean robustIntersects(Segment2d other) {
+		return robustIntersects(x1, y1, x2, y2, other.x1, other.y1, other.x2, other.y2);
+	}
+	
+	public final double length() {
+		return length(x1, y1, x2, y2);
+	}
+	
+	/**
+	 * Resizes the segment by given <code>factor</code> on both ends.
+	 * 
+	 * @see Segment#resize(float)
+	 */
+	public final void resize(final double factor) {
+		
+		final double deltaX = x2 - x1;
+		final double deltaY = y2 - y1;
+		
+		final double midX = x1 + deltaX / 2;
+		final double midY = y1 + deltaY / 2;
+		
+		final double partX = deltaX * factor / 2;
+		final double partY = deltaY * factor / 2;
+		
+		x1 = midX - partX;
+		y1 = midY - partY;
+		x2 = midX + partX;
+		y2 = midY + partY;
+		
+	}
+	
+	/**
+	 * Creates a float segment rounding coordinates to nearest floats.
+	 */
+	public final Segment toSegment() {
+		return new Segment((float) x1, (float) y1, (float) x2, (float) y2);
+	}
+	
+	public String toString() {
+		return Segment2d.class.getSimpleName() + "[x1=" + x1 + ",y1=" + y1 + ",x2=" + x2 + ",y2=" + y2 + "]";
+	}
+}
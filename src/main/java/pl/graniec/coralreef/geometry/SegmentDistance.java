@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Point to segment distance kernels working on segments packed in
+ * primitive arrays: segment <code>i</code> goes from
+ * (<code>x1[i]</code>, <code>y1[i]</code>) to
+ * (<code>x2[i]</code>, <code>y2[i]</code>).
+ * <p>
+ * All distances are squared, computed with a single clamped
+ * projection and without creating objects. The loops of
+ * <code>squaredDistances</code> and <code>minSquaredDistance</code> have
+ * no branches in their bodies so the JIT compiler can vectorize them;
+ * the <code>nearest</code> searches compare each distance with the
+ * running minimum.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class SegmentDistance {
+	
+	private SegmentDistance() {
+	}
+	
+	/**
+	 * Calculates squared distance from point (<code>px</code>, <code>py</code>)
+	 * to the closest point of segment (<code>x1</code>, <code>y1</code>,
+	 * <code>x2</code>, <code>y2</code>).
+	 * 
+	 * @return Squared distance.
+	 */
+	public static float squaredDistance(
+			final float px, final float py,
+			final float x1, final float y1, final float x2, final float y2
+	) {
+		final float dx = x2 - x1;
+		final float dy = y2 - y1;
+		final float wx = px - x1;
+		final float wy = py - y1;
+		
+		// zero-length segments get t = 0 without a branch
+		final float lengthSquared = Math.max(dx * dx + dy * dy, Float.MIN_NORMAL);
+		final float t = Math.max(0f, Math.min(1f, (wx * dx + wy * dy) / lengthSquared));
+		
+		final float ex = wx - t * dx;
+		final float ey = wy - t * dy;
+		
+		return ex * ex + ey * ey;
+	}
+	
+	/**
+	 * Calculates squared distances from point (<code>px</code>, <code>py</code>)
+	 * to segments from <code>off</code> to <code>off + len - 1</code>.
+	 * Distance to segment <code>i</code> is stored in <code>result[i]</code>.
+	 */
+	public static void squaredDistances(
+			final float px, final float py,
+			final float[] x1, final float[] y1, final float[] x2, final float[] y2,
+			final int off, final int len, final float[] result
+	) {
+		checkRange(x1, y1, x2, y2, off, len);
+		
+		if (off + len > result.length) {
+			throw new IndexOutOfBoundsException("result is too short: " + result.length);
+		}
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			result[i] = squaredDistance(px, py, x1[i], y1[i], x2[i], y2[i]);
+		}
+	}
+	
+	/**
+	 * Finds the lowest squared distance from point (<code>px</code>, <code>py</code>)
+	 * to segments from <code>off</code> to <code>off + len - 1</code>.
+	 * 
+	 * @return The lowest squared distance or {@link Float#POSITIVE_INFINITY}
+	 * when <code>len</code> is 0.
+	 */
+	public static float minSquaredDistance(
+			final float px, final float py,
+			final float[] x1, final float[] y1, final float[] x2, final float[] y2,
+			final int off, final int len
+	) {
+		checkRange(x1, y1, x2, y2, off, len);
+		
+		float min = Float.POSITIVE_INFINITY;
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			min = Math.min(min, squaredDistance(px, py, x1[i], y1[i], x2[i], y2[i]));
+		}
+		
+		return min;
+	}
+	
+	/**
+	 * Finds the segment closest to point (<code>px</code>, <code>py</code>)
+	 * among segments from <code>off</code> to <code>off + len - 1</code>.
+	 * 
+	 * @return Index of the closest segment (the first one on ties) or
+	 * <code>-1</code> when <code>len</code> is 0.
+	 */
+	public static int nearest(
+			final float px, final float py,
+			final float[] x1, final float[] y1, final float[] x2, final float[] y2,
+			final int off, final int len
+	) {
+		checkRange(x1, y1, x2, y2, off, len);
+		
+		int best = -1;
+		float min = Float.POSITIVE_INFINITY;
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			final float d = squaredDistance(px, py, x1[i], y1[i], x2[i], y2[i]);
+			
+			if (d < min) {
+				min = d;
+				best = i;
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Finds the closest segment for many query points. For query point
+	 * <code>q</code> from <code>qoff</code> to <code>qoff + qlen - 1</code>
+	 * index of the closest segment is stored in <code>result[q]</code>.
+	 * 
+	 * @see #nearest(float, float, float[], float[], float[], float[], int, int)
+	 */
+	public static void nearest(
+			final float[] px, final float[] py, final int qoff, final int qlen,
+			final float[] x1, final float[] y1, final float[] x2, final float[] y2,
+			final int off, final int len, final int[] result
+	) {
+		if (qoff < 0 || qlen < 0 || qoff + qlen > px.length || qoff + qlen > py.length || qoff + qlen > result.length) {
+			throw new IndexOutOfBoundsException("qoff=" + qoff + ",qlen=" + qlen);
+		}
+		
+		for (int q = qoff, end = qoff + qlen; q < end; ++q) {
+			result[q] = nearest(px[q], py[q], x1, y1, x2, y2, off, len);
+		}
+	}
+	
+	private static void checkRange(float[] x1, float[] y1, float[] x2, float[] y2, int off, int len) {
+		final int end = off + len;
+		
+		if (off < 0 || len < 0 || end > x1.length || end > y1.length || end > x2.length || end > y2.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+	}
+}
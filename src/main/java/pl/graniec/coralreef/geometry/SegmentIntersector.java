@@ -0,0 +1,1220 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Finds all intersections among a set of segments using the
+ * Bentley-Ottmann sweep line algorithm. The running time is
+ * <code>O((n + k) log n)</code> where <code>n</code> is the number of
+ * segments and <code>k</code> the number of intersections.
+ * <p>
+ * The sweep only decides which pairs of segments have to be
+ * tested. Each pair is tested with {@link Segment#robustIntersects(Segment)},
+ * so the result is the same as testing every segment with every other
+ * one: segments that have common ends are not reported, neither are
+ * collinear ones, and zero-length segments are skipped.
+ * <p>
+ * Order of events and of segments on the sweep line is decided with
+ * exact arithmetic: orientations come from {@link Predicates} and
+ * crossing points are compared in double precision first and exactly
+ * only when the result is too close to call. Nearly collinear segments
+ * and crossings close to each other are therefore never missed.
+ * <p>
+ * Segments lying on one line and meeting at a point are never tested
+ * with each other there. Starts and ends of segments overlapping on a
+ * line are handled like in a sweep without overlaps, so they don't add
+ * to the running time.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class SegmentIntersector {
+	
+	/**
+	 * Intersection of two segments.
+	 */
+	public static final class Intersection {
+		/** Index of first segment (always lower than <code>second</code>) */
+		public final int first;
+		/** Index of second segment */
+		public final int second;
+		/**
+		 * The cross point as given by <code>Segment.intersectionPoint()</code>,
+		 * or computed in double precision if the float computation misses
+		 * a nearly degenerate crossing
+		 */
+		public final Point2 point;
+		
+		Intersection(int first, int second, Point2 point) {
+			this.first = first;
+			this.second = second;
+			this.point = point;
+		}
+		
+		/*
+		 * @see java.lang.Object#toString()
+		 */
+		public String toString() {
+			return Intersection.class.getSimpleName() + "[first=" + first + ",second=" + second + ",point=" + point + "]";
+		}
+	}
+	
+	/** Null node of the sweep line tree */
+	private static final int NIL = -1;
+	
+	/** Event types */
+	private static final int START = 0, END = 1, CROSS = 2;
+	
+	/** Event slots of the current event point and of a checked crossing */
+	private static final int CURRENT = 0, CANDIDATE = 1;
+	
+	/** Relative error bound of approximate crossing points, with a safety margin */
+	private static final double ERROR = 8 * 1.1102230246251565E-16;
+	
+	/** Segments to test */
+	private final Segment[] segments;
+	
+	/** Segment ends ordered from left to right */
+	private double[] lx, ly, rx, ry;
+	
+	/**
+	 * Event points. Crossing points are approximated within
+	 * <code>eventError</code> and their exact rational coordinates
+	 * are computed when needed.
+	 */
+	private double[] eventX, eventY, eventError;
+	private BigDecimal[][] eventExact;
+	private int[] eventType, eventA, eventB;
+	
+	/** Event queue (binary heap of event slots) */
+	private int[] heap;
+	private int eventCount;
+	
+	/** Sweep line status (treap) */
+	private int[] left, right, parent, priority;
+	private boolean[] inTree, inGroup;
+	private int root;
+	
+	/** Reported pairs */
+	private LongSet reported;
+	
+	public SegmentIntersector(Segment[] segments) {
+		this.segments = segments;
+	}
+	
+	public SegmentIntersector(Collection segments) {
+		this((Segment[]) segments.toArray(new Segment[segments.size()]));
+	}
+	
+	/**
+	 * Finds all intersections among the segments. The result is
+	 * ordered by the <code>first</code> and then by the
+	 * <code>second</code> segment index.
+	 * 
+	 * @return All intersections found.
+	 */
+	public Intersection[] intersections() {
+		final long[] pairs = findPairs();
+		final Intersection[] result = new Intersection[pairs.length];
+		
+		for (int i = 0; i < pairs.length; ++i) {
+			final int first = (int) (pairs[i] >>> 32);
+			final int second = (int) pairs[i];
+			final Point2 point = new Point2(0, 0);
+			
+			if (!segments[first].intersectionPoint(segments[second], point)) {
+				crossingPoint(segments[first], segments[second], point);
+			}
+			
+			result[i] = new Intersection(first, second, point);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Computes the crossing point of lines of two segments in double
+	 * precision.
+	 */
+	private static void crossingPoint(final Segment a, final Segment b, final Point2 result) {
+		final double dax = (double) a.x2 - a.x1;
+		final double day = (double) a.y2 - a.y1;
+		final double dbx = (double) b.x2 - b.x1;
+		final double dby = (double) b.y2 - b.y1;
+		
+		final double t = (((double) b.x1 - a.x1) * dby - ((double) b.y1 - a.y1) * dbx) / (dax * dby - day * dbx);
+		
+		result.x = (float) (a.x1 + t * dax);
+		result.y = (float) (a.y1 + t * day);
+	}
+	
+	/**
+	 * Runs the sweep and returns sorted pairs of intersecting
+	 * segments encoded as <code>(first << 32) | second</code>.
+	 */
+	private long[] findPairs() {
+		final int n = segments.length;
+		
+		lx = new double[n];
+		ly = new double[n];
+		rx = new double[n];
+		ry = new double[n];
+		
+		left = new int[n];
+		right = new int[n];
+		parent = new int[n];
+		priority = new int[n];
+		inTree = new boolean[n];
+		inGroup = new boolean[n];
+		root = NIL;
+		
+		eventCount = 0;
+		freeCount = 0;
+		usedEvents = 2;
+		eventX = new double[2 * n + 16];
+		eventY = new double[eventX.length];
+		eventError = new double[eventX.length];
+		eventExact = new BigDecimal[eventX.length][];
+		eventType = new int[eventX.length];
+		eventA = new int[eventX.length];
+		eventB = new int[eventX.length];
+		heap = new int[eventX.length];
+		
+		reported = new LongSet();
+		
+		int seed = 0x2545F491;
+		
+		for (int i = 0; i < n; ++i) {
+			final Segment s = segments[i];
+			
+			// zero-length segments never intersect
+			if (s.x1 == s.x2 && s.y1 == s.y2) {
+				continue;
+			}
+			
+			if (s.x1 < s.x2 || s.x1 == s.x2 && s.y1 < s.y2) {
+				lx[i] = s.x1; ly[i] = s.y1; rx[i] = s.x2; ry[i] = s.y2;
+			} else {
+				lx[i] = s.x2; ly[i] = s.y2; rx[i] = s.x1; ry[i] = s.y1;
+			}
+			
+			seed ^= seed << 13;
+			seed ^= seed >>> 17;
+			seed ^= seed << 5;
+			priority[i] = seed;
+			
+			left[i] = right[i] = parent[i] = NIL;
+			
+			pushEvent(setPoint(CANDIDATE, lx[i], ly[i]), START, i);
+			pushEvent(setPoint(CANDIDATE, rx[i], ry[i]), END, i);
+		}
+		
+		final IndexList starting = new IndexList();
+		final IndexList ending = new IndexList();
+		final IndexList crossing = new IndexList();
+		final IndexList group = new IndexList();
+		
+		while (eventCount > 0) {
+			copyEvent(popEvent(), CURRENT);
+			
+			starting.clear();
+			ending.clear();
+			crossing.clear();
+			group.clear();
+			
+			// gather all events at this point, preferring an exact
+			// end point as the current point
+			for (int e = CURRENT;;) {
+				switch (eventType[e]) {
+				case START:
+					starting.add(eventA[e]);
+					break;
+				case END:
+					ending.add(eventA[e]);
+					break;
+				case CROSS:
+					crossing.add(eventA[e]);
+					crossing.add(eventB[e]);
+					break;
+				}
+				
+				if (eventCount == 0 || comparePoints(heap[0], CURRENT) != 0) {
+					break;
+				}
+				
+				e = popEvent();
+				
+				if (eventType[CURRENT] == CROSS && eventType[e] != CROSS) {
+					copyEvent(e, CURRENT);
+				}
+			}
+			
+			// segments that start or end on the line of all other segments
+			// passing through this point don't change the sweep line order,
+			// so only their own neighbours need checking
+			if (crossing.size == 0 && isCollinearEvent(starting, ending)) {
+				for (int i = 0; i < ending.size; ++i) {
+					final int s = ending.items[i];
+					
+					if (inTree[s]) {
+						final int below = predecessor(s);
+						final int above = successor(s);
+						
+						remove(s);
+						checkNeighbours(below, above);
+					}
+				}
+				
+				for (int i = 0; i < starting.size; ++i) {
+					final int s = starting.items[i];
+					
+					insert(s);
+					checkNeighbours(predecessor(s), s);
+					checkNeighbours(s, successor(s));
+				}
+				
+				continue;
+			}
+			
+			// segments in the sweep line that pass through this point,
+			// known ones first so their positions aren't computed
+			for (int i = 0; i < ending.size; ++i) {
+				if (inTree[ending.items[i]]) {
+					addToGroup(group, ending.items[i]);
+				}
+			}
+			
+			for (int i = 0; i < crossing.size; ++i) {
+				if (inTree[crossing.items[i]]) {
+					addToGroup(group, crossing.items[i]);
+				}
+			}
+			
+			for (int node = lowerBound(); node != NIL && position(node) == 0; node = successor(node)) {
+				addToGroup(group, node);
+			}
+			
+			for (int i = 0; i < starting.size; ++i) {
+				addToGroup(group, starting.items[i]);
+			}
+			
+			// test every pair of segments that meet at this point, except
+			// collinear ones which never intersect; sorted by slope those
+			// make runs
+			sortBySlope(group);
+			
+			for (int from = 0, to = 1; to <= group.size; ++to) {
+				if (to < group.size && compareSlopes(group.items[to - 1], group.items[to]) == 0) {
+					continue;
+				}
+				
+				for (int i = from; i < to; ++i) {
+					for (int j = to; j < group.size; ++j) {
+						test(group.items[i], group.items[j]);
+					}
+				}
+				
+				from = to;
+			}
+			
+			// remove all segments from the group and put back those
+			// that continue after this point in their new order
+			for (int i = 0; i < group.size; ++i) {
+				if (inTree[group.items[i]]) {
+					remove(group.items[i]);
+				}
+			}
+			
+			final int upper = lowerBound();
+			final int lower = upper == NIL ? last() : predecessor(upper);
+			
+			boolean continuing = false;
+			
+			for (int i = 0; i < group.size; ++i) {
+				final int s = group.items[i];
+				
+				if (compareToCurrent(rx[s], ry[s]) > 0) {
+					insert(s);
+					continuing = true;
+				}
+			}
+			
+			if (continuing) {
+				final int lowest = lower == NIL ? first() : successor(lower);
+				final int highest = upper == NIL ? last() : predecessor(upper);
+				
+				checkNeighbours(lower, lowest);
+				checkNeighbours(highest, upper);
+			} else {
+				checkNeighbours(lower, upper);
+			}
+			
+			for (int i = 0; i < group.size; ++i) {
+				inGroup[group.items[i]] = false;
+			}
+		}
+		
+		final long[] result = reported.toArray();
+		Arrays.sort(result);
+		
+		// release the working memory
+		lx = ly = rx = ry = null;
+		eventX = eventY = eventError = null;
+		eventExact = null;
+		eventType = eventA = eventB = heap = null;
+		left = right = parent = priority = null;
+		inTree = inGroup = null;
+		reported = null;
+		
+		return result;
+	}
+	
+	/**
+	 * Checks if all segments starting and ending at the current event
+	 * point lie on one line together with their neighbours passing
+	 * through the point.
+	 */
+	private boolean isCollinearEvent(IndexList starting, IndexList ending) {
+		final int line = starting.size > 0 ? starting.items[0] : ending.items[0];
+		
+		for (int i = 0; i < starting.size; ++i) {
+			if (!isCollinear(line, starting.items[i])) {
+				return false;
+			}
+		}
+		
+		for (int i = 0; i < ending.size; ++i) {
+			if (!isCollinear(line, ending.items[i])) {
+				return false;
+			}
+		}
+		
+		// ending segments are marked so neighbours are looked for
+		// past them
+		for (int i = 0; i < ending.size; ++i) {
+			inGroup[ending.items[i]] = inTree[ending.items[i]];
+		}
+		
+		boolean result = true;
+		
+		for (int i = 0; result && i < ending.size; ++i) {
+			final int e = ending.items[i];
+			
+			if (inTree[e]) {
+				result = isCollinearNeighbour(e, false, line) && isCollinearNeighbour(e, true, line);
+			}
+		}
+		
+		for (int i = 0; result && i < starting.size; ++i) {
+			final int below = floor(starting.items[i]);
+			final int above = below == NIL ? first() : successor(below);
+			
+			result = isCollinearNeighbour(below, false, line) && isCollinearNeighbour(above, true, line);
+		}
+		
+		for (int i = 0; i < ending.size; ++i) {
+			inGroup[ending.items[i]] = false;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Walks from <code>node</code> up or down the sweep line past
+	 * marked segments and checks if the first other segment is
+	 * either away from the current event point or lies on the line
+	 * of segment <code>line</code>.
+	 */
+	private boolean isCollinearNeighbour(int node, boolean up, int line) {
+		while (node != NIL && inGroup[node]) {
+			node = up ? successor(node) : predecessor(node);
+		}
+		
+		return node == NIL || position(node) != 0 || isCollinear(line, node);
+	}
+	
+	private boolean isCollinear(int a, int b) {
+		return
+			Predicates.orient2d(lx[a], ly[a], rx[a], ry[a], lx[b], ly[b]) == 0 &&
+			Predicates.orient2d(lx[a], ly[a], rx[a], ry[a], rx[b], ry[b]) == 0;
+	}
+	
+	private void addToGroup(IndexList group, int s) {
+		if (!inGroup[s]) {
+			inGroup[s] = true;
+			group.add(s);
+		}
+	}
+	
+	/**
+	 * Tests two segments that became neighbours on the sweep line and
+	 * schedules their crossing if it is after the current event point.
+	 */
+	private void checkNeighbours(int a, int b) {
+		if (a == NIL || b == NIL || a == b) {
+			return;
+		}
+		
+		test(a, b);
+		
+		final int o1 = sign(Predicates.orient2d(lx[a], ly[a], rx[a], ry[a], lx[b], ly[b]));
+		final int o2 = sign(Predicates.orient2d(lx[a], ly[a], rx[a], ry[a], rx[b], ry[b]));
+		
+		// collinear segments or not crossing the line of the other one
+		if (o1 == 0 && o2 == 0 || o1 * o2 > 0) {
+			return;
+		}
+		
+		final int o3 = sign(Predicates.orient2d(lx[b], ly[b], rx[b], ry[b], lx[a], ly[a]));
+		final int o4 = sign(Predicates.orient2d(lx[b], ly[b], rx[b], ry[b], rx[a], ry[a]));
+		
+		if (o3 * o4 > 0) {
+			return;
+		}
+		
+		setCrossing(CANDIDATE, a, b);
+		
+		if (comparePoints(CANDIDATE, CURRENT) > 0) {
+			pushEvent(CANDIDATE, CROSS, a);
+		}
+	}
+	
+	/**
+	 * Tests segments using {@link Segment#robustIntersects(Segment)}
+	 * and remembers the pair if they intersect.
+	 */
+	private void test(int a, int b) {
+		final int first = a < b ? a : b;
+		final int second = a < b ? b : a;
+		final long key = ((long) first << 32) | second;
+		
+		if (!reported.contains(key) && segments[first].robustIntersects(segments[second])) {
+			reported.add(key);
+		}
+	}
+	
+	//
+	// exact decisions
+	//
+	
+	/**
+	 * Tells where segment <code>s</code> from the sweep line passes by
+	 * the current event point.
+	 * 
+	 * @return <code>1</code> if above, <code>-1</code> if below and
+	 * <code>0</code> if through the point.
+	 */
+	private int position(int s) {
+		// segments of the group pass through the point and vertical
+		// segments in the sweep line span it
+		if (inGroup[s] || lx[s] == rx[s]) {
+			return 0;
+		}
+		
+		if (eventError[CURRENT] == 0) {
+			return -sign(Predicates.orient2d(lx[s], ly[s], rx[s], ry[s], eventX[CURRENT], eventY[CURRENT]));
+		}
+		
+		final double dx = rx[s] - lx[s];
+		final double dy = ry[s] - ly[s];
+		final double px = eventX[CURRENT] - lx[s];
+		final double py = eventY[CURRENT] - ly[s];
+		
+		final double det = dx * py - dy * px;
+		final double bound =
+			ERROR * (Math.abs(dx * py) + Math.abs(dy * px)) +
+			(1 + ERROR) * (Math.abs(dx) + Math.abs(dy)) * eventError[CURRENT];
+		
+		if (det > bound) {
+			return -1;
+		}
+		
+		if (det < -bound) {
+			return 1;
+		}
+		
+		// exactly, with the current point given as (x / d, y / d)
+		final BigDecimal[] point = exactPoint(CURRENT);
+		final BigDecimal sx = exact(lx[s]);
+		final BigDecimal sy = exact(ly[s]);
+		
+		final BigDecimal qx = point[0].subtract(sx.multiply(point[2]));
+		final BigDecimal qy = point[1].subtract(sy.multiply(point[2]));
+		
+		return -exact(rx[s]).subtract(sx).multiply(qy).subtract(exact(ry[s]).subtract(sy).multiply(qx)).signum();
+	}
+	
+	/**
+	 * Compares slopes of two segments passing through the current
+	 * event point. Vertical segments are the steepest.
+	 */
+	private int compareSlopes(int a, int b) {
+		final boolean va = lx[a] == rx[a];
+		final boolean vb = lx[b] == rx[b];
+		
+		if (va || vb) {
+			return va == vb ? 0 : (va ? 1 : -1);
+		}
+		
+		// the current point lies on both lines, so the side of the line
+		// of a on which b continues tells the order
+		if (compareToCurrent(rx[b], ry[b]) != 0) {
+			return -sign(Predicates.orient2d(lx[a], ly[a], rx[a], ry[a], rx[b], ry[b]));
+		}
+		
+		return sign(Predicates.orient2d(lx[a], ly[a], rx[a], ry[a], lx[b], ly[b]));
+	}
+	
+	/**
+	 * Compares segment <code>s</code> passing through the current event
+	 * point with segment <code>node</code> from the sweep line, just
+	 * after the point.
+	 */
+	private int compare(int s, int node) {
+		final int p = position(node);
+		
+		if (p != 0) {
+			return -p;
+		}
+		
+		final int c = compareSlopes(s, node);
+		
+		if (c != 0) {
+			return c;
+		}
+		
+		return s < node ? -1 : (s == node ? 0 : 1);
+	}
+	
+	private int compareToCurrent(double x, double y) {
+		return comparePoints(setPoint(CANDIDATE, x, y), CURRENT);
+	}
+	
+	/**
+	 * Compares event points of two slots from left to right
+	 * and then from bottom to top.
+	 */
+	private int comparePoints(int e1, int e2) {
+		// the same crossing is scheduled again when its segments
+		// become neighbours again
+		if (
+				eventType[e1] == CROSS && eventType[e2] == CROSS &&
+				(eventA[e1] == eventA[e2] && eventB[e1] == eventB[e2] ||
+				eventA[e1] == eventB[e2] && eventB[e1] == eventA[e2])
+		) {
+			return 0;
+		}
+		
+		final int result = compareCoordinates(e1, e2, eventX, 0);
+		return result != 0 ? result : compareCoordinates(e1, e2, eventY, 1);
+	}
+	
+	private int compareCoordinates(int e1, int e2, double[] values, int index) {
+		final double error = eventError[e1] + eventError[e2];
+		
+		if (values[e1] < values[e2] - error) {
+			return -1;
+		}
+		
+		if (values[e1] > values[e2] + error) {
+			return 1;
+		}
+		
+		if (error == 0) {
+			return 0;
+		}
+		
+		final BigDecimal[] p1 = exactPoint(e1);
+		final BigDecimal[] p2 = exactPoint(e2);
+		
+		return p1[index].multiply(p2[2]).compareTo(p2[index].multiply(p1[2]));
+	}
+	
+	/**
+	 * @return Exact coordinates of event point as <code>{x * d, y * d, d}</code>
+	 * with positive <code>d</code>.
+	 */
+	private BigDecimal[] exactPoint(int e) {
+		if (eventExact[e] != null) {
+			return eventExact[e];
+		}
+		
+		if (eventType[e] != CROSS) {
+			eventExact[e] = new BigDecimal[] {exact(eventX[e]), exact(eventY[e]), exact(1)};
+			return eventExact[e];
+		}
+		
+		final int a = eventA[e];
+		final int b = eventB[e];
+		
+		final BigDecimal ax = exact(lx[a]);
+		final BigDecimal ay = exact(ly[a]);
+		final BigDecimal dax = exact(rx[a]).subtract(ax);
+		final BigDecimal day = exact(ry[a]).subtract(ay);
+		final BigDecimal dbx = exact(rx[b]).subtract(exact(lx[b]));
+		final BigDecimal dby = exact(ry[b]).subtract(exact(ly[b]));
+		final BigDecimal ox = exact(lx[b]).subtract(ax);
+		final BigDecimal oy = exact(ly[b]).subtract(ay);
+		
+		// crossing at a + t * (b - a) where t = num / den
+		BigDecimal den = dax.multiply(dby).subtract(day.multiply(dbx));
+		BigDecimal num = ox.multiply(dby).subtract(oy.multiply(dbx));
+		
+		if (den.signum() < 0) {
+			den = den.negate();
+			num = num.negate();
+		}
+		
+		eventExact[e] = new BigDecimal[] {
+				ax.multiply(den).add(dax.multiply(num)),
+				ay.multiply(den).add(day.multiply(num)),
+				den
+		};
+		
+		return eventExact[e];
+	}
+	
+	/**
+	 * Stores an exact point in slot <code>e</code>.
+	 * 
+	 * @return The slot.
+	 */
+	private int setPoint(int e, double x, double y) {
+		eventX[e] = x;
+		eventY[e] = y;
+		eventError[e] = 0;
+		eventExact[e] = null;
+		eventType[e] = START;
+		
+		return e;
+	}
+	
+	/**
+	 * Stores crossing point of segments <code>a</code> and <code>b</code>
+	 * in slot <code>e</code>, approximated in double precision.
+	 */
+	private void setCrossing(int e, int a, int b) {
+		final double dax = rx[a] - lx[a];
+		final double day = ry[a] - ly[a];
+		final double dbx = rx[b] - lx[b];
+		final double dby = ry[b] - ly[b];
+		final double ox = lx[b] - lx[a];
+		final double oy = ly[b] - ly[a];
+		
+		final double den = dax * dby - day * dbx;
+		final double num = ox * dby - oy * dbx;
+		final double denError = ERROR * (Math.abs(dax * dby) + Math.abs(day * dbx));
+		final double numError = ERROR * (Math.abs(ox * dby) + Math.abs(oy * dbx));
+		
+		final double t = num / den;
+		final double d = Math.abs(dax) + Math.abs(day);
+		
+		eventX[e] = lx[a] + dax * t;
+		eventY[e] = ly[a] + day * t;
+		
+		if (Math.abs(den) > 2 * denError) {
+			final double tError = (numError + Math.abs(t) * denError) / (Math.abs(den) - denError) + ERROR * Math.abs(t);
+			
+			eventError[e] = d * tError + ERROR * (Math.abs(lx[a]) + Math.abs(ly[a]) + d * Math.abs(t)) + Double.MIN_VALUE;
+		} else {
+			// too close to parallel for the approximation
+			eventError[e] = Double.POSITIVE_INFINITY;
+		}
+		
+		eventExact[e] = null;
+		eventType[e] = CROSS;
+		eventA[e] = a;
+		eventB[e] = b;
+	}
+	
+	private void copyEvent(int from, int to) {
+		eventX[to] = eventX[from];
+		eventY[to] = eventY[from];
+		eventError[to] = eventError[from];
+		eventExact[to] = eventExact[from];
+		eventType[to] = eventType[from];
+		eventA[to] = eventA[from];
+		eventB[to] = eventB[from];
+	}
+	
+	/**
+	 * Sorts segments of the group by slope, with merge sort.
+	 */
+	private void sortBySlope(IndexList group) {
+		int[] src = group.items;
+		int[] dst = new int[src.length];
+		
+		for (int width = 1; width < group.size; width *= 2) {
+			for (int from = 0; from < group.size; from += 2 * width) {
+				final int middle = Math.min(from + width, group.size);
+				final int to = Math.min(from + 2 * width, group.size);
+				
+				int i = from, j = middle, k = from;
+				
+				while (i < middle && j < to) {
+					dst[k++] = compareSlopes(src[j], src[i]) < 0 ? src[j++] : src[i++];
+				}
+				
+				while (i < middle) {
+					dst[k++] = src[i++];
+				}
+				
+				while (j < to) {
+					dst[k++] = src[j++];
+				}
+			}
+			
+			final int[] tmp = src;
+			src = dst;
+			dst = tmp;
+		}
+		
+		group.items = src;
+	}
+	
+	private static int sign(double value) {
+		return value > 0 ? 1 : (value < 0 ? -1 : 0);
+	}
+	
+	private static BigDecimal exact(double value) {
+		return new BigDecimal(value);
+	}
+	
+	//
+	// event queue
+	//
+	
+	/**
+	 * Queues a copy of the point in slot <code>point</code> as an
+	 * event of <code>type</code> for segment <code>a</code> (and the
+	 * one stored in the slot for crossings).
+	 */
+	private void pushEvent(int point, int type, int a) {
+		if (eventCount == heap.length) {
+			heap = grow(heap, heap.length * 2);
+		}
+		
+		// events are stored in slots; the heap moves slot indices only
+		final int e = findFreeEvent();
+		
+		copyEvent(point, e);
+		eventType[e] = type;
+		eventA[e] = a;
+		
+		int i = eventCount++;
+		
+		while (i > 0) {
+			final int p = (i - 1) >> 1;
+			
+			if (!eventLess(e, heap[p])) {
+				break;
+			}
+			
+			heap[i] = heap[p];
+			i = p;
+		}
+		
+		heap[i] = e;
+	}
+	
+	/** Free event slots */
+	private int[] freeEvents = new int[16];
+	private int freeCount, usedEvents;
+	
+	private int findFreeEvent() {
+		if (freeCount > 0) {
+			return freeEvents[--freeCount];
+		}
+		
+		if (usedEvents == eventX.length) {
+			final int capacity = eventX.length * 2;
+			
+			eventX = grow(eventX, capacity);
+			eventY = grow(eventY, capacity);
+			eventError = grow(eventError, capacity);
+			eventType = grow(eventType, capacity);
+			eventA = grow(eventA, capacity);
+			eventB = grow(eventB, capacity);
+			
+			final BigDecimal[][] exact = new BigDecimal[capacity][];
+			System.arraycopy(eventExact, 0, exact, 0, eventExact.length);
+			eventExact = exact;
+		}
+		
+		return usedEvents++;
+	}
+	
+	/**
+	 * Removes the first event from the queue. The returned
+	 * event slot stays valid until the next pop.
+	 */
+	private int popEvent() {
+		final int result = heap[0];
+		final int e = heap[--eventCount];
+		
+		int i = 0;
+		
+		while (true) {
+			int c = 2 * i + 1;
+			
+			if (c >= eventCount) {
+				break;
+			}
+			
+			if (c + 1 < eventCount && eventLess(heap[c + 1], heap[c])) {
+				++c;
+			}
+			
+			if (!eventLess(heap[c], e)) {
+				break;
+			}
+			
+			heap[i] = heap[c];
+			i = c;
+		}
+		
+		heap[i] = e;
+		
+		if (freeCount == freeEvents.length) {
+			freeEvents = grow(freeEvents, freeEvents.length * 2);
+		}
+		
+		freeEvents[freeCount++] = result;
+		
+		return result;
+	}
+	
+	private boolean eventLess(int a, int b) {
+		return comparePoints(a, b) < 0;
+	}
+	
+	//
+	// sweep line status
+	//
+	
+	/**
+	 * @return First segment passing through or above the current
+	 * event point.
+	 */
+	private int lowerBound() {
+		int result = NIL;
+		
+		for (int node = root; node != NIL;) {
+			if (position(node) >= 0) {
+				result = node;
+				node = left[node];
+			} else {
+				node = right[node];
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @return Last segment ordered before segment <code>s</code>
+	 * which is not in the sweep line.
+	 */
+	private int floor(int s) {
+		int result = NIL;
+		
+		for (int node = root; node != NIL;) {
+			if (compare(s, node) > 0) {
+				result = node;
+				node = right[node];
+			} else {
+				node = left[node];
+			}
+		}
+		
+		return result;
+	}
+	
+	private void insert(int s) {
+		left[s] = right[s] = NIL;
+		inTree[s] = true;
+		
+		if (root == NIL) {
+			parent[s] = NIL;
+			root = s;
+			return;
+		}
+		
+		int node = root;
+		
+		while (true) {
+			if (compare(s, node) < 0) {
+				if (left[node] == NIL) {
+					left[node] = s;
+					break;
+				}
+				node = left[node];
+			} else {
+				if (right[node] == NIL) {
+					right[node] = s;
+					break;
+				}
+				node = right[node];
+			}
+		}
+		
+		parent[s] = node;
+		
+		while (parent[s] != NIL && priority[s] > priority[parent[s]]) {
+			rotateUp(s);
+		}
+	}
+	
+	private void remove(int s) {
+		while (left[s] != NIL || right[s] != NIL) {
+			if (right[s] == NIL || left[s] != NIL && priority[left[s]] > priority[right[s]]) {
+				rotateUp(left[s]);
+			} else {
+				rotateUp(right[s]);
+			}
+		}
+		
+		final int p = parent[s];
+		
+		if (p == NIL) {
+			root = NIL;
+		} else if (left[p] == s) {
+			left[p] = NIL;
+		} else {
+			right[p] = NIL;
+		}
+		
+		parent[s] = NIL;
+		inTree[s] = false;
+	}
+	
+	private void rotateUp(int x) {
+		final int p = parent[x];
+		final int g = parent[p];
+		
+		if (left[p] == x) {
+			left[p] = right[x];
+			if (right[x] != NIL) {
+				parent[right[x]] = p;
+			}
+			right[x] = p;
+		} else {
+			right[p] = left[x];
+			if (left[x] != NIL) {
+				parent[left[x]] = p;
+			}
+			left[x] = p;
+		}
+		
+		parent[p] = x;
+		parent[x] = g;
+		
+		if (g == NIL) {
+			root = x;
+		} else if (left[g] == p) {
+			left[g] = x;
+		} else {
+			right[g] = x;
+		}
+	}
+	
+	private int first() {
+		int node = root;
+		
+		while (node != NIL && left[node] != NIL) {
+			node = left[node];
+		}
+		
+		return node;
+	}
+	
+	private int last() {
+		int node = root;
+		
+		while (node != NIL && right[node] != NIL) {
+			node = right[node];
+		}
+		
+		return node;
+	}
+	
+	private int successor(int node) {
+		if (right[node] != NIL) {
+			node = right[node];
+			
+			while (left[node] != NIL) {
+				node = left[node];
+			}
+			
+			return node;
+		}
+		
+		int p = parent[node];
+		
+		while (p != NIL && right[p] == node) {
+			node = p;
+			p = parent[p];
+		}
+		
+		return p;
+	}
+	
+	private int predecessor(int node) {
+		if (left[node] != NIL) {
+			node = left[node];
+			
+			while (right[node] != NIL) {
+				node = right[node];
+			}
+			
+			return node;
+		}
+		
+		int p = parent[node];
+		
+		while (p != NIL && left[p] == node) {
+			node = p;
+			p = parent[p];
+		}
+		
+		return p;
+	}
+	
+	//
+	// helpers
+	//
+	
+	private static double[] grow(double[] array, int capacity) {
+		final double[] result = new double[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	private static int[] grow(int[] array, int capacity) {
+		final int[] result = new int[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	/**
+	 * Growable list of segment indices.
+	 */
+	private static final class IndexList {
+		int[] items = new int[8];
+		int size;
+		
+		void add(int value) {
+			if (size == items.length) {
+				items = grow(items, size * 2);
+			}
+			items[size++] = value;
+		}
+		
+		void clear() {
+			size = 0;
+		}
+	}
+	
+	/**
+	 * Open addressing set of non-negative long values.
+	 */
+	private static final class LongSet {
+		private static final long EMPTY = -1L;
+		
+		private long[] keys = newTable(64);
+		private int size;
+		
+		private static long[] newTable(int capacity) {
+			final long[] table = new long[capacity];
+			Arrays.fill(table, EMPTY);
+			return table;
+		}
+		
+		private static int slot(long key, int mask) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32)) & mask;
+		}
+		
+		boolean contains(long key) {
+			final int mask = keys.length - 1;
+			
+			for (int i = slot(key, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return true;
+				}
+			}
+			
+			return false;
+		}
+		
+		void add(long key) {
+			if ((size + 1) * 2 > keys.length) {
+				final long[] old = keys;
+				keys = newTable(old.length * 2);
+				size = 0;
+				
+				for (int i = 0; i < old.length; ++i) {
+					if (old[i] != EMPTY) {
+						add(old[i]);
+					}
+				}
+			}
+			
+			final int mask = keys.length - 1;
+			int i = slot(key, mask);
+			
+			while (keys[i] != EMPTY) {
+				if (keys[i] == key) {
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			
+			keys[i] = key;
+			++size;
+		}
+		
+		long[] toArray() {
+			final long[] result = new long[size];
+			int j = 0;
+			
+			for (int i = 0; i < keys.length; ++i) {
+				if (keys[i] != EMPTY) {
+					result[j++] = keys[i];
+				}
+			}
+			
+			return result;
+		}
+	}
+}
@@ -0,0 +1,466 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Polyline simplification.
+ * <p>
+ * Verticles are treated as an open polyline, so the first and the
+ * last verticle are always kept. Every algorithm comes in three
+ * forms: one that gives indices of kept verticles, one that creates
+ * a new simplified {@link Geometry} and one that removes verticles
+ * from the given geometry in place.
+ * <p>
+ * Douglas-Peucker keeps verticles farther than <code>tolerance</code>
+ * from the simplified polyline. Visvalingam-Whyatt removes verticles
+ * that form triangles smaller than <code>minArea</code> with their
+ * neighbours, smallest first. Both work on squared distances and
+ * doubled areas, without square roots and temporary objects per
+ * verticle.
+ * 
+ * @see StreamingSimplifier
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class Simplifier {
+	
+	private Simplifier() {
+	}
+	
+	/**
+	 * Simplifies <code>len</code> verticles starting at <code>off</code>
+	 * with Douglas-Peucker algorithm. Indices of kept verticles are
+	 * added to <code>result</code> in ascending order.
+	 * 
+	 * @return Number of kept verticles.
+	 */
+	public static int douglasPeucker(
+			final float[] xs, final float[] ys, final int off, final int len,
+			final float tolerance, final IndexBuffer result
+	) {
+		checkRange(xs, ys, off, len);
+		return indices(markDouglasPeucker(xs, ys, off, len, tolerance, new boolean[len]), off, len, result);
+	}
+	
+	/**
+	 * Simplifies <code>len</code> verticles starting at <code>off</code>
+	 * with Douglas-Peucker algorithm. Kept verticles are moved to the
+	 * beginning of the range.
+	 * 
+	 * @return Number of kept verticles.
+	 */
+	public static int douglasPeucker(
+			final float[] xs, final float[] ys, final int off, final int len, final float tolerance
+	) {
+		checkRange(xs, ys, off, len);
+		return compact(xs, ys, markDouglasPeucker(xs, ys, off, len, tolerance, new boolean[len]), off, len);
+	}
+	
+	/**
+	 * @return New geometry with verticles of <code>geometry</code>
+	 * simplified with Douglas-Peucker algorithm.
+	 */
+	public static Geometry douglasPeucker(final Geometry geometry, final float tolerance) {
+		final PointBuffer verticles = geometry.verticles;
+		final int len = verticles.size();
+		
+		return copy(verticles, markDouglasPeucker(verticles.xArray(), verticles.yArray(), 0, len, tolerance, new boolean[len]));
+	}
+	
+	/**
+	 * Removes verticles from <code>geometry</code> with Douglas-Peucker
+	 * algorithm.
+	 * 
+	 * @return Number of verticles left.
+	 */
+	public static int douglasPeuckerInPlace(final Geometry geometry, final float tolerance) {
+		final PointBuffer verticles = geometry.verticles;
+		return compact(geometry, douglasPeucker(verticles.xArray(), verticles.yArray(), 0, verticles.size(), tolerance));
+	}
+	
+	/**
+	 * Simplifies <code>len</code> verticles starting at <code>off</code>
+	 * with Visvalingam-Whyatt algorithm. Indices of kept verticles are
+	 * added to <code>result</code> in ascending order.
+	 * 
+	 * @return Number of kept verticles.
+	 */
+	public static int visvalingam(
+			final float[] xs, final float[] ys, final int off, final int len,
+			final float minArea, final IndexBuffer result
+	) {
+		checkRange(xs, ys, off, len);
+		return indices(markVisvalingam(xs, ys, off, len, minArea), off, len, result);
+	}
+	
+	/**
+	 * Simplifies <code>len</code> verticles starting at <code>off</code>
+	 * with Visvalingam-Whyatt algorithm. Kept verticles are moved to
+	 * the beginning of the range.
+	 * 
+	 * @return Number of kept verticles.
+	 */
+	public static int visvalingam(
+			final float[] xs, final float[] ys, final int off, final int len, final float minArea
+	) {
+		checkRange(xs, ys, off, len);
+		return compact(xs, ys, markVisvalingam(xs, ys, off, len, minArea), off, len);
+	}
+	
+	/**
+	 * @return New geometry with verticles of <code>geometry</code>
+	 * simplified with Visvalingam-Whyatt algorithm.
+	 */
+	public static Geometry visvalingam(final Geometry geometry, final float minArea) {
+		final PointBuffer verticles = geometry.verticles;
+		return copy(verticles, markVisvalingam(verticles.xArray(), verticles.yArray(), 0, verticles.size(), minArea));
+	}
+	
+	/**
+	 * Removes verticles from <code>geometry</code> with Visvalingam-Whyatt
+	 * algorithm.
+	 * 
+	 * @return Number of verticles left.
+	 */
+	public static int visvalingamInPlace(final Geometry geometry, final float minArea) {
+		final PointBuffer verticles = geometry.verticles;
+		return compact(geometry, visvalingam(verticles.xArray(), verticles.yArray(), 0, verticles.size(), minArea));
+	}
+	
+	/**
+	 * Marks verticles kept by Douglas-Peucker algorithm in
+	 * <code>keep</code> from index 0. Ranges left to check are kept
+	 * on an explicit stack, so long polylines don't overflow the
+	 * thread stack.
+	 * 
+	 * @return The <code>keep</code> array.
+	 */
+	static boolean[] markDouglasPeucker(
+			final float[] xs, final float[] ys, final int off, final int len,
+			final float tolerance, final boolean[] keep
+	) {
+		if (len <= 2) {
+			for (int i = 0; i < len; ++i) {
+				keep[i] = true;
+			}
+			
+			return keep;
+		}
+		
+		for (int i = 1; i < len - 1; ++i) {
+			keep[i] = false;
+		}
+		
+		keep[0] = true;
+		keep[len - 1] = true;
+		
+		final float limit = tolerance * tolerance;
+		
+		// pairs of first and last verticle of ranges
+		int[] stack = new int[32];
+		int top = 0;
+		
+		stack[top++] = 0;
+		stack[top++] = len - 1;
+		
+		while (top > 0) {
+			final int last = stack[--top];
+			final int first = stack[--top];
+			
+			final float x1 = xs[off + first], y1 = ys[off + first];
+			final float x2 = xs[off + last], y2 = ys[off + last];
+			
+			float max = -1f;
+			int farthest = -1;
+			
+			for (int i = first + 1; i < last; ++i) {
+				final float d = SegmentDistance.squaredDistance(xs[off + i], ys[off + i], x1, y1, x2, y2);
+				
+				if (d > max) {
+					max = d;
+					farthest = i;
+				}
+			}
+			
+			if (max <= limit) {
+				continue;
+			}
+			
+			keep[farthest] = true;
+			
+			if (top + 4 > stack.length) {
+				final int[] newStack = new int[stack.length * 2];
+				System.arraycopy(stack, 0, newStack, 0, top);
+				stack = newStack;
+			}
+			
+			if (farthest - first > 1) {
+				stack[top++] = first;
+				stack[top++] = farthest;
+			}
+			
+			if (last - farthest > 1) {
+				stack[top++] = farthest;
+				stack[top++] = last;
+			}
+		}
+		
+		return keep;
+	}
+	
+	/**
+	 * Marks verticles kept by Visvalingam-Whyatt algorithm. Verticles
+	 * wait for removal in a binary min-heap ordered by area of their
+	 * triangles; ties are broken by index, so results are deterministic.
+	 * After a removal the areas of neighbours are updated, but never
+	 * below the area of the removed verticle.
+	 * 
+	 * @return New array with kept verticles marked from index 0.
+	 */
+	static boolean[] markVisvalingam(
+			final float[] xs, final float[] ys, final int off, final int len, final float minArea
+	) {
+		final boolean[] keep = new boolean[len];
+		
+		for (int i = 0; i < len; ++i) {
+			keep[i] = true;
+		}
+		
+		if (len <= 2) {
+			return keep;
+		}
+		
+		final double limit = 2.0 * minArea;
+		
+		final int[] prev = new int[len];
+		final int[] next = new int[len];
+		final Heap heap = new Heap(len);
+		
+		for (int i = 0; i < len; ++i) {
+			prev[i] = i - 1;
+			next[i] = i + 1;
+		}
+		
+		for (int i = 1; i < len - 1; ++i) {
+			heap.area[i] = doubleArea(xs, ys, off, i - 1, i, i + 1);
+			heap.heap[heap.size] = i;
+			heap.pos[i] = heap.size++;
+		}
+		
+		heap.build();
+		
+		while (heap.size > 0) {
+			final int i = heap.heap[0];
+			final double area = heap.area[i];
+			
+			if (area >= limit) {
+				break;
+			}
+			
+			heap.removeFirst();
+			keep[i] = false;
+			
+			final int p = prev[i];
+			final int n = next[i];
+			
+			next[p] = n;
+			prev[n] = p;
+			
+			if (p > 0) {
+				heap.area[p] = Math.max(doubleArea(xs, ys, off, prev[p], p, n), area);
+				heap.update(p);
+			}
+			
+			if (n < len - 1) {
+				heap.area[n] = Math.max(doubleArea(xs, ys, off, p, n, next[n]), area);
+				heap.update(n);
+			}
+		}
+		
+		return keep;
+	}
+	
+	/**
+	 * @return Doubled area of triangle of verticles <code>a</code>,
+	 * <code>b</code> and <code>c</code>.
+	 */
+	private static double doubleArea(float[] xs, float[] ys, int off, int a, int b, int c) {
+		final double ax = xs[off + a], ay = ys[off + a];
+		
+		return Math.abs((xs[off + b] - ax) * (ys[off + c] - ay) - (xs[off + c] - ax) * (ys[off + b] - ay));
+	}
+	
+	/**
+	 * Binary min-heap of verticle indices ordered by their areas.
+	 */
+	private static final class Heap {
+		
+		final double[] area;
+		final int[] heap;
+		
+		/** Position of every verticle in <code>heap</code> */
+		final int[] pos;
+		
+		int size;
+		
+		Heap(int capacity) {
+			area = new double[capacity];
+			heap = new int[capacity];
+			pos = new int[capacity];
+		}
+		
+		private boolean less(int i, int j) {
+			return area[i] < area[j] || area[i] == area[j] && i < j;
+		}
+		
+		void build() {
+			for (int k = size / 2 - 1; k >= 0; --k) {
+				down(k);
+			}
+		}
+		
+		void removeFirst() {
+			--size;
+			
+			if (size > 0) {
+				heap[0] = heap[size];
+				pos[heap[0]] = 0;
+				down(0);
+			}
+		}
+		
+		void update(int i) {
+			up(pos[i]);
+			down(pos[i]);
+		}
+		
+		private void up(int k) {
+			final int i = heap[k];
+			
+			while (k > 0) {
+				final int parent = (k - 1) >> 1;
+				
+				if (!less(i, heap[parent])) {
+					break;
+				}
+				
+				heap[k] = heap[parent];
+				pos[heap[k]] = k;
+				k = parent;
+			}
+			
+			heap[k] = i;
+			pos[i] = k;
+		}
+		
+		private void down(int k) {
+			final int i = heap[k];
+			
+			while (true) {
+				int child = 2 * k + 1;
+				
+				if (child >= size) {
+					break;
+				}
+				
+				if (child + 1 < size && less(heap[child + 1], heap[child])) {
+					++child;
+				}
+				
+				if (!less(heap[child], i)) {
+					break;
+				}
+				
+				heap[k] = heap[child];
+				pos[heap[k]] = k;
+				k = child;
+			}
+			
+			heap[k] = i;
+			pos[i] = k;
+		}
+	}
+	
+	private static int indices(boolean[] keep, int off, int len, IndexBuffer result) {
+		int count = 0;
+		
+		for (int i = 0; i < len; ++i) {
+			if (keep[i]) {
+				result.add(off + i);
+				++count;
+			}
+		}
+		
+		return count;
+	}
+	
+	private static int compact(float[] xs, float[] ys, boolean[] keep, int off, int len) {
+		int count = 0;
+		
+		for (int i = 0; i < len; ++i) {
+			if (keep[i]) {
+				xs[off + count] = xs[off + i];
+				ys[off + count] = ys[off + i];
+				++count;
+			}
+		}
+		
+		return count;
+	}
+	
+	private static int compact(Geometry geometry, int count) {
+		if (count < geometry.verticles.size()) {
+			geometry.verticles.truncate(count);
+			geometry.invalidateBounds();
+		}
+		
+		return count;
+	}
+	
+	private static Geometry copy(PointBuffer verticles, boolean[] keep) {
+		final float[] xs = verticles.xArray();
+		final float[] ys = verticles.yArray();
+		final Geometry result = new Geometry();
+		
+		for (int i = 0; i < keep.length; ++i) {
+			if (keep[i]) {
+				result.verticles.add(xs[i], ys[i]);
+			}
+		}
+		
+		return result;
+	}
+	
+	private static void checkRange(float[] xs, float[] ys, int off, int len) {
+		if (off < 0 || len < 0 || off + len > xs.length || off + len > ys.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+	}
+}
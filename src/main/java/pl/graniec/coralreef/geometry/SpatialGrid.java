@@ -0,0 +1,647 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid that indexes {@link Point2}, {@link Segment} and
+ * {@link Box2} objects for broad-phase queries.
+ * <p>
+ * Space is divided into square cells of given size. Every object is
+ * registered in all cells that its bounding box covers, so queries
+ * only have to look at objects from the cells they touch. Inserting,
+ * removing and updating an object costs <code>O(1)</code> for objects
+ * smaller than a cell. Objects covering more than 4096 cells are kept
+ * in a single list that every query looks at.
+ * <p>
+ * Objects are identified by <code>int</code> handles returned from
+ * <code>insert()</code> methods. Because indexed objects are mutable
+ * the grid has to be told about every change with {@link #update(int)}.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class SpatialGrid {
+	
+	/** Null link or handle */
+	private static final int NIL = -1;
+	
+	/**
+	 * Largest cell coordinate; coordinates of cells are clamped to it
+	 * so loops over cell ranges always end
+	 */
+	private static final int MAX_CELL = Integer.MAX_VALUE - 1;
+	
+	/** Coordinate of the cell that holds objects covering too many cells */
+	private static final int LARGE = Integer.MAX_VALUE;
+	
+	/** Largest number of cells that an object is registered in */
+	private static final int MAX_OBJECT_CELLS = 1 << 12;
+	
+	/** Cell size and its inverse */
+	private final float cellSize, inverseCellSize;
+	
+	/** Indexed objects, <code>null</code> for free handles */
+	private Object[] objects = new Object[16];
+	
+	/** Bounds of indexed objects */
+	private float[] minX = new float[16], minY = new float[16], maxX = new float[16], maxY = new float[16];
+	
+	/** Cells range covered by indexed objects */
+	private int[] cellX0 = new int[16], cellY0 = new int[16], cellX1 = new int[16], cellY1 = new int[16];
+	
+	/** First link of every object; also next free handle for free handles */
+	private int[] firstLink = new int[16];
+	
+	/** Query stamps used to report every object once */
+	private int[] stamps = new int[16];
+	private int stamp;
+	
+	private int handleCount, freeHandle = NIL, size;
+	
+	/** Links between objects and cells */
+	private int[] linkHandle = new int[64], linkCell = new int[64];
+	private int[] linkPrev = new int[64], linkNext = new int[64], linkNextOfObject = new int[64];
+	private int linkCount, freeLink = NIL;
+	
+	/** Cells hash table */
+	private long[] cellKeys = new long[64];
+	private int[] cellHeads = new int[64];
+	private boolean[] cellUsed = new boolean[64];
+	private int cellCount;
+	
+	/** Temporary point for distance tests */
+	private final Point2 tmpPoint = new Point2(0, 0);
+	
+	/**
+	 * Creates a new grid.
+	 * 
+	 * @param cellSize Width and height of a single cell. For best
+	 * results it should be a bit larger than most indexed objects.
+	 */
+	public SpatialGrid(float cellSize) {
+		if (!(cellSize > 0f)) {
+			throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+		}
+		
+		this.cellSize = cellSize;
+		this.inverseCellSize = 1f / cellSize;
+	}
+	
+	public final float getCellSize() {
+		return cellSize;
+	}
+	
+	/**
+	 * @return Object registered with <code>handle</code>.
+	 */
+	public final Object get(int handle) {
+		checkHandle(handle);
+		return objects[handle];
+	}
+	
+	public int insert(Point2 point) {
+		return insertObject(point);
+	}
+	
+	public int insert(Segment segment) {
+		return insertObject(segment);
+	}
+	
+	public int insert(Box2 box) {
+		return insertObject(box);
+	}
+	
+	/**
+	 * Finds all objects whose bounds overlap the <code>area</code>.
+	 * Handles of found objects are added to <code>result</code>.
+	 * 
+	 * @param area The query area.
+	 * @param result Buffer that receives handles.
+	 * 
+	 * @return Number of objects found.
+	 */
+	public int query(Box2 area, IndexBuffer result) {
+		return query(
+				Math.min(area.left, area.right), Math.min(area.top, area.bottom),
+				Math.max(area.left, area.right), Math.max(area.top, area.bottom),
+				result
+		);
+	}
+	
+	/**
+	 * Works like {@link #query(Box2, IndexBuffer)} but the area is
+	 * given by its minimal and maximal coordinates.
+	 */
+	public int query(float x0, float y0, float x1, float y1, IndexBuffer result) {
+		final int start = result.size();
+		
+		nextStamp();
+		
+		final int cx0 = cell(x0), cy0 = cell(y0), cx1 = cell(x1), cy1 = cell(y1);
+		
+		if (cellArea(cx0, cy0, cx1, cy1) > cellKeys.length) {
+			// the area is larger than the whole index
+			for (int c = 0; c < cellKeys.length; ++c) {
+				if (cellUsed[c]) {
+					collect(cellHeads[c], x0, y0, x1, y1, result);
+				}
+			}
+		} else {
+			for (int cy = cy0; cy <= cy1; ++cy) {
+				for (int cx = cx0; cx <= cx1; ++cx) {
+					final int c = findCell(cx, cy);
+					
+					if (c != NIL) {
+						collect(cellHeads[c], x0, y0, x1, y1, result);
+					}
+				}
+			}
+			
+			final int large = findCell(LARGE, LARGE);
+			
+			if (large != NIL) {
+				collect(cellHeads[large], x0, y0, x1, y1, result);
+			}
+		}
+		
+		return result.size() - start;
+	}
+	
+	/**
+	 * Finds all objects that are not further than <code>radius</code>
+	 * from point (<code>x</code>, <code>y</code>). Distances are
+	 * measured with {@link Point2#distanceTo(Point2)},
+	 * {@link Point2#distanceTo(Segment)} or to the nearest point of
+	 * a {@link Box2}.
+	 * 
+	 * @param result Buffer that receives handles.
+	 * 
+	 * @return Number of objects found.
+	 */
+	public int queryNear(float x, float y, float radius, IndexBuffer result) {
+		final int start = result.size();
+		
+		query(x - radius, y - radius, x + radius, y + radius, result);
+		
+		tmpPoint.set(x, y);
+		
+		final int[] handles = result.array();
+		int count = start;
+		
+		for (int i = start; i < result.size(); ++i) {
+			final int handle = handles[i];
+			final Object object = objects[handle];
+			
+			final float distance;
+			
+			if (object instanceof Point2) {
+				distance = tmpPoint.distanceTo((Point2) object);
+			} else if (object instanceof Segment) {
+				distance = tmpPoint.distanceTo((Segment) object);
+			} else {
+				final float dx = Math.max(Math.max(minX[handle] - x, x - maxX[handle]), 0f);
+				final float dy = Math.max(Math.max(minY[handle] - y, y - maxY[handle]), 0f);
+				distance = Vector2.length(dx, dy);
+			}
+			
+			if (distance <= radius) {
+				handles[count++] = handle;
+			}
+		}
+		
+		result.truncate(count);
+		
+		return count - start;
+	}
+	
+	/**
+	 * Finds all indexed segments that intersect given <code>segment</code>
+	 * as tested by {@link Segment#intersects(Segment)}.
+	 * 
+	 * @param result Buffer that receives handles.
+	 * 
+	 * @return Number of segments found.
+	 */
+	public int queryIntersecting(Segment segment, IndexBuffer result) {
+		final int start = result.size();
+		
+		query(
+				Math.min(segment.x1, segment.x2), Math.min(segment.y1, segment.y2),
+				Math.max(segment.x1, segment.x2), Math.max(segment.y1, segment.y2),
+				result
+		);
+		
+		final int[] handles = result.array();
+		int count = start;
+		
+		for (int i = start; i < result.size(); ++i) {
+			final Object object = objects[handles[i]];
+			
+			if (object instanceof Segment && object != segment && segment.intersects((Segment) object)) {
+				handles[count++] = handles[i];
+			}
+		}
+		
+		result.truncate(count);
+		
+		return count - start;
+	}
+	
+	/**
+	 * Removes object from the grid.
+	 * 
+	 * @param handle Handle of the object.
+	 */
+	public void remove(int handle) {
+		checkHandle(handle);
+		
+		unlink(handle);
+		
+		objects[handle] = null;
+		firstLink[handle] = freeHandle;
+		freeHandle = handle;
+		--size;
+	}
+	
+	/**
+	 * @return Number of objects in the grid.
+	 */
+	public final int size() {
+		return size;
+	}
+	
+	/**
+	 * Updates the grid after object registered with <code>handle</code>
+	 * was moved or changed. When it still covers the same cells only
+	 * its bounds are updated.
+	 * 
+	 * @param handle Handle of the object.
+	 */
+	public void update(int handle) {
+		checkHandle(handle);
+		
+		computeBounds(handle);
+		
+		if (
+				cell(minX[handle]) == cellX0[handle] && cell(minY[handle]) == cellY0[handle] &&
+				cell(maxX[handle]) == cellX1[handle] && cell(maxY[handle]) == cellY1[handle]
+		) {
+			return;
+		}
+		
+		unlink(handle);
+		link(handle);
+	}
+	
+	//
+	// objects
+	//
+	
+	private int insertObject(Object object) {
+		int handle = freeHandle;
+		
+		if (handle != NIL) {
+			freeHandle = firstLink[handle];
+		} else {
+			if (handleCount == objects.length) {
+				growHandles(handleCount * 2);
+			}
+			handle = handleCount++;
+		}
+		
+		objects[handle] = object;
+		firstLink[handle] = NIL;
+		stamps[handle] = stamp;
+		++size;
+		
+		computeBounds(handle);
+		link(handle);
+		
+		return handle;
+	}
+	
+	private void computeBounds(int handle) {
+		final Object object = objects[handle];
+		
+		if (object instanceof Point2) {
+			final Point2 p = (Point2) object;
+			minX[handle] = maxX[handle] = p.x;
+			minY[handle] = maxY[handle] = p.y;
+		} else if (object instanceof Segment) {
+			final Segment s = (Segment) object;
+			minX[handle] = Math.min(s.x1, s.x2);
+			minY[handle] = Math.min(s.y1, s.y2);
+			maxX[handle] = Math.max(s.x1, s.x2);
+			maxY[handle] = Math.max(s.y1, s.y2);
+		} else {
+			final Box2 b = (Box2) object;
+			minX[handle] = Math.min(b.left, b.right);
+			minY[handle] = Math.min(b.top, b.bottom);
+			maxX[handle] = Math.max(b.left, b.right);
+			maxY[handle] = Math.max(b.top, b.bottom);
+		}
+	}
+	
+	private void checkHandle(int handle) {
+		if (handle < 0 || handle >= handleCount || objects[handle] == null) {
+			throw new IllegalArgumentException("invalid handle: " + handle);
+		}
+	}
+	
+	private void collect(int link, float x0, float y0, float x1, float y1, IndexBuffer result) {
+		for (; link != NIL; link = linkNext[link]) {
+			final int handle = linkHandle[link];
+			
+			if (stamps[handle] == stamp) {
+				continue;
+			}
+			
+			stamps[handle] = stamp;
+			
+			if (minX[handle] <= x1 && maxX[handle] >= x0 && minY[handle] <= y1 && maxY[handle] >= y0) {
+				result.add(handle);
+			}
+		}
+	}
+	
+	private void nextStamp() {
+		if (++stamp == 0) {
+			// stamps overflowed; make sure no stale stamp matches
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+	}
+	
+	private void growHandles(int capacity) {
+		objects = grow(objects, capacity);
+		minX = grow(minX, capacity);
+		minY = grow(minY, capacity);
+		maxX = grow(maxX, capacity);
+		maxY = grow(maxY, capacity);
+		cellX0 = grow(cellX0, capacity);
+		cellY0 = grow(cellY0, capacity);
+		cellX1 = grow(cellX1, capacity);
+		cellY1 = grow(cellY1, capacity);
+		firstLink = grow(firstLink, capacity);
+		stamps = grow(stamps, capacity);
+	}
+	
+	//
+	// links
+	//
+	
+	private void link(int handle) {
+		final int cx0 = cell(minX[handle]), cy0 = cell(minY[handle]);
+		final int cx1 = cell(maxX[handle]), cy1 = cell(maxY[handle]);
+		
+		cellX0[handle] = cx0;
+		cellY0[handle] = cy0;
+		cellX1[handle] = cx1;
+		cellY1[handle] = cy1;
+		
+		if (cellArea(cx0, cy0, cx1, cy1) > MAX_OBJECT_CELLS) {
+			linkToCell(handle, obtainCell(LARGE, LARGE));
+			return;
+		}
+		
+		for (int cy = cy0; cy <= cy1; ++cy) {
+			for (int cx = cx0; cx <= cx1; ++cx) {
+				linkToCell(handle, obtainCell(cx, cy));
+			}
+		}
+	}
+	
+	private void linkToCell(int handle, int c) {
+		final int link = allocateLink();
+		
+		linkHandle[link] = handle;
+		linkCell[link] = c;
+		linkPrev[link] = NIL;
+		linkNext[link] = cellHeads[c];
+		
+		if (cellHeads[c] != NIL) {
+			linkPrev[cellHeads[c]] = link;
+		}
+		
+		cellHeads[c] = link;
+		
+		linkNextOfObject[link] = firstLink[handle];
+		firstLink[handle] = link;
+	}
+	
+	private void unlink(int handle) {
+		int link = firstLink[handle];
+		
+		while (link != NIL) {
+			final int next = linkNextOfObject[link];
+			
+			if (linkPrev[link] != NIL) {
+				linkNext[linkPrev[link]] = linkNext[link];
+			} else {
+				cellHeads[linkCell[link]] = linkNext[link];
+			}
+			
+			if (linkNext[link] != NIL) {
+				linkPrev[linkNext[link]] = linkPrev[link];
+			}
+			
+			linkNextOfObject[link] = freeLink;
+			freeLink = link;
+			
+			link = next;
+		}
+		
+		firstLink[handle] = NIL;
+	}
+	
+	private int allocateLink() {
+		if (freeLink != NIL) {
+			final int link = freeLink;
+			freeLink = linkNextOfObject[link];
+			return link;
+		}
+		
+		if (linkCount == linkHandle.length) {
+			final int capacity = linkCount * 2;
+			
+			linkHandle = grow(linkHandle, capacity);
+			linkCell = grow(linkCell, capacity);
+			linkPrev = grow(linkPrev, capacity);
+			linkNext = grow(linkNext, capacity);
+			linkNextOfObject = grow(linkNextOfObject, capacity);
+		}
+		
+		return linkCount++;
+	}
+	
+	//
+	// cells
+	//
+	
+	private int cell(float coordinate) {
+		return (int) Math.min(Math.floor(coordinate * inverseCellSize), MAX_CELL);
+	}
+	
+	/**
+	 * @return Number of cells in given range.
+	 */
+	private static long cellArea(int cx0, int cy0, int cx1, int cy1) {
+		final long width = (long) cx1 - cx0 + 1;
+		final long height = (long) cy1 - cy0 + 1;
+		
+		if (width > Integer.MAX_VALUE || height > Integer.MAX_VALUE) {
+			return Long.MAX_VALUE;
+		}
+		
+		return width * height;
+	}
+	
+	private static int hash(long key, int mask) {
+		final long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+	
+	private static long key(int cx, int cy) {
+		return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+	}
+	
+	private int findCell(int cx, int cy) {
+		final long key = key(cx, cy);
+		final int mask = cellKeys.length - 1;
+		
+		for (int c = hash(key, mask); cellUsed[c]; c = (c + 1) & mask) {
+			if (cellKeys[c] == key) {
+				return c;
+			}
+		}
+		
+		return NIL;
+	}
+	
+	private int obtainCell(int cx, int cy) {
+		final int found = findCell(cx, cy);
+		
+		if (found != NIL) {
+			return found;
+		}
+		
+		if ((cellCount + 1) * 2 > cellKeys.length) {
+			rehash();
+		}
+		
+		final long key = key(cx, cy);
+		final int mask = cellKeys.length - 1;
+		int c = hash(key, mask);
+		
+		while (cellUsed[c]) {
+			c = (c + 1) & mask;
+		}
+		
+		cellKeys[c] = key;
+		cellHeads[c] = NIL;
+		cellUsed[c] = true;
+		++cellCount;
+		
+		return c;
+	}
+	
+	/**
+	 * Rebuilds the cells table dropping empty cells and growing it
+	 * when needed.
+	 */
+	private void rehash() {
+		final long[] oldKeys = cellKeys;
+		final int[] oldHeads = cellHeads;
+		final boolean[] oldUsed = cellUsed;
+		
+		int used = 0;
+		
+		for (int c = 0; c < oldKeys.length; ++c) {
+			if (oldUsed[c] && oldHeads[c] != NIL) {
+				++used;
+			}
+		}
+		
+		int capacity = oldKeys.length;
+		
+		while ((used + 1) * 4 > capacity) {
+			capacity *= 2;
+		}
+		
+		cellKeys = new long[capacity];
+		cellHeads = new int[capacity];
+		cellUsed = new boolean[capacity];
+		cellCount = 0;
+		
+		final int mask = capacity - 1;
+		
+		for (int old = 0; old < oldKeys.length; ++old) {
+			if (!oldUsed[old] || oldHeads[old] == NIL) {
+				continue;
+			}
+			
+			int c = hash(oldKeys[old], mask);
+			
+			while (cellUsed[c]) {
+				c = (c + 1) & mask;
+			}
+			
+			cellKeys[c] = oldKeys[old];
+			cellHeads[c] = oldHeads[old];
+			cellUsed[c] = true;
+			++cellCount;
+			
+			for (int link = cellHeads[c]; link != NIL; link = linkNext[link]) {
+				linkCell[link] = c;
+			}
+		}
+	}
+	
+	private static float[] grow(float[] array, int capacity) {
+		final float[] result = new float[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	private static int[] grow(int[] array, int capacity) {
+		final int[] result = new int[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+	
+	private static Object[] grow(Object[] array, int capacity) {
+		final Object[] result = new Object[capacity];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+}
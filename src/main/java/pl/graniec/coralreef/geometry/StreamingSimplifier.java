@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Douglas-Peucker simplification of polylines given verticle by
+ * verticle, with memory bounded by the window size.
+ * <p>
+ * Added verticles are collected in a window. When the window is full,
+ * it's simplified and kept verticles up to the last but one are
+ * passed to the output. The last kept verticle and all verticles after
+ * it start the next window, so simplification continues over window
+ * borders. Only when nothing but the window ends is kept, the end of
+ * the window has to be passed to the output as well. The result may
+ * therefore keep a few verticles more than {@link Simplifier} would,
+ * but no verticle farther than <code>tolerance</code> is dropped.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class StreamingSimplifier {
+	
+	/** Default number of verticles in the window */
+	public static final int DEFAULT_WINDOW_SIZE = 1024;
+	
+	private final float tolerance;
+	private final PointBuffer output;
+	
+	/** Window of verticles, the first one is already passed to the output */
+	private final float[] xs, ys;
+	private final boolean[] keep;
+	private int size;
+	
+	public StreamingSimplifier(final float tolerance, final PointBuffer output) {
+		this(tolerance, DEFAULT_WINDOW_SIZE, output);
+	}
+	
+	/**
+	 * @param tolerance Maximal distance of dropped verticles from the result.
+	 * @param windowSize Number of verticles kept in memory, at least 3.
+	 * @param output Buffer that receives kept verticles.
+	 */
+	public StreamingSimplifier(final float tolerance, final int windowSize, final PointBuffer output) {
+		if (windowSize < 3) {
+			throw new IllegalArgumentException("window size must be at least 3: " + windowSize);
+		}
+		
+		this.tolerance = tolerance;
+		this.output = output;
+		
+		xs = new float[windowSize];
+		ys = new float[windowSize];
+		keep = new boolean[windowSize];
+	}
+	
+	/**
+	 * Adds next verticle of the polyline.
+	 */
+	public void add(final float x, final float y) {
+		if (size == 0) {
+			output.add(x, y);
+		} else if (size == xs.length) {
+			simplify(false);
+		}
+		
+		xs[size] = x;
+		ys[size] = y;
+		++size;
+	}
+	
+	public final void add(final Point2 point) {
+		add(point.x, point.y);
+	}
+	
+	/**
+	 * Passes the rest of kept verticles to the output. Next added
+	 * verticle starts a new polyline.
+	 */
+	public void finish() {
+		if (size > 1) {
+			simplify(true);
+		}
+		
+		size = 0;
+	}
+	
+	/**
+	 * @return Number of verticles waiting in the window.
+	 */
+	public final int getPendingCount() {
+		return size;
+	}
+	
+	private void simplify(boolean last) {
+		Simplifier.markDouglasPeucker(xs, ys, 0, size, tolerance, keep);
+		
+		int end = size - 1;
+		
+		if (!last) {
+			// stop at the last kept verticle before the window end
+			end = size - 2;
+			
+			while (end > 0 && !keep[end]) {
+				--end;
+			}
+			
+			if (end == 0) {
+				end = size - 1;
+			}
+		}
+		
+		for (int i = 1; i <= end; ++i) {
+			if (keep[i]) {
+				output.add(xs[i], ys[i]);
+			}
+		}
+		
+		// the last passed verticle starts the next window
+		size -= end;
+		System.arraycopy(xs, end, xs, 0, size);
+		System.arraycopy(ys, end, ys, 0, size);
+	}
+}
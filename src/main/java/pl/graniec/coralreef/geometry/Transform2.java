@@ -0,0 +1,424 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Affine transformation in two dimensional space kept as a 2x3
+ * matrix:
+ * <pre>
+ * x' = m00 * x + m01 * y + m02
+ * y' = m10 * x + m11 * y + m12
+ * </pre>
+ * Methods that change the transformation (like {@link #rotate(float)}
+ * or {@link #scale(float, float)}) add the new step <b>after</b> the
+ * already defined ones and return this object, so
+ * <code>new Transform2().scale(2, 2).rotate(90).translate(5, 0)</code>
+ * scales first, then rotates and translates at the end.
+ * <p>
+ * Batch methods apply the whole transformation in a single pass
+ * over coordinates.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Transform2 {
+	
+	/** Matrix elements */
+	public float m00, m01, m02, m10, m11, m12;
+	
+	/**
+	 * Creates the identity transformation.
+	 */
+	public Transform2() {
+		setIdentity();
+	}
+	
+	public Transform2(float m00, float m01, float m02, float m10, float m11, float m12) {
+		set(m00, m01, m02, m10, m11, m12);
+	}
+	
+	public Transform2(Transform2 other) {
+		set(other);
+	}
+	
+	/**
+	 * Transforms <code>point</code> in place.
+	 * 
+	 * @return The <code>point</code>.
+	 */
+	public final Point2 apply(final Point2 point) {
+		final float x = point.x;
+		final float y = point.y;
+		
+		point.x = m00 * x + m01 * y + m02;
+		point.y = m10 * x + m11 * y + m12;
+		
+		return point;
+	}
+	
+	/**
+	 * Transforms points from <code>off</code> to <code>off + len - 1</code>
+	 * in place.
+	 */
+	public final void apply(final Point2[] points, final int off, final int len) {
+		checkRange(points.length, off, len);
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			apply(points[i]);
+		}
+	}
+	
+	/**
+	 * Transforms both ends of segments from <code>off</code> to
+	 * <code>off + len - 1</code> in place.
+	 */
+	public final void apply(final Segment[] segments, final int off, final int len) {
+		checkRange(segments.length, off, len);
+		
+		final float m00 = this.m00, m01 = this.m01, m02 = this.m02;
+		final float m10 = this.m10, m11 = this.m11, m12 = this.m12;
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			final Segment s = segments[i];
+			
+			final float x1 = s.x1, y1 = s.y1;
+			final float x2 = s.x2, y2 = s.y2;
+			
+			s.x1 = m00 * x1 + m01 * y1 + m02;
+			s.y1 = m10 * x1 + m11 * y1 + m12;
+			s.x2 = m00 * x2 + m01 * y2 + m02;
+			s.y2 = m10 * x2 + m11 * y2 + m12;
+		}
+	}
+	
+	/**
+	 * Transforms <code>len</code> points stored as interleaved
+	 * <code>x0, y0, x1, y1, ...</code> coordinates starting at
+	 * <code>xy[off]</code>.
+	 */
+	public final void apply(final float[] xy, final int off, final int len) {
+		if (off < 0 || len < 0 || off + len * 2 > xy.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+		
+		final float m00 = this.m00, m01 = this.m01, m02 = this.m02;
+		final float m10 = this.m10, m11 = this.m11, m12 = this.m12;
+		
+		for (int i = off, end = off + len * 2; i < end; i += 2) {
+			final float x = xy[i];
+			final float y = xy[i + 1];
+			
+			xy[i] = m00 * x + m01 * y + m02;
+			xy[i + 1] = m10 * x + m11 * y + m12;
+		}
+	}
+	
+	/**
+	 * Transforms points (<code>xs[i]</code>, <code>ys[i]</code>) for
+	 * <code>i</code> from <code>off</code> to <code>off + len - 1</code>.
+	 */
+	public final void apply(final float[] xs, final float[] ys, final int off, final int len) {
+		checkRange(Math.min(xs.length, ys.length), off, len);
+		
+		final float m00 = this.m00, m01 = this.m01, m02 = this.m02;
+		final float m10 = this.m10, m11 = this.m11, m12 = this.m12;
+		
+		for (int i = off, end = off + len; i < end; ++i) {
+			final float x = xs[i];
+			final float y = ys[i];
+			
+			xs[i] = m00 * x + m01 * y + m02;
+			ys[i] = m10 * x + m11 * y + m12;
+		}
+	}
+	
+	/**
+	 * Transforms all points of <code>buffer</code>.
+	 */
+	public final void apply(final PointBuffer buffer) {
+		apply(buffer.xArray(), buffer.yArray(), 0, buffer.size());
+	}
+	
+	/**
+	 * Transforms all verticles of <code>geometry</code>. Its cached
+	 * bounding box is moved when this is a translation and dropped
+	 * otherwise.
+	 * 
+	 * @see ParallelGeometry#transform(Geometry, Transform2)
+	 */
+	public final void apply(final Geometry geometry) {
+		apply(geometry.verticles);
+		updateBounds(geometry);
+	}
+	
+	/**
+	 * Transforms a direction <code>vector</code> in place. Translation
+	 * part of this transformation is not applied.
+	 * 
+	 * @return The <code>vector</code>.
+	 */
+	public final Vector2 applyLinear(final Vector2 vector) {
+		final float x = vector.x;
+		final float y = vector.y;
+		
+		vector.x = m00 * x + m01 * y;
+		vector.y = m10 * x + m11 * y;
+		
+		return vector;
+	}
+	
+	/**
+	 * Adds <code>other</code> transformation after this one.
+	 * 
+	 * @return This transformation.
+	 */
+	public final Transform2 compose(final Transform2 other) {
+		return postMultiply(other.m00, other.m01, other.m02, other.m10, other.m11, other.m12);
+	}
+	
+	/**
+	 * @return Determinant of the linear part of this transformation.
+	 */
+	public final float determinant() {
+		return m00 * m11 - m01 * m10;
+	}
+	
+	/*
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Transform2 other = (Transform2) obj;
+		return
+			Float.floatToIntBits(m00) == Float.floatToIntBits(other.m00) &&
+			Float.floatToIntBits(m01) == Float.floatToIntBits(other.m01) &&
+			Float.floatToIntBits(m02) == Float.floatToIntBits(other.m02) &&
+			Float.floatToIntBits(m10) == Float.floatToIntBits(other.m10) &&
+			Float.floatToIntBits(m11) == Float.floatToIntBits(other.m11) &&
+			Float.floatToIntBits(m12) == Float.floatToIntBits(other.m12);
+	}
+	
+	/*
+	 * @see java.lang.Object#hashCode()
+	 */
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Float.floatToIntBits(m00);
+		result = prime * result + Float.floatToIntBits(m01);
+		result = prime * result + Float.floatToIntBits(m02);
+		result = prime * result + Float.floatToIntBits(m10);
+		result = prime * result + Float.floatToIntBits(m11);
+		result = prime * result + Float.floatToIntBits(m12);
+		return result;
+	}
+	
+	/**
+	 * Replaces this transformation with its inverse. Inverse is
+	 * computed in double precision.
+	 * 
+	 * @return <code>false</code> if this transformation cannot be
+	 * inverted. Then it's left unchanged.
+	 */
+	public final boolean invert() {
+		final double det = (double) m00 * m11 - (double) m01 * m10;
+		
+		if (det == 0 || Double.isNaN(det) || Double.isInfinite(det)) {
+			return false;
+		}
+		
+		final double i00 = m11 / det;
+		final double i01 = -m01 / det;
+		final double i10 = -m10 / det;
+		final double i11 = m00 / det;
+		
+		set(
+			(float) i00, (float) i01, (float) (-(i00 * m02 + i01 * m12)),
+			(float) i10, (float) i11, (float) (-(i10 * m02 + i11 * m12))
+		);
+		
+		return true;
+	}
+	
+	/**
+	 * @return <code>true</code> if this is the identity transformation.
+	 */
+	public final boolean isIdentity() {
+		return isTranslation() && m02 == 0 && m12 == 0;
+	}
+	
+	/**
+	 * @return <code>true</code> if this transformation only moves points.
+	 */
+	public final boolean isTranslation() {
+		return m00 == 1 && m01 == 0 && m10 == 0 && m11 == 1;
+	}
+	
+	/**
+	 * Adds rotation around the origin. Multiples of 90 degrees give
+	 * exact matrices.
+	 * 
+	 * @param degrees Counter-clockwise angle in degrees.
+	 * 
+	 * @return This transformation.
+	 */
+	public final Transform2 rotate(final float degrees) {
+		final float normalized = degrees % 360f;
+		
+		float cos, sin;
+		
+		if (normalized == 0f) {
+			cos = 1f;
+			sin = 0f;
+		} else if (normalized == 90f || normalized == -270f) {
+			cos = 0f;
+			sin = 1f;
+		} else if (normalized == 180f || normalized == -180f) {
+			cos = -1f;
+			sin = 0f;
+		} else if (normalized == 270f || normalized == -90f) {
+			cos = 0f;
+			sin = -1f;
+		} else {
+			final double radians = Math.toRadians(degrees);
+			cos = (float) Math.cos(radians);
+			sin = (float) Math.sin(radians);
+		}
+		
+		return postMultiply(cos, -sin, 0, sin, cos, 0);
+	}
+	
+	/**
+	 * Adds rotation around point (<code>x</code>, <code>y</code>).
+	 * 
+	 * @return This transformation.
+	 * 
+	 * @see #rotate(float)
+	 */
+	public final Transform2 rotate(final float degrees, final float x, final float y) {
+		return translate(-x, -y).rotate(degrees).translate(x, y);
+	}
+	
+	/**
+	 * Adds scaling relative to the origin.
+	 * 
+	 * @return This transformation.
+	 */
+	public final Transform2 scale(final float x, final float y) {
+		return postMultiply(x, 0, 0, 0, y, 0);
+	}
+	
+	public final void set(float m00, float m01, float m02, float m10, float m11, float m12) {
+		this.m00 = m00;
+		this.m01 = m01;
+		this.m02 = m02;
+		this.m10 = m10;
+		this.m11 = m11;
+		this.m12 = m12;
+	}
+	
+	public final void set(Transform2 other) {
+		set(other.m00, other.m01, other.m02, other.m10, other.m11, other.m12);
+	}
+	
+	public final void setIdentity() {
+		set(1, 0, 0, 0, 1, 0);
+	}
+	
+	/**
+	 * Adds shearing: <code>x' = x + shx * y</code>, <code>y' = shy * x + y</code>.
+	 * 
+	 * @return This transformation.
+	 */
+	public final Transform2 shear(final float shx, final float shy) {
+		return postMultiply(1, shx, 0, shy, 1, 0);
+	}
+	
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return Transform2.class.getSimpleName() +
+			"[[" + m00 + "," + m01 + "," + m02 + "],[" + m10 + "," + m11 + "," + m12 + "]]";
+	}
+	
+	/**
+	 * Adds translation.
+	 * 
+	 * @return This transformation.
+	 */
+	public final Transform2 translate(final float x, final float y) {
+		m02 += x;
+		m12 += y;
+		
+		return this;
+	}
+	
+	/**
+	 * Updates the cached bounds of <code>geometry</code> after
+	 * its verticles has been transformed.
+	 */
+	final void updateBounds(final Geometry geometry) {
+		if (isTranslation()) {
+			geometry.translateBounds(m02, m12);
+		} else {
+			geometry.invalidateBounds();
+		}
+	}
+	
+	/**
+	 * Replaces this matrix with <code>a * this</code>.
+	 */
+	private Transform2 postMultiply(
+			final float a00, final float a01, final float a02,
+			final float a10, final float a11, final float a12
+	) {
+		set(
+			a00 * m00 + a01 * m10,
+			a00 * m01 + a01 * m11,
+			a00 * m02 + a01 * m12 + a02,
+			a10 * m00 + a11 * m10,
+			a10 * m01 + a11 * m11,
+			a10 * m02 + a11 * m12 + a12
+		);
+		
+		return this;
+	}
+	
+	private static void checkRange(final int length, final int off, final int len) {
+		if (off < 0 || len < 0 || off + len > length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len + ",length=" + length);
+		}
+	}
+}
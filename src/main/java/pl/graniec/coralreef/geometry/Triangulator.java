@@ -0,0 +1,935 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Triangulation of simple polygons with holes by ear clipping,
+ * following the "earcut" algorithm by Vladimir Agafonkin.
+ * <p>
+ * Polygon verticles are kept in a circular doubly linked list. Holes
+ * are joined to the outer ring with bridges, then ears are cut off
+ * one by one. For polygons with more than 80 verticles nodes are also
+ * linked in z-order, so testing an ear only looks at verticles close
+ * to it. When no ear can be found, the polygon is cleaned up, local
+ * self-intersections are cut off and finally it's split in two.
+ * Results for self-intersecting input are best effort.
+ * <p>
+ * Triangles are given in counter clockwise order (for a coordinate
+ * system where Y grows upwards), whatever the order of input rings.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public final class Triangulator {
+	
+	/** Number of verticles from which ears are searched in z-order */
+	private static final int HASH_THRESHOLD = 80;
+	
+	/** Orders hole nodes by X coordinate */
+	private static final Comparator LEFT_TO_RIGHT = new Comparator() {
+		public int compare(Object o1, Object o2) {
+			final double x1 = ((Node) o1).x;
+			final double x2 = ((Node) o2).x;
+			return x1 < x2 ? -1 : (x1 > x2 ? 1 : 0);
+		}
+	};
+	
+	private Triangulator() {
+	}
+	
+	/**
+	 * Triangulates <code>polygon</code>.
+	 * 
+	 * @return New triangles.
+	 */
+	public static Triangle[] triangulate(final Geometry polygon) {
+		return triangulate(polygon, new Geometry[0]);
+	}
+	
+	/**
+	 * Triangulates <code>polygon</code> with <code>holes</code>.
+	 * 
+	 * @return New triangles.
+	 */
+	public static Triangle[] triangulate(final Geometry polygon, final Geometry[] holes) {
+		final PointBuffer verticles = join(polygon, holes);
+		final IndexBuffer indices = new IndexBuffer();
+		
+		triangulate(verticles.xArray(), verticles.yArray(), 0, verticles.size(), holeStarts(polygon, holes), indices);
+		
+		final Triangle[] result = new Triangle[indices.size() / 3];
+		final int[] array = indices.array();
+		
+		for (int t = 0; t < result.length; ++t) {
+			result[t] = new Triangle(
+					verticles.get(array[t * 3], new Point2(0, 0)),
+					verticles.get(array[t * 3 + 1], new Point2(0, 0)),
+					verticles.get(array[t * 3 + 2], new Point2(0, 0))
+			);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Triangulates <code>polygon</code> with <code>holes</code> and
+	 * stores verticle indices of each triangle in <code>result</code>.
+	 * Indices count verticles of <code>polygon</code> first, then
+	 * verticles of each hole in order.
+	 * 
+	 * @return Number of triangles added.
+	 */
+	public static int triangulate(final Geometry polygon, final Geometry[] holes, final IndexBuffer result) {
+		final PointBuffer verticles = join(polygon, holes);
+		return triangulate(verticles.xArray(), verticles.yArray(), 0, verticles.size(), holeStarts(polygon, holes), result);
+	}
+	
+	/**
+	 * Triangulates a polygon with holes stored in coordinate arrays. Rings
+	 * are stored one after another from <code>off</code> to
+	 * <code>off + len - 1</code>: the outer ring first, then the holes.
+	 * Verticle indices of each triangle are added to <code>result</code>;
+	 * they index <code>xs</code> and <code>ys</code> directly.
+	 * 
+	 * @param holeStarts Ascending indices of first verticles of holes
+	 * or <code>null</code> if there are no holes.
+	 * 
+	 * @return Number of triangles added.
+	 */
+	public static int triangulate(
+			final float[] xs, final float[] ys, final int off, final int len,
+			final int[] holeStarts, final IndexBuffer result
+	) {
+		if (off < 0 || len < 0 || off + len > xs.length || off + len > ys.length) {
+			throw new IndexOutOfBoundsException("off=" + off + ",len=" + len);
+		}
+		
+		final int holeCount = holeStarts == null ? 0 : holeStarts.length;
+		
+		for (int h = 0; h < holeCount; ++h) {
+			final int previous = h == 0 ? off : holeStarts[h - 1];
+			
+			if (holeStarts[h] <= previous || holeStarts[h] >= off + len) {
+				throw new IllegalArgumentException("invalid hole start: " + holeStarts[h]);
+			}
+		}
+		
+		final int outerEnd = holeCount > 0 ? holeStarts[0] : off + len;
+		final int before = result.size();
+		
+		Node outer = ring(xs, ys, off, outerEnd, true);
+		
+		if (outer == null || outer.next == outer.prev) {
+			return 0;
+		}
+		
+		if (holeCount > 0) {
+			outer = eliminateHoles(xs, ys, off + len, holeStarts, outer);
+		}
+		
+		// a polygon with n verticles and h holes gives n + 2h - 2 triangles
+		result.ensureCapacity(result.size() + 3 * (len + 2 * holeCount - 2));
+		
+		final Triangulation state = new Triangulation(result);
+		
+		if (len > HASH_THRESHOLD) {
+			double minX = xs[off], minY = ys[off];
+			double maxX = minX, maxY = minY;
+			
+			for (int i = off + 1; i < outerEnd; ++i) {
+				minX = Math.min(minX, xs[i]);
+				minY = Math.min(minY, ys[i]);
+				maxX = Math.max(maxX, xs[i]);
+				maxY = Math.max(maxY, ys[i]);
+			}
+			
+			// maps coordinates to 15 bit integers for z-order
+			final double size = Math.max(maxX - minX, maxY - minY);
+			
+			state.minX = minX;
+			state.minY = minY;
+			state.invSize = size != 0 ? 32767 / size : 0;
+		}
+		
+		state.earcut(outer, 0);
+		
+		return (result.size() - before) / 3;
+	}
+	
+	private static PointBuffer join(Geometry polygon, Geometry[] holes) {
+		final PointBuffer result = new PointBuffer(polygon.verticles);
+		
+		for (int h = 0; h < holes.length; ++h) {
+			result.addVerticles(holes[h].verticles);
+		}
+		
+		return result;
+	}
+	
+	private static int[] holeStarts(Geometry polygon, Geometry[] holes) {
+		final int[] result = new int[holes.length];
+		int start = polygon.getVerticleCount();
+		
+		for (int h = 0; h < holes.length; ++h) {
+			result[h] = start;
+			start += holes[h].getVerticleCount();
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * State of a single triangulation.
+	 */
+	private static final class Triangulation {
+		
+		private final IndexBuffer result;
+		
+		/** Z-order transformation, not used when <code>invSize</code> is 0 */
+		double minX, minY, invSize;
+		
+		Triangulation(IndexBuffer result) {
+			this.result = result;
+		}
+		
+		private void add(Node a, Node b, Node c) {
+			result.add(a.i);
+			result.add(b.i);
+			result.add(c.i);
+		}
+		
+		/**
+		 * Cuts off ears of the ring. <code>pass</code> tells how many
+		 * fallbacks has been used already.
+		 */
+		void earcut(Node ear, int pass) {
+			if (ear == null) {
+				return;
+			}
+			
+			if (pass == 0 && invSize != 0) {
+				indexCurve(ear);
+			}
+			
+			Node stop = ear;
+			
+			while (ear.prev != ear.next) {
+				final Node prev = ear.prev;
+				final Node next = ear.next;
+				
+				if (invSize != 0 ? isEarHashed(ear) : isEar(ear)) {
+					add(prev, ear, next);
+					remove(ear);
+					
+					// skipping the next verticle leads to less sliver triangles
+					ear = next.next;
+					stop = next.next;
+					
+					continue;
+				}
+				
+				ear = next;
+				
+				// no more ears in the whole remaining ring
+				if (ear == stop) {
+					if (pass == 0) {
+						earcut(filterPoints(ear, null), 1);
+					} else if (pass == 1) {
+						earcut(cureLocalIntersections(filterPoints(ear, null)), 2);
+					} else {
+						split(ear);
+					}
+					
+					break;
+				}
+			}
+		}
+		
+		private boolean isEarHashed(Node ear) {
+			final Node a = ear.prev;
+			final Node b = ear;
+			final Node c = ear.next;
+			
+			if (area(a, b, c) >= 0) {
+				return false;
+			}
+			
+			final double x0 = Math.min(a.x, Math.min(b.x, c.x));
+			final double y0 = Math.min(a.y, Math.min(b.y, c.y));
+			final double x1 = Math.max(a.x, Math.max(b.x, c.x));
+			final double y1 = Math.max(a.y, Math.max(b.y, c.y));
+			
+			final int minZ = zOrder(x0, y0);
+			final int maxZ = zOrder(x1, y1);
+			
+			Node p = ear.prevZ;
+			Node n = ear.nextZ;
+			
+			// look for points inside the triangle in both directions
+			while (p != null && p.z >= minZ && n != null && n.z <= maxZ) {
+				if (p != a && p != c && blocks(a, b, c, x0, y0, x1, y1, p)) {
+					return false;
+				}
+				p = p.prevZ;
+				
+				if (n != a && n != c && blocks(a, b, c, x0, y0, x1, y1, n)) {
+					return false;
+				}
+				n = n.nextZ;
+			}
+			
+			while (p != null && p.z >= minZ) {
+				if (p != a && p != c && blocks(a, b, c, x0, y0, x1, y1, p)) {
+					return false;
+				}
+				p = p.prevZ;
+			}
+			
+			while (n != null && n.z <= maxZ) {
+				if (n != a && n != c && blocks(a, b, c, x0, y0, x1, y1, n)) {
+					return false;
+				}
+				n = n.nextZ;
+			}
+			
+			return true;
+		}
+		
+		/**
+		 * Cuts off triangles around short self-intersections.
+		 */
+		private Node cureLocalIntersections(Node start) {
+			Node p = start;
+			
+			do {
+				final Node a = p.prev;
+				final Node b = p.next.next;
+				
+				if (!equal(a, b) && intersects(a, p, p.next, b) && locallyInside(a, b) && locallyInside(b, a)) {
+					add(a, p, b);
+					
+					remove(p);
+					remove(p.next);
+					
+					p = start = b;
+				}
+				
+				p = p.next;
+			} while (p != start);
+			
+			return filterPoints(p, null);
+		}
+		
+		/**
+		 * Splits the ring along a valid diagonal and triangulates
+		 * both parts separately.
+		 */
+		private void split(Node start) {
+			Node a = start;
+			
+			do {
+				Node b = a.next.next;
+				
+				while (b != a.prev) {
+					if (a.i != b.i && isValidDiagonal(a, b)) {
+						Node c = splitRing(a, b);
+						
+						a = filterPoints(a, a.next);
+						c = filterPoints(c, c.next);
+						
+						earcut(a, 0);
+						earcut(c, 0);
+						
+						return;
+					}
+					
+					b = b.next;
+				}
+				
+				a = a.next;
+			} while (a != start);
+		}
+		
+		/**
+		 * Links nodes of the ring in z-order.
+		 */
+		private void indexCurve(Node start) {
+			Node p = start;
+			
+			do {
+				if (p.z == 0) {
+					p.z = zOrder(p.x, p.y);
+				}
+				
+				p.prevZ = p.prev;
+				p.nextZ = p.next;
+				p = p.next;
+			} while (p != start);
+			
+			p.prevZ.nextZ = null;
+			p.prevZ = null;
+			
+			sortLinked(p);
+		}
+		
+		/**
+		 * Interleaves bits of 15 bit integer coordinates.
+		 */
+		private int zOrder(double px, double py) {
+			int x = (int) ((px - minX) * invSize);
+			int y = (int) ((py - minY) * invSize);
+			
+			x = (x | (x << 8)) & 0x00FF00FF;
+			x = (x | (x << 4)) & 0x0F0F0F0F;
+			x = (x | (x << 2)) & 0x33333333;
+			x = (x | (x << 1)) & 0x55555555;
+			
+			y = (y | (y << 8)) & 0x00FF00FF;
+			y = (y | (y << 4)) & 0x0F0F0F0F;
+			y = (y | (y << 2)) & 0x33333333;
+			y = (y | (y << 1)) & 0x55555555;
+			
+			return x | (y << 1);
+		}
+	}
+	
+	/**
+	 * Node of a ring.
+	 */
+	private static final class Node {
+		
+		/** Verticle index */
+		final int i;
+		final double x, y;
+		
+		Node prev, next;
+		
+		/** Z-order curve value and neighbours */
+		int z;
+		Node prevZ, nextZ;
+		
+		/** Single point hole that has to be kept */
+		boolean steiner;
+		
+		Node(int i, double x, double y) {
+			this.i = i;
+			this.x = x;
+			this.y = y;
+		}
+	}
+	
+	/**
+	 * Creates a ring of verticles from <code>start</code> to
+	 * <code>end - 1</code> in requested order.
+	 * 
+	 * @param counterClockwise <code>true</code> for the outer ring,
+	 * <code>false</code> for holes.
+	 */
+	private static Node ring(float[] xs, float[] ys, int start, int end, boolean counterClockwise) {
+		Node last = null;
+		
+		if (counterClockwise == (signedArea(xs, ys, start, end) > 0)) {
+			for (int i = start; i < end; ++i) {
+				last = insert(i, xs[i], ys[i], last);
+			}
+		} else {
+			for (int i = end - 1; i >= start; --i) {
+				last = insert(i, xs[i], ys[i], last);
+			}
+		}
+		
+		if (last != null && equal(last, last.next)) {
+			remove(last);
+			last = last.next;
+		}
+		
+		return last;
+	}
+	
+	/**
+	 * @return Twice the signed area, positive for counter clockwise rings.
+	 */
+	private static double signedArea(float[] xs, float[] ys, int start, int end) {
+		double sum = 0;
+		
+		for (int i = start, j = end - 1; i < end; j = i++) {
+			sum += ((double) xs[j] - xs[i]) * ((double) ys[i] + ys[j]);
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Removes duplicated and collinear points from the ring.
+	 */
+	private static Node filterPoints(Node start, Node end) {
+		if (start == null) {
+			return start;
+		}
+		
+		if (end == null) {
+			end = start;
+		}
+		
+		Node p = start;
+		boolean again;
+		
+		do {
+			again = false;
+			
+			if (!p.steiner && (equal(p, p.next) || area(p.prev, p, p.next) == 0)) {
+				remove(p);
+				p = end = p.prev;
+				
+				if (p == p.next) {
+					break;
+				}
+				
+				again = true;
+			} else {
+				p = p.next;
+			}
+		} while (again || p != end);
+		
+		return end;
+	}
+	
+	private static boolean isEar(Node ear) {
+		final Node a = ear.prev;
+		final Node b = ear;
+		final Node c = ear.next;
+		
+		// reflex, can't be an ear
+		if (area(a, b, c) >= 0) {
+			return false;
+		}
+		
+		final double x0 = Math.min(a.x, Math.min(b.x, c.x));
+		final double y0 = Math.min(a.y, Math.min(b.y, c.y));
+		final double x1 = Math.max(a.x, Math.max(b.x, c.x));
+		final double y1 = Math.max(a.y, Math.max(b.y, c.y));
+		
+		for (Node p = c.next; p != a; p = p.next) {
+			if (blocks(a, b, c, x0, y0, x1, y1, p)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Checks if reflex node <code>p</code> lies inside triangle
+	 * <code>abc</code> with bounds (<code>x0</code>, <code>y0</code>,
+	 * <code>x1</code>, <code>y1</code>).
+	 */
+	private static boolean blocks(Node a, Node b, Node c, double x0, double y0, double x1, double y1, Node p) {
+		return
+			p.x >= x0 && p.x <= x1 && p.y >= y0 && p.y <= y1 &&
+			pointInTriangle(a.x, a.y, b.x, b.y, c.x, c.y, p.x, p.y) &&
+			area(p.prev, p, p.next) >= 0;
+	}
+	
+	/**
+	 * Links holes to the outer ring, from the leftmost one.
+	 */
+	private static Node eliminateHoles(float[] xs, float[] ys, int end, int[] holeStarts, Node outer) {
+		final Node[] queue = new Node[holeStarts.length];
+		
+		for (int h = 0; h < holeStarts.length; ++h) {
+			final int holeEnd = h < holeStarts.length - 1 ? holeStarts[h + 1] : end;
+			final Node list = ring(xs, ys, holeStarts[h], holeEnd, false);
+			
+			if (list == list.next) {
+				list.steiner = true;
+			}
+			
+			queue[h] = leftmost(list);
+		}
+		
+		Arrays.sort(queue, LEFT_TO_RIGHT);
+		
+		for (int h = 0; h < queue.length; ++h) {
+			outer = eliminateHole(queue[h], outer);
+		}
+		
+		return outer;
+	}
+	
+	private static Node eliminateHole(Node hole, Node outer) {
+		final Node bridge = findHoleBridge(hole, outer);
+		
+		if (bridge == null) {
+			return outer;
+		}
+		
+		final Node bridgeReverse = splitRing(bridge, hole);
+		
+		// filter collinear points around the cuts
+		filterPoints(bridgeReverse, bridgeReverse.next);
+		return filterPoints(bridge, bridge.next);
+	}
+	
+	/**
+	 * Finds a node of the outer ring visible from the leftmost
+	 * <code>hole</code> node (David Eberly's algorithm).
+	 */
+	private static Node findHoleBridge(Node hole, Node outer) {
+		final double hx = hole.x;
+		final double hy = hole.y;
+		
+		double qx = Double.NEGATIVE_INFINITY;
+		Node m = null;
+		Node p = outer;
+		
+		// find a segment intersected by a ray from the hole's leftmost point to the left;
+		// segment's endpoint with lesser x will be potential connection point
+		do {
+			if (hy <= p.y && hy >= p.next.y && p.next.y != p.y) {
+				final double x = p.x + (hy - p.y) * (p.next.x - p.x) / (p.next.y - p.y);
+				
+				if (x <= hx && x > qx) {
+					qx = x;
+					m = p.x < p.next.x ? p : p.next;
+					
+					// hole touches outer segment, pick leftmost endpoint
+					if (x == hx) {
+						return m;
+					}
+				}
+			}
+			
+			p = p.next;
+		} while (p != outer);
+		
+		if (m == null) {
+			return null;
+		}
+		
+		// look for points inside the triangle of hole point, segment intersection and endpoint;
+		// if there are no points found, we have a valid connection;
+		// otherwise choose the point of the minimum angle with the ray as connection point
+		final Node stop = m;
+		final double mx = m.x;
+		final double my = m.y;
+		double tanMin = Double.POSITIVE_INFINITY;
+		
+		p = m;
+		
+		do {
+			if (
+					hx >= p.x && p.x >= mx && hx != p.x &&
+					pointInTriangle(hy < my ? hx : qx, hy, mx, my, hy < my ? qx : hx, hy, p.x, p.y)
+			) {
+				final double tan = Math.abs(hy - p.y) / (hx - p.x);
+				
+				if (
+						locallyInside(p, hole) &&
+						(tan < tanMin || tan == tanMin && (p.x > m.x || p.x == m.x && sectorContainsSector(m, p)))
+				) {
+					m = p;
+					tanMin = tan;
+				}
+			}
+			
+			p = p.next;
+		} while (p != stop);
+		
+		return m;
+	}
+	
+	/**
+	 * Checks if sector of node <code>m</code> contains sector of
+	 * node <code>p</code>.
+	 */
+	private static boolean sectorContainsSector(Node m, Node p) {
+		return area(m.prev, m, p.prev) < 0 && area(p.next, m, m.next) < 0;
+	}
+	
+	/**
+	 * Simon Tatham's linked list merge sort of z-order links.
+	 */
+	private static Node sortLinked(Node list) {
+		int inSize = 1;
+		int merges;
+		
+		do {
+			Node p = list;
+			Node tail = null;
+			
+			list = null;
+			merges = 0;
+			
+			while (p != null) {
+				++merges;
+				
+				Node q = p;
+				int pSize = 0;
+				
+				for (int i = 0; i < inSize; ++i) {
+					++pSize;
+					q = q.nextZ;
+					
+					if (q == null) {
+						break;
+					}
+				}
+				
+				int qSize = inSize;
+				
+				while (pSize > 0 || qSize > 0 && q != null) {
+					final Node e;
+					
+					if (pSize != 0 && (qSize == 0 || q == null || p.z <= q.z)) {
+						e = p;
+						p = p.nextZ;
+						--pSize;
+					} else {
+						e = q;
+						q = q.nextZ;
+						--qSize;
+					}
+					
+					if (tail != null) {
+						tail.nextZ = e;
+					} else {
+						list = e;
+					}
+					
+					e.prevZ = tail;
+					tail = e;
+				}
+				
+				p = q;
+			}
+			
+			tail.nextZ = null;
+			inSize *= 2;
+		} while (merges > 1);
+		
+		return list;
+	}
+	
+	private static Node leftmost(Node start) {
+		Node p = start;
+		Node leftmost = start;
+		
+		do {
+			if (p.x < leftmost.x || p.x == leftmost.x && p.y < leftmost.y) {
+				leftmost = p;
+			}
+			
+			p = p.next;
+		} while (p != start);
+		
+		return leftmost;
+	}
+	
+	private static boolean pointInTriangle(
+			double ax, double ay, double bx, double by, double cx, double cy, double px, double py
+	) {
+		return
+			(cx - px) * (ay - py) >= (ax - px) * (cy - py) &&
+			(ax - px) * (by - py) >= (bx - px) * (ay - py) &&
+			(bx - px) * (cy - py) >= (cx - px) * (by - py);
+	}
+	
+	/**
+	 * Checks if a diagonal between <code>a</code> and <code>b</code>
+	 * can be used to split the ring.
+	 */
+	private static boolean isValidDiagonal(Node a, Node b) {
+		return
+			a.next.i != b.i && a.prev.i != b.i && !intersectsRing(a, b) &&
+			(
+				// locally visible and not creating opposite-facing sectors
+				locallyInside(a, b) && locallyInside(b, a) && middleInside(a, b) &&
+				(area(a.prev, a, b.prev) != 0 || area(a, b.prev, b) != 0) ||
+				// zero-length case
+				equal(a, b) && area(a.prev, a, a.next) > 0 && area(b.prev, b, b.next) > 0
+			);
+	}
+	
+	/**
+	 * @return Negated twice the signed area of triangle <code>pqr</code>,
+	 * negative for counter clockwise triangles.
+	 */
+	private static double area(Node p, Node q, Node r) {
+		return (q.y - p.y) * (r.x - q.x) - (q.x - p.x) * (r.y - q.y);
+	}
+	
+	private static boolean equal(Node p1, Node p2) {
+		return p1.x == p2.x && p1.y == p2.y;
+	}
+	
+	/**
+	 * Checks if segments <code>p1q1</code> and <code>p2q2</code>
+	 * intersect, touching included.
+	 */
+	private static boolean intersects(Node p1, Node q1, Node p2, Node q2) {
+		final int o1 = sign(area(p1, q1, p2));
+		final int o2 = sign(area(p1, q1, q2));
+		final int o3 = sign(area(p2, q2, p1));
+		final int o4 = sign(area(p2, q2, q1));
+		
+		return
+			o1 != o2 && o3 != o4 ||
+			o1 == 0 && onSegment(p1, p2, q1) ||
+			o2 == 0 && onSegment(p1, q2, q1) ||
+			o3 == 0 && onSegment(p2, p1, q2) ||
+			o4 == 0 && onSegment(p2, q1, q2);
+	}
+	
+	/**
+	 * Checks if collinear <code>q</code> lies on segment <code>pr</code>.
+	 */
+	private static boolean onSegment(Node p, Node q, Node r) {
+		return
+			q.x <= Math.max(p.x, r.x) && q.x >= Math.min(p.x, r.x) &&
+			q.y <= Math.max(p.y, r.y) && q.y >= Math.min(p.y, r.y);
+	}
+	
+	private static int sign(double value) {
+		return value > 0 ? 1 : (value < 0 ? -1 : 0);
+	}
+	
+	/**
+	 * Checks if diagonal <code>ab</code> intersects any edge of the ring.
+	 */
+	private static boolean intersectsRing(Node a, Node b) {
+		Node p = a;
+		
+		do {
+			if (
+					p.i != a.i && p.next.i != a.i && p.i != b.i && p.next.i != b.i &&
+					intersects(p, p.next, a, b)
+			) {
+				return true;
+			}
+			
+			p = p.next;
+		} while (p != a);
+		
+		return false;
+	}
+	
+	/**
+	 * Checks if diagonal <code>ab</code> starts inside the ring
+	 * around <code>a</code>.
+	 */
+	private static boolean locallyInside(Node a, Node b) {
+		return area(a.prev, a, a.next) < 0
+			? area(a, b, a.next) >= 0 && area(a, a.prev, b) >= 0
+			: area(a, b, a.prev) < 0 || area(a, a.next, b) < 0;
+	}
+	
+	/**
+	 * Checks if the middle of diagonal <code>ab</code> lies inside the ring.
+	 */
+	private static boolean middleInside(Node a, Node b) {
+		final double px = (a.x + b.x) / 2;
+		final double py = (a.y + b.y) / 2;
+		
+		Node p = a;
+		boolean inside = false;
+		
+		do {
+			if (
+					(p.y > py) != (p.next.y > py) && p.next.y != p.y &&
+					px < (p.next.x - p.x) * (py - p.y) / (p.next.y - p.y) + p.x
+			) {
+				inside = !inside;
+			}
+			
+			p = p.next;
+		} while (p != a);
+		
+		return inside;
+	}
+	
+	/**
+	 * Links <code>a</code> and <code>b</code> with a diagonal, splitting
+	 * the ring in two. When they are in different rings, the rings are
+	 * joined with a bridge instead.
+	 * 
+	 * @return Copy of <code>b</code> in the second ring.
+	 */
+	private static Node splitRing(Node a, Node b) {
+		final Node a2 = new Node(a.i, a.x, a.y);
+		final Node b2 = new Node(b.i, b.x, b.y);
+		final Node an = a.next;
+		final Node bp = b.prev;
+		
+		a.next = b;
+		b.prev = a;
+		
+		a2.next = an;
+		an.prev = a2;
+		
+		b2.next = a2;
+		a2.prev = b2;
+		
+		bp.next = b2;
+		b2.prev = bp;
+		
+		return b2;
+	}
+	
+	private static Node insert(int i, double x, double y, Node last) {
+		final Node p = new Node(i, x, y);
+		
+		if (last == null) {
+			p.prev = p;
+			p.next = p;
+		} else {
+			p.next = last.next;
+			p.prev = last;
+			last.next.prev = p;
+			last.next = p;
+		}
+		
+		return p;
+	}
+	
+	private static void remove(Node p) {
+		p.next.prev = p.prev;
+		p.prev.next = p.next;
+		
+		if (p.prevZ != null) {
+			p.prevZ.nextZ = p.nextZ;
+		}
+		
+		if (p.nextZ != null) {
+			p.nextZ.prevZ = p.prevZ;
+		}
+	}
+}
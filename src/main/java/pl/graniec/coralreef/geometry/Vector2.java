@@ -33,6 +33,9 @@ package pl.graniec.coralreef.geometry;
  *
  */
 public class Vector2 {
+	/** Radians to degrees conversion factor */
+	private static final float DEGREES_PER_RADIAN = (float) (180.0 / Math.PI);
+	
 	/**
 	 * Calculates angle of given vector <code>x</code> and <code>y</code>
 	 * components. The value is calculated from positive X axis and increasing
@@ -41,18 +44,73 @@ public class Vector2 {
 	 * @param x The x component
 	 * @param y The y component
 	 * 
-	 * @return Angle value in degrees from -180 to 180.
+	 * @return Angle value in degrees from -180 to 180 or {@link Float#NaN}
+	 * for zero-length vector.
+	 * 
+	 * @see #angleApprox(float, float)
 	 */
 	public static final float angle(final float x, final float y) {
 		
-		final float[] n = normalize(x, y); 
+		if (y == 0f) {
+			// also keeps -0.0 on negative X axis at 180 degrees
+			return x > 0f ? 0f : (x < 0f ? 180f : Float.NaN);
+		}
+		
+		return (float) Math.toDegrees(Math.atan2(y, x));
+	}
+	
+	/**
+	 * Works like {@link #angle(float, float)} but uses a polynomial
+	 * approximation of arcus tangent computed in <code>float</code>.
+	 * The maximum error is below <code>0.0005</code> degree.
+	 * 
+	 * @param x The x component
+	 * @param y The y component
+	 * 
+	 * @return Angle value in degrees from -180 to 180 or {@link Float#NaN}
+	 * for zero-length vector.
+	 */
+	public static final float angleApprox(final float x, final float y) {
+		final float ax = Math.abs(x);
+		final float ay = Math.abs(y);
+		
+		// reduce to arcus tangent of value from 0 to 1
+		final float a = Math.min(ax, ay) / Math.max(ax, ay);
+		final float s = a * a;
+		
+		float result = (((((
+				-0.013480470f * s
+				+ 0.057477314f) * s
+				- 0.121239071f) * s
+				+ 0.195635925f) * s
+				- 0.332994597f) * s
+				+ 0.999995630f) * a * DEGREES_PER_RADIAN;
 		
-		final float acos = (float) Math.toDegrees(Math.acos(n[0]));
-		final float asin = (float) Math.toDegrees(Math.asin(n[1]));
+		if (ay > ax) {
+			result = 90f - result;
+		}
 		
-		return (asin >= 0 ? acos : -acos);
+		if (x < 0f) {
+			result = 180f - result;
+		}
+		
+		return y < 0f ? -result : result;
 	}
 
+	/**
+	 * Builds a new normalized vector pointing to <code>angleDegrees</code>
+	 * like {@link #Vector2(float)} but computes sine and cosine
+	 * using <code>trig</code> tables.
+	 * 
+	 * @param angleDegrees Degrees value.
+	 * @param trig Trigonometric tables to use.
+	 * 
+	 * @return New vector.
+	 */
+	public static Vector2 fromAngle(final float angleDegrees, final FastTrig trig) {
+		return new Vector2(trig.cosDegrees(angleDegrees), trig.sinDegrees(angleDegrees));
+	}
+	
 	/**
 	 * Calculates length of a vector |<code>x</code>, <code>y</code>|
 	 * @param x
@@ -64,29 +122,7 @@ public class Vector2 {
 	}
 	
 	
-	/**
-	 * Normalizes the vector components <code>x</code> and
-	 * <code>y</code> to length of 1. Result is returned as float
-	 * array where 0 index is new x component and 1 is new y component.
-	 * 
-	 * @param x The x component
-	 * @param y The y component
-	 * 
-	 * @return Normalized vector x and y components.
-	 */
-	private static final float[] normalize(final float x, final float y) {
-		final float[] result = new float[2];
-		final float length = length(x, y);
-		
-		result[0] = x / length;
-		result[1] = y / length;
-		
-		return result;
-	}
-	
 	public float x, y;
-	private float hx, hy;
-	private int hash;
 	
 	/**
 	 * Builds a new vector from given <code>angleDegrees</code>.
@@ -137,6 +173,17 @@ public class Vector2 {
 		return angle(x, y);
 	}
 	
+	/**
+	 * Calculates approximated angle of given vector.
+	 * 
+	 * @return Angle value in degrees from -180 to 180.
+	 * 
+	 * @see #angleApprox(float, float)
+	 */
+	public final float angleApprox() {
+		return angleApprox(x, y);
+	}
+	
 	/**
 	 * Calculates the dot product of this and
 	 * <code>other</code> vector.
@@ -152,19 +199,20 @@ public class Vector2 {
 	 * @see java.lang.Object#hashCode()
 	 */
 	public int hashCode() {
-		
-		if (x != hx || y != hx || hash == 0) {
-			hx = x;
-			hy = y;
-			
-			final int prime = 31;
-			hash = 1;
-			hash = prime * hash + Float.floatToIntBits(x);
-			hash = prime * hash + Float.floatToIntBits(y);
-		}
-		
-		return hash;
-		
+		return hashCode(x, y);
+	}
+	
+	/**
+	 * Calculates hash code of vector (<code>x</code>, <code>y</code>).
+	 * Vectors and points of all kinds with the same coordinates have
+	 * the same hash code.
+	 */
+	static int hashCode(final float x, final float y) {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Float.floatToIntBits(x);
+		result = prime * result + Float.floatToIntBits(y);
+		return result;
 	}
 	
 	/**
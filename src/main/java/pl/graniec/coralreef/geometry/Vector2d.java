@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+/**
+ * Double precision counterpart of {@link Vector2}. Use it for
+ * world-scale coordinates where float rounding is too coarse.
+ * 
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Vector2d {
+	
+	/**
+	 * Calculates angle of vector (<code>x</code>, <code>y</code>).
+	 * 
+	 * @return Angle value in degrees from -180 to 180.
+	 * 
+	 * @see Vector2#angle(float, float)
+	 */
+	public static final double angle(final double x, final double y) {
+		if (y == 0) {
+			return x > 0 ? 0 : (x < 0 ? 180 : Double.NaN);
+		}
+		
+		return Math.toDegrees(Math.atan2(y, x));
+	}
+	
+	public static final double length(final double x, final double y) {
+		return StrictMath.sqrt(x * x + y * y);
+	}
+	
+	public double x, y;
+	
+	/**
+	 * Builds a new normalized vector pointing in direction
+	 * of <code>angleDegrees</code>.
+	 * 
+	 * @see Vector2#Vector2(float)
+	 */
+	public Vector2d(double angleDegrees) {
+		x = Math.cos(Math.toRadians(angleDegrees));
+		y = Math.sin(Math.toRadians(angleDegrees));
+	}
+	
+	public Vector2d(double x, double y) {
+		this.x = x;
+		this.y = y;
+	}
+	
+	public Vector2d(Vector2d other) {
+		this(other.x, other.y);
+	}
+	
+	public Vector2d(Vector2 other) {
+		this(other.x, other.y);
+	}
+	
+	/**
+	 * Adds <code>other</code> vector to this one.
+	 * 
+	 * @param other The other vector.
+	 * @return Reference to this object.
+	 */
+	public final Vector2d add(final Vector2d other) {
+		x += other.x;
+		y += other.y;
+		
+		return this;
+	}
+	
+	/**
+	 * @return Angle value in degrees from -180 to 180.
+	 * 
+	 * @see #angle(double, double)
+	 */
+	public final double angle() {
+		return angle(x, y);
+	}
+	
+	public final double dotProduct(Vector2d other) {
+		return this.x * other.x + this.y * other.y;
+	}
+	
+	/*
+	 * @see java.lang.Object#hashCode()
+	 */
+	public int hashCode() {
+		final long bx = Double.doubleToLongBits(x);
+		final long by = Double.doubleToLongBits(y);
+		
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (bx ^ (bx >>> 32));
+		result = prime * result + (int) (by ^ (by >>> 32));
+		return result;
+	}
+	
+	public final double length() {
+		return Vector2d.length(x, y);
+	}
+	
+	/**
+	 * Multiplies this vector by <code>value</code>.
+	 * 
+	 * @return This object instance.
+	 */
+	public final Vector2d multiply(double value) {
+		x *= value;
+		y *= value;
+		
+		return this;
+	}
+	
+	public final Vector2d normalize() {
+		final double length = length();
+		
+		x /= length;
+		y /= length;
+		
+		return this;
+	}
+	
+	public final void set(double x, double y) {
+		this.x = x;
+		this.y = y;
+	}
+	
+	public final void set(Vector2d other) {
+		set(other.x, other.y);
+	}
+	
+	/**
+	 * Substracts <code>other</code> vector from this one.
+	 * 
+	 * @return Reference to this object.
+	 */
+	public final Vector2d substract(final Vector2d other) {
+		x -= other.x;
+		y -= other.y;
+		
+		return this;
+	}
+	
+	/**
+	 * Creates a float vector rounding coordinates to nearest floats.
+	 */
+	public final Vector2 toVector2() {
+		return new Vector2((float) x, (float) y);
+	}
+
+	public String toString() {
+		return "Vector2d [x=" + x + ", y=" + y + "]";
+	}
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class AabbTreeTest extends TestCase {
+	
+	private Random random;
+	private AabbTree tree;
+	private Box2[] boxes;
+	private int[] proxies;
+
+	public void setUp() throws Exception {
+		random = new Random(4);
+		tree = new AabbTree(0f);
+		boxes = new Box2[500];
+		proxies = new int[boxes.length];
+		
+		for (int i = 0; i < boxes.length; ++i) {
+			// mix small and very large objects
+			final float size = i % 50 == 0 ? 200f : random.nextFloat() * 5;
+			final float x = random.nextFloat() * 1000, y = random.nextFloat() * 1000;
+			
+			boxes[i] = new Box2(x, y, x + size, y + size);
+			proxies[i] = tree.insert(boxes[i], new Integer(i));
+		}
+	}
+
+	public void testQuery() {
+		final Box2 area = new Box2(100, 100, 400, 300);
+		final IndexBuffer result = new IndexBuffer();
+		
+		tree.query(area, result);
+		
+		final IndexBuffer expected = new IndexBuffer();
+		
+		for (int i = 0; i < boxes.length; ++i) {
+			if (area.intersects(boxes[i])) {
+				expected.add(proxies[i]);
+			}
+		}
+		
+		assertSameValues(expected, result);
+		assertTrue(tree.getHeight() < 30);
+	}
+	
+	public void testQueryPairs() {
+		final IndexBuffer result = new IndexBuffer();
+		final int count = tree.queryPairs(result);
+		
+		assertEquals(count * 2, result.size());
+		
+		int expected = 0;
+		
+		for (int i = 0; i < boxes.length; ++i) {
+			for (int j = i + 1; j < boxes.length; ++j) {
+				if (boxes[i].intersects(boxes[j])) {
+					++expected;
+				}
+			}
+		}
+		
+		assertEquals(expected, count);
+	}
+	
+	public void testNearest() {
+		for (int q = 0; q < 50; ++q) {
+			final float x = random.nextFloat() * 1000, y = random.nextFloat() * 1000;
+			
+			float best = Float.POSITIVE_INFINITY;
+			
+			for (int i = 0; i < boxes.length; ++i) {
+				best = Math.min(best, distance(boxes[i], x, y));
+			}
+			
+			final int proxy = tree.nearest(x, y);
+			final int index = ((Integer) tree.getUserData(proxy)).intValue();
+			
+			assertEquals(best, distance(boxes[index], x, y), 0.0001f);
+		}
+	}
+	
+	public void testNearestOutOfRange() {
+		// every squared distance overflows to infinity
+		assertTrue(tree.nearest(-3e38f, -3e38f) != -1);
+		assertTrue(tree.nearest(Float.NaN, 0f) != -1);
+		
+		assertEquals(-1, new AabbTree(0f).nearest(0f, 0f));
+	}
+	
+	public void testRaycast() {
+		final Segment ray = new Segment(0, 0, 1000, 1000);
+		final IndexBuffer result = new IndexBuffer();
+		
+		tree.raycast(ray, result);
+		
+		final IndexBuffer expected = new IndexBuffer();
+		
+		for (int i = 0; i < boxes.length; ++i) {
+			final Box2 b = boxes[i];
+			
+			// diagonal crosses the box when the box touches y = x
+			if (b.top <= b.right && b.bottom >= b.left) {
+				expected.add(proxies[i]);
+			}
+		}
+		
+		assertSameValues(expected, result);
+	}
+	
+	public void testMoveAndRemove() {
+		final AabbTree fat = new AabbTree(1f);
+		final int proxy = fat.insert(new Box2(0, 0, 1, 1), null);
+		
+		assertFalse(fat.move(proxy, new Box2(0.5f, 0.5f, 1.5f, 1.5f)));
+		assertTrue(fat.move(proxy, new Box2(10, 10, 11, 11)));
+		
+		final IndexBuffer result = new IndexBuffer();
+		
+		assertEquals(0, fat.query(new Box2(0, 0, 2, 2), result));
+		assertEquals(1, fat.query(new Box2(10, 10, 12, 12), result));
+		
+		for (int i = 0; i < proxies.length; i += 2) {
+			tree.remove(proxies[i]);
+		}
+		
+		assertEquals(proxies.length / 2, tree.size());
+		
+		result.clear();
+		tree.query(new Box2(-1000, -1000, 2000, 2000), result);
+		
+		assertEquals(proxies.length / 2, result.size());
+	}
+	
+	private static float distance(Box2 b, float x, float y) {
+		final float dx = Math.max(Math.max(b.left - x, x - b.right), 0f);
+		final float dy = Math.max(Math.max(b.top - y, y - b.bottom), 0f);
+		return Vector2.length(dx, dy);
+	}
+	
+	private static void assertSameValues(IndexBuffer expected, IndexBuffer actual) {
+		final int[] e = expected.toArray();
+		final int[] a = actual.toArray();
+		
+		Arrays.sort(e);
+		Arrays.sort(a);
+		
+		assertTrue(Arrays.equals(e, a));
+	}
+
+}
@@ -92,4 +92,58 @@ public class AngleTest extends TestCase {
 		
 		assertEquals(20, a1.degreeDifference(a2), 0.01);
 	}
+	
+	public void testStaticDegreeDifference() {
+		assertEquals(10, Angle.degreeDifference(10, 20), 0.01);
+		assertEquals(-10, Angle.degreeDifference(20, 10), 0.01);
+		assertEquals(-20, Angle.degreeDifference(10, 350), 0.01);
+		assertEquals(20, Angle.degreeDifference(350, 10), 0.01);
+		assertEquals(20, Angle.degreeDifference(-10, 730), 0.01);
+	}
+	
+	public void testDegreeDifferences() {
+		final float[] from = new float[] {10, 20, 10, 350, 0};
+		final float[] to = new float[] {20, 10, 350, 10, 0};
+		final float[] result = new float[5];
+		
+		Angle.degreeDifferences(from, to, result, 0, 4);
+		
+		assertEquals(10, result[0], 0.01);
+		assertEquals(-10, result[1], 0.01);
+		assertEquals(-20, result[2], 0.01);
+		assertEquals(20, result[3], 0.01);
+		
+		for (int i = 0; i < 4; ++i) {
+			assertEquals(Angle.fromDegrees(from[i]).degreeDifference(Angle.fromDegrees(to[i])), result[i], 0);
+		}
+	}
+	
+	public void testRadiansDifference() {
+		assertEquals(2 * Math.PI - 6.1, Angle.radiansDifference(6.2f, 0.1f), 0.0001);
+		assertEquals(-0.2f, Angle.radiansDifference(0.1f, -0.1f), 0.0001);
+		assertEquals(0.2f, Angle.radiansDifference(-0.1f + 2f * (float) Math.PI, 0.1f), 0.0001);
+	}
+	
+	public void testSlerp() {
+		assertEquals(355, Angle.slerpDegrees(350, 0, 0.5f), 0.01);
+		assertEquals(15, Angle.slerpDegrees(10, 20, 0.5f), 0.01);
+		assertEquals(15, Angle.lerp(10, 20, 0.5f), 0.01);
+	}
+	
+	public void testClampDegrees() {
+		assertEquals(30, Angle.clampDegrees(30, 0, 90), 0.01);
+		assertEquals(90, Angle.clampDegrees(100, 0, 90), 0.01);
+		assertEquals(0, Angle.clampDegrees(-10, 0, 90), 0.01);
+		
+		// arc crossing 0 degrees
+		assertEquals(360, Angle.clampDegrees(0, 350, 10), 0.01);
+		assertEquals(370, Angle.clampDegrees(40, 350, 10), 0.01);
+		assertEquals(350, Angle.clampDegrees(300, 350, 10), 0.01);
+	}
+	
+	public void testNormalizeDegrees() {
+		assertEquals(1, Angle.normalizeDegrees(361), 0.01);
+		assertEquals(359, Angle.normalizeDegrees(-1), 0.01);
+		assertEquals(Math.PI, Angle.normalizeRadians(-(float) Math.PI), 0.0001);
+	}
 }
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Box2dTest extends TestCase {
+
+	public void testContains() {
+		// borders given in any order
+		final Box2d box = new Box2d(2, 3, -1, -4);
+		
+		assertTrue(box.contains(0, 0));
+		assertTrue(box.contains(-1, -4));
+		assertTrue(box.contains(2, 3));
+		assertTrue(box.contains(new Point2d(2, -4)));
+		
+		assertFalse(box.contains(2.0000001, 0));
+		assertFalse(box.contains(0, -4.0000001));
+		assertFalse(box.contains(Double.NaN, 0));
+	}
+	
+	public void testIntersects() {
+		final Box2d box = new Box2d(0, 0, 10, 10);
+		
+		assertTrue(box.intersects(new Box2d(5, 5, 15, 15)));
+		assertTrue(box.intersects(new Box2d(15, 15, 5, 5)));
+		assertTrue(box.intersects(new Box2d(2, 2, 3, 3)));
+		
+		// touching borders
+		assertTrue(box.intersects(new Box2d(10, 10, 20, 20)));
+		assertTrue(box.intersects(new Box2d(-5, 10, 0, 20)));
+		
+		assertFalse(box.intersects(new Box2d(10.000001, 0, 20, 10)));
+		assertFalse(box.intersects(new Box2d(0, -1, 10, -0.000001)));
+	}
+	
+	public void testToBox2() {
+		final Random random = new Random(17);
+		
+		for (int i = 0; i < 10000; ++i) {
+			final double scale = Math.pow(10, random.nextInt(80) - 40);
+			final Box2d box = new Box2d(
+					random.nextGaussian() * scale, random.nextGaussian() * scale,
+					random.nextGaussian() * scale, random.nextGaussian() * scale
+			);
+			
+			assertContains(box);
+		}
+	}
+	
+	public void testToBox2Limits() {
+		final double max = Float.MAX_VALUE;
+		
+		// signed zeros stay zeros
+		Box2 result = new Box2d(-0.0, 0.0, 0.0, -0.0).toBox2();
+		
+		assertEquals(0f, result.left, 0f);
+		assertEquals(0f, result.top, 0f);
+		assertEquals(0f, result.right, 0f);
+		assertEquals(0f, result.bottom, 0f);
+		
+		// float range limits are exact
+		result = new Box2d(max, -max, -max, max).toBox2();
+		
+		assertEquals(-Float.MAX_VALUE, result.left, 0f);
+		assertEquals(-Float.MAX_VALUE, result.top, 0f);
+		assertEquals(Float.MAX_VALUE, result.right, 0f);
+		assertEquals(Float.MAX_VALUE, result.bottom, 0f);
+		
+		// just above the float range, rounded down to MAX_VALUE or up to infinity
+		result = new Box2d(-max * 1.0000001, -max - 1e30, max * 1.0000001, max + 1e30).toBox2();
+		
+		assertEquals(Float.NEGATIVE_INFINITY, result.left, 0f);
+		assertEquals(Float.NEGATIVE_INFINITY, result.top, 0f);
+		assertEquals(Float.POSITIVE_INFINITY, result.right, 0f);
+		assertEquals(Float.POSITIVE_INFINITY, result.bottom, 0f);
+		
+		result = new Box2d(max * 1.0000001, max + 1e30, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY).toBox2();
+		
+		assertEquals(Float.MAX_VALUE, result.left, 0f);
+		assertEquals(Float.MAX_VALUE, result.top, 0f);
+		assertEquals(Float.POSITIVE_INFINITY, result.right, 0f);
+		
+		assertContains(new Box2d(-max * 1.0000001, -max - 1e30, max * 1.0000001, max + 1e30));
+		assertContains(new Box2d(-1e-50, Double.MIN_VALUE, 1e-50, -Double.MIN_VALUE));
+	}
+	
+	private static void assertContains(final Box2d box) {
+		final Box2d rounded = new Box2d(box.toBox2());
+		
+		assertTrue(box.toString(), rounded.contains(box.left, box.top));
+		assertTrue(box.toString(), rounded.contains(box.right, box.bottom));
+	}
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class BoxClipperTest extends TestCase {
+
+	private static Geometry polygon(float[] xy) {
+		final Geometry result = new Geometry();
+		result.addVerticles(xy, 0, xy.length / 2);
+		return result;
+	}
+	
+	public void testSquare() {
+		final BoxClipper clipper = new BoxClipper();
+		final Geometry square = polygon(new float[] {-2, -2, 2, -2, 2, 2, -2, 2});
+		final Geometry clipped = clipper.clip(square, new Box2(0, 0, 4, 4));
+		
+		final Box2 bounds = clipped.getBounds();
+		
+		assertEquals(4, clipped.getVerticleCount());
+		assertEquals(0f, bounds.left, 0);
+		assertEquals(0f, bounds.top, 0);
+		assertEquals(2f, bounds.right, 0);
+		assertEquals(2f, bounds.bottom, 0);
+	}
+	
+	public void testInsideAndOutside() {
+		final BoxClipper clipper = new BoxClipper();
+		final Geometry triangle = polygon(new float[] {1, 1, 3, 1, 2, 3});
+		final PointBuffer result = new PointBuffer();
+		
+		assertEquals(3, clipper.clip(triangle, new Box2(0, 0, 4, 4), result));
+		assertEquals(0, clipper.clip(triangle, new Box2(5, 5, 9, 9), result));
+		assertEquals(3, result.size());
+		
+		// box given with swapped sides
+		assertEquals(3, clipper.clip(triangle, new Box2(4, 4, 0, 0), result));
+		
+		assertEquals(0, clipper.clip(new Geometry(), new Box2(0, 0, 4, 4), result));
+	}
+	
+	public void testConcave() {
+		final BoxClipper clipper = new BoxClipper();
+		final Geometry u = polygon(new float[] {0, 0, 6, 0, 6, 6, 4, 6, 4, 2, 2, 2, 2, 6, 0, 6});
+		final Box2 box = new Box2(-1, 4, 7, 8);
+		final Geometry clipped = clipper.clip(u, box);
+		
+		for (float x = -0.9f; x < 7; x += 0.25f) {
+			for (float y = 4.1f; y < 8; y += 0.25f) {
+				assertEquals(PolygonClipperTest.contains(u, x, y), PolygonClipperTest.contains(clipped, x, y));
+			}
+		}
+		
+		assertFalse(PolygonClipperTest.contains(clipped, 1, 3));
+	}
+	
+	public void testRandom() {
+		final Random random = new Random(23);
+		final BoxClipper clipper = new BoxClipper();
+		final Box2 box = new Box2(-3, -2, 4, 5);
+		
+		for (int i = 0; i < 50; ++i) {
+			final Geometry polygon = new Geometry();
+			final int n = 3 + random.nextInt(40);
+			
+			for (int v = 0; v < n; ++v) {
+				final double angle = 2 * Math.PI * v / n;
+				final double radius = 1 + random.nextFloat() * 9;
+				
+				polygon.addVerticle((float) (radius * Math.cos(angle)), (float) (radius * Math.sin(angle)));
+			}
+			
+			final Geometry clipped = clipper.clip(polygon, box);
+			
+			for (double x = -10.0123457; x < 10; x += 0.25) {
+				for (double y = -10.0076543; y < 10; y += 0.25) {
+					final boolean expected = box.contains((float) x, (float) y) && PolygonClipperTest.contains(polygon, x, y);
+					assertEquals(expected, PolygonClipperTest.contains(clipped, x, y));
+				}
+			}
+		}
+	}
+	
+	public void testSharedEdge() {
+		final BoxClipper clipper = new BoxClipper();
+		final Box2 box = new Box2(0, 0, 10, 10);
+		
+		// both polygons share the edge from (-3, 1) to (7, 13)
+		final Geometry a = clipper.clip(polygon(new float[] {-3, 1, 7, 13, -3, 13}), box);
+		final Geometry b = clipper.clip(polygon(new float[] {7, 13, -3, 1, 7, 1}), box);
+		
+		final Point2[] av = a.getVerticles();
+		final Point2[] bv = b.getVerticles();
+		int shared = 0;
+		
+		for (int i = 0; i < av.length; ++i) {
+			for (int j = 0; j < bv.length; ++j) {
+				if (av[i].equals(bv[j])) {
+					++shared;
+				}
+			}
+		}
+		
+		assertEquals(2, shared);
+	}
+	
+	public void testInPlace() {
+		final BoxClipper clipper = new BoxClipper();
+		final Geometry square = polygon(new float[] {-2, -2, 2, -2, 2, 2, -2, 2});
+		
+		assertEquals(-2f, square.getBounds().left, 0);
+		assertEquals(4, clipper.clipInPlace(square, new Box2(-1, -1, 1, 1)));
+		assertEquals(-1f, square.getBounds().left, 0);
+		assertEquals(4, clipper.clipInPlace(square, new Box2(-5, -5, 5, 5)));
+		assertEquals(0, clipper.clipInPlace(square, new Box2(5, 5, 6, 6)));
+		assertNull(square.getBounds());
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class ConversionsTest extends TestCase {
+
+	public void testRoundTrip() {
+		final float[] floats = {1.1f, -2.2f, 3.3f};
+		final double[] doubles = new double[4];
+		
+		Conversions.toDouble(floats, 1, doubles, 2, 2);
+		
+		assertEquals(0, doubles[1], 0);
+		assertEquals(-2.2f, doubles[2], 0);
+		assertEquals(3.3f, doubles[3], 0);
+		
+		final float[] back = new float[2];
+		Conversions.toFloat(doubles, 2, back, 0, 2);
+		
+		assertEquals(-2.2f, back[0], 0f);
+		assertEquals(3.3f, back[1], 0f);
+	}
+	
+	public void testOrigin() {
+		final double[] xs = {6378137.01, 6378137.02};
+		final double[] ys = {1000.5, 1000.25};
+		
+		final PointBuffer buffer = new PointBuffer();
+		Conversions.toFloat(xs, ys, 0, 2, 6378137.0, 1000.0, buffer);
+		
+		assertEquals(0.01f, buffer.getX(0), 1e-6f);
+		assertEquals(0.02f, buffer.getX(1), 1e-6f);
+		assertEquals(0.25f, buffer.getY(1), 0f);
+		
+		final double[] rx = new double[2];
+		final double[] ry = new double[2];
+		Conversions.toDouble(buffer, 6378137.0, 1000.0, rx, ry, 0);
+		
+		assertEquals(xs[1], rx[1], 1e-6);
+		assertEquals(ys[0], ry[0], 0);
+	}
+	
+	public void testBox2dToBox2() {
+		final Box2d box = new Box2d(0.1, 1e-50, -0.1, 6378137.01);
+		final Box2 result = box.toBox2();
+		
+		// rounded outwards
+		assertTrue(result.left <= -0.1);
+		assertTrue(result.right >= 0.1);
+		assertTrue(result.top <= 1e-50 && result.top >= 0);
+		assertTrue(result.bottom >= 6378137.01);
+		
+		assertTrue(new Box2d(result).contains(0.1, 1e-50));
+	}
+	
+	public void testFloorCeilFloat() {
+		final double max = Float.MAX_VALUE;
+		
+		assertEquals(0f, Conversions.floorFloat(0.0), 0f);
+		assertEquals(0f, Conversions.ceilFloat(0.0), 0f);
+		assertEquals(0f, Conversions.floorFloat(-0.0), 0f);
+		assertEquals(0f, Conversions.ceilFloat(-0.0), 0f);
+		
+		// below the smallest float
+		assertEquals(0f, Conversions.floorFloat(1e-50), 0f);
+		assertEquals(Float.MIN_VALUE, Conversions.ceilFloat(1e-50), 0f);
+		assertEquals(-Float.MIN_VALUE, Conversions.floorFloat(-1e-50), 0f);
+		assertEquals(0f, Conversions.ceilFloat(-1e-50), 0f);
+		
+		assertEquals(Float.MAX_VALUE, Conversions.floorFloat(max), 0f);
+		assertEquals(Float.MAX_VALUE, Conversions.ceilFloat(max), 0f);
+		assertEquals(-Float.MAX_VALUE, Conversions.floorFloat(-max), 0f);
+		assertEquals(-Float.MAX_VALUE, Conversions.ceilFloat(-max), 0f);
+		
+		// casts to MAX_VALUE
+		assertEquals(Float.MAX_VALUE, Conversions.floorFloat(max + 1e30), 0f);
+		assertEquals(Float.POSITIVE_INFINITY, Conversions.ceilFloat(max + 1e30), 0f);
+		assertEquals(Float.NEGATIVE_INFINITY, Conversions.floorFloat(-max - 1e30), 0f);
+		assertEquals(-Float.MAX_VALUE, Conversions.ceilFloat(-max - 1e30), 0f);
+		
+		// casts to infinity
+		assertEquals(Float.MAX_VALUE, Conversions.floorFloat(max * 1.0000001), 0f);
+		assertEquals(Float.POSITIVE_INFINITY, Conversions.ceilFloat(max * 1.0000001), 0f);
+		assertEquals(Float.NEGATIVE_INFINITY, Conversions.floorFloat(-max * 1.0000001), 0f);
+		assertEquals(-Float.MAX_VALUE, Conversions.ceilFloat(-max * 1.0000001), 0f);
+		
+		assertEquals(Float.POSITIVE_INFINITY, Conversions.floorFloat(Double.POSITIVE_INFINITY), 0f);
+		assertEquals(Float.NEGATIVE_INFINITY, Conversions.ceilFloat(Double.NEGATIVE_INFINITY), 0f);
+		
+		// one float apart around a value that is not a float
+		final float down = Conversions.floorFloat(0.1);
+		final float up = Conversions.ceilFloat(0.1);
+		
+		assertTrue(down < 0.1 && up > 0.1);
+		assertEquals(Float.floatToIntBits(down) + 1, Float.floatToIntBits(up));
+	}
+
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class ConvexHullTest extends TestCase {
+
+	public void testSquare() {
+		final Point2[] points = {
+				new Point2(1, 1), new Point2(0, 0), new Point2(2, 0), new Point2(1, 0),
+				new Point2(2, 2), new Point2(0, 2), new Point2(0, 0), new Point2(0.5f, 1.5f)
+		};
+		
+		final Point2[] ccw = ConvexHull.compute(points, VerticlesOrder.CCW).getVerticles();
+		
+		assertEquals(4, ccw.length);
+		assertEquals(new Point2(0, 0), ccw[0]);
+		assertEquals(new Point2(2, 0), ccw[1]);
+		assertEquals(new Point2(2, 2), ccw[2]);
+		assertEquals(new Point2(0, 2), ccw[3]);
+		
+		final Point2[] cw = ConvexHull.compute(points, VerticlesOrder.CW).getVerticles();
+		
+		assertEquals(4, cw.length);
+		assertEquals(new Point2(0, 0), cw[0]);
+		assertEquals(new Point2(0, 2), cw[1]);
+		assertEquals(new Point2(2, 2), cw[2]);
+		assertEquals(new Point2(2, 0), cw[3]);
+	}
+	
+	public void testDegenerate() {
+		assertEquals(0, ConvexHull.compute(new Point2[0], VerticlesOrder.CCW).getVerticleCount());
+		
+		final Point2[] same = {new Point2(3, 3), new Point2(3, 3), new Point2(3, 3)};
+		assertEquals(1, ConvexHull.compute(same, VerticlesOrder.CCW).getVerticleCount());
+		
+		final Point2[] collinear = {new Point2(1, 1), new Point2(3, 3), new Point2(0, 0), new Point2(2, 2)};
+		final Point2[] hull = ConvexHull.compute(collinear, VerticlesOrder.CCW).getVerticles();
+		
+		assertEquals(2, hull.length);
+		assertEquals(new Point2(0, 0), hull[0]);
+		assertEquals(new Point2(3, 3), hull[1]);
+	}
+	
+	public void testGeometry() {
+		final Geometry geometry = new Geometry();
+		geometry.addVerticles(new float[] {0, 0, 4, 0, 2, 1, 2, 3}, 0, 4);
+		
+		final Geometry hull = ConvexHull.compute(geometry, VerticlesOrder.CCW);
+		
+		assertEquals(3, hull.getVerticleCount());
+		assertEquals(new Point2(2, 3), hull.getVerticles()[2]);
+	}
+	
+	public void testIndices() {
+		final float[] xs = {9, 0, 1, 1, 0};
+		final float[] ys = {9, 0, 0, 1, 1};
+		
+		final IndexBuffer result = new IndexBuffer();
+		
+		assertEquals(4, ConvexHull.indices(xs, ys, 1, 4, VerticlesOrder.CCW, result));
+		assertTrue(Arrays.equals(new int[] {1, 2, 3, 4}, result.toArray()));
+	}
+	
+	public void testConvexity() {
+		final Random random = new Random(18);
+		final float[] xs = new float[5000];
+		final float[] ys = new float[xs.length];
+		
+		for (int i = 0; i < xs.length; ++i) {
+			xs[i] = random.nextFloat() * 100;
+			ys[i] = random.nextFloat() * 100;
+		}
+		
+		final int[] hull = ConvexHull.hull(xs, ys, 0, xs.length, VerticlesOrder.CCW, ConvexHull.CHUNK_SIZE);
+		
+		// every point lies on the left side of every hull edge or on it
+		for (int e = 0; e < hull.length; ++e) {
+			final int a = hull[e];
+			final int b = hull[(e + 1) % hull.length];
+			
+			for (int i = 0; i < xs.length; ++i) {
+				assertTrue(Predicates.orient2d(xs[a], ys[a], xs[b], ys[b], xs[i], ys[i]) >= 0);
+			}
+		}
+	}
+	
+	public void testParallelEqualsSequential() {
+		final Random random = new Random(180);
+		
+		for (int run = 0; run < 20; ++run) {
+			final float[] xs = new float[3000];
+			final float[] ys = new float[xs.length];
+			
+			// small grid gives many duplicates and collinear points
+			for (int i = 0; i < xs.length; ++i) {
+				xs[i] = random.nextInt(run + 2);
+				ys[i] = random.nextInt(run + 2);
+			}
+			
+			final int[] sequential = ConvexHull.hull(xs, ys, 0, xs.length, VerticlesOrder.CW, xs.length);
+			final int[] chunked = ConvexHull.hull(xs, ys, 0, xs.length, VerticlesOrder.CW, 97);
+			
+			assertTrue(Arrays.equals(sequential, chunked));
+		}
+	}
+	
+	public void testParallelDuplicates() {
+		final Random random = new Random(181);
+		
+		for (int run = 0; run < 3000; ++run) {
+			final float[] xs = new float[1 + random.nextInt(200)];
+			final float[] ys = new float[xs.length];
+			
+			// few distinct points, each one repeated many times
+			final int grid = 2 + random.nextInt(6);
+			
+			for (int i = 0; i < xs.length; ++i) {
+				xs[i] = random.nextInt(grid);
+				ys[i] = random.nextInt(grid);
+			}
+			
+			final int[] sequential = ConvexHull.hull(xs, ys, 0, xs.length, VerticlesOrder.CCW, xs.length);
+			final int[] chunked = ConvexHull.hull(xs, ys, 0, xs.length, VerticlesOrder.CCW, 1 + random.nextInt(20));
+			
+			assertTrue(Arrays.equals(sequential, chunked));
+			
+			// every corner is the first of its duplicates
+			for (int h = 0; h < sequential.length; ++h) {
+				for (int i = 0; i < sequential[h]; ++i) {
+					assertFalse(xs[i] == xs[sequential[h]] && ys[i] == ys[sequential[h]]);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class FastTrigTest extends TestCase {
+
+	public void testSinCos() {
+		final FastTrig trig = FastTrig.DEFAULT;
+		
+		for (int i = -7200; i <= 7200; ++i) {
+			final float degrees = i / 7f;
+			
+			assertEquals(Math.sin(Math.toRadians(degrees)), trig.sinDegrees(degrees), 0.000005f);
+			assertEquals(Math.cos(Math.toRadians(degrees)), trig.cosDegrees(degrees), 0.000005f);
+			assertEquals(Math.sin(Math.toRadians(degrees)), trig.sin(Angle.radiansValue(degrees)), 0.000005f);
+		}
+	}
+	
+	public void testNearestEntry() {
+		final FastTrig trig = new FastTrig(256, false);
+		
+		assertEquals(256, trig.getResolution());
+		assertFalse(trig.isInterpolating());
+		
+		for (int i = -3600; i <= 3600; ++i) {
+			final float degrees = i / 10f;
+			
+			assertEquals(Math.sin(Math.toRadians(degrees)), trig.sinDegrees(degrees), 3.2f / 256);
+		}
+	}
+	
+	public void testAtan2() {
+		final FastTrig trig = FastTrig.DEFAULT;
+		
+		for (int i = -1800; i <= 1800; ++i) {
+			final float degrees = i / 10f;
+			final float x = (float) Math.cos(Math.toRadians(degrees)) * 2f;
+			final float y = (float) Math.sin(Math.toRadians(degrees)) * 2f;
+			
+			float error = Math.abs(trig.atan2Degrees(y, x) - Vector2.angle(x, y));
+			
+			if (error > 180f) {
+				error = 360f - error;
+			}
+			
+			assertTrue("error at " + degrees + ": " + error, error < 0.0001f);
+		}
+		
+		assertTrue(Float.isNaN(trig.atan2Degrees(0, 0)));
+	}
+	
+	public void testErrorBounds() {
+		final int[] resolutions = {256, 4096, 65536};
+		
+		for (int r = 0; r < resolutions.length; ++r) {
+			final int resolution = resolutions[r];
+			
+			checkErrors(new FastTrig(resolution, true),
+					1.1 * 5 / resolution / resolution + 1e-6, 320.0 / resolution / resolution + 3e-5);
+			checkErrors(new FastTrig(resolution, false),
+					1.1 * 3 / resolution + 1e-6, 240.0 / resolution);
+		}
+	}
+	
+	private static void checkErrors(final FastTrig trig, final double maxSinError, final double maxAtanError) {
+		final Random random = new Random(9);
+		
+		double sinError = 0, atanError = 0;
+		
+		for (int i = 0; i < 100000; ++i) {
+			final float degrees = random.nextFloat() * 1440f - 720f;
+			sinError = Math.max(sinError, Math.abs(trig.sinDegrees(degrees) - Math.sin(Math.toRadians(degrees))));
+			
+			final float x = random.nextFloat() * 2000f - 1000f;
+			final float y = random.nextFloat() * 2000f - 1000f;
+			final double e = Math.abs(trig.atan2Degrees(y, x) - Vector2.angle(x, y));
+			atanError = Math.max(atanError, Math.min(e, 360 - e));
+		}
+		
+		assertTrue(trig + ": sin error " + sinError, sinError <= maxSinError);
+		assertTrue(trig + ": atan2 error " + atanError, atanError <= maxAtanError);
+	}
+	
+	public void testInvalidResolution() {
+		try {
+			new FastTrig(1000, true);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+	
+	public void testFactories() {
+		final Vector2 v = Vector2.fromAngle(90f, FastTrig.DEFAULT);
+		
+		assertEquals(0f, v.x, 0.0001f);
+		assertEquals(1f, v.y, 0.0001f);
+		
+		assertEquals(135f, Angle.fromVector(-1, 1, FastTrig.DEFAULT).degreesValue(), 0.0001f);
+		assertEquals(-45f, Angle.fromVector(1, -1).degreesValue(), 0.0001f);
+		
+		final Vector2 w = Angle.fromDegrees(180).toVector(FastTrig.DEFAULT);
+		
+		assertEquals(-1f, w.x, 0.0001f);
+		assertEquals(0f, w.y, 0.0001f);
+	}
+
+}
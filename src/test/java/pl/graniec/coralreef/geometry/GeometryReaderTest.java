@@ -0,0 +1,339 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class GeometryReaderTest extends TestCase {
+	
+	private static Geometry random(final Random random, final int count) {
+		final Geometry result = new Geometry();
+		
+		for (int i = 0; i < count; ++i) {
+			result.addVerticle(random.nextFloat() * 2000f - 1000f, random.nextFloat() * 2000f - 1000f);
+		}
+		
+		return result;
+	}
+	
+	private static GeometryReader reader(final byte[] data) throws IOException {
+		return new GeometryReader(Channels.newChannel(new ByteArrayInputStream(data)), 32);
+	}
+	
+	public void testFloatRoundTrip() throws IOException {
+		final Random random = new Random(1);
+		final Geometry[] geometries = {random(random, 1000), new Geometry(), random(random, 7)};
+		
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final GeometryWriter writer = new GeometryWriter(Channels.newChannel(out), 64);
+		
+		for (int i = 0; i < geometries.length; ++i) {
+			writer.write(geometries[i]);
+		}
+		
+		writer.close();
+		
+		final GeometryReader reader = reader(out.toByteArray());
+		
+		assertEquals(GeometryWriter.VERSION, reader.getVersion());
+		
+		for (int i = 0; i < geometries.length; ++i) {
+			final Geometry g = reader.read();
+			
+			assertNotNull(g);
+			assertEquals(geometries[i].getVerticleCount(), g.getVerticleCount());
+			
+			for (int j = 0; j < g.getVerticleCount(); ++j) {
+				assertEquals(geometries[i].getVerticle(j), g.getVerticle(j));
+			}
+		}
+		
+		assertNull(reader.read());
+	}
+	
+	public void testQuantizedRoundTrip() throws IOException {
+		final Geometry geometry = random(new Random(2), 1000);
+		
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final GeometryWriter writer = new GeometryWriter(Channels.newChannel(out), 64);
+		
+		writer.write(geometry, 0.01f);
+		writer.close();
+		
+		final Geometry read = reader(out.toByteArray()).read();
+		
+		assertEquals(geometry.getVerticleCount(), read.getVerticleCount());
+		
+		for (int j = 0; j < read.getVerticleCount(); ++j) {
+			final ImmutablePoint2 expected = geometry.getVerticle(j);
+			final ImmutablePoint2 actual = read.getVerticle(j);
+			
+			assertEquals(expected.getX(), actual.getX(), 0.0051f);
+			assertEquals(expected.getY(), actual.getY(), 0.0051f);
+		}
+	}
+	
+	public void testSegmentsAndBoxes() throws IOException {
+		final Random random = new Random(5);
+		final Segment[] segments = new Segment[3000];
+		final Box2[] boxes = new Box2[10];
+		
+		for (int i = 0; i < segments.length; ++i) {
+			segments[i] = new Segment(random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat());
+		}
+		
+		for (int i = 0; i < boxes.length; ++i) {
+			boxes[i] = new Box2(random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat());
+		}
+		
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final GeometryWriter writer = new GeometryWriter(Channels.newChannel(out), 64);
+		
+		writer.write(segments, 0, segments.length);
+		writer.write(random(random, 10));
+		writer.write(boxes, 0, boxes.length);
+		writer.write(boxes, 0, 0);
+		writer.close();
+		
+		final GeometryReader reader = reader(out.toByteArray());
+		
+		final Segment[] readSegments = reader.readSegments();
+		assertEquals(segments.length, readSegments.length);
+		
+		for (int i = 0; i < segments.length; ++i) {
+			assertEquals(segments[i].x1, readSegments[i].x1, 0f);
+			assertEquals(segments[i].y1, readSegments[i].y1, 0f);
+			assertEquals(segments[i].x2, readSegments[i].x2, 0f);
+			assertEquals(segments[i].y2, readSegments[i].y2, 0f);
+		}
+		
+		assertEquals(10, reader.read().getVerticleCount());
+		
+		final Box2[] readBoxes = reader.readBoxes();
+		assertEquals(boxes.length, readBoxes.length);
+		
+		for (int i = 0; i < boxes.length; ++i) {
+			assertEquals(boxes[i].left, readBoxes[i].left, 0f);
+			assertEquals(boxes[i].top, readBoxes[i].top, 0f);
+			assertEquals(boxes[i].right, readBoxes[i].right, 0f);
+			assertEquals(boxes[i].bottom, readBoxes[i].bottom, 0f);
+		}
+		
+		assertEquals(0, reader.readBoxes().length);
+		assertNull(reader.readBoxes());
+		assertNull(reader.readSegments());
+	}
+	
+	public void testWrongRecord() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final GeometryWriter writer = new GeometryWriter(Channels.newChannel(out));
+		
+		writer.write(new Segment[] {new Segment(1f, 2f, 3f, 4f)}, 0, 1);
+		writer.close();
+		
+		try {
+			reader(out.toByteArray()).read();
+			fail();
+		} catch (IOException e) {
+			// expected
+		}
+		
+		try {
+			reader(out.toByteArray()).readBoxes();
+			fail();
+		} catch (IOException e) {
+			// expected
+		}
+	}
+	
+	public void testReadAppends() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final GeometryWriter writer = new GeometryWriter(Channels.newChannel(out));
+		
+		writer.write(new float[] {1f, 2f}, new float[] {3f, 4f}, 1, 1);
+		writer.close();
+		
+		final Geometry geometry = new Geometry();
+		geometry.addVerticle(0f, 0f);
+		
+		// cache the bounds
+		assertEquals(0f, geometry.getBounds().bottom, 0f);
+		assertTrue(reader(out.toByteArray()).read(geometry));
+		
+		assertEquals(2, geometry.getVerticleCount());
+		assertEquals(new ImmutablePoint2(2f, 4f), geometry.getVerticle(1));
+		assertEquals(4f, geometry.getBounds().bottom, 0f);
+	}
+	
+	public void testFileChannel() throws IOException {
+		final Geometry geometry = random(new Random(3), 100000);
+		final File file = File.createTempFile("geometry", ".bin");
+		
+		try {
+			final GeometryWriter writer = new GeometryWriter(new FileOutputStream(file).getChannel());
+			writer.write(geometry);
+			writer.write(geometry, 0.5f);
+			writer.close();
+			
+			assertTrue(file.length() > 8 + 5 + 100000 * 8);
+			
+			final GeometryReader reader = new GeometryReader(new FileInputStream(file).getChannel());
+			final PointBuffer points = new PointBuffer();
+			
+			assertEquals(100000, reader.read(points));
+			assertEquals(100000, reader.read(points));
+			assertEquals(-1, reader.read(points));
+			
+			reader.close();
+			
+			for (int i = 0; i < 100000; ++i) {
+				assertEquals(geometry.getVerticle(i), new ImmutablePoint2(points.getX(i), points.getY(i)));
+				assertEquals(points.getX(i), points.getX(i + 100000), 0.25f);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+	
+	public void testNotGeometryStream() throws IOException {
+		try {
+			reader(new byte[] {1, 2, 3, 4, 1, 0, 0, 0});
+			fail();
+		} catch (IOException e) {
+			// expected
+		}
+		
+		try {
+			reader(new byte[] {'C', 'R', 'G', 'M', 99, 0, 0, 0});
+			fail();
+		} catch (IOException e) {
+			// expected
+		}
+		
+		try {
+			reader(new byte[] {'C', 'R', 'G'});
+			fail();
+		} catch (EOFException e) {
+			// expected
+		}
+	}
+	
+	public void testTruncated() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final GeometryWriter writer = new GeometryWriter(Channels.newChannel(out));
+		
+		writer.write(random(new Random(4), 10), 0.01f);
+		writer.close();
+		
+		final byte[] data = out.toByteArray();
+		final byte[] truncated = new byte[data.length - 1];
+		System.arraycopy(data, 0, truncated, 0, truncated.length);
+		
+		final PointBuffer points = new PointBuffer();
+		points.add(1f, 1f);
+		
+		try {
+			reader(truncated).read(points);
+			fail();
+		} catch (EOFException e) {
+			// expected
+		}
+		
+		assertEquals(1, points.size());
+	}
+	
+	public void testHugeCount() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final GeometryWriter writer = new GeometryWriter(Channels.newChannel(out));
+		
+		writer.write(new Geometry());
+		writer.close();
+		
+		// header and a float record claiming 0x10000000 verticles
+		final byte[] data = out.toByteArray();
+		assertEquals(13, data.length);
+		data[12] = 0x10;
+		
+		final PointBuffer points = new PointBuffer();
+		
+		try {
+			reader(data).read(points);
+			fail();
+		} catch (EOFException e) {
+			// expected
+		}
+		
+		assertEquals(0, points.size());
+		
+		// the same for quantized record
+		data[8] = GeometryWriter.QUANTIZED;
+		
+		try {
+			reader(data).read(points);
+			fail();
+		} catch (EOFException e) {
+			// expected
+		}
+		
+		assertEquals(0, points.size());
+		
+		// and for segment and box records
+		data[8] = GeometryWriter.SEGMENTS;
+		
+		try {
+			reader(data).readSegments();
+			fail();
+		} catch (EOFException e) {
+			// expected
+		}
+		
+		data[8] = GeometryWriter.BOXES;
+		
+		try {
+			reader(data).readBoxes();
+			fail();
+		} catch (EOFException e) {
+			// expected
+		}
+	}
+}
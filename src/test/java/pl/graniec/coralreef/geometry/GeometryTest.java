@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class GeometryTest extends TestCase {
+	
+	private static void assertBox(float left, float top, float right, float bottom, Box2 box) {
+		assertEquals(left, box.left, 0f);
+		assertEquals(top, box.top, 0f);
+		assertEquals(right, box.right, 0f);
+		assertEquals(bottom, box.bottom, 0f);
+	}
+
+	public void testGetBounds() {
+		final Geometry geometry = new Geometry();
+		final Box2 box = new Box2(1, 2, 3, 4);
+		
+		assertNull(geometry.getBounds());
+		assertFalse(geometry.getBounds(box));
+		assertBox(1, 2, 3, 4, box);
+		
+		geometry.addVerticle(1, 5);
+		geometry.addVerticle(-2, 3);
+		
+		assertTrue(geometry.getBounds(box));
+		assertBox(-2, 3, 1, 5, box);
+		
+		// cached box has to be invalidated by all additions
+		geometry.addVerticle(new Point2(4, 0));
+		assertBox(-2, 0, 4, 5, geometry.getBounds());
+		
+		geometry.addVerticles(new Point2[] {new Point2(0, 9)});
+		assertBox(-2, 0, 4, 9, geometry.getBounds());
+		
+		geometry.addVerticles(new float[] {-7, 1}, 0, 1);
+		assertBox(-7, 0, 4, 9, geometry.getBounds());
+		
+		// result must not share the cached box
+		geometry.getBounds().left = 100;
+		assertBox(-7, 0, 4, 9, geometry.getBounds());
+	}
+	
+	public void testTranslateBounds() {
+		final Geometry geometry = new Geometry();
+		
+		geometry.addVerticles(new float[] {0.1f, 0.2f, 3.3f, -4.4f, -5.5f, 6.6f}, 0, 3);
+		geometry.getBounds();
+		
+		geometry.translate(0.7f, -1.3f);
+		
+		final Box2 expected = new Box2(0, 0, 0, 0);
+		final Geometry copy = new Geometry();
+		copy.addVerticles(geometry.getVerticles());
+		copy.getBounds(expected);
+		
+		final Box2 cached = geometry.getBounds();
+		assertBox(expected.left, expected.top, expected.right, expected.bottom, cached);
+		
+		// copy carries the cache
+		assertBox(expected.left, expected.top, expected.right, expected.bottom, new Geometry(geometry).getBounds());
+	}
+	
+	public void testGetVerticleCount() {
+		final Geometry geometry = new Geometry();
+		
+		assertEquals(0, geometry.getVerticleCount());
+		
+		geometry.addVerticles(new float[] {0, 0, 1, 1}, 0, 2);
+		
+		assertEquals(2, geometry.getVerticleCount());
+	}
+
+}
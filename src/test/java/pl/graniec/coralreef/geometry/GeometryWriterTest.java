@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class GeometryWriterTest extends TestCase {
+	
+	private ByteArrayOutputStream out;
+	private GeometryWriter writer;
+	
+	public void setUp() throws Exception {
+		out = new ByteArrayOutputStream();
+		writer = new GeometryWriter(Channels.newChannel(out));
+	}
+	
+	private ByteBuffer written() throws IOException {
+		writer.flush();
+		
+		final ByteBuffer result = ByteBuffer.wrap(out.toByteArray());
+		result.order(ByteOrder.LITTLE_ENDIAN);
+		
+		return result;
+	}
+	
+	public void testHeader() throws IOException {
+		final byte[] bytes = out.toByteArray();
+		
+		assertEquals(0, bytes.length);
+		
+		final ByteBuffer data = written();
+		
+		assertEquals(8, data.remaining());
+		assertEquals('C', data.get(0));
+		assertEquals('R', data.get(1));
+		assertEquals('G', data.get(2));
+		assertEquals('M', data.get(3));
+		assertEquals(GeometryWriter.VERSION, data.getInt(4));
+	}
+	
+	public void testFloatRuns() throws IOException {
+		final Geometry geometry = new Geometry();
+		geometry.addVerticle(1f, 2f);
+		geometry.addVerticle(3f, 4f);
+		geometry.addVerticle(5f, 6f);
+		
+		writer.write(geometry);
+		
+		final ByteBuffer data = written();
+		data.position(8);
+		
+		assertEquals(8 + 5 + 6 * 4, data.limit());
+		assertEquals(GeometryWriter.FLOATS, data.get());
+		assertEquals(3, data.getInt());
+		
+		final float[] expected = {1f, 3f, 5f, 2f, 4f, 6f};
+		
+		for (int i = 0; i < expected.length; ++i) {
+			assertEquals(expected[i], data.getFloat(), 0f);
+		}
+	}
+	
+	public void testQuantized() throws IOException {
+		final float[] xs = {1f, 1.25f, -63f};
+		final float[] ys = {0f, 0.5f, 0f};
+		
+		writer.write(xs, ys, 0, xs.length, 0.25f);
+		
+		final ByteBuffer data = written();
+		data.position(8);
+		
+		assertEquals(GeometryWriter.QUANTIZED, data.get());
+		assertEquals(3, data.getInt());
+		assertEquals(0.25f, data.getFloat(), 0f);
+		
+		// (4, 0), (1, 2), (-257, -2) zig-zag encoded
+		final int[] expected = {8, 0, 2, 4, 0x81, 0x04, 3};
+		
+		assertEquals(expected.length, data.remaining());
+		
+		for (int i = 0; i < expected.length; ++i) {
+			assertEquals(expected[i], data.get() & 0xFF);
+		}
+	}
+	
+	public void testInvalidQuantized() throws IOException {
+		final float[] xs = {1f, Float.NaN};
+		final float[] ys = {0f, 0f};
+		
+		try {
+			writer.write(xs, ys, 0, 2, 0.25f);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		
+		try {
+			writer.write(xs, ys, 0, 1, 0f);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		
+		try {
+			writer.write(new float[] {1e30f}, ys, 0, 1, 1e-30f);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		
+		// nothing but the header
+		assertEquals(8, written().remaining());
+	}
+	
+	public void testSegmentsAndBoxes() throws IOException {
+		final Segment[] segments = {new Segment(9f, 9f, 9f, 9f), new Segment(1f, 2f, 3f, 4f)};
+		final Box2[] boxes = {new Box2(5f, 6f, 7f, 8f)};
+		
+		writer.write(segments, 1, 1);
+		writer.write(boxes, 0, 1);
+		
+		final ByteBuffer data = written();
+		data.position(8);
+		
+		assertEquals(8 + 2 * (5 + 4 * 4), data.limit());
+		assertEquals(GeometryWriter.SEGMENTS, data.get());
+		assertEquals(1, data.getInt());
+		
+		for (int i = 1; i <= 4; ++i) {
+			assertEquals(i, data.getFloat(), 0f);
+		}
+		
+		assertEquals(GeometryWriter.BOXES, data.get());
+		assertEquals(1, data.getInt());
+		
+		for (int i = 5; i <= 8; ++i) {
+			assertEquals(i, data.getFloat(), 0f);
+		}
+	}
+	
+	public void testRange() throws IOException {
+		try {
+			writer.write(new float[2], new float[1], 0, 2);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+		
+		try {
+			writer.write(new Segment[1], 1, 1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+}
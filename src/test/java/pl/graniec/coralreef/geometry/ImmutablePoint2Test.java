@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class ImmutablePoint2Test extends TestCase {
+	
+	public void testEqualsAndHashCode() {
+		final ImmutablePoint2 p1 = new ImmutablePoint2(1.5f, -2f);
+		final ImmutablePoint2 p2 = new ImmutablePoint2(new Point2(1.5f, -2f));
+		
+		assertEquals(p1, p2);
+		assertEquals(p1.hashCode(), p2.hashCode());
+		assertEquals(new Point2(1.5f, -2f).hashCode(), p1.hashCode());
+		
+		assertFalse(p1.equals(new ImmutablePoint2(1.5f, 2f)));
+		assertFalse(p1.equals(new ImmutableVector2(1.5f, -2f)));
+		assertFalse(p1.equals(new Point2(1.5f, -2f)));
+		assertFalse(p1.equals(null));
+	}
+	
+	public void testEqualsComparesBits() {
+		assertFalse(new ImmutablePoint2(0f, 0f).equals(new ImmutablePoint2(-0f, 0f)));
+		assertEquals(new ImmutablePoint2(Float.NaN, 1f), new ImmutablePoint2(Float.NaN, 1f));
+	}
+	
+	public void testOperationsGiveNewObjects() {
+		final ImmutablePoint2 p = new ImmutablePoint2(3f, 4f);
+		final ImmutablePoint2 moved = p.translate(1f, 1f);
+		
+		assertEquals(3f, p.getX(), 0f);
+		assertEquals(4f, p.getY(), 0f);
+		assertEquals(new ImmutablePoint2(4f, 5f), moved);
+		
+		assertEquals(5f, p.distanceTo(ImmutablePoint2.ORIGIN), 0.0001f);
+		assertEquals(5f, p.distanceTo(new Point2(0f, 0f)), 0.0001f);
+		assertTrue(p.isAt(new Point2(3f, 4f)));
+		
+		final Point2 mutable = p.toPoint2();
+		mutable.x = 10f;
+		
+		assertEquals(3f, p.getX(), 0f);
+	}
+	
+	public void testVectorOperations() {
+		final ImmutableVector2 v = new ImmutableVector2(3f, 4f);
+		
+		assertEquals(5f, v.length(), 0.0001f);
+		assertEquals(1f, v.normalize().length(), 0.0001f);
+		assertEquals(new ImmutableVector2(6f, 8f), v.multiply(2f));
+		assertEquals(new ImmutableVector2(4f, 5f), v.add(new ImmutableVector2(1f, 1f)));
+		assertEquals(new ImmutableVector2(2f, 3f), v.substract(new ImmutableVector2(1f, 1f)));
+		assertEquals(25f, v.dotProduct(v), 0f);
+		assertEquals(new Vector2(3f, 4f).angle(), v.angle(), 0f);
+		
+		assertEquals(3f, v.getX(), 0f);
+		assertEquals(4f, v.getY(), 0f);
+	}
+	
+	public void testGeometryVerticle() {
+		final Geometry geometry = new Geometry();
+		geometry.addVerticle(new ImmutablePoint2(1f, 2f));
+		geometry.addVerticle(3f, 4f);
+		
+		assertEquals(2, geometry.getVerticleCount());
+		assertEquals(new ImmutablePoint2(1f, 2f), geometry.getVerticle(0));
+		assertEquals(new ImmutablePoint2(3f, 4f), geometry.getVerticle(1));
+		
+		final Box2 bounds = geometry.getBounds();
+		
+		assertEquals(1f, bounds.left, 0f);
+		assertEquals(4f, bounds.bottom, 0f);
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class KdTree2Test extends TestCase {
+	
+	private Random random;
+	private Point2[] points;
+	private KdTree2 tree;
+
+	public void setUp() throws Exception {
+		random = new Random(5);
+		points = new Point2[2000];
+		
+		for (int i = 0; i < points.length; ++i) {
+			// many duplicated coordinates on a coarse grid
+			points[i] = new Point2(random.nextInt(100), random.nextFloat() * 100);
+		}
+		
+		tree = new KdTree2(points);
+	}
+
+	public void testNearest() {
+		for (int q = 0; q < 200; ++q) {
+			final Point2 query = new Point2(random.nextFloat() * 120 - 10, random.nextFloat() * 120 - 10);
+			
+			float best = Float.POSITIVE_INFINITY;
+			
+			for (int i = 0; i < points.length; ++i) {
+				best = Math.min(best, query.distanceTo(points[i]));
+			}
+			
+			assertEquals(best, query.distanceTo(points[tree.nearest(query.x, query.y)]), 0.0001f);
+		}
+		
+		assertEquals(-1, new KdTree2(new Point2[0]).nearest(0, 0));
+	}
+	
+	public void testKNearest() {
+		final int k = 10;
+		final int[] result = new int[k];
+		final float[] distances = new float[k];
+		
+		for (int q = 0; q < 50; ++q) {
+			final Point2 query = new Point2(random.nextFloat() * 100, random.nextFloat() * 100);
+			
+			final float[] all = new float[points.length];
+			
+			for (int i = 0; i < points.length; ++i) {
+				all[i] = query.distanceTo(points[i]);
+			}
+			
+			Arrays.sort(all);
+			
+			assertEquals(k, tree.nearest(query.x, query.y, k, result, distances));
+			
+			for (int i = 0; i < k; ++i) {
+				assertEquals(all[i], query.distanceTo(points[result[i]]), 0.0001f);
+				assertEquals(all[i] * all[i], distances[i], 0.01f);
+			}
+		}
+		
+		final KdTree2 small = new KdTree2(new Point2[] {new Point2(1, 1), new Point2(0, 0)});
+		
+		assertEquals(2, small.nearest(0, 0, k, result, distances));
+		assertEquals(1, result[0]);
+		assertEquals(0, result[1]);
+	}
+	
+	public void testRadius() {
+		final IndexBuffer result = new IndexBuffer();
+		final Point2 query = new Point2(50, 50);
+		
+		tree.radius(query.x, query.y, 10, result);
+		
+		int expected = 0;
+		
+		for (int i = 0; i < points.length; ++i) {
+			if (query.distanceTo(points[i]) <= 10) {
+				++expected;
+			}
+		}
+		
+		assertEquals(expected, result.size());
+		
+		for (int i = 0; i < result.size(); ++i) {
+			assertTrue(query.distanceTo(points[result.get(i)]) <= 10.0001f);
+		}
+	}
+	
+	public void testParallelBuild() {
+		final float[] xs = new float[300000];
+		final float[] ys = new float[xs.length];
+		
+		for (int i = 0; i < xs.length; ++i) {
+			xs[i] = random.nextFloat();
+			ys[i] = random.nextFloat();
+		}
+		
+		final KdTree2 parallel = new KdTree2(xs, ys, 0, xs.length, true);
+		final KdTree2 sequential = new KdTree2(xs, ys, 0, xs.length, false);
+		
+		for (int q = 0; q < 100; ++q) {
+			final float x = random.nextFloat(), y = random.nextFloat();
+			assertEquals(sequential.nearest(x, y), parallel.nearest(x, y));
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Line2dTest extends TestCase {
+
+	public void testLinePoint2dPoint2d() {
+		final Line2d line = new Line2d(new Point2d(1, 2), new Point2d(3, 3));
+		
+		assertEquals(1, line.a, 1e-12);
+		assertEquals(-2, line.b, 1e-12);
+		assertEquals(3, line.c, 1e-12);
+	}
+	
+	public void testLineSegment2d() {
+		final Line2d line = new Line2d(new Segment2d(new Point2d(1, 2), new Point2d(3, 3)));
+		
+		assertEquals(1, line.a, 1e-12);
+		assertEquals(-2, line.b, 1e-12);
+		assertEquals(3, line.c, 1e-12);
+	}
+	
+	public void testConversion() {
+		final Line line = new Line(new Point2(1, 2), new Point2(3, 3));
+		final Line converted = new Line2d(line).toLine();
+		
+		assertEquals(line.a, converted.a, 0f);
+		assertEquals(line.b, converted.b, 0f);
+		assertEquals(line.c, converted.c, 0f);
+	}
+
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class ParallelGeometryTest extends TestCase {
+	
+	/** More than a few chunks with a partial one at the end */
+	private static final int SIZE = ParallelGeometry.CHUNK_SIZE * 5 + 123;
+	
+	private float[] xy;
+	private Geometry geometry;
+
+	public void setUp() throws Exception {
+		final Random random = new Random(13);
+		
+		xy = new float[SIZE * 2];
+		
+		for (int i = 0; i < xy.length; ++i) {
+			xy[i] = random.nextFloat() * 1000 - 500;
+		}
+		
+		geometry = new Geometry();
+		geometry.addVerticles(xy, 0, SIZE);
+	}
+
+	public void testTranslate() {
+		final Box2 before = geometry.getBounds();
+		
+		ParallelGeometry.translate(geometry, 1.5f, -2f);
+		
+		assertEquals(before.left + 1.5f, geometry.getBounds().left, 0f);
+		
+		final Point2[] verticles = geometry.getVerticles();
+		
+		for (int i = 0; i < SIZE; ++i) {
+			assertEquals(xy[i * 2] + 1.5f, verticles[i].x, 0f);
+			assertEquals(xy[i * 2 + 1] - 2f, verticles[i].y, 0f);
+		}
+	}
+	
+	public void testTransform() {
+		final Box2 before = geometry.getBounds();
+		
+		// rotation by 90 degrees and translation
+		ParallelGeometry.transform(geometry, 0, -1, 10, 1, 0, 20);
+		
+		// cached bounds has to be dropped
+		assertEquals(before.left + 20, geometry.getBounds().top, 0.0001f);
+		
+		final Point2[] verticles = geometry.getVerticles();
+		
+		for (int i = 0; i < SIZE; ++i) {
+			assertEquals(-xy[i * 2 + 1] + 10, verticles[i].x, 0.0001f);
+			assertEquals(xy[i * 2] + 20, verticles[i].y, 0.0001f);
+		}
+	}
+	
+	public void testBounds() {
+		final Box2 box = new Box2(0, 0, 0, 0);
+		
+		assertFalse(ParallelGeometry.bounds(new Geometry(), box));
+		
+		// put extremes into different chunks
+		geometry.addVerticle(-600, 0);
+		geometry.addVerticle(0, 700);
+		
+		assertTrue(ParallelGeometry.bounds(geometry, box));
+		
+		assertEquals(-600, box.left, 0f);
+		assertEquals(700, box.bottom, 0f);
+		assertTrue(box.top >= -500 && box.top < -499);
+		assertTrue(box.right <= 500 && box.right > 499);
+	}
+	
+	public void testCentroid() {
+		assertNull(ParallelGeometry.centroid(new Geometry()));
+		
+		double sumX = 0, sumY = 0;
+		
+		for (int i = 0; i < SIZE; ++i) {
+			sumX += xy[i * 2];
+			sumY += xy[i * 2 + 1];
+		}
+		
+		final Point2 centroid = ParallelGeometry.centroid(geometry);
+		
+		assertEquals(sumX / SIZE, centroid.x, 0.0001);
+		assertEquals(sumY / SIZE, centroid.y, 0.0001);
+		
+		// the same result every time
+		assertEquals(centroid, ParallelGeometry.centroid(geometry));
+	}
+	
+	public void testNearest() {
+		assertEquals(-1, ParallelGeometry.nearest(new Geometry(), 0, 0));
+		
+		final Point2 target = new Point2(123, -77);
+		
+		int expected = -1;
+		float min = Float.POSITIVE_INFINITY;
+		
+		for (int i = 0; i < SIZE; ++i) {
+			final float dx = xy[i * 2] - target.x;
+			final float dy = xy[i * 2 + 1] - target.y;
+			
+			if (dx * dx + dy * dy < min) {
+				min = dx * dx + dy * dy;
+				expected = i;
+			}
+		}
+		
+		assertEquals(expected, ParallelGeometry.nearest(geometry, target.x, target.y));
+		
+		// ties resolve to the lowest index
+		geometry.addVerticle(xy[0], xy[1]);
+		assertEquals(0, ParallelGeometry.nearest(geometry, xy[0], xy[1]));
+	}
+	
+	public void testNearestOutOfRange() {
+		final Geometry far = new Geometry();
+		far.addVerticle(3e38f, 3e38f);
+		far.addVerticle(-3e38f, 3e38f);
+		
+		// every distance overflows to infinity
+		assertEquals(0, ParallelGeometry.nearest(far, -3e38f, -3e38f));
+		
+		final Geometry invalid = new Geometry();
+		invalid.addVerticle(Float.NaN, 0);
+		invalid.addVerticle(5, 5);
+		invalid.addVerticle(1, 1);
+		
+		assertEquals(2, ParallelGeometry.nearest(invalid, 0, 0));
+		assertEquals(0, ParallelGeometry.nearest(invalid, Float.NaN, 0));
+	}
+
+}
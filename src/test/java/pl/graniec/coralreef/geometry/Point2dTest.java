@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Point2dTest extends TestCase {
+
+	public void testDistanceTo() {
+		final Line2d line = new Line2d(new Point2d(-1, 0), new Point2d(1, 0));
+		
+		assertEquals(2, new Point2d(0, 2).distanceTo(line), 1e-12);
+		assertEquals(0, new Point2d(0, 0).distanceTo(line), 1e-12);
+		assertEquals(2, new Point2d(0, -2).distanceTo(line), 1e-12);
+	}
+	
+	public void testDistanceToSegment() {
+		final Segment2d segment = new Segment2d(new Point2d(-2, 0), new Point2d(2, 0));
+		
+		assertEquals(2, new Point2d(0, 2).distanceTo(segment), 1e-12);
+		assertEquals(2, new Point2d(2, 2).distanceTo(segment), 1e-12);
+		assertEquals(2, new Point2d(-2, 2).distanceTo(segment), 1e-12);
+		assertEquals(2, new Point2d(-4, 0).distanceTo(segment), 1e-12);
+		assertEquals(1, new Point2d(-3, 0).distanceTo(segment), 1e-12);
+		assertEquals(2, new Point2d(4, 0).distanceTo(segment), 1e-12);
+		assertEquals(1, new Point2d(3, 0).distanceTo(segment), 1e-12);
+		
+		// zero-length segment
+		assertEquals(5, new Point2d(3, 4).distanceTo(new Segment2d(0, 0, 0, 0)), 1e-12);
+	}
+	
+	public void testConversion() {
+		final Point2 p = new Point2(1.1f, -2.2f);
+		
+		assertEquals(p, new Point2d(p).toPoint2());
+		assertEquals(new Point2d(1.5, 2.5), new Point2d(new Point2d(1.5, 2.5)));
+	}
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PointBufferTest extends TestCase {
+
+	public void testAdd() {
+		final PointBuffer buffer = new PointBuffer(1);
+		
+		for (int i = 0; i < 100; ++i) {
+			buffer.add(i, -i);
+		}
+		
+		assertEquals(100, buffer.size());
+		assertEquals(42f, buffer.getX(42), 0.0001f);
+		assertEquals(-42f, buffer.getY(42), 0.0001f);
+	}
+	
+	/**
+	 * Test method for {@link pl.graniec.coralreef.geometry.PointBuffer#addVerticles(float[], int, int)}.
+	 */
+	public void testAddVerticles() {
+		final PointBuffer buffer = new PointBuffer(0);
+		buffer.add(-1, -1);
+		buffer.addVerticles(new float[] {9, 9, 1, 2, 3, 4, 9}, 2, 2);
+		
+		assertEquals(3, buffer.size());
+		assertEquals(1f, buffer.getX(1), 0.0001f);
+		assertEquals(2f, buffer.getY(1), 0.0001f);
+		assertEquals(3f, buffer.getX(2), 0.0001f);
+		assertEquals(4f, buffer.getY(2), 0.0001f);
+		
+		try {
+			buffer.addVerticles(new float[] {1, 2, 3}, 0, 2);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+		
+		// off + len * 2 overflows
+		try {
+			buffer.addVerticles(new float[] {1, 2, 3}, 2, 0x40000000);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+		
+		try {
+			buffer.addVerticles(new float[] {1, 2}, new float[] {1}, 0, 2);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+		
+		try {
+			buffer.addVerticles(new float[2], new float[2], 1, Integer.MAX_VALUE);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+		
+		assertEquals(3, buffer.size());
+		assertEquals(3, buffer.xArray().length);
+	}
+	
+	public void testArrayView() {
+		final PointBuffer buffer = new PointBuffer();
+		buffer.add(1, 2);
+		
+		buffer.xArray()[0] = 5;
+		buffer.yArray()[0] = 6;
+		
+		assertEquals(5f, buffer.getX(0), 0.0001f);
+		assertEquals(6f, buffer.getY(0), 0.0001f);
+	}
+	
+	public void testCopy() {
+		final PointBuffer buffer = new PointBuffer();
+		buffer.add(1, 2);
+		
+		final PointBuffer copy = new PointBuffer(buffer);
+		copy.set(0, 3, 4);
+		
+		assertEquals(1f, buffer.getX(0), 0.0001f);
+		assertEquals(3f, copy.getX(0), 0.0001f);
+	}
+	
+	public void testTranslate() {
+		final PointBuffer buffer = new PointBuffer();
+		buffer.add(1, 2);
+		buffer.add(-1, -2);
+		
+		buffer.translate(10, 20);
+		
+		assertEquals(11f, buffer.getX(0), 0.0001f);
+		assertEquals(22f, buffer.getY(0), 0.0001f);
+		assertEquals(9f, buffer.getX(1), 0.0001f);
+		assertEquals(18f, buffer.getY(1), 0.0001f);
+	}
+	
+	public void testGetOutOfBounds() {
+		final PointBuffer buffer = new PointBuffer();
+		buffer.add(1, 2);
+		
+		try {
+			buffer.getX(1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PointHashMapTest extends TestCase {
+	
+	public void testPutAndGet() {
+		final PointHashMap map = new PointHashMap();
+		
+		assertTrue(map.put(1f, 2f, 10));
+		assertTrue(map.put(new Point2(3f, 4f), 20));
+		assertFalse(map.put(1f, 2f, 11));
+		
+		assertEquals(2, map.size());
+		assertEquals(11, map.get(1f, 2f, -1));
+		assertEquals(20, map.get(new Point2(3f, 4f), -1));
+		assertEquals(-1, map.get(5f, 6f, -1));
+		
+		assertEquals(11, map.putIfAbsent(1f, 2f, 30));
+		assertEquals(30, map.putIfAbsent(5f, 6f, 30));
+		assertEquals(30, map.get(5f, 6f, -1));
+	}
+	
+	public void testAddedKeysHaveZeroValue() {
+		final PointHashMap map = new PointHashMap();
+		
+		map.put(1f, 2f, 7);
+		map.remove(1f, 2f);
+		map.add(1f, 2f);
+		
+		assertEquals(0, map.get(1f, 2f, -1));
+		
+		map.put(1f, 2f, 7);
+		map.clear();
+		map.add(1f, 2f);
+		
+		assertEquals(0, map.get(1f, 2f, -1));
+	}
+	
+	public void testWelding() {
+		final float[] xs = {0.1f, 1.2f, 0.15f, 1.24f, 5f, 0.1f};
+		final float[] ys = {0.1f, 0.1f, 0.12f, 0.11f, 5f, 0.1f};
+		final int[] indices = new int[xs.length];
+		
+		final PointHashMap map = new PointHashMap(xs.length, 0.25f);
+		
+		for (int i = 0; i < xs.length; ++i) {
+			indices[i] = map.putIfAbsent(xs[i], ys[i], map.size());
+		}
+		
+		assertEquals(3, map.size());
+		
+		final int[] expected = {0, 1, 0, 1, 2, 0};
+		
+		for (int i = 0; i < xs.length; ++i) {
+			assertEquals(expected[i], indices[i]);
+		}
+	}
+	
+	public void testKeysAndValuesInSameOrder() {
+		final PointHashMap map = new PointHashMap(0);
+		
+		for (int i = 0; i < 1000; ++i) {
+			map.put(i, -i, i);
+		}
+		
+		final PointBuffer keys = new PointBuffer();
+		final IndexBuffer values = new IndexBuffer();
+		
+		map.getPoints(keys);
+		map.getValues(values);
+		
+		assertEquals(1000, keys.size());
+		assertEquals(1000, values.size());
+		
+		for (int i = 0; i < keys.size(); ++i) {
+			assertEquals(values.get(i), (int) keys.getX(i));
+		}
+	}
+	
+	public void testMatchesHashMap() {
+		final Random random = new Random(5);
+		final PointHashMap map = new PointHashMap();
+		final Map expected = new HashMap();
+		
+		for (int i = 0; i < 20000; ++i) {
+			final Point2 p = new Point2(random.nextInt(64), random.nextInt(64));
+			
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(p) != null, map.remove(p));
+			} else {
+				final int value = random.nextInt();
+				assertEquals(expected.put(p, new Integer(value)) == null, map.put(p, value));
+			}
+			
+			assertEquals(expected.size(), map.size());
+		}
+		
+		for (int x = 0; x < 64; ++x) {
+			for (int y = 0; y < 64; ++y) {
+				final Integer value = (Integer) expected.get(new Point2(x, y));
+				
+				if (value == null) {
+					assertFalse(map.contains(x, y));
+				} else {
+					assertEquals(value.intValue(), map.get(x, y, 0));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PointHashSetTest extends TestCase {
+	
+	public void testAddContainsRemove() {
+		final PointHashSet set = new PointHashSet();
+		
+		assertTrue(set.isEmpty());
+		assertTrue(set.add(1f, 2f));
+		assertFalse(set.add(1f, 2f));
+		assertTrue(set.add(new Point2(2f, 1f)));
+		
+		assertEquals(2, set.size());
+		assertTrue(set.contains(1f, 2f));
+		assertTrue(set.contains(new Point2(2f, 1f)));
+		assertFalse(set.contains(1f, 1f));
+		
+		assertTrue(set.remove(1f, 2f));
+		assertFalse(set.remove(1f, 2f));
+		assertFalse(set.contains(1f, 2f));
+		assertEquals(1, set.size());
+		
+		set.clear();
+		
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(2f, 1f));
+	}
+	
+	public void testExactComparison() {
+		final PointHashSet set = new PointHashSet();
+		
+		set.add(0f, 0f);
+		set.add(Float.NaN, 1f);
+		
+		assertFalse(set.contains(-0f, 0f));
+		assertTrue(set.contains(Float.NaN, 1f));
+		assertFalse(set.contains(Math.nextUp(0f), 0f));
+	}
+	
+	public void testWelding() {
+		final PointHashSet set = new PointHashSet(0, 0.5f);
+		
+		assertEquals(0.5f, set.getCellSize(), 0f);
+		
+		assertTrue(set.add(0.1f, 0.1f));
+		assertFalse(set.add(0.4f, 0.2f));
+		assertTrue(set.add(0.6f, 0.2f));
+		assertTrue(set.add(-0.1f, 0.1f));
+		assertTrue(set.contains(0.3f, 0.45f));
+		
+		final PointBuffer points = new PointBuffer();
+		set.getPoints(points);
+		
+		assertEquals(3, points.size());
+		
+		// first point of the cell is kept
+		boolean found = false;
+		
+		for (int i = 0; i < points.size(); ++i) {
+			found |= points.getX(i) == 0.1f && points.getY(i) == 0.1f;
+		}
+		
+		assertTrue(found);
+	}
+	
+	public void testInvalidArguments() {
+		try {
+			new PointHashSet(-1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		
+		try {
+			new PointHashSet(10, -1f);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		
+		try {
+			new PointHashSet(10, Float.NaN);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+	
+	public void testMatchesHashSet() {
+		final Random random = new Random(3);
+		final PointHashSet set = new PointHashSet();
+		final Set expected = new HashSet();
+		
+		for (int i = 0; i < 20000; ++i) {
+			final Point2 p = new Point2(random.nextInt(64), random.nextInt(64));
+			
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(p), set.remove(p));
+			} else {
+				assertEquals(expected.add(p), set.add(p));
+			}
+			
+			assertEquals(expected.size(), set.size());
+		}
+		
+		for (int x = 0; x < 64; ++x) {
+			for (int y = 0; y < 64; ++y) {
+				assertEquals(expected.contains(new Point2(x, y)), set.contains(x, y));
+			}
+		}
+		
+		final PointBuffer points = new PointBuffer();
+		set.getPoints(points);
+		
+		assertEquals(expected.size(), points.size());
+		
+		for (final Iterator itor = expected.iterator(); itor.hasNext();) {
+			assertTrue(set.contains((Point2) itor.next()));
+		}
+	}
+}
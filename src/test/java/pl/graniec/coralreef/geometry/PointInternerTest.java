@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PointInternerTest extends TestCase {
+	
+	public void testSharesEqualPoints() {
+		final PointInterner interner = new PointInterner();
+		
+		final ImmutablePoint2 p = interner.intern(1f, 2f);
+		
+		assertSame(p, interner.intern(1f, 2f));
+		assertSame(p, interner.intern(new Point2(1f, 2f)));
+		assertSame(p, interner.intern(new ImmutablePoint2(1f, 2f)));
+		
+		assertNotSame(p, interner.intern(2f, 1f));
+		assertNotSame(interner.intern(0f, 0f), interner.intern(-0f, 0f));
+	}
+	
+	public void testInternCachesGivenPoint() {
+		final PointInterner interner = new PointInterner();
+		final ImmutablePoint2 p = new ImmutablePoint2(5f, 6f);
+		
+		assertSame(p, interner.intern(p));
+		assertSame(p, interner.intern(5f, 6f));
+	}
+	
+	public void testCapacityIsBounded() {
+		final PointInterner interner = new PointInterner(100);
+		
+		assertEquals(128, interner.getCapacity());
+		
+		for (int i = 0; i < 10000; ++i) {
+			final ImmutablePoint2 p = interner.intern(i, -i);
+			
+			assertEquals(i, p.getX(), 0f);
+			assertEquals(-i, p.getY(), 0f);
+		}
+	}
+	
+	public void testClear() {
+		final PointInterner interner = new PointInterner();
+		final ImmutablePoint2 p = interner.intern(1f, 2f);
+		
+		interner.clear();
+		
+		final ImmutablePoint2 other = interner.intern(1f, 2f);
+		
+		assertNotSame(p, other);
+		assertEquals(p, other);
+	}
+	
+	public void testInvalidCapacity() {
+		try {
+			new PointInterner(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+	
+	public void testConcurrentUse() throws InterruptedException {
+		final PointInterner interner = new PointInterner(64);
+		final boolean[] failed = new boolean[1];
+		final Thread[] threads = new Thread[4];
+		
+		for (int t = 0; t < threads.length; ++t) {
+			threads[t] = new Thread() {
+				public void run() {
+					for (int i = 0; i < 100000; ++i) {
+						final float x = i % 100;
+						final float y = i % 37;
+						final ImmutablePoint2 p = interner.intern(x, y);
+						
+						if (p.getX() != x || p.getY() != y) {
+							failed[0] = true;
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		
+		for (int t = 0; t < threads.length; ++t) {
+			threads[t].join();
+		}
+		
+		assertFalse(failed[0]);
+	}
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PolygonClipperTest extends TestCase {
+
+	private static Geometry polygon(float[] xy) {
+		final Geometry result = new Geometry();
+		result.addVerticles(xy, 0, xy.length / 2);
+		return result;
+	}
+	
+	private static Geometry star(Random random, int n, float cx, float cy) {
+		final Geometry result = new Geometry();
+		
+		for (int i = 0; i < n; ++i) {
+			final double angle = 2 * Math.PI * i / n;
+			final double radius = 2 + random.nextInt(8);
+			
+			result.addVerticle((float) (cx + radius * Math.cos(angle)), (float) (cy + radius * Math.sin(angle)));
+		}
+		
+		return result;
+	}
+	
+	static boolean contains(Geometry polygon, double x, double y) {
+		final Point2[] v = polygon.getVerticles();
+		boolean inside = false;
+		
+		for (int i = 0, j = v.length - 1; i < v.length; j = i++) {
+			if ((v[i].y > y) != (v[j].y > y) && x < ((double) v[j].x - v[i].x) * (y - v[i].y) / ((double) v[j].y - v[i].y) + v[i].x) {
+				inside = !inside;
+			}
+		}
+		
+		return inside;
+	}
+	
+	static boolean contains(Geometry[] rings, double x, double y) {
+		boolean inside = false;
+		
+		for (int r = 0; r < rings.length; ++r) {
+			if (contains(rings[r], x, y)) {
+				inside = !inside;
+			}
+		}
+		
+		return inside;
+	}
+	
+	private static double area(Geometry[] rings) {
+		double sum = 0;
+		
+		for (int r = 0; r < rings.length; ++r) {
+			final Point2[] v = rings[r].getVerticles();
+			double area = 0;
+			
+			for (int i = 0, j = v.length - 1; i < v.length; j = i++) {
+				area += ((double) v[j].x * v[i].y - (double) v[i].x * v[j].y) / 2;
+			}
+			
+			sum += Math.abs(area);
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Compares the result with the expected operation at sample points
+	 * that never lie on edges.
+	 */
+	private static void assertSamples(Geometry s, Geometry c, int operation, Geometry[] result) {
+		for (double x = -12.0123457; x < 12; x += 0.3125) {
+			for (double y = -12.0076543; y < 12; y += 0.3125) {
+				final boolean inS = contains(s, x, y);
+				final boolean inC = contains(c, x, y);
+				
+				final boolean expected =
+					operation == BooleanOperation.INTERSECTION ? inS && inC :
+					operation == BooleanOperation.UNION ? inS || inC : inS && !inC;
+				
+				assertEquals("at " + x + "," + y, expected, contains(result, x, y));
+			}
+		}
+	}
+	
+	public void testOverlappingSquares() {
+		final PolygonClipper clipper = new PolygonClipper();
+		final Geometry s = polygon(new float[] {0, 0, 4, 0, 4, 4, 0, 4});
+		final Geometry c = polygon(new float[] {2, 2, 6, 2, 6, 6, 2, 6});
+		final Geometry reversed = polygon(new float[] {2, 6, 6, 6, 6, 2, 2, 2});
+		
+		assertEquals(4.0, area(clipper.intersection(s, c)), 0);
+		assertEquals(28.0, area(clipper.union(s, c)), 0);
+		assertEquals(12.0, area(clipper.difference(s, c)), 0);
+		
+		assertEquals(4.0, area(clipper.intersection(s, reversed)), 0);
+		assertEquals(28.0, area(clipper.union(reversed, s)), 0);
+		assertEquals(12.0, area(clipper.difference(s, reversed)), 0);
+		
+		final Geometry[] intersection = clipper.intersection(s, c);
+		
+		assertEquals(1, intersection.length);
+		assertEquals(4, intersection[0].getVerticleCount());
+	}
+	
+	public void testNested() {
+		final PolygonClipper clipper = new PolygonClipper();
+		final Geometry s = polygon(new float[] {0, 0, 8, 0, 8, 8, 0, 8});
+		final Geometry c = polygon(new float[] {2, 2, 4, 2, 4, 4, 2, 4});
+		
+		assertEquals(4.0, area(clipper.intersection(s, c)), 0);
+		assertEquals(1, clipper.union(s, c).length);
+		assertEquals(64.0, area(clipper.union(c, s)), 0);
+		
+		final Geometry[] difference = clipper.difference(s, c);
+		
+		assertEquals(2, difference.length);
+		assertSamples(s, c, BooleanOperation.DIFFERENCE, difference);
+		assertEquals(0, clipper.difference(c, s).length);
+		
+		final Geometry far = polygon(new float[] {20, 20, 21, 20, 21, 21});
+		
+		assertEquals(0, clipper.intersection(s, far).length);
+		assertEquals(2, clipper.union(s, far).length);
+		assertEquals(1, clipper.difference(s, far).length);
+	}
+	
+	public void testTouching() {
+		final PolygonClipper clipper = new PolygonClipper();
+		final Geometry s = polygon(new float[] {0, 0, 4, 0, 4, 4, 0, 4});
+		final Geometry[] clips = {
+				// shared edge
+				polygon(new float[] {4, 0, 8, 0, 8, 4, 4, 4}),
+				// identical
+				polygon(new float[] {0, 0, 4, 0, 4, 4, 0, 4}),
+				// verticles on edges
+				polygon(new float[] {2, 0, 4, 2, 2, 4, 0, 2}),
+				// partially overlapping edges
+				polygon(new float[] {2, -2, 6, -2, 6, 2, 4, 2, 4, 6, 2, 6}),
+		};
+		
+		for (int i = 0; i < clips.length; ++i) {
+			for (int operation = 1; operation <= 3; ++operation) {
+				assertSamples(s, clips[i], operation, clipper.clip(s, clips[i], operation));
+			}
+		}
+		
+		assertEquals(16.0, area(clipper.intersection(s, clips[1])), 1e-4);
+		assertEquals(8.0, area(clipper.intersection(s, clips[2])), 1e-4);
+	}
+	
+	public void testRandomStars() {
+		final Random random = new Random(17);
+		final PolygonClipper clipper = new PolygonClipper();
+		
+		for (int i = 0; i < 30; ++i) {
+			final Geometry s = star(random, 6 + random.nextInt(20), random.nextInt(3), random.nextInt(3));
+			final Geometry c = star(random, 6 + random.nextInt(20), random.nextInt(3), random.nextInt(3));
+			
+			for (int operation = 1; operation <= 3; ++operation) {
+				assertSamples(s, c, operation, clipper.clip(s, c, operation));
+			}
+		}
+	}
+	
+	public void testArrays() {
+		final PolygonClipper clipper = new PolygonClipper();
+		final float[] xs = {9, 0, 4, 4, 0, 4, 4, 0};
+		final float[] ys = {9, 0, 0, 4, 4, 4, 4, 4};
+		final float[] cxs = {2, 6, 6, 2};
+		final float[] cys = {2, 2, 6, 6};
+		
+		final PointBuffer result = new PointBuffer();
+		final IndexBuffer ringStarts = new IndexBuffer();
+		
+		result.add(-1, -1);
+		
+		// repeated verticles are skipped
+		assertEquals(1, clipper.clip(xs, ys, 1, 7, cxs, cys, 0, 4, BooleanOperation.INTERSECTION, result, ringStarts));
+		assertEquals(1, ringStarts.get(0));
+		assertEquals(5, result.size());
+		
+		assertEquals(0, clipper.clip(xs, ys, 0, 0, cxs, cys, 0, 4, BooleanOperation.INTERSECTION, result, ringStarts));
+		assertEquals(1, clipper.clip(xs, ys, 0, 0, cxs, cys, 0, 4, BooleanOperation.UNION, result, ringStarts));
+		
+		try {
+			clipper.clip(xs, ys, 0, 4, cxs, cys, 0, 4, 0, result, ringStarts);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
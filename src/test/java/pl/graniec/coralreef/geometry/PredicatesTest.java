@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PredicatesTest extends TestCase {
+	
+	private static int exactOrientation(double ax, double ay, double bx, double by, double cx, double cy) {
+		final BigDecimal left = new BigDecimal(ax).subtract(new BigDecimal(cx))
+			.multiply(new BigDecimal(by).subtract(new BigDecimal(cy)));
+		final BigDecimal right = new BigDecimal(ay).subtract(new BigDecimal(cy))
+			.multiply(new BigDecimal(bx).subtract(new BigDecimal(cx)));
+		
+		return left.subtract(right).signum();
+	}
+	
+	private static int sign(double value) {
+		return value > 0 ? 1 : (value < 0 ? -1 : 0);
+	}
+
+	public void testOrient2d() {
+		assertTrue(Predicates.orient2d(0, 0, 1, 0, 0, 1) > 0);
+		assertTrue(Predicates.orient2d(0, 0, 0, 1, 1, 0) < 0);
+		assertEquals(0, Predicates.orient2d(0, 0, 1, 1, 3, 3), 0);
+		assertEquals(0.5, Predicates.orient2d(0, 0, 1, 0, 0, 0.5), 0);
+	}
+	
+	public void testOrient2dNearlyCollinear() {
+		// points around (0.5, 0.5) on a grid of ulps, tested against line y = x
+		final double ulp = Math.ulp(0.5);
+		int wrongFast = 0;
+		
+		for (int i = 0; i < 64; ++i) {
+			for (int j = 0; j < 64; ++j) {
+				final double ax = 0.5 + i * ulp;
+				final double ay = 0.5 + j * ulp;
+				
+				final int expected = exactOrientation(ax, ay, 12, 12, 24, 24);
+				
+				assertEquals(expected, sign(Predicates.orient2d(ax, ay, 12, 12, 24, 24)));
+				
+				if (sign((ax - 24) * (12 - 24) - (ay - 24) * (12 - 24)) != expected) {
+					++wrongFast;
+				}
+			}
+		}
+		
+		// plain double evaluation fails here
+		assertTrue(wrongFast > 0);
+	}
+	
+	public void testOrient2dCollinearFloats() {
+		// float points rounded from one line, differences are exact
+		// in doubles for the nearby ones and not for the far ones
+		final Random random = new Random(2);
+		
+		for (int i = 0; i < 20000; ++i) {
+			final double scale = Math.pow(10, random.nextInt(30) - 15);
+			final double slope = random.nextGaussian();
+			final double[] p = new double[6];
+			
+			for (int j = 0; j < 6; j += 2) {
+				final double t = (random.nextInt(3) == 0 ? 1e20 : 1) * scale * (random.nextDouble() * 2 - 1);
+				p[j] = (float) t;
+				p[j + 1] = (float) (slope * t + scale);
+			}
+			
+			assertEquals(
+					exactOrientation(p[0], p[1], p[2], p[3], p[4], p[5]),
+					sign(Predicates.orient2d(p[0], p[1], p[2], p[3], p[4], p[5]))
+			);
+		}
+	}
+	
+	public void testIncircle() {
+		assertTrue(Predicates.incircle(1, 0, 0, 1, -1, 0, 0, 0) > 0);
+		assertTrue(Predicates.incircle(1, 0, 0, 1, -1, 0, 2, 0) < 0);
+		assertEquals(0, Predicates.incircle(1, 0, 0, 1, -1, 0, 0, -1), 0);
+		
+		// clockwise order reverses the sign
+		assertTrue(Predicates.incircle(-1, 0, 0, 1, 1, 0, 0, 0) < 0);
+	}
+	
+	public void testIncircleNearlyCocircular() {
+		final double ulp = Math.ulp(1.0);
+		
+		for (int i = -8; i <= 8; ++i) {
+			// (0, -1 - i * ulp) is on the circle only for i == 0
+			final double result = Predicates.incircle(1, 0, 0, 1, -1, 0, 0, -1 - i * ulp);
+			assertEquals(-sign(i), sign(result));
+		}
+	}
+	
+	public void testRobustIntersects() {
+		// crossing
+		assertTrue(new Segment(0, 0, 2, 2).robustIntersects(new Segment(0, 2, 2, 0)));
+		
+		// end of other segment on this one, other end on the clockwise side
+		assertTrue(new Segment(0, 0, 2, 0).robustIntersects(new Segment(1, 0, 1, -1)));
+		assertFalse(new Segment(0, 0, 2, 0).robustIntersects(new Segment(1, 0, 1, 1)));
+		
+		// collinear, shared ends, zero-length and disjoint
+		assertFalse(new Segment(0, 0, 2, 0).robustIntersects(new Segment(1, 0, 3, 0)));
+		assertFalse(new Segment(0, 0, 2, 0).robustIntersects(new Segment(2, 0, 1, -1)));
+		assertFalse(new Segment(0, 0, 0, 0).robustIntersects(new Segment(-1, -1, 1, 1)));
+		assertFalse(new Segment(0, 0, 2, 0).robustIntersects(new Segment(3, 1, 3, -1)));
+	}
+	
+	public void testRobustIntersectsNearlyCollinear() {
+		// first end of the other segment lies just on the clockwise side
+		final Segment a = new Segment(4.0f, 1.25f, 12.675f, 9.25f);
+		final Segment b = new Segment(7.201097f, 4.20202f, 7.2075806f, 4.566483f);
+		
+		assertEquals(-1, exactOrientation(a.x1, a.y1, a.x2, a.y2, b.x1, b.y1));
+		assertEquals(1, exactOrientation(a.x1, a.y1, a.x2, a.y2, b.x2, b.y2));
+		
+		assertTrue(a.robustIntersects(b));
+		
+		// the float rotation misses it
+		assertFalse(a.intersects(b));
+	}
+	
+	public void testRobustIntersectsMatchesIntersects() {
+		final Random random = new Random(16);
+		int tested = 0;
+		
+		for (int i = 0; i < 10000; ++i) {
+			final Segment a = new Segment(random.nextInt(6), random.nextInt(6), random.nextInt(6), random.nextInt(6));
+			final Segment b = new Segment(
+					random.nextFloat() * 6, random.nextFloat() * 6,
+					random.nextFloat() * 6, random.nextFloat() * 6
+			);
+			
+			// float version is reliable only away from degenerate cases
+			if (
+					isClear(a, b.x1, b.y1) && isClear(a, b.x2, b.y2) &&
+					isClear(b, a.x1, a.y1) && isClear(b, a.x2, a.y2)
+			) {
+				assertEquals(a.intersects(b), a.robustIntersects(b));
+				++tested;
+			}
+		}
+		
+		assertTrue(tested > 5000);
+	}
+	
+	private static boolean isClear(Segment segment, float x, float y) {
+		return segment.length() > 0.1f && new Point2(x, y).distanceTo(new Line(segment)) > 0.01f;
+	}
+
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class PreparedPolygonTest extends TestCase {
+
+	/**
+	 * Crossing number test against all edges.
+	 */
+	private static boolean naiveContains(float[] xs, float[] ys, float x, float y) {
+		boolean inside = false;
+		
+		for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+			if (
+					(ys[j] > y) != (ys[i] > y) &&
+					x < ((double) xs[i] - xs[j]) * ((double) y - ys[j]) / ((double) ys[i] - ys[j]) + xs[j]
+			) {
+				inside = !inside;
+			}
+		}
+		
+		return inside;
+	}
+	
+	private static float[][] star(int n, Random random) {
+		final float[] xs = new float[n];
+		final float[] ys = new float[n];
+		
+		for (int i = 0; i < n; ++i) {
+			final double angle = 2 * Math.PI * i / n;
+			final double radius = 10 + random.nextInt(90);
+			
+			xs[i] = (float) (radius * Math.cos(angle));
+			ys[i] = (float) (radius * Math.sin(angle));
+		}
+		
+		return new float[][] {xs, ys};
+	}
+	
+	public void testSquare() {
+		final Geometry square = new Geometry();
+		square.addVerticles(new float[] {0, 0, 4, 0, 4, 4, 0, 4}, 0, 4);
+		
+		final PreparedPolygon polygon = new PreparedPolygon(square);
+		
+		assertEquals(4, polygon.getVerticleCount());
+		assertTrue(polygon.contains(2, 2));
+		assertTrue(polygon.contains(new Point2(0.5f, 3.5f)));
+		assertFalse(polygon.contains(5, 2));
+		assertFalse(polygon.contains(-1, 2));
+		assertFalse(polygon.contains(2, 4.5f));
+		
+		final Box2 bounds = polygon.getBounds();
+		assertEquals(0f, bounds.left, 0);
+		assertEquals(4f, bounds.bottom, 0);
+	}
+	
+	public void testContainsMatchesNaive() {
+		final Random random = new Random(7);
+		final float[][] star = star(5000, random);
+		final PreparedPolygon polygon = new PreparedPolygon(star[0], star[1], 0, 5000);
+		
+		for (int i = 0; i < 100000; ++i) {
+			// integer coordinates hit verticles and edges often
+			final float x = i % 2 == 0 ? random.nextInt(220) - 110 : random.nextFloat() * 220 - 110;
+			final float y = i % 2 == 0 ? random.nextInt(220) - 110 : random.nextFloat() * 220 - 110;
+			
+			assertEquals(naiveContains(star[0], star[1], x, y), polygon.contains(x, y));
+		}
+	}
+	
+	public void testLongEdges() {
+		// comb with teeth spanning the whole height
+		final int teeth = 1000;
+		final float[] xs = new float[teeth * 2 + 2];
+		final float[] ys = new float[teeth * 2 + 2];
+		
+		for (int t = 0; t < teeth; ++t) {
+			xs[2 * t] = 2 * t;
+			ys[2 * t] = t % 2 == 0 ? 0 : 1000;
+			xs[2 * t + 1] = 2 * t + 1;
+			ys[2 * t + 1] = t % 2 == 0 ? 0 : 1000;
+		}
+		
+		xs[teeth * 2] = teeth * 2;
+		ys[teeth * 2] = -10;
+		xs[teeth * 2 + 1] = 0;
+		ys[teeth * 2 + 1] = -10;
+		
+		final PreparedPolygon polygon = new PreparedPolygon(xs, ys, 0, xs.length);
+		final Random random = new Random(3);
+		
+		for (int i = 0; i < 10000; ++i) {
+			final float x = random.nextFloat() * 2100 - 50;
+			final float y = random.nextFloat() * 1100 - 50;
+			
+			assertEquals(naiveContains(xs, ys, x, y), polygon.contains(x, y));
+		}
+	}
+	
+	public void testBatch() {
+		final Random random = new Random(11);
+		final float[][] star = star(300, random);
+		final PreparedPolygon polygon = new PreparedPolygon(star[0], star[1], 0, 300);
+		
+		final int n = PreparedPolygon.CHUNK_SIZE * 3 + 5;
+		final float[] xs = new float[n + 2];
+		final float[] ys = new float[n + 2];
+		
+		for (int i = 0; i < xs.length; ++i) {
+			xs[i] = random.nextFloat() * 220 - 110;
+			ys[i] = random.nextFloat() * 220 - 110;
+		}
+		
+		final boolean[] result = new boolean[n];
+		int expected = 0;
+		
+		final int count = polygon.contains(xs, ys, 2, n, result);
+		
+		for (int i = 0; i < n; ++i) {
+			assertEquals(polygon.contains(xs[i + 2], ys[i + 2]), result[i]);
+			
+			if (result[i]) {
+				++expected;
+			}
+		}
+		
+		assertEquals(expected, count);
+	}
+	
+	public void testIntersects() {
+		final float[] xs = {0, 4, 4, 0};
+		final float[] ys = {0, 0, 4, 4};
+		final PreparedPolygon polygon = new PreparedPolygon(xs, ys, 0, 4);
+		
+		// inside
+		assertTrue(polygon.intersects(new Segment(1, 1, 2, 2)));
+		// crossing
+		assertTrue(polygon.intersects(new Segment(-1, 2, 5, 2)));
+		assertTrue(polygon.intersects(new Segment(2, 2, 9, 9)));
+		// touching a verticle and an edge
+		assertTrue(polygon.intersects(new Segment(4, 4, 6, 6)));
+		assertTrue(polygon.intersects(new Segment(4, 1, 6, 1)));
+		// overlapping an edge
+		assertTrue(polygon.intersects(new Segment(-1, 0, 1, 0)));
+		// outside
+		assertFalse(polygon.intersects(new Segment(5, 0, 5, 4)));
+		assertFalse(polygon.intersects(new Segment(-1, 3, 1, 6)));
+		assertFalse(polygon.intersects(new Segment(10, 10, 12, 12)));
+	}
+	
+	public void testEmpty() {
+		final PreparedPolygon polygon = new PreparedPolygon(new Geometry());
+		
+		assertNull(polygon.getBounds());
+		assertFalse(polygon.contains(0, 0));
+		assertFalse(polygon.intersects(0, 0, 1, 1));
+		assertEquals(0, polygon.contains(new float[] {0}, new float[] {0}, 0, 1, new boolean[1]));
+	}
+}
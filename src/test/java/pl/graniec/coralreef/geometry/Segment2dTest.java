@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Segment2dTest extends TestCase {
+
+	public void testIntersectionPoint() {
+		final Segment2d s1 = new Segment2d(-5, 0, 5, 0);
+		
+		final Point2d iPoint = s1.intersectionPoint(new Segment2d(0, -5, 0, 5));
+		
+		assertNotNull(iPoint);
+		assertEquals(0, iPoint.x, 1e-12);
+		assertEquals(0, iPoint.y, 1e-12);
+		
+		assertNull(new Segment2d(-5, 6, 5, 6).intersectionPoint(new Segment2d(0, -5, 0, 5)));
+	}
+	
+	public void testIntersectionPointResult() {
+		final Segment2d s1 = new Segment2d(-5, 1, 5, 1);
+		final Segment2d s2 = new Segment2d(2, -5, 2, 5);
+		final Segment2d s3 = new Segment2d(-5, 6, 5, 6);
+		
+		final Point2d result = new Point2d(100, 100);
+		
+		assertTrue(s1.intersectionPoint(s2, result));
+		assertEquals(2, result.x, 1e-12);
+		assertEquals(1, result.y, 1e-12);
+		
+		assertFalse(s3.intersectionPoint(s2, result));
+		assertEquals(2, result.x, 1e-12);
+	}
+	
+	public void testIntersectionParameter() {
+		final Segment2d s1 = new Segment2d(0, 0, 10, 0);
+		
+		assertEquals(0.25, s1.intersectionParameter(new Segment2d(2.5, -1, 2.5, 1)), 1e-12);
+		assertEquals(1, s1.intersectionParameter(new Segment2d(10, -1, 10, 1)), 1e-12);
+		assertTrue(Double.isNaN(s1.intersectionParameter(new Segment2d(11, -1, 11, 1))));
+		
+		// common ends and zero-length segments
+		assertTrue(Double.isNaN(s1.intersectionParameter(new Segment2d(10, 0, 10, 1))));
+		assertTrue(Double.isNaN(s1.intersectionParameter(new Segment2d(5, 0, 5, 0))));
+	}
+	
+	public void testIntersects() {
+		final Segment2d s1 = new Segment2d(-5, 0, 5, 0);
+		
+		assertTrue(s1.intersects(new Segment2d(0, -5, 0, 5)));
+		assertFalse(s1.intersects(new Segment2d(0, 1, 0, 5)));
+		assertFalse(s1.intersects(new Segment2d(5, 0, 0, 5)));
+		
+		assertTrue(s1.robustIntersects(new Segment2d(0, -5, 0, 5)));
+		assertFalse(s1.robustIntersects(new Segment2d(0, 1, 0, 5)));
+		assertFalse(s1.robustIntersects(new Segment2d(5, 0, 0, 5)));
+	}
+	
+	public void testIntersectsWorldScale() {
+		// a crossing of 1 cm far from the origin, lost in float coordinates
+		final Segment2d s1 = new Segment2d(6378137.00, 1000, 6378137.00, 1000.02);
+		final Segment2d s2 = new Segment2d(6378136.99, 1000.01, 6378137.01, 1000.01);
+		
+		assertTrue(s1.intersects(s2));
+		assertTrue(s1.robustIntersects(s2));
+		assertFalse(s1.toSegment().intersects(s2.toSegment()));
+	}
+	
+	public void testResize() {
+		final Segment2d s1 = new Segment2d(0, 0, 10, 0);
+		s1.resize(2.0);
+		
+		assertEquals(-5, s1.x1, 1e-12);
+		assertEquals(15, s1.x2, 1e-12);
+		
+		final Segment2d s2 = new Segment2d(0, 0, 0, 10);
+		s2.resize(0.5);
+		
+		assertEquals(2.5, s2.y1, 1e-12);
+		assertEquals(7.5, s2.y2, 1e-12);
+	}
+
+}
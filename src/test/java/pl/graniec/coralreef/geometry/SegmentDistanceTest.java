@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class SegmentDistanceTest extends TestCase {
+	
+	private float[] x1, y1, x2, y2;
+
+	public void setUp() throws Exception {
+		final Random random = new Random(6);
+		
+		x1 = new float[1000];
+		y1 = new float[x1.length];
+		x2 = new float[x1.length];
+		y2 = new float[x1.length];
+		
+		for (int i = 0; i < x1.length; ++i) {
+			x1[i] = random.nextFloat() * 100;
+			y1[i] = random.nextFloat() * 100;
+			x2[i] = x1[i] + random.nextFloat() * 10 - 5;
+			y2[i] = y1[i] + random.nextFloat() * 10 - 5;
+		}
+	}
+
+	public void testSquaredDistance() {
+		assertEquals(4, SegmentDistance.squaredDistance(0, 2, -2, 0, 2, 0), 0.0001f);
+		assertEquals(4, SegmentDistance.squaredDistance(-4, 0, -2, 0, 2, 0), 0.0001f);
+		assertEquals(8, SegmentDistance.squaredDistance(4, 2, -2, 0, 2, 0), 0.0001f);
+		
+		// zero-length segment
+		assertEquals(25, SegmentDistance.squaredDistance(3, 4, 0, 0, 0, 0), 0.0001f);
+	}
+	
+	public void testSquaredDistances() {
+		final float[] result = new float[x1.length];
+		
+		SegmentDistance.squaredDistances(50, 50, x1, y1, x2, y2, 10, 100, result);
+		
+		assertEquals(0f, result[9], 0f);
+		
+		for (int i = 10; i < 110; ++i) {
+			assertEquals(referenceSquaredDistance(50, 50, i), result[i], 0.01f);
+		}
+	}
+	
+	public void testNearest() {
+		final Point2 p = new Point2(33, 66);
+		
+		int expected = -1;
+		double min = Double.POSITIVE_INFINITY;
+		
+		for (int i = 0; i < x1.length; ++i) {
+			final double d = referenceSquaredDistance(p.x, p.y, i);
+			
+			if (d < min) {
+				min = d;
+				expected = i;
+			}
+		}
+		
+		assertEquals(expected, SegmentDistance.nearest(p.x, p.y, x1, y1, x2, y2, 0, x1.length));
+		assertEquals(min, SegmentDistance.minSquaredDistance(p.x, p.y, x1, y1, x2, y2, 0, x1.length), 0.001f);
+		
+		assertEquals(-1, SegmentDistance.nearest(p.x, p.y, x1, y1, x2, y2, 0, 0));
+		
+		final int[] result = new int[2];
+		SegmentDistance.nearest(new float[] {0, p.x}, new float[] {0, p.y}, 1, 1, x1, y1, x2, y2, 0, x1.length, result);
+		
+		assertEquals(expected, result[1]);
+	}
+	
+	/**
+	 * Squared distance from a point to segment <code>i</code> computed
+	 * in double precision, independently of the code under test.
+	 */
+	private double referenceSquaredDistance(final double px, final double py, final int i) {
+		final double dx = (double) x2[i] - x1[i];
+		final double dy = (double) y2[i] - y1[i];
+		final double lengthSq = dx * dx + dy * dy;
+		
+		double t = 0;
+		
+		if (lengthSq > 0) {
+			t = ((px - x1[i]) * dx + (py - y1[i]) * dy) / lengthSq;
+			t = Math.max(0, Math.min(1, t));
+		}
+		
+		final double ex = px - (x1[i] + t * dx);
+		final double ey = py - (y1[i] + t * dy);
+		
+		return ex * ex + ey * ey;
+	}
+
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class SegmentIntersectorTest extends TestCase {
+
+	/**
+	 * Finds intersecting pairs by testing every pair of segments.
+	 */
+	private static String bruteForce(Segment[] segments) {
+		final StringBuffer buf = new StringBuffer();
+		
+		for (int i = 0; i < segments.length; ++i) {
+			for (int j = i + 1; j < segments.length; ++j) {
+				if (segments[i].robustIntersects(segments[j])) {
+					buf.append(i).append(',').append(j).append('\n');
+				}
+			}
+		}
+		
+		return buf.toString();
+	}
+	
+	/**
+	 * Finds intersecting pairs with the sweep and checks
+	 * that their points lie on both segments.
+	 */
+	private static String sweep(Segment[] segments) {
+		final SegmentIntersector.Intersection[] result = new SegmentIntersector(segments).intersections();
+		final StringBuffer buf = new StringBuffer();
+		
+		for (int i = 0; i < result.length; ++i) {
+			assertTrue(result[i].point.distanceTo(segments[result[i].first]) < 0.001f);
+			assertTrue(result[i].point.distanceTo(segments[result[i].second]) < 0.001f);
+			
+			buf.append(result[i].first).append(',').append(result[i].second).append('\n');
+		}
+		
+		return buf.toString();
+	}
+	
+	public void testSimpleCross() {
+		final Segment[] segments = new Segment[] {
+				new Segment(-5, 0, 5, 0),
+				new Segment(0, -5, 0, 5),
+				new Segment(-5, 6, 5, 6)
+		};
+		
+		final SegmentIntersector.Intersection[] result = new SegmentIntersector(segments).intersections();
+		
+		assertEquals(1, result.length);
+		assertEquals(0, result[0].first);
+		assertEquals(1, result[0].second);
+		assertEquals(0f, result[0].point.x, 0.0001f);
+		assertEquals(0f, result[0].point.y, 0.0001f);
+	}
+	
+	public void testCommonEndsAndZeroLength() {
+		final Segment[] segments = new Segment[] {
+				new Segment(0, 0, 5, 5),
+				new Segment(5, 5, 10, 0),
+				new Segment(2, 2, 2, 2),
+				new Segment(0, 0, 5, 0)
+		};
+		
+		assertEquals(0, new SegmentIntersector(segments).intersections().length);
+	}
+	
+	public void testRandom() {
+		final Random random = new Random(1);
+		
+		for (int run = 0; run < 20; ++run) {
+			final Segment[] segments = new Segment[200];
+			
+			for (int i = 0; i < segments.length; ++i) {
+				segments[i] = new Segment(
+						random.nextFloat() * 100, random.nextFloat() * 100,
+						random.nextFloat() * 100, random.nextFloat() * 100
+				);
+			}
+			
+			assertEquals(bruteForce(segments), sweep(segments));
+		}
+	}
+	
+	public void testDegenerate() {
+		final Random random = new Random(2);
+		
+		for (int run = 0; run < 20; ++run) {
+			final Segment[] segments = new Segment[150];
+			
+			// horizontal, vertical and diagonal segments on a small grid
+			// give many common ends, touching and overlapping segments
+			for (int i = 0; i < segments.length; ++i) {
+				final int x = random.nextInt(10);
+				final int y = random.nextInt(10);
+				final int len = random.nextInt(5);
+				
+				switch (random.nextInt(4)) {
+				case 0:
+					segments[i] = new Segment(x, y, x + len, y);
+					break;
+				case 1:
+					segments[i] = new Segment(x, y, x, y + len);
+					break;
+				case 2:
+					segments[i] = new Segment(x, y, x + len, y + len);
+					break;
+				default:
+					segments[i] = new Segment(x + len, y, x, y + len);
+					break;
+				}
+			}
+			
+			assertEquals(bruteForce(segments), sweep(segments));
+		}
+	}
+	
+	public void testCollinearOverlaps() {
+		final Random random = new Random(3);
+		final Segment[] segments = new Segment[20000];
+		
+		// overlapping segments on one line, with no intersections
+		for (int i = 0; i < segments.length; ++i) {
+			final float t1 = random.nextFloat() * 2000f - 1000f;
+			final float t2 = random.nextFloat() * 2000f - 1000f;
+			
+			segments[i] = new Segment(t1, 0.5f * t1 + 3f, t2, 0.5f * t2 + 3f);
+		}
+		
+		assertEquals(0, new SegmentIntersector(segments).intersections().length);
+		
+		// a segment crossing the line still finds every one it crosses
+		final Segment[] crossed = new Segment[segments.length + 1];
+		System.arraycopy(segments, 0, crossed, 0, segments.length);
+		crossed[segments.length] = new Segment(0.25f, -1000f, 0.25f, 1000f);
+		
+		int expected = 0;
+		
+		for (int i = 0; i < segments.length; ++i) {
+			if (segments[i].robustIntersects(crossed[segments.length])) {
+				++expected;
+			}
+		}
+		
+		final SegmentIntersector.Intersection[] result = new SegmentIntersector(crossed).intersections();
+		
+		assertTrue(expected > 0);
+		assertEquals(expected, result.length);
+		
+		for (int i = 0; i < result.length; ++i) {
+			assertEquals(segments.length, result[i].second);
+		}
+	}
+	
+	public void testCollinearOverlapsWithCrossings() {
+		final Random random = new Random(4);
+		
+		for (int run = 0; run < 50; ++run) {
+			final Segment[] segments = new Segment[100];
+			
+			// overlapping segments on one line crossed, touched and
+			// continued by other ones
+			for (int i = 0; i < segments.length; ++i) {
+				if (random.nextInt(3) > 0) {
+					final int t1 = 2 * random.nextInt(10);
+					final int t2 = 2 * random.nextInt(10);
+					
+					segments[i] = new Segment(t1, t1 / 2 + 3, t2, t2 / 2 + 3);
+				} else {
+					segments[i] = new Segment(
+							random.nextInt(20), random.nextInt(20),
+							random.nextInt(20), random.nextInt(20)
+					);
+				}
+			}
+			
+			assertEquals(bruteForce(segments), sweep(segments));
+		}
+	}
+	
+	public void testNearlyCollinear() {
+		final Random random = new Random(7);
+		
+		for (int run = 0; run < 3000; ++run) {
+			final Segment[] segments = new Segment[3 + random.nextInt(10)];
+			
+			// float ends rounded around one line, with a few
+			// other segments crossing it at small angles
+			for (int i = 0; i < segments.length; ++i) {
+				if (random.nextInt(4) == 0) {
+					segments[i] = new Segment(
+							random.nextFloat() * 10, random.nextFloat() * 5,
+							random.nextFloat() * 10, random.nextFloat() * 5
+					);
+				} else {
+					final float t1 = random.nextFloat() * 10;
+					final float t2 = random.nextFloat() * 10;
+					
+					segments[i] = new Segment(
+							t1, 0.3f * t1 + 1 + random.nextFloat() * 1e-6f,
+							t2, 0.3f * t2 + 1 + random.nextFloat() * 1e-6f
+					);
+				}
+			}
+			
+			assertEquals(bruteForce(segments), sweep(segments));
+		}
+	}
+	
+	public void testNearlyCollinearCrossing() {
+		final Segment[] segments = new Segment[] {
+				new Segment(8.346876f, 3.504063f, 3.9052165f, 2.171565f),
+				new Segment(2.2116613f, 1.6634984f, 9.582252f, 3.8746755f),
+				new Segment(7.0935655f, 4.733904f, 9.524689f, 1.4593985f),
+				new Segment(9.263798f, 3.7791395f, 0.61599135f, 1.1847974f),
+				new Segment(7.154453f, 3.1463358f, 7.779607f, 3.333882f)
+		};
+		
+		// segments 0 and 2 cross next to a nearly collinear crossing
+		// of 1 and 3, which used to hide them from each other
+		final String result = sweep(segments);
+		
+		assertTrue(result.indexOf("0,2\n") >= 0);
+		assertEquals(bruteForce(segments), result);
+	}
+	
+	public void testStar() {
+		final Segment[] segments = new Segment[16];
+		
+		for (int i = 0; i < segments.length; ++i) {
+			final Vector2 v = new Vector2(i * 180f / segments.length);
+			segments[i] = new Segment(-v.x * 10, -v.y * 10, v.x * 10, v.y * 10);
+		}
+		
+		assertEquals(bruteForce(segments), sweep(segments));
+	}
+
+}
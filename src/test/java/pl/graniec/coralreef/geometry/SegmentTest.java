@@ -79,6 +79,61 @@ public class SegmentTest extends TestCase {
 		assertNull(iPoint);
 	}
 	
+	/**
+	 * Test method for {@link pl.graniec.coralreef.geometry.Segment#intersectionPoint(pl.graniec.coralreef.geometry.Segment, pl.graniec.coralreef.geometry.Point2)}.
+	 */
+	public void testIntersectionPointResult() {
+		final Segment s1 = new Segment(-5, 1, 5, 1);
+		final Segment s2 = new Segment(2, -5, 2, 5);
+		final Segment s3 = new Segment(-5, 6, 5, 6);
+		
+		final Point2 result = new Point2(100, 100);
+		
+		assertTrue(s1.intersectionPoint(s2, result));
+		assertEquals(2f, result.x, 0.001);
+		assertEquals(1f, result.y, 0.001);
+		
+		// result must not be touched when there is no intersection
+		assertFalse(s3.intersectionPoint(s2, result));
+		assertEquals(2f, result.x, 0.001);
+		assertEquals(1f, result.y, 0.001);
+	}
+	
+	public void testIntersectionPointResultEqualsAllocating() {
+		final Segment s1 = new Segment(-3.7f, 1.1f, 4.9f, -2.3f);
+		final Segment s2 = new Segment(0.3f, -5.1f, 1.7f, 6.2f);
+		
+		final Point2 expected = s1.intersectionPoint(s2);
+		final Point2 result = new Point2(0, 0);
+		
+		assertNotNull(expected);
+		assertTrue(s1.intersectionPoint(s2, result));
+		assertEquals(expected, result);
+	}
+	
+	public void testIntersectionParameter() {
+		final Segment s1 = new Segment(0, 0, 10, 0);
+		
+		assertEquals(0.25f, s1.intersectionParameter(new Segment(2.5f, -1, 2.5f, 1)), 0.0001f);
+		assertEquals(1f, s1.intersectionParameter(new Segment(10, -1, 10, 1)), 0.0001f);
+		assertTrue(Float.isNaN(s1.intersectionParameter(new Segment(11, -1, 11, 1))));
+		
+		// common ends and zero-length segments
+		assertTrue(Float.isNaN(s1.intersectionParameter(new Segment(10, 0, 10, 1))));
+		assertTrue(Float.isNaN(s1.intersectionParameter(new Segment(5, 0, 5, 0))));
+	}
+	
+	public void testIntersects() {
+		final Segment s1 = new Segment(-5, 0, 5, 0);
+		
+		assertTrue(s1.intersects(new Segment(0, -5, 0, 5)));
+		assertFalse(s1.intersects(new Segment(0, 1, 0, 5)));
+		assertFalse(s1.intersects(new Segment(5, 0, 0, 5)));
+		
+		assertTrue(Segment.intersects(-5, 0, 5, 0, 0, -5, 0, 5));
+		assertFalse(Segment.intersects(-5, 0, 5, 0, 6, -5, 6, 5));
+	}
+	
 	public void testResize() {
 		final Segment s1 = new Segment(0, 0, 10, 0);
 		s1.resize(2.0f);
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class SimplifierTest extends TestCase {
+
+	private static Geometry polyline(float[] xy) {
+		final Geometry result = new Geometry();
+		result.addVerticles(xy, 0, xy.length / 2);
+		return result;
+	}
+	
+	private static Geometry track(int n, long seed) {
+		final Random random = new Random(seed);
+		final Geometry result = new Geometry();
+		float x = 0, y = 0;
+		
+		for (int i = 0; i < n; ++i) {
+			x += random.nextFloat();
+			y += random.nextFloat() * 2 - 1;
+			result.addVerticle(x, y);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Checks that every verticle lies within <code>tolerance</code> of
+	 * the simplified polyline segment spanning it.
+	 */
+	static void assertWithin(Geometry original, IndexBuffer kept, float tolerance) {
+		final float[] xs = original.verticles.xArray();
+		final float[] ys = original.verticles.yArray();
+		
+		assertEquals(0, kept.get(0));
+		assertEquals(original.getVerticleCount() - 1, kept.get(kept.size() - 1));
+		
+		for (int k = 1; k < kept.size(); ++k) {
+			final int a = kept.get(k - 1);
+			final int b = kept.get(k);
+			
+			assertTrue(a < b);
+			
+			for (int i = a + 1; i < b; ++i) {
+				final float d = SegmentDistance.squaredDistance(xs[i], ys[i], xs[a], ys[a], xs[b], ys[b]);
+				assertTrue(d <= tolerance * tolerance);
+			}
+		}
+	}
+	
+	public void testDouglasPeucker() {
+		final Geometry line = polyline(new float[] {0, 0, 1, 0.1f, 2, -0.1f, 3, 5, 4, 6, 5, 7, 6, 8, 7, 9, 8, 9, 9, 9});
+		final IndexBuffer kept = new IndexBuffer();
+		
+		assertEquals(5, Simplifier.douglasPeucker(line.verticles.xArray(), line.verticles.yArray(), 0, 10, 0.5f, kept));
+		
+		final int[] expected = {0, 2, 3, 7, 9};
+		
+		for (int i = 0; i < expected.length; ++i) {
+			assertEquals(expected[i], kept.get(i));
+		}
+		
+		final Geometry copy = Simplifier.douglasPeucker(line, 0.5f);
+		
+		assertEquals(5, copy.getVerticleCount());
+		assertEquals(new Point2(3, 5), copy.getVerticles()[2]);
+		assertEquals(10, line.getVerticleCount());
+		
+		final Box2 before = line.getBounds();
+		
+		assertEquals(5, Simplifier.douglasPeuckerInPlace(line, 0.5f));
+		assertEquals(5, line.getVerticleCount());
+		assertEquals(new Point2(7, 9), line.getVerticles()[3]);
+		assertEquals(-0.1f, before.top, 0);
+		assertEquals(-0.1f, line.getBounds().top, 0);
+	}
+	
+	public void testDouglasPeuckerLongTrack() {
+		final Geometry track = track(200000, 5);
+		final IndexBuffer kept = new IndexBuffer();
+		
+		Simplifier.douglasPeucker(track.verticles.xArray(), track.verticles.yArray(), 0, 200000, 2f, kept);
+		
+		assertTrue(kept.size() < 200000 / 2);
+		assertWithin(track, kept, 2f);
+		
+		final Geometry copy = Simplifier.douglasPeucker(track, 2f);
+		assertEquals(kept.size(), copy.getVerticleCount());
+	}
+	
+	public void testVisvalingam() {
+		// triangle areas: 1, 1.5, 3, 1.5 and 0
+		final Geometry line = polyline(new float[] {0, 0, 1, 1, 2, 0, 3, 2, 5, 0, 6, 0.5f, 7, 1});
+		final IndexBuffer kept = new IndexBuffer();
+		
+		assertEquals(5, Simplifier.visvalingam(line.verticles.xArray(), line.verticles.yArray(), 0, 7, 1.5f, kept));
+		
+		// removing the collinear verticle grows the area of its neighbour to 3
+		// and removing the first one grows the area of its neighbour to 2
+		final int[] expected = {0, 2, 3, 4, 6};
+		
+		for (int i = 0; i < expected.length; ++i) {
+			assertEquals(expected[i], kept.get(i));
+		}
+		
+		final Geometry copy = Simplifier.visvalingam(line, 1.5f);
+		assertEquals(new Point2(2, 0), copy.getVerticles()[1]);
+		
+		assertEquals(5, Simplifier.visvalingamInPlace(line, 1.5f));
+		assertEquals(new Point2(3, 2), line.getVerticles()[2]);
+		
+		assertEquals(2, Simplifier.visvalingamInPlace(line, 100f));
+	}
+	
+	public void testVisvalingamLongTrack() {
+		final Geometry track = track(100000, 9);
+		final Geometry simplified = Simplifier.visvalingam(track, 1f);
+		
+		assertTrue(simplified.getVerticleCount() < 100000 / 2);
+		assertEquals(track.getVerticles()[0], simplified.getVerticles()[0]);
+		
+		// larger areas remove more verticles
+		assertTrue(Simplifier.visvalingam(track, 10f).getVerticleCount() < simplified.getVerticleCount());
+	}
+	
+	public void testArrays() {
+		final float[] xs = {9, 0, 1, 2, 3};
+		final float[] ys = {9, 0, 0, 0, 1};
+		
+		assertEquals(3, Simplifier.douglasPeucker(xs, ys, 1, 4, 0.1f));
+		assertEquals(3f, xs[3], 0);
+		assertEquals(9f, xs[0], 0);
+		
+		final IndexBuffer kept = new IndexBuffer();
+		assertEquals(2, Simplifier.visvalingam(new float[] {0, 1}, new float[] {0, 1}, 0, 2, 1f, kept));
+		assertEquals(0, Simplifier.douglasPeucker(new float[0], new float[0], 0, 0, 1f, kept));
+	}
+}
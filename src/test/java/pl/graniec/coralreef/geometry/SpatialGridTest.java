@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class SpatialGridTest extends TestCase {
+
+	public void testQuery() {
+		final SpatialGrid grid = new SpatialGrid(10);
+		
+		final int p1 = grid.insert(new Point2(5, 5));
+		final int p2 = grid.insert(new Point2(55, 5));
+		final int s1 = grid.insert(new Segment(-20, 0, 40, 0));
+		final int b1 = grid.insert(new Box2(30, 30, 60, 60));
+		
+		final IndexBuffer result = new IndexBuffer();
+		
+		assertEquals(2, grid.query(new Box2(0, 0, 10, 10), result));
+		assertContains(result, new int[] {p1, s1});
+		
+		result.clear();
+		assertEquals(3, grid.query(new Box2(35, -5, 100, 35), result));
+		assertContains(result, new int[] {p2, s1, b1});
+		
+		assertEquals(4, grid.size());
+	}
+	
+	public void testQueryNear() {
+		final SpatialGrid grid = new SpatialGrid(4);
+		
+		final int p1 = grid.insert(new Point2(3, 0));
+		final int s1 = grid.insert(new Segment(-10, 2, 10, 2));
+		grid.insert(new Point2(3, 3));
+		grid.insert(new Box2(4, 4, 8, 8));
+		
+		final IndexBuffer result = new IndexBuffer();
+		
+		assertEquals(2, grid.queryNear(0, 0, 3, result));
+		assertContains(result, new int[] {p1, s1});
+	}
+	
+	public void testHugeQueries() {
+		final SpatialGrid grid = new SpatialGrid(1);
+		
+		final int p1 = grid.insert(new Point2(3, 0));
+		final int p2 = grid.insert(new Point2(-2e9f, 2e9f));
+		final int s1 = grid.insert(new Segment(-10, 2, 10, 2));
+		
+		final IndexBuffer result = new IndexBuffer();
+		
+		assertEquals(3, grid.query(-3e9f, -3e9f, 3e9f, 3e9f, result));
+		assertContains(result, new int[] {p1, p2, s1});
+		
+		result.clear();
+		assertEquals(3, grid.query(
+				Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY,
+				Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+				result
+		));
+		
+		result.clear();
+		assertEquals(3, grid.queryNear(0, 0, Float.POSITIVE_INFINITY, result));
+		
+		result.clear();
+		assertEquals(1, grid.query(-1f, -1f, Float.POSITIVE_INFINITY, 1f, result));
+		assertEquals(p1, result.get(0));
+	}
+	
+	public void testHugeObjects() {
+		final SpatialGrid grid = new SpatialGrid(1);
+		
+		final Box2 box = new Box2(-3e9f, -3e9f, Float.POSITIVE_INFINITY, 3e9f);
+		final int b1 = grid.insert(box);
+		final int p1 = grid.insert(new Point2(5, 5));
+		
+		final IndexBuffer result = new IndexBuffer();
+		
+		assertEquals(2, grid.query(new Box2(4, 4, 6, 6), result));
+		assertContains(result, new int[] {b1, p1});
+		
+		result.clear();
+		assertEquals(1, grid.query(new Box2(-2e9f, 100, -2e9f + 1, 101), result));
+		assertContains(result, new int[] {b1});
+		
+		// shrinking moves the box back to regular cells
+		box.set(0, 0, 2, 2);
+		grid.update(b1);
+		
+		result.clear();
+		assertEquals(0, grid.query(new Box2(-2e9f, 100, -2e9f + 1, 101), result));
+		
+		result.clear();
+		assertEquals(1, grid.query(new Box2(1, 1, 1.5f, 1.5f), result));
+		assertContains(result, new int[] {b1});
+		
+		box.set(-1e9f, -1e9f, 1e9f, 1e9f);
+		grid.update(b1);
+		grid.remove(b1);
+		
+		result.clear();
+		assertEquals(0, grid.query(new Box2(-10, -10, -5, -5), result));
+	}
+	
+	public void testQueryIntersecting() {
+		final SpatialGrid grid = new SpatialGrid(10);
+		
+		final int s1 = grid.insert(new Segment(0, -5, 0, 5));
+		grid.insert(new Segment(10, -5, 10, 5));
+		grid.insert(new Point2(0, 0));
+		
+		final IndexBuffer result = new IndexBuffer();
+		
+		assertEquals(1, grid.queryIntersecting(new Segment(-5, 0, 5, 0), result));
+		assertContains(result, new int[] {s1});
+	}
+	
+	public void testUpdateAndRemove() {
+		final SpatialGrid grid = new SpatialGrid(10);
+		
+		final Point2 point = new Point2(5, 5);
+		final int handle = grid.insert(point);
+		
+		final IndexBuffer result = new IndexBuffer();
+		
+		point.set(105, 105);
+		grid.update(handle);
+		
+		assertEquals(0, grid.query(new Box2(0, 0, 10, 10), result));
+		assertEquals(1, grid.query(new Box2(100, 100, 110, 110), result));
+		
+		grid.remove(handle);
+		result.clear();
+		
+		assertEquals(0, grid.query(new Box2(100, 100, 110, 110), result));
+		assertEquals(0, grid.size());
+		
+		try {
+			grid.get(handle);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+	
+	public void testRandom() {
+		final Random random = new Random(3);
+		final SpatialGrid grid = new SpatialGrid(5);
+		
+		final Segment[] segments = new Segment[300];
+		final int[] handles = new int[segments.length];
+		
+		for (int i = 0; i < segments.length; ++i) {
+			final float x = random.nextFloat() * 100, y = random.nextFloat() * 100;
+			segments[i] = new Segment(x, y, x + random.nextFloat() * 20 - 10, y + random.nextFloat() * 20 - 10);
+			handles[i] = grid.insert(segments[i]);
+		}
+		
+		// move half of segments around
+		for (int i = 0; i < segments.length; i += 2) {
+			segments[i].x1 += 30;
+			segments[i].x2 += 30;
+			grid.update(handles[i]);
+		}
+		
+		final Box2 area = new Box2(20, 20, 70, 50);
+		final IndexBuffer result = new IndexBuffer();
+		grid.query(area, result);
+		
+		int expected = 0;
+		
+		for (int i = 0; i < segments.length; ++i) {
+			final Segment s = segments[i];
+			
+			if (area.intersects(new Box2(s.x1, s.y1, s.x2, s.y2))) {
+				++expected;
+			}
+		}
+		
+		assertEquals(expected, result.size());
+	}
+	
+	private static void assertContains(IndexBuffer result, int[] expected) {
+		final int[] actual = result.toArray();
+		
+		Arrays.sort(actual);
+		Arrays.sort(expected);
+		
+		assertTrue(Arrays.equals(expected, actual));
+	}
+
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class StreamingSimplifierTest extends TestCase {
+
+	private static Geometry track(int n) {
+		final Random random = new Random(13);
+		final Geometry result = new Geometry();
+		float x = 0, y = 0;
+		
+		for (int i = 0; i < n; ++i) {
+			x += random.nextFloat();
+			y += random.nextFloat() * 2 - 1;
+			result.addVerticle(x, y);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @return Indices of output verticles in <code>original</code>.
+	 */
+	private static IndexBuffer indices(Geometry original, PointBuffer output) {
+		final IndexBuffer result = new IndexBuffer();
+		final float[] xs = original.verticles.xArray();
+		final float[] ys = original.verticles.yArray();
+		int i = 0;
+		
+		for (int k = 0; k < output.size(); ++k) {
+			while (xs[i] != output.getX(k) || ys[i] != output.getY(k)) {
+				++i;
+			}
+			
+			result.add(i);
+		}
+		
+		return result;
+	}
+	
+	public void testSmallWindow() {
+		final Geometry track = track(50000);
+		final PointBuffer output = new PointBuffer();
+		final StreamingSimplifier simplifier = new StreamingSimplifier(1.5f, 64, output);
+		final float[] xs = track.verticles.xArray();
+		final float[] ys = track.verticles.yArray();
+		
+		for (int i = 0; i < 50000; ++i) {
+			simplifier.add(xs[i], ys[i]);
+			assertTrue(simplifier.getPendingCount() <= 64);
+		}
+		
+		simplifier.finish();
+		
+		assertEquals(0, simplifier.getPendingCount());
+		assertTrue(output.size() < 50000 / 2);
+		SimplifierTest.assertWithin(track, indices(track, output), 1.5f);
+	}
+	
+	public void testLargeWindowMatchesSimplifier() {
+		final Geometry track = track(1000);
+		final PointBuffer output = new PointBuffer();
+		final StreamingSimplifier simplifier = new StreamingSimplifier(1f, output);
+		final Point2[] verticles = track.getVerticles();
+		
+		for (int i = 0; i < verticles.length; ++i) {
+			simplifier.add(verticles[i]);
+		}
+		
+		simplifier.finish();
+		
+		final Point2[] expected = Simplifier.douglasPeucker(track, 1f).getVerticles();
+		
+		assertEquals(expected.length, output.size());
+		
+		for (int i = 0; i < expected.length; ++i) {
+			assertEquals(expected[i], output.get(i, new Point2(0, 0)));
+		}
+	}
+	
+	public void testPolylines() {
+		final PointBuffer output = new PointBuffer();
+		final StreamingSimplifier simplifier = new StreamingSimplifier(1f, 3, output);
+		
+		simplifier.add(0, 0);
+		simplifier.finish();
+		assertEquals(1, output.size());
+		
+		simplifier.add(5, 5);
+		simplifier.add(6, 5);
+		simplifier.add(7, 5);
+		simplifier.add(8, 5);
+		simplifier.add(9, 5);
+		simplifier.finish();
+		
+		assertEquals(4, output.size());
+		assertEquals(9f, output.getX(3), 0);
+		
+		try {
+			new StreamingSimplifier(1f, 2, output);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Transform2Test extends TestCase {
+	
+	private static void assertMatrix(float m00, float m01, float m02, float m10, float m11, float m12, Transform2 t) {
+		assertEquals(m00, t.m00, 0f);
+		assertEquals(m01, t.m01, 0f);
+		assertEquals(m02, t.m02, 0f);
+		assertEquals(m10, t.m10, 0f);
+		assertEquals(m11, t.m11, 0f);
+		assertEquals(m12, t.m12, 0f);
+	}
+
+	public void testOrder() {
+		// scale first, then rotate and translate at the end
+		final Transform2 t = new Transform2().scale(2, 2).rotate(90).translate(5, 0);
+		
+		assertEquals(new Point2(5, 2), t.apply(new Point2(1, 0)));
+		assertEquals(new Point2(3, 0), t.apply(new Point2(0, 1)));
+	}
+	
+	public void testRotate() {
+		assertMatrix(0, -1, 0, 1, 0, 0, new Transform2().rotate(90));
+		assertMatrix(-1, 0, 0, 0, -1, 0, new Transform2().rotate(-180));
+		assertMatrix(0, 1, 0, -1, 0, 0, new Transform2().rotate(630));
+		
+		final Point2 p = new Transform2().rotate(45).apply(new Point2(1, 0));
+		assertEquals(Math.sqrt(0.5), p.x, 0.00001);
+		assertEquals(Math.sqrt(0.5), p.y, 0.00001);
+		
+		assertEquals(new Point2(2, 0), new Transform2().rotate(180, 1, 0).apply(new Point2(0, 0)));
+	}
+	
+	public void testShear() {
+		assertEquals(new Point2(7, 3), new Transform2().shear(2, 0).apply(new Point2(1, 3)));
+		assertEquals(new Point2(1, 6), new Transform2().shear(0, 3).apply(new Point2(1, 3)));
+	}
+	
+	public void testCompose() {
+		final Transform2 a = new Transform2().rotate(30).scale(1, 3);
+		final Transform2 b = new Transform2().translate(4, -2).shear(0.5f, 0);
+		
+		final Point2 expected = b.apply(a.apply(new Point2(1.5f, -2.5f)));
+		final Point2 actual = new Transform2(a).compose(b).apply(new Point2(1.5f, -2.5f));
+		
+		assertEquals(expected.x, actual.x, 0.0001f);
+		assertEquals(expected.y, actual.y, 0.0001f);
+	}
+	
+	public void testInvert() {
+		final Transform2 t = new Transform2().rotate(33).scale(2, 0.5f).translate(3, -7);
+		final Transform2 inverse = new Transform2(t);
+		
+		assertTrue(inverse.invert());
+		
+		final Point2 p = inverse.apply(t.apply(new Point2(10, 20)));
+		assertEquals(10, p.x, 0.0001f);
+		assertEquals(20, p.y, 0.0001f);
+		
+		final Transform2 singular = new Transform2().scale(0, 1);
+		assertFalse(singular.invert());
+		assertEquals(new Transform2().scale(0, 1), singular);
+	}
+	
+	public void testApplyLinear() {
+		final Vector2 v = new Transform2().rotate(90).translate(100, 100).applyLinear(new Vector2(1, 0));
+		
+		assertEquals(0, v.x, 0f);
+		assertEquals(1, v.y, 0f);
+	}
+	
+	public void testApplyBatch() {
+		final Transform2 t = new Transform2().rotate(-90).translate(1, 1);
+		
+		final float[] xy = {9, 9, 1, 2, 3, 4};
+		t.apply(xy, 2, 2);
+		
+		assertEquals(9, xy[0], 0f);
+		assertEquals(3, xy[2], 0f);
+		assertEquals(0, xy[3], 0f);
+		assertEquals(5, xy[4], 0f);
+		assertEquals(-2, xy[5], 0f);
+		
+		final Segment[] segments = {new Segment(1, 2, 3, 4)};
+		t.apply(segments, 0, 1);
+		
+		assertEquals(3, segments[0].x1, 0f);
+		assertEquals(0, segments[0].y1, 0f);
+		assertEquals(5, segments[0].x2, 0f);
+		assertEquals(-2, segments[0].y2, 0f);
+	}
+	
+	public void testApplyGeometry() {
+		final Geometry geometry = new Geometry();
+		geometry.addVerticles(new float[] {1, 2, 3, 4}, 0, 2);
+		geometry.getBounds();
+		
+		new Transform2().translate(1, 1).apply(geometry);
+		
+		final Box2 box = geometry.getBounds();
+		assertEquals(2, box.left, 0f);
+		assertEquals(5, box.bottom, 0f);
+		
+		new Transform2().rotate(-90).apply(geometry);
+		
+		assertEquals(new Point2(3, -2), geometry.getVerticles()[0]);
+		assertEquals(-4, geometry.getBounds().top, 0f);
+	}
+
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class TriangulatorTest extends TestCase {
+
+	private static Geometry polygon(float[] xy) {
+		final Geometry result = new Geometry();
+		result.addVerticles(xy, 0, xy.length / 2);
+		return result;
+	}
+	
+	/**
+	 * Sums areas of triangles and checks that every one of them
+	 * is counter clockwise.
+	 */
+	private static double area(float[] xs, float[] ys, int[] indices, int count) {
+		double sum = 0;
+		
+		for (int t = 0; t < count; t += 3) {
+			final double a = Predicates.orient2d(
+					xs[indices[t]], ys[indices[t]],
+					xs[indices[t + 1]], ys[indices[t + 1]],
+					xs[indices[t + 2]], ys[indices[t + 2]]
+			) / 2;
+			
+			assertTrue(a > 0);
+			sum += a;
+		}
+		
+		return sum;
+	}
+	
+	public void testSquare() {
+		final Triangle[] triangles = Triangulator.triangulate(polygon(new float[] {0, 0, 2, 0, 2, 2, 0, 2}));
+		
+		assertEquals(2, triangles.length);
+		
+		for (int i = 0; i < triangles.length; ++i) {
+			final Triangle t = triangles[i];
+			assertEquals(4.0, Predicates.orient2d(t.a.x, t.a.y, t.b.x, t.b.y, t.c.x, t.c.y), 0);
+		}
+	}
+	
+	public void testClockwiseInput() {
+		final float[] xs = {0, 0, 4, 4, 2};
+		final float[] ys = {0, 4, 4, 0, 2};
+		final IndexBuffer indices = new IndexBuffer();
+		
+		assertEquals(3, Triangulator.triangulate(xs, ys, 0, 5, null, indices));
+		assertEquals(12.0, area(xs, ys, indices.array(), indices.size()), 0);
+	}
+	
+	public void testHoles() {
+		final Geometry outer = polygon(new float[] {0, 0, 10, 0, 10, 10, 0, 10});
+		final Geometry[] holes = {
+				polygon(new float[] {2, 2, 4, 2, 4, 4, 2, 4}),
+				polygon(new float[] {6, 6, 6, 8, 8, 8, 8, 6})
+		};
+		
+		final IndexBuffer indices = new IndexBuffer();
+		indices.add(-1);
+		
+		assertEquals(14, Triangulator.triangulate(outer, holes, indices));
+		assertEquals(43, indices.size());
+		assertEquals(-1, indices.get(0));
+		
+		final float[] xs = {0, 10, 10, 0, 2, 4, 4, 2, 6, 6, 8, 8};
+		final float[] ys = {0, 0, 10, 10, 2, 2, 4, 4, 6, 8, 8, 6};
+		final int[] array = new int[42];
+		
+		System.arraycopy(indices.array(), 1, array, 0, 42);
+		assertEquals(92.0, area(xs, ys, array, 42), 0);
+		
+		assertEquals(14, Triangulator.triangulate(outer, holes).length);
+	}
+	
+	public void testOffset() {
+		final float[] xs = {9, 9, 0, 3, 3, 0, 1, 2, 1};
+		final float[] ys = {9, 9, 0, 0, 3, 3, 1, 1, 2};
+		final IndexBuffer indices = new IndexBuffer();
+		
+		assertEquals(7, Triangulator.triangulate(xs, ys, 2, 7, new int[] {6}, indices));
+		assertEquals(8.5, area(xs, ys, indices.array(), indices.size()), 0);
+		
+		for (int i = 0; i < indices.size(); ++i) {
+			assertTrue(indices.get(i) >= 2);
+		}
+	}
+	
+	public void testLargeStar() {
+		final int n = 500;
+		final float[] xs = new float[n];
+		final float[] ys = new float[n];
+		
+		for (int i = 0; i < n; ++i) {
+			final double angle = 2 * Math.PI * i / n;
+			final double radius = i % 2 == 0 ? 100 : 60;
+			
+			xs[i] = (float) (radius * Math.cos(angle));
+			ys[i] = (float) (radius * Math.sin(angle));
+		}
+		
+		final IndexBuffer indices = new IndexBuffer();
+		assertEquals(n - 2, Triangulator.triangulate(xs, ys, 0, n, null, indices));
+		
+		double expected = 0;
+		
+		for (int i = 0, j = n - 1; i < n; j = i++) {
+			expected += ((double) xs[j] * ys[i] - (double) xs[i] * ys[j]) / 2;
+		}
+		
+		assertEquals(expected, area(xs, ys, indices.array(), indices.size()), 1e-6);
+	}
+	
+	public void testDegenerate() {
+		final IndexBuffer indices = new IndexBuffer();
+		
+		assertEquals(0, Triangulator.triangulate(new float[0], new float[0], 0, 0, null, indices));
+		assertEquals(0, Triangulator.triangulate(new float[] {0, 1}, new float[] {0, 1}, 0, 2, null, indices));
+		assertEquals(0, Triangulator.triangulate(new float[] {0, 1, 2}, new float[] {0, 1, 2}, 0, 3, null, indices));
+		assertEquals(0, indices.size());
+		
+		try {
+			Triangulator.triangulate(new float[4], new float[4], 0, 4, new int[] {0}, indices);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
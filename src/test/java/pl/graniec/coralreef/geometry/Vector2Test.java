@@ -57,6 +57,35 @@ public class Vector2Test extends TestCase {
 		assertEquals(-45f, Vector2.angle(1, -1), 0.0001f);
 	}
 	
+	public void testAngleZeroVector() {
+		assertTrue(Float.isNaN(Vector2.angle(0, 0)));
+		assertEquals(180f, Vector2.angle(-1, -0f), 0.0001f);
+	}
+	
+	/**
+	 * Test method for {@link pl.graniec.coralreef.geometry.Vector2#angleApprox(float, float)}.
+	 */
+	public void testAngleApprox() {
+		assertEquals(0f, Vector2.angleApprox(1, 0), 0.0005f);
+		assertEquals(90f, Vector2.angleApprox(0, 1), 0.0005f);
+		assertEquals(180f, Vector2.angleApprox(-1, 0), 0.0005f);
+		assertEquals(-90f, Vector2.angleApprox(0, -1), 0.0005f);
+		
+		for (int i = -1800; i <= 1800; ++i) {
+			final float degrees = i / 10f;
+			final float x = (float) Math.cos(Math.toRadians(degrees)) * 3f;
+			final float y = (float) Math.sin(Math.toRadians(degrees)) * 3f;
+			
+			float error = Math.abs(Vector2.angleApprox(x, y) - Vector2.angle(x, y));
+			
+			if (error > 180f) {
+				error = 360f - error;
+			}
+			
+			assertTrue("error at " + degrees + ": " + error, error < 0.0005f);
+		}
+	}
+	
 	public void testCreateFromAngle() {
 		Vector2 v;
 		
@@ -91,5 +120,15 @@ public class Vector2Test extends TestCase {
 		
 		assertEquals(v1.angle(), v2.angle(), 0.001f);
 	}
+	
+	public void testHashCodeFollowsChanges() {
+		final Vector2 v = new Vector2(1, 2);
+		final int hash = v.hashCode();
+		
+		v.y = 3;
+		
+		assertFalse(hash == v.hashCode());
+		assertEquals(new Vector2(1, 3).hashCode(), v.hashCode());
+	}
 
 }
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2009, Coral Reef Project
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *  * Neither the name of the Coral Reef Project nor the names of its
+ *    contributors may be used to endorse or promote products derived from this
+ *    software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package pl.graniec.coralreef.geometry;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Piotr Korzuszek <piotr.korzuszek@gmail.com>
+ *
+ */
+public class Vector2dTest extends TestCase {
+
+	public void testAngle() {
+		assertEquals(0, Vector2d.angle(1, 0), 1e-9);
+		assertEquals(45, Vector2d.angle(1, 1), 1e-9);
+		assertEquals(90, Vector2d.angle(0, 1), 1e-9);
+		assertEquals(135, Vector2d.angle(-1, 1), 1e-9);
+		assertEquals(180, Vector2d.angle(-1, 0), 1e-9);
+		assertEquals(-135, Vector2d.angle(-1, -1), 1e-9);
+		assertEquals(-90, Vector2d.angle(0, -1), 1e-9);
+		assertEquals(-45, Vector2d.angle(1, -1), 1e-9);
+	}
+	
+	public void testAngleZeroVector() {
+		assertTrue(Double.isNaN(Vector2d.angle(0, 0)));
+		assertEquals(180, Vector2d.angle(-1, -0.0), 1e-9);
+	}
+	
+	public void testCreateFromAngle() {
+		Vector2d v;
+		
+		v = new Vector2d(90.0);
+		
+		assertEquals(0, v.x, 1e-12);
+		assertEquals(1, v.y, 1e-12);
+		
+		v = new Vector2d(180.0);
+		
+		assertEquals(-1, v.x, 1e-12);
+		assertEquals(0, v.y, 1e-12);
+	}
+	
+	public void testNormalize() {
+		final Vector2d v1 = new Vector2d(5, 10);
+		final Vector2d v2 = new Vector2d(v1).normalize();
+		
+		assertEquals(1, v2.length(), 1e-12);
+		assertEquals(v1.angle(), v2.angle(), 1e-9);
+	}
+	
+	public void testPrecision() {
+		// world-scale coordinates keep small offsets that floats lose
+		final Vector2d v = new Vector2d(6378137.0, 0).add(new Vector2d(0.01, 0));
+		
+		assertEquals(6378137.01, v.x, 1e-9);
+		assertEquals(6378137f, v.toVector2().x, 0f);
+	}
+
+}